@@ -0,0 +1,59 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p/>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ **/
+package ddf.catalog.content.data.impl;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+import com.google.common.io.Files;
+
+import ddf.catalog.content.data.ContentItem;
+import ddf.catalog.data.Metacard;
+
+/**
+ * A {@link ContentItem} whose data is a file on the local file system, which is returned by
+ * {@link #getPath()}.
+ */
+public class FileContentItem extends ContentItemImpl {
+
+    private final Path path;
+
+    /**
+     * A content item backed by a file, where the item's GUID and size should be known.
+     *
+     * @param id              the {@link ContentItem}'s GUID - can be null
+     * @param qualifier       the {@link ContentItem}'s qualifier - can be null
+     * @param path            the file containing the {@link ContentItem}'s actual data
+     * @param mimeTypeRawData the {@link ContentItem}'s mime type
+     * @param filename        the {@link ContentItem}'s file name - can be null
+     * @param size            the {@link ContentItem}'s file size
+     * @param metacard        the {@link ContentItem}'s associated metacard
+     */
+    public FileContentItem(String id, String qualifier, Path path, String mimeTypeRawData,
+            String filename, long size, Metacard metacard) {
+        super(id,
+                qualifier,
+                Files.asByteSource(path.toFile()),
+                mimeTypeRawData,
+                filename,
+                size,
+                metacard);
+        this.path = path;
+    }
+
+    @Override
+    public Optional<Path> getPath() {
+        return Optional.of(path);
+    }
+}
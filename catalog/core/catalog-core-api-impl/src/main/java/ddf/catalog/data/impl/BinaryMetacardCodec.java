@@ -0,0 +1,681 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.data.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.AttributeDescriptor;
+import ddf.catalog.data.AttributeType;
+import ddf.catalog.data.AttributeType.AttributeFormat;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.MetacardType;
+
+/**
+ * Versioned binary {@link MetacardCodec}.
+ * <p>
+ * Every encoding starts with a marker byte, a format version and the kind of object that follows.
+ * Lengths and integers are written as varints and values are prefixed with a one byte tag, so no
+ * class descriptors or reflection are involved for the common attribute types. A
+ * {@link MetacardType} is written once per encoding and referenced by index afterwards, and the
+ * attributes of a {@link Metacard} reference their descriptor by its position in that type rather
+ * than by name. Decoded attribute names are interned.
+ * <p>
+ * Values and {@link AttributeType}s that are not one of the basic types fall back to Java
+ * serialization, and bytes produced by Java serialization are decoded with an
+ * {@link ObjectInputStream}.
+ * <p>
+ * Only the attributes described by a metacard's {@link MetacardType} are encoded, which matches
+ * the serialized form of a {@link MetacardImpl} that wraps another metacard.
+ * <p>
+ * This class is thread-safe.
+ */
+public class BinaryMetacardCodec implements MetacardCodec {
+
+    public static final int VERSION = 1;
+
+    static final byte MARKER = (byte) 0xDC;
+
+    private static final byte JAVA_STREAM_MAGIC_1 = (byte) 0xAC;
+
+    private static final byte JAVA_STREAM_MAGIC_2 = (byte) 0xED;
+
+    private static final byte KIND_METACARD = 1;
+
+    private static final byte KIND_METACARDS = 2;
+
+    private static final byte KIND_METACARD_TYPE = 3;
+
+    private static final byte KIND_ATTRIBUTE = 4;
+
+    private static final byte KIND_VALUE = 5;
+
+    private static final byte TAG_NULL = 0;
+
+    private static final byte TAG_STRING = 1;
+
+    private static final byte TAG_TRUE = 2;
+
+    private static final byte TAG_FALSE = 3;
+
+    private static final byte TAG_SHORT = 4;
+
+    private static final byte TAG_INTEGER = 5;
+
+    private static final byte TAG_LONG = 6;
+
+    private static final byte TAG_FLOAT = 7;
+
+    private static final byte TAG_DOUBLE = 8;
+
+    private static final byte TAG_DATE = 9;
+
+    private static final byte TAG_BYTES = 10;
+
+    private static final byte TAG_SERIALIZED = 11;
+
+    private static final byte BASIC_BINDING = 0;
+
+    private static final byte SERIALIZED_BINDING = 1;
+
+    private static final int INDEXED = 1;
+
+    private static final int STORED = 1 << 1;
+
+    private static final int TOKENIZED = 1 << 2;
+
+    private static final int MULTIVALUED = 1 << 3;
+
+    private static final AttributeFormat[] FORMATS = AttributeFormat.values();
+
+    private static final Map<AttributeFormat, AttributeType<?>> BASIC_TYPES =
+            new EnumMap<>(AttributeFormat.class);
+
+    static {
+        BASIC_TYPES.put(AttributeFormat.STRING, BasicTypes.STRING_TYPE);
+        BASIC_TYPES.put(AttributeFormat.BOOLEAN, BasicTypes.BOOLEAN_TYPE);
+        BASIC_TYPES.put(AttributeFormat.DATE, BasicTypes.DATE_TYPE);
+        BASIC_TYPES.put(AttributeFormat.SHORT, BasicTypes.SHORT_TYPE);
+        BASIC_TYPES.put(AttributeFormat.INTEGER, BasicTypes.INTEGER_TYPE);
+        BASIC_TYPES.put(AttributeFormat.LONG, BasicTypes.LONG_TYPE);
+        BASIC_TYPES.put(AttributeFormat.FLOAT, BasicTypes.FLOAT_TYPE);
+        BASIC_TYPES.put(AttributeFormat.DOUBLE, BasicTypes.DOUBLE_TYPE);
+        BASIC_TYPES.put(AttributeFormat.GEOMETRY, BasicTypes.GEO_TYPE);
+        BASIC_TYPES.put(AttributeFormat.BINARY, BasicTypes.BINARY_TYPE);
+        BASIC_TYPES.put(AttributeFormat.XML, BasicTypes.XML_TYPE);
+        BASIC_TYPES.put(AttributeFormat.OBJECT, BasicTypes.OBJECT_TYPE);
+    }
+
+    @Override
+    public byte[] encodeMetacard(Metacard metacard) throws IOException {
+        Output out = new Output(KIND_METACARD);
+        writeMetacard(out, metacard);
+        return out.toByteArray();
+    }
+
+    @Override
+    public Metacard decodeMetacard(byte[] bytes) throws IOException {
+        if (isJavaSerialized(bytes)) {
+            return javaDeserialize(bytes, Metacard.class);
+        }
+        Input in = new Input(bytes, KIND_METACARD);
+        return readMetacard(in);
+    }
+
+    @Override
+    public byte[] encodeMetacards(List<Metacard> metacards) throws IOException {
+        Output out = new Output(KIND_METACARDS);
+        out.writeVarInt(metacards.size());
+        for (Metacard metacard : metacards) {
+            writeMetacard(out, metacard);
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public List<Metacard> decodeMetacards(byte[] bytes) throws IOException {
+        Input in = new Input(bytes, KIND_METACARDS);
+        int size = in.readVarInt();
+        List<Metacard> metacards = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            metacards.add(readMetacard(in));
+        }
+        return metacards;
+    }
+
+    @Override
+    public byte[] encodeMetacardType(MetacardType metacardType) throws IOException {
+        Output out = new Output(KIND_METACARD_TYPE);
+        writeMetacardTypeReference(out, metacardType);
+        return out.toByteArray();
+    }
+
+    @Override
+    public MetacardType decodeMetacardType(byte[] bytes) throws IOException {
+        if (isJavaSerialized(bytes)) {
+            return javaDeserialize(bytes, MetacardType.class);
+        }
+        Input in = new Input(bytes, KIND_METACARD_TYPE);
+        return readMetacardTypeReference(in).metacardType;
+    }
+
+    @Override
+    public byte[] encodeAttribute(Attribute attribute) throws IOException {
+        Output out = new Output(KIND_ATTRIBUTE);
+        out.writeString(attribute.getName());
+        writeValues(out, attribute.getValues());
+        return out.toByteArray();
+    }
+
+    @Override
+    public Attribute decodeAttribute(byte[] bytes) throws IOException {
+        if (isJavaSerialized(bytes)) {
+            return javaDeserialize(bytes, Attribute.class);
+        }
+        Input in = new Input(bytes, KIND_ATTRIBUTE);
+        String name = in.readName();
+        return new AttributeImpl(name, readValues(in));
+    }
+
+    @Override
+    public byte[] encodeValue(Serializable value) throws IOException {
+        Output out = new Output(KIND_VALUE);
+        writeValue(out, value);
+        return out.toByteArray();
+    }
+
+    @Override
+    public Serializable decodeValue(byte[] bytes) throws IOException {
+        if (isJavaSerialized(bytes)) {
+            return javaDeserialize(bytes, Serializable.class);
+        }
+        Input in = new Input(bytes, KIND_VALUE);
+        return readValue(in);
+    }
+
+    private void writeMetacard(Output out, Metacard metacard) throws IOException {
+        TypeEntry entry = writeMetacardTypeReference(out, metacard.getMetacardType());
+
+        List<Attribute> attributes = new ArrayList<>(entry.names.length);
+        List<Integer> positions = new ArrayList<>(entry.names.length);
+        for (int i = 0; i < entry.names.length; i++) {
+            Attribute attribute = metacard.getAttribute(entry.names[i]);
+            if (attribute != null) {
+                attributes.add(attribute);
+                positions.add(i);
+            }
+        }
+
+        out.writeNullableString(metacard.getSourceId());
+        out.writeVarInt(attributes.size());
+        for (int i = 0; i < attributes.size(); i++) {
+            out.writeVarInt(positions.get(i));
+            writeValues(out, attributes.get(i)
+                    .getValues());
+        }
+    }
+
+    private Metacard readMetacard(Input in) throws IOException {
+        TypeEntry entry = readMetacardTypeReference(in);
+        MetacardImpl metacard = new MetacardImpl(entry.metacardType);
+
+        String sourceId = in.readNullableString();
+        if (sourceId != null) {
+            metacard.setSourceId(sourceId);
+        }
+
+        int size = in.readVarInt();
+        for (int i = 0; i < size; i++) {
+            int position = in.readVarInt();
+            if (position >= entry.names.length) {
+                throw new IOException("Invalid attribute position " + position);
+            }
+            metacard.setAttribute(new AttributeImpl(entry.names[position], readValues(in)));
+        }
+        return metacard;
+    }
+
+    private TypeEntry writeMetacardTypeReference(Output out, MetacardType metacardType)
+            throws IOException {
+        TypeEntry entry = out.types.get(metacardType);
+        if (entry != null) {
+            out.writeVarInt(entry.id);
+            return entry;
+        }
+
+        Set<AttributeDescriptor> descriptors = metacardType.getAttributeDescriptors();
+        List<AttributeDescriptor> orderedDescriptors = descriptors == null ?
+                Collections.emptyList() :
+                new ArrayList<>(descriptors);
+        String[] names = new String[orderedDescriptors.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = orderedDescriptors.get(i)
+                    .getName();
+        }
+        entry = new TypeEntry(out.types.size(), metacardType, names);
+        out.types.put(metacardType, entry);
+
+        // a reference to the next unused id means the type itself follows
+        out.writeVarInt(entry.id);
+        out.writeNullableString(metacardType.getName());
+        out.writeVarInt(orderedDescriptors.size());
+        for (AttributeDescriptor descriptor : orderedDescriptors) {
+            writeAttributeDescriptor(out, descriptor);
+        }
+        return entry;
+    }
+
+    private TypeEntry readMetacardTypeReference(Input in) throws IOException {
+        int id = in.readVarInt();
+        if (id < in.types.size()) {
+            return in.types.get(id);
+        } else if (id > in.types.size()) {
+            throw new IOException("Invalid metacard type reference " + id);
+        }
+
+        String name = in.readNullableString();
+        int size = in.readVarInt();
+        Set<AttributeDescriptor> descriptors = new LinkedHashSet<>();
+        String[] names = new String[size];
+        for (int i = 0; i < size; i++) {
+            AttributeDescriptor descriptor = readAttributeDescriptor(in);
+            descriptors.add(descriptor);
+            names[i] = descriptor.getName();
+        }
+
+        TypeEntry entry = new TypeEntry(id, new MetacardTypeImpl(name, descriptors), names);
+        in.types.add(entry);
+        return entry;
+    }
+
+    private void writeAttributeDescriptor(Output out, AttributeDescriptor descriptor)
+            throws IOException {
+        int flags = 0;
+        flags |= descriptor.isIndexed() ? INDEXED : 0;
+        flags |= descriptor.isStored() ? STORED : 0;
+        flags |= descriptor.isTokenized() ? TOKENIZED : 0;
+        flags |= descriptor.isMultiValued() ? MULTIVALUED : 0;
+
+        out.writeString(descriptor.getName());
+        out.writeByte(flags);
+
+        AttributeType<?> type = descriptor.getType();
+        AttributeFormat format = type.getAttributeFormat();
+        out.writeByte(format.ordinal());
+
+        AttributeType<?> basicType = BASIC_TYPES.get(format);
+        if (basicType != null && basicType.getBinding()
+                .equals(type.getBinding())) {
+            out.writeByte(BASIC_BINDING);
+        } else {
+            out.writeByte(SERIALIZED_BINDING);
+            out.writeBytes(javaSerialize(type));
+        }
+    }
+
+    private AttributeDescriptor readAttributeDescriptor(Input in) throws IOException {
+        String name = in.readName();
+        int flags = in.readByte();
+        int formatOrdinal = in.readByte();
+        if (formatOrdinal < 0 || formatOrdinal >= FORMATS.length) {
+            throw new IOException("Invalid attribute format " + formatOrdinal);
+        }
+
+        AttributeType<?> type;
+        if (in.readByte() == BASIC_BINDING) {
+            type = BASIC_TYPES.get(FORMATS[formatOrdinal]);
+        } else {
+            type = javaDeserialize(in.readBytes(), AttributeType.class);
+        }
+
+        return new AttributeDescriptorImpl(name,
+                (flags & INDEXED) != 0,
+                (flags & STORED) != 0,
+                (flags & TOKENIZED) != 0,
+                (flags & MULTIVALUED) != 0,
+                type);
+    }
+
+    private void writeValues(Output out, List<Serializable> values) throws IOException {
+        if (values == null) {
+            out.writeVarInt(0);
+            return;
+        }
+        out.writeVarInt(values.size());
+        for (Serializable value : values) {
+            writeValue(out, value);
+        }
+    }
+
+    private List<Serializable> readValues(Input in) throws IOException {
+        int size = in.readVarInt();
+        List<Serializable> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(readValue(in));
+        }
+        return values;
+    }
+
+    private void writeValue(Output out, Serializable value) throws IOException {
+        if (value == null) {
+            out.writeByte(TAG_NULL);
+            return;
+        }
+
+        Class<?> valueClass = value.getClass();
+        if (valueClass == String.class) {
+            out.writeByte(TAG_STRING);
+            out.writeString((String) value);
+        } else if (valueClass == Boolean.class) {
+            out.writeByte((Boolean) value ? TAG_TRUE : TAG_FALSE);
+        } else if (valueClass == Short.class) {
+            out.writeByte(TAG_SHORT);
+            out.writeSignedVarLong((Short) value);
+        } else if (valueClass == Integer.class) {
+            out.writeByte(TAG_INTEGER);
+            out.writeSignedVarLong((Integer) value);
+        } else if (valueClass == Long.class) {
+            out.writeByte(TAG_LONG);
+            out.writeSignedVarLong((Long) value);
+        } else if (valueClass == Float.class) {
+            out.writeByte(TAG_FLOAT);
+            out.writeFixedInt(Float.floatToIntBits((Float) value));
+        } else if (valueClass == Double.class) {
+            out.writeByte(TAG_DOUBLE);
+            out.writeFixedLong(Double.doubleToLongBits((Double) value));
+        } else if (valueClass == Date.class) {
+            out.writeByte(TAG_DATE);
+            out.writeSignedVarLong(((Date) value).getTime());
+        } else if (valueClass == byte[].class) {
+            out.writeByte(TAG_BYTES);
+            out.writeBytes((byte[]) value);
+        } else {
+            out.writeByte(TAG_SERIALIZED);
+            out.writeBytes(javaSerialize(value));
+        }
+    }
+
+    private Serializable readValue(Input in) throws IOException {
+        int tag = in.readByte();
+        switch (tag) {
+        case TAG_NULL:
+            return null;
+        case TAG_STRING:
+            return in.readString();
+        case TAG_TRUE:
+            return Boolean.TRUE;
+        case TAG_FALSE:
+            return Boolean.FALSE;
+        case TAG_SHORT:
+            return (short) in.readSignedVarLong();
+        case TAG_INTEGER:
+            return (int) in.readSignedVarLong();
+        case TAG_LONG:
+            return in.readSignedVarLong();
+        case TAG_FLOAT:
+            return Float.intBitsToFloat(in.readFixedInt());
+        case TAG_DOUBLE:
+            return Double.longBitsToDouble(in.readFixedLong());
+        case TAG_DATE:
+            return new Date(in.readSignedVarLong());
+        case TAG_BYTES:
+            return in.readBytes();
+        case TAG_SERIALIZED:
+            return javaDeserialize(in.readBytes(), Serializable.class);
+        default:
+            throw new IOException("Invalid value tag " + tag);
+        }
+    }
+
+    private static boolean isJavaSerialized(byte[] bytes) {
+        return bytes != null && bytes.length > 1 && bytes[0] == JAVA_STREAM_MAGIC_1
+                && bytes[1] == JAVA_STREAM_MAGIC_2;
+    }
+
+    private static byte[] javaSerialize(Object object) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static <T> T javaDeserialize(byte[] bytes, Class<T> expectedClass)
+            throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return expectedClass.cast(in.readObject());
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Could not deserialize " + expectedClass.getSimpleName(), e);
+        }
+    }
+
+    private static class TypeEntry {
+
+        private final int id;
+
+        private final MetacardType metacardType;
+
+        private final String[] names;
+
+        TypeEntry(int id, MetacardType metacardType, String[] names) {
+            this.id = id;
+            this.metacardType = metacardType;
+            this.names = names;
+        }
+    }
+
+    private static class Output {
+
+        private final Map<MetacardType, TypeEntry> types = new IdentityHashMap<>();
+
+        private byte[] buffer = new byte[256];
+
+        private int count;
+
+        Output(byte kind) {
+            writeByte(MARKER);
+            writeByte(VERSION);
+            writeByte(kind);
+        }
+
+        void writeByte(int value) {
+            ensureCapacity(1);
+            buffer[count++] = (byte) value;
+        }
+
+        void writeVarInt(int value) {
+            writeVarLong(value & 0xFFFFFFFFL);
+        }
+
+        void writeVarLong(long value) {
+            ensureCapacity(10);
+            long remaining = value;
+            while ((remaining & ~0x7FL) != 0) {
+                buffer[count++] = (byte) ((remaining & 0x7F) | 0x80);
+                remaining >>>= 7;
+            }
+            buffer[count++] = (byte) remaining;
+        }
+
+        void writeSignedVarLong(long value) {
+            // zigzag encoding keeps small negative numbers short
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        void writeFixedInt(int value) {
+            ensureCapacity(4);
+            for (int shift = 24; shift >= 0; shift -= 8) {
+                buffer[count++] = (byte) (value >>> shift);
+            }
+        }
+
+        void writeFixedLong(long value) {
+            ensureCapacity(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buffer[count++] = (byte) (value >>> shift);
+            }
+        }
+
+        void writeBytes(byte[] bytes) {
+            writeVarInt(bytes.length);
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, count, bytes.length);
+            count += bytes.length;
+        }
+
+        void writeString(String value) {
+            writeBytes(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        void writeNullableString(String value) {
+            if (value == null) {
+                writeByte(0);
+            } else {
+                writeByte(1);
+                writeString(value);
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, count);
+        }
+
+        private void ensureCapacity(int length) {
+            if (count + length > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, count + length));
+            }
+        }
+    }
+
+    private static class Input {
+
+        private final List<TypeEntry> types = new ArrayList<>();
+
+        private final byte[] buffer;
+
+        private int position;
+
+        Input(byte[] buffer, byte kind) throws IOException {
+            if (buffer == null || buffer.length < 3 || buffer[0] != MARKER) {
+                throw new IOException("Bytes were not written by " + BinaryMetacardCodec.class
+                        .getSimpleName());
+            }
+            this.buffer = buffer;
+            this.position = 1;
+
+            int version = readByte();
+            if (version > VERSION) {
+                throw new IOException("Unsupported encoding version " + version);
+            }
+            if (readByte() != kind) {
+                throw new IOException("Unexpected kind of encoded object");
+            }
+        }
+
+        int readByte() throws IOException {
+            if (position >= buffer.length) {
+                throw new IOException("Unexpected end of encoded bytes");
+            }
+            return buffer[position++];
+        }
+
+        int readVarInt() throws IOException {
+            long value = readVarLong();
+            if (value > Integer.MAX_VALUE) {
+                throw new IOException("Invalid length " + value);
+            }
+            return (int) value;
+        }
+
+        long readVarLong() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed varint");
+        }
+
+        long readSignedVarLong() throws IOException {
+            long value = readVarLong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        int readFixedInt() throws IOException {
+            int value = 0;
+            for (int i = 0; i < 4; i++) {
+                value = (value << 8) | (readByte() & 0xFF);
+            }
+            return value;
+        }
+
+        long readFixedLong() throws IOException {
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (readByte() & 0xFF);
+            }
+            return value;
+        }
+
+        byte[] readBytes() throws IOException {
+            int length = readVarInt();
+            if (length > buffer.length - position) {
+                throw new IOException("Unexpected end of encoded bytes");
+            }
+            byte[] bytes = Arrays.copyOfRange(buffer, position, position + length);
+            position += length;
+            return bytes;
+        }
+
+        String readString() throws IOException {
+            int length = readVarInt();
+            if (length > buffer.length - position) {
+                throw new IOException("Unexpected end of encoded bytes");
+            }
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        String readNullableString() throws IOException {
+            return readByte() == 0 ? null : readString();
+        }
+
+        /**
+         * Reads an attribute name, sharing the same instance for every occurrence of a name.
+         */
+        String readName() throws IOException {
+            return readString().intern();
+        }
+    }
+}
@@ -0,0 +1,258 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.data.impl;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.AttributeDescriptor;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.MetacardType;
+
+/**
+ * A {@link MetacardImpl} that stores its attribute values in an array indexed by the position of
+ * each {@link AttributeDescriptor} in its {@link MetacardType}, instead of a map of
+ * {@link Attribute} objects.
+ * <p>
+ * Single values are stored as-is and multiple values are stored in an array, so a metacard holds
+ * one reference per attribute defined by its type. {@link Attribute}s returned by
+ * {@link #getAttribute(String)} are created on each call and are not backed by this metacard;
+ * changes made to them must be written back with {@link #setAttribute(Attribute)}. Attributes
+ * that are not defined by the {@link MetacardType} are kept in a separate map.
+ * <p>
+ * The descriptor positions are computed once per {@link MetacardType} instance and shared by all
+ * metacards of that type.
+ */
+public class CompactMetacardImpl extends MetacardImpl {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final LoadingCache<MetacardType, DescriptorIndex> DESCRIPTOR_INDEXES =
+            CacheBuilder.newBuilder()
+                    .weakKeys()
+                    .build(new CacheLoader<MetacardType, DescriptorIndex>() {
+                        @Override
+                        public DescriptorIndex load(MetacardType type) {
+                            return new DescriptorIndex(type);
+                        }
+                    });
+
+    private transient DescriptorIndex index;
+
+    private transient Object[] values;
+
+    private transient Map<String, Attribute> overflow;
+
+    /**
+     * Creates a {@link Metacard} with a type of {@link BasicTypes#BASIC_METACARD} and empty
+     * {@link Attribute}s.
+     */
+    public CompactMetacardImpl() {
+        this(BasicTypes.BASIC_METACARD);
+    }
+
+    /**
+     * Creates a {@link Metacard} with the provided {@link MetacardType} and empty {@link Attribute}
+     * s.
+     *
+     * @param type the {@link MetacardType}
+     */
+    public CompactMetacardImpl(MetacardType type) {
+        super(type);
+        initialize(type);
+    }
+
+    /**
+     * Creates a {@link Metacard} with the type, source id and attributes of the provided
+     * {@link Metacard}. Unlike {@link MetacardImpl#MetacardImpl(Metacard)}, the attributes are
+     * copied rather than wrapped.
+     *
+     * @param metacard the {@link Metacard} to copy
+     */
+    public CompactMetacardImpl(Metacard metacard) {
+        this(metacard.getMetacardType());
+        setSourceId(metacard.getSourceId());
+        for (AttributeDescriptor descriptor : getMetacardType().getAttributeDescriptors()) {
+            setAttribute(metacard.getAttribute(descriptor.getName()));
+        }
+    }
+
+    @Override
+    public Attribute getAttribute(String name) {
+        int position = index.getPosition(name);
+        if (position < 0) {
+            return overflow == null ? null : overflow.get(name);
+        }
+
+        Object value = values[position];
+        if (value == null) {
+            return null;
+        } else if (value instanceof MultiValue) {
+            return new AttributeImpl(index.getName(position),
+                    Arrays.asList(((MultiValue) value).values));
+        }
+        return new AttributeImpl(index.getName(position), (Serializable) value);
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) {
+        if (attribute == null || attribute.getName() == null) {
+            return;
+        }
+
+        String name = attribute.getName();
+        List<Serializable> attributeValues = attribute.getValues();
+        boolean empty = attributeValues == null || attributeValues.isEmpty()
+                || attribute.getValue() == null;
+
+        int position = index.getPosition(name);
+        if (position < 0) {
+            if (empty) {
+                if (overflow != null) {
+                    overflow.remove(name);
+                }
+            } else {
+                if (overflow == null) {
+                    overflow = new HashMap<>(4);
+                }
+                overflow.put(name, attribute);
+            }
+        } else if (empty) {
+            values[position] = null;
+        } else if (attributeValues.size() == 1) {
+            values[position] = attributeValues.get(0);
+        } else {
+            values[position] = new MultiValue(attributeValues.toArray(
+                    new Serializable[attributeValues.size()]));
+        }
+    }
+
+    /**
+     * Changes the {@link MetacardType} of this metacard. Attributes defined by the new type keep
+     * their values; the others are moved to the map of attributes outside the type.
+     *
+     * @param type the new {@link MetacardType}
+     */
+    @Override
+    public void setType(MetacardType type) {
+        if (type == null) {
+            throw new IllegalArgumentException(
+                    MetacardType.class.getName() + " instance should not be null.");
+        }
+        List<Attribute> attributes = getAttributes();
+        super.setType(type);
+        initialize(type);
+        attributes.forEach(this::setAttribute);
+    }
+
+    private void initialize(MetacardType type) {
+        index = DESCRIPTOR_INDEXES.getUnchecked(type);
+        values = new Object[index.size()];
+        overflow = null;
+    }
+
+    private List<Attribute> getAttributes() {
+        List<Attribute> attributes = new ArrayList<>();
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                attributes.add(getAttribute(index.getName(i)));
+            }
+        }
+        if (overflow != null) {
+            attributes.addAll(overflow.values());
+        }
+        return attributes;
+    }
+
+    private void writeObject(ObjectOutputStream stream) throws IOException {
+        stream.defaultWriteObject();
+
+        List<Attribute> attributes = getAttributes();
+        stream.writeInt(attributes.size());
+        for (Attribute attribute : attributes) {
+            stream.writeObject(attribute);
+        }
+    }
+
+    private void readObject(ObjectInputStream stream) throws IOException, ClassNotFoundException {
+        stream.defaultReadObject();
+
+        initialize(getMetacardType());
+
+        int numElements = stream.readInt();
+        for (int i = 0; i < numElements; i++) {
+            setAttribute((Attribute) stream.readObject());
+        }
+    }
+
+    private static final class MultiValue {
+
+        private final Serializable[] values;
+
+        MultiValue(Serializable[] values) {
+            this.values = values;
+        }
+    }
+
+    private static final class DescriptorIndex {
+
+        private final String[] names;
+
+        private final Map<String, Integer> positions;
+
+        DescriptorIndex(MetacardType type) {
+            Set<AttributeDescriptor> descriptors = type.getAttributeDescriptors();
+            List<String> descriptorNames = new ArrayList<>();
+            if (descriptors != null) {
+                for (AttributeDescriptor descriptor : descriptors) {
+                    if (descriptor != null && descriptor.getName() != null) {
+                        descriptorNames.add(descriptor.getName());
+                    }
+                }
+            }
+
+            names = descriptorNames.toArray(new String[descriptorNames.size()]);
+            positions = new HashMap<>(names.length * 2);
+            for (int i = 0; i < names.length; i++) {
+                positions.put(names[i], i);
+            }
+        }
+
+        int getPosition(String name) {
+            Integer position = positions.get(name);
+            return position == null ? -1 : position;
+        }
+
+        String getName(int position) {
+            return names[position];
+        }
+
+        int size() {
+            return names.length;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.data.impl;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.List;
+
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.MetacardType;
+
+/**
+ * Converts {@link Metacard}s, {@link Attribute}s, {@link MetacardType}s and attribute values to
+ * and from bytes, for storage in indexes and caches.
+ * <p>
+ * Implementations must be able to decode bytes written by Java serialization of the same objects
+ * so that data stored before the codec was introduced can still be read.
+ */
+public interface MetacardCodec {
+
+    /**
+     * Encodes a {@link Metacard}, its {@link MetacardType} and the values of the attributes
+     * described by that type.
+     *
+     * @param metacard the metacard to encode
+     * @return the encoded metacard
+     * @throws IOException if the metacard cannot be encoded
+     */
+    byte[] encodeMetacard(Metacard metacard) throws IOException;
+
+    /**
+     * @param bytes bytes returned by {@link #encodeMetacard(Metacard)} or by Java serialization
+     * @return the decoded metacard
+     * @throws IOException if the bytes cannot be decoded
+     */
+    Metacard decodeMetacard(byte[] bytes) throws IOException;
+
+    /**
+     * Encodes a list of {@link Metacard}s. Each distinct {@link MetacardType} is only written
+     * once.
+     *
+     * @param metacards the metacards to encode
+     * @return the encoded metacards
+     * @throws IOException if a metacard cannot be encoded
+     */
+    byte[] encodeMetacards(List<Metacard> metacards) throws IOException;
+
+    /**
+     * @param bytes bytes returned by {@link #encodeMetacards(List)}
+     * @return the decoded metacards
+     * @throws IOException if the bytes cannot be decoded
+     */
+    List<Metacard> decodeMetacards(byte[] bytes) throws IOException;
+
+    /**
+     * @param metacardType the metacard type to encode
+     * @return the encoded metacard type
+     * @throws IOException if the metacard type cannot be encoded
+     */
+    byte[] encodeMetacardType(MetacardType metacardType) throws IOException;
+
+    /**
+     * @param bytes bytes returned by {@link #encodeMetacardType(MetacardType)} or by Java
+     *              serialization
+     * @return the decoded metacard type
+     * @throws IOException if the bytes cannot be decoded
+     */
+    MetacardType decodeMetacardType(byte[] bytes) throws IOException;
+
+    /**
+     * @param attribute the attribute to encode
+     * @return the encoded attribute
+     * @throws IOException if the attribute cannot be encoded
+     */
+    byte[] encodeAttribute(Attribute attribute) throws IOException;
+
+    /**
+     * @param bytes bytes returned by {@link #encodeAttribute(Attribute)} or by Java serialization
+     * @return the decoded attribute
+     * @throws IOException if the bytes cannot be decoded
+     */
+    Attribute decodeAttribute(byte[] bytes) throws IOException;
+
+    /**
+     * @param value a single attribute value, may be {@code null}
+     * @return the encoded value
+     * @throws IOException if the value cannot be encoded
+     */
+    byte[] encodeValue(Serializable value) throws IOException;
+
+    /**
+     * @param bytes bytes returned by {@link #encodeValue(Serializable)} or by Java serialization
+     * @return the decoded value
+     * @throws IOException if the bytes cannot be decoded
+     */
+    Serializable decodeValue(byte[] bytes) throws IOException;
+}
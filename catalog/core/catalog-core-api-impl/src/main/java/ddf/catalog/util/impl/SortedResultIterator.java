@@ -0,0 +1,134 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.util.impl;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ddf.catalog.data.Result;
+
+/**
+ * Iterator that performs a k-way merge of several {@link Result} lists that are each already
+ * sorted by the same {@link Comparator}, such as the result lists returned by federated sources.
+ * <p>
+ * Only the head of each list is held in a heap, so producing the first {@code n} results costs
+ * {@code O(n log k)} comparisons for {@code k} lists instead of sorting every result. Results that
+ * compare as equal are returned in list order, which gives the same ordering as a stable sort of
+ * the concatenated lists. A list that is not in the expected order is sorted before it is merged.
+ */
+public class SortedResultIterator implements Iterator<Result> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SortedResultIterator.class);
+
+    private final PriorityQueue<ResultCursor> heads;
+
+    private final int limit;
+
+    private int returned = 0;
+
+    /**
+     * Constructs an iterator over the merged contents of the given lists.
+     *
+     * @param resultLists
+     *            the lists to merge, each sorted by {@code comparator}
+     * @param comparator
+     *            the comparator the lists are sorted by
+     * @param limit
+     *            the maximum number of results to return, values less than 1 mean no limit
+     */
+    public SortedResultIterator(List<List<Result>> resultLists, Comparator<Result> comparator,
+            int limit) {
+        this.limit = limit > 0 ? limit : Integer.MAX_VALUE;
+        this.heads = new PriorityQueue<>(Math.max(1, resultLists.size()),
+                (a, b) -> {
+                    int result = comparator.compare(a.current, b.current);
+                    return result != 0 ? result : Integer.compare(a.listIndex, b.listIndex);
+                });
+
+        for (int i = 0; i < resultLists.size(); i++) {
+            List<Result> results = resultLists.get(i);
+            if (results == null || results.isEmpty()) {
+                continue;
+            }
+            ResultCursor cursor = new ResultCursor(ensureSorted(results, comparator, i), i);
+            if (cursor.advance()) {
+                heads.add(cursor);
+            }
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return returned < limit && !heads.isEmpty();
+    }
+
+    @Override
+    public Result next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more results to merge");
+        }
+        ResultCursor cursor = heads.poll();
+        Result result = cursor.current;
+        if (cursor.advance()) {
+            heads.add(cursor);
+        }
+        returned++;
+        return result;
+    }
+
+    private static List<Result> ensureSorted(List<Result> results, Comparator<Result> comparator,
+            int listIndex) {
+        Result previous = null;
+        for (Result result : results) {
+            if (previous != null && comparator.compare(previous, result) > 0) {
+                LOGGER.debug("Result list {} is not sorted as expected, sorting it before merging",
+                        listIndex);
+                List<Result> sorted = new ArrayList<>(results);
+                sorted.sort(comparator);
+                return sorted;
+            }
+            previous = result;
+        }
+        return results;
+    }
+
+    private static class ResultCursor {
+
+        private final Iterator<Result> iterator;
+
+        private final int listIndex;
+
+        private Result current;
+
+        ResultCursor(List<Result> results, int listIndex) {
+            this.iterator = results.iterator();
+            this.listIndex = listIndex;
+        }
+
+        boolean advance() {
+            current = null;
+            while (current == null && iterator.hasNext()) {
+                current = iterator.next();
+            }
+            return current != null;
+        }
+    }
+}
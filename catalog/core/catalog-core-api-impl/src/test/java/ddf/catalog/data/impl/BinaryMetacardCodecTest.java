@@ -0,0 +1,224 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.data.impl;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.AttributeDescriptor;
+import ddf.catalog.data.AttributeType;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.MetacardType;
+
+public class BinaryMetacardCodecTest {
+
+    private static final String OBJECT_ATTRIBUTE = "object";
+
+    private static final String NUMBERS_ATTRIBUTE = "numbers";
+
+    private static final String DECIMAL_ATTRIBUTE = "decimal";
+
+    private BinaryMetacardCodec codec;
+
+    private MetacardType metacardType;
+
+    @Before
+    public void setUp() {
+        codec = new BinaryMetacardCodec();
+
+        Set<AttributeDescriptor> descriptors =
+                new HashSet<>(BasicTypes.BASIC_METACARD.getAttributeDescriptors());
+        descriptors.add(new AttributeDescriptorImpl(OBJECT_ATTRIBUTE,
+                false,
+                true,
+                false,
+                false,
+                BasicTypes.OBJECT_TYPE));
+        descriptors.add(new AttributeDescriptorImpl(NUMBERS_ATTRIBUTE,
+                true,
+                true,
+                false,
+                true,
+                BasicTypes.LONG_TYPE));
+        descriptors.add(new AttributeDescriptorImpl(DECIMAL_ATTRIBUTE,
+                true,
+                true,
+                false,
+                false,
+                new DecimalType()));
+        metacardType = new MetacardTypeImpl("codecType", descriptors);
+    }
+
+    @Test
+    public void testMetacardRoundTrip() throws IOException {
+        MetacardImpl metacard = createMetacard("id1");
+
+        Metacard decoded = codec.decodeMetacard(codec.encodeMetacard(metacard));
+
+        assertThat(decoded.getMetacardType(), is(metacardType));
+        assertThat(decoded.getSourceId(), is("source"));
+        for (AttributeDescriptor descriptor : metacardType.getAttributeDescriptors()) {
+            assertThat(descriptor.getName(),
+                    getValues(decoded, descriptor.getName()),
+                    is(getValues(metacard, descriptor.getName())));
+        }
+    }
+
+    @Test
+    public void testMetacardsShareDecodedType() throws IOException {
+        List<Metacard> metacards = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            metacards.add(createMetacard("id" + i));
+        }
+
+        List<Metacard> decoded = codec.decodeMetacards(codec.encodeMetacards(metacards));
+
+        assertThat(decoded.size(), is(3));
+        assertThat(decoded.get(2)
+                .getId(), is("id2"));
+        assertThat(decoded.get(1)
+                .getMetacardType(), sameInstance(decoded.get(0)
+                .getMetacardType()));
+    }
+
+    @Test
+    public void testEncodingIsSmallerThanJavaSerialization() throws IOException {
+        List<Metacard> metacards = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            MetacardImpl metacard = createMetacard("id" + i);
+            // object values fall back to Java serialization
+            metacard.setAttribute(OBJECT_ATTRIBUTE, null);
+            metacard.setAttribute(DECIMAL_ATTRIBUTE, null);
+            metacards.add(metacard);
+        }
+
+        assertThat(codec.encodeMetacards(metacards).length,
+                lessThan(javaSerialize(new ArrayList<>(metacards)).length));
+    }
+
+    @Test
+    public void testAttributeRoundTrip() throws IOException {
+        Attribute attribute = new AttributeImpl("attribute",
+                Arrays.asList("a", -1, Short.MIN_VALUE, Long.MAX_VALUE, 1.5f, 2.5d, false,
+                        new Date(-1000L), new byte[] {1, 2}, null));
+
+        Attribute decoded = codec.decodeAttribute(codec.encodeAttribute(attribute));
+
+        assertThat(decoded.getName(), is("attribute"));
+        assertThat(decoded.getValues()
+                .size(), is(10));
+        assertThat(decoded.getValues()
+                .subList(0, 8), is(attribute.getValues()
+                .subList(0, 8)));
+        assertThat((byte[]) decoded.getValues()
+                .get(8), is(new byte[] {1, 2}));
+        assertThat(decoded.getValues()
+                .get(9), nullValue());
+    }
+
+    @Test
+    public void testJavaSerializedBytesAreDecoded() throws IOException {
+        MetacardType decodedType = codec.decodeMetacardType(javaSerialize(metacardType));
+        assertThat(decodedType, is(metacardType));
+
+        Serializable decodedValue = codec.decodeValue(javaSerialize(new BigDecimal("1.25")));
+        assertThat(decodedValue, is(new BigDecimal("1.25")));
+
+        Metacard decodedMetacard = codec.decodeMetacard(javaSerialize(createMetacard("id1")));
+        assertThat(decodedMetacard.getId(), is("id1"));
+    }
+
+    @Test(expected = IOException.class)
+    public void testUnsupportedVersion() throws IOException {
+        byte[] bytes = codec.encodeValue("value");
+        bytes[1] = BinaryMetacardCodec.VERSION + 1;
+        codec.decodeValue(bytes);
+    }
+
+    @Test(expected = IOException.class)
+    public void testWrongKind() throws IOException {
+        codec.decodeMetacardType(codec.encodeValue("value"));
+    }
+
+    private MetacardImpl createMetacard(String id) {
+        MetacardImpl metacard = new MetacardImpl(metacardType);
+        metacard.setId(id);
+        metacard.setSourceId("source");
+        metacard.setTitle("title " + id);
+        metacard.setCreatedDate(new Date(1234567890L));
+        metacard.setLocation("POINT (1 2)");
+        metacard.setMetadata("<xml>" + id + "</xml>");
+        metacard.setThumbnail(new byte[] {1, 2, 3});
+        metacard.setAttribute(OBJECT_ATTRIBUTE, new BigDecimal("12.5"));
+        metacard.setAttribute(new AttributeImpl(NUMBERS_ATTRIBUTE,
+                Arrays.asList(1L, -2L, Long.MIN_VALUE)));
+        metacard.setAttribute(DECIMAL_ATTRIBUTE, new BigDecimal("3.75"));
+        return metacard;
+    }
+
+    private List<Serializable> getValues(Metacard metacard, String name) {
+        Attribute attribute = metacard.getAttribute(name);
+        if (attribute == null) {
+            return null;
+        }
+        List<Serializable> values = new ArrayList<>();
+        for (Serializable value : attribute.getValues()) {
+            // arrays do not implement equals
+            values.add(value instanceof byte[] ? Arrays.toString((byte[]) value) : value);
+        }
+        return values;
+    }
+
+    private byte[] javaSerialize(Serializable object) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static class DecimalType implements AttributeType<BigDecimal> {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public Class<BigDecimal> getBinding() {
+            return BigDecimal.class;
+        }
+
+        @Override
+        public AttributeFormat getAttributeFormat() {
+            return AttributeFormat.OBJECT;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.data.impl;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.AttributeDescriptor;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.MetacardType;
+
+public class CompactMetacardImplTest {
+
+    private static final String EXTRA_ATTRIBUTE = "extra";
+
+    private static final String LOCATION = "POINT (1 2)";
+
+    private CompactMetacardImpl metacard;
+
+    private Date created;
+
+    @Before
+    public void setUp() {
+        created = new Date();
+
+        metacard = new CompactMetacardImpl();
+        metacard.setId("id");
+        metacard.setTitle("title");
+        metacard.setCreatedDate(created);
+        metacard.setLocation(LOCATION);
+        metacard.setSourceId("source");
+    }
+
+    @Test
+    public void testConvenienceAccessors() {
+        assertThat(metacard.getId(), is("id"));
+        assertThat(metacard.getTitle(), is("title"));
+        assertThat(metacard.getCreatedDate(), is(created));
+        assertThat(metacard.getLocation(), is(LOCATION));
+        assertThat(metacard.getSourceId(), is("source"));
+        assertThat(metacard.getMetadata(), nullValue());
+        assertThat(metacard.getAttribute(Metacard.TITLE)
+                .getName(), is(Metacard.TITLE));
+    }
+
+    @Test
+    public void testMultiValuedAttribute() {
+        metacard.setAttribute(new AttributeImpl(Metacard.TAGS,
+                Arrays.<Serializable>asList("first", "second")));
+
+        assertThat(metacard.getAttribute(Metacard.TAGS)
+                .getValues(), contains("first", "second"));
+        assertThat(metacard.getTags(), is(new HashSet<>(Arrays.asList("first", "second"))));
+    }
+
+    @Test
+    public void testNullValueRemovesAttribute() {
+        metacard.setAttribute(Metacard.TITLE, null);
+
+        assertThat(metacard.getAttribute(Metacard.TITLE), nullValue());
+    }
+
+    @Test
+    public void testAttributeOutsideType() {
+        metacard.setAttribute(EXTRA_ATTRIBUTE, "value");
+        assertThat(metacard.getAttribute(EXTRA_ATTRIBUTE)
+                .getValue(), is("value"));
+
+        metacard.setAttribute(EXTRA_ATTRIBUTE, null);
+        assertThat(metacard.getAttribute(EXTRA_ATTRIBUTE), nullValue());
+    }
+
+    @Test
+    public void testSetTypeKeepsAttributes() {
+        metacard.setAttribute(EXTRA_ATTRIBUTE, "value");
+        HashSet<AttributeDescriptor> descriptors = new HashSet<>(BasicTypes.BASIC_METACARD
+                .getAttributeDescriptors());
+        descriptors.add(new AttributeDescriptorImpl(EXTRA_ATTRIBUTE,
+                true,
+                true,
+                false,
+                false,
+                BasicTypes.STRING_TYPE));
+        MetacardType type = new MetacardTypeImpl("extended", descriptors);
+
+        metacard.setType(type);
+
+        assertThat(metacard.getMetacardType(), is(type));
+        assertThat(metacard.getTitle(), is("title"));
+        assertThat(metacard.getAttribute(EXTRA_ATTRIBUTE)
+                .getValue(), is("value"));
+    }
+
+    @Test
+    public void testCopyConstructor() {
+        CompactMetacardImpl copy = new CompactMetacardImpl(metacard);
+
+        assertThat(copy.getMetacardType(), is(metacard.getMetacardType()));
+        assertThat(copy.getId(), is("id"));
+        assertThat(copy.getLocation(), is(LOCATION));
+        assertThat(copy.getSourceId(), is("source"));
+    }
+
+    @Test
+    public void testSerialization() throws Exception {
+        metacard.setAttribute(EXTRA_ATTRIBUTE, "value");
+        metacard.setAttribute(new AttributeImpl(Metacard.TAGS,
+                Arrays.<Serializable>asList("first", "second")));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(metacard);
+        }
+        CompactMetacardImpl read;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(
+                bytes.toByteArray()))) {
+            read = (CompactMetacardImpl) in.readObject();
+        }
+
+        assertThat(read.getMetacardType(), notNullValue());
+        assertThat(read.getId(), is("id"));
+        assertThat(read.getCreatedDate(), is(created));
+        assertThat(read.getSourceId(), is("source"));
+        assertThat(read.getAttribute(EXTRA_ATTRIBUTE)
+                .getValue(), is("value"));
+        Attribute tags = read.getAttribute(Metacard.TAGS);
+        assertThat(tags.getValues(), contains("first", "second"));
+    }
+}
@@ -0,0 +1,119 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.util.impl;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.junit.Test;
+import org.opengis.filter.sort.SortOrder;
+
+import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.ResultImpl;
+
+public class SortedResultIteratorTest {
+
+    private static final RelevanceResultComparator DESCENDING = new RelevanceResultComparator(
+            SortOrder.DESCENDING);
+
+    @Test
+    public void testMergeMatchesFullSort() {
+        List<Result> first = results(9.0, 7.0, 3.0, 1.0);
+        List<Result> second = results(8.0, 6.0, 5.0);
+        List<Result> third = results(10.0, 2.0);
+
+        List<Result> expected = new ArrayList<>();
+        expected.addAll(first);
+        expected.addAll(second);
+        expected.addAll(third);
+        Collections.sort(expected, DESCENDING);
+
+        assertThat(drain(new SortedResultIterator(Arrays.asList(first, second, third),
+                DESCENDING,
+                0)), contains(expected.toArray()));
+    }
+
+    @Test
+    public void testMergeStopsAtLimit() {
+        List<Result> first = results(9.0, 7.0, 3.0);
+        List<Result> second = results(8.0, 6.0);
+
+        assertThat(drain(new SortedResultIterator(Arrays.asList(first, second), DESCENDING, 3)),
+                contains(first.get(0), second.get(0), first.get(1)));
+    }
+
+    @Test
+    public void testEqualResultsKeepListOrder() {
+        List<Result> first = results(5.0, 5.0);
+        List<Result> second = results(5.0);
+
+        assertThat(drain(new SortedResultIterator(Arrays.asList(second, first), DESCENDING, 0)),
+                contains(second.get(0), first.get(0), first.get(1)));
+    }
+
+    @Test
+    public void testUnsortedListIsSortedBeforeMerging() {
+        List<Result> unsorted = results(1.0, 9.0, 4.0);
+        List<Result> sorted = results(8.0, 2.0);
+
+        assertThat(drain(new SortedResultIterator(Arrays.asList(unsorted, sorted), DESCENDING, 0)),
+                contains(unsorted.get(1),
+                        sorted.get(0),
+                        unsorted.get(2),
+                        sorted.get(1),
+                        unsorted.get(0)));
+    }
+
+    @Test
+    public void testEmptyAndNullLists() {
+        List<List<Result>> lists = new ArrayList<>();
+        lists.add(null);
+        lists.add(Collections.emptyList());
+
+        assertThat(drain(new SortedResultIterator(lists, DESCENDING, 10)), empty());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testNextWhenExhausted() {
+        SortedResultIterator iterator = new SortedResultIterator(Collections.singletonList(
+                results(1.0)), DESCENDING, 1);
+        iterator.next();
+        iterator.next();
+    }
+
+    private List<Result> results(Double... scores) {
+        List<Result> results = new ArrayList<>();
+        for (Double score : scores) {
+            ResultImpl result = new ResultImpl();
+            result.setRelevanceScore(score);
+            results.add(result);
+        }
+        return results;
+    }
+
+    private List<Result> drain(SortedResultIterator iterator) {
+        List<Result> results = new ArrayList<>();
+        while (iterator.hasNext()) {
+            results.add(iterator.next());
+        }
+        return results;
+    }
+}
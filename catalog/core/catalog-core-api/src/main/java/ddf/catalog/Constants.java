@@ -163,6 +163,13 @@ public final class Constants {
 
     public static final String CONTENT_PATHS = "content-paths";
 
+    /**
+     * Property key for the checksums of the content items of a storage request that the catalog
+     * framework calculated while it copied their content. The value is a map from content item ID
+     * to a map from checksum algorithm to checksum value.
+     */
+    public static final String CONTENT_CHECKSUMS = "content-checksums";
+
     public static final String ATTRIBUTE_OVERRIDES_KEY = "attributeOverrides";
 
     public static final String ATTRIBUTE_UPDATE_MAP_KEY = "attributeUpdateMap";
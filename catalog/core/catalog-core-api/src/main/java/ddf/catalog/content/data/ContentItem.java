@@ -15,6 +15,8 @@
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Optional;
 
 import javax.activation.MimeType;
 
@@ -114,4 +116,16 @@ public interface ContentItem {
      */
     Metacard getMetacard();
 
+    /**
+     * Return the file containing the item's actual data content, if the content is a file on the
+     * local file system. Consumers that need the content as a file can then use it directly
+     * instead of copying the item's input stream.
+     *
+     * @return the file containing the item's content, or an empty {@link Optional} if the content
+     * is not a local file
+     */
+    default Optional<Path> getPath() {
+        return Optional.empty();
+    }
+
 }
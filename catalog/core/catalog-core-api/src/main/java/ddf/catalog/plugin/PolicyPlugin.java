@@ -14,6 +14,7 @@
 package ddf.catalog.plugin;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -106,6 +107,27 @@ PolicyResponse processPreQuery(Query query, Map<String, Serializable> properties
     PolicyResponse processPostQuery(Result input, Map<String, Serializable> properties)
             throws StopProcessingException;
 
+    /**
+     * Processes all {@link Result}s of a query response, following the execution of the {@link ddf.catalog.operation.Query}, to return policy information
+     * for each of them. The default implementation calls {@link #processPostQuery(Result, Map)} once per result; plugins
+     * that can share work between results should override it. The same {@link PolicyResponse} may be returned for
+     * several results, so callers must not modify it.
+     *
+     * @param results    the {@link Result}s to process
+     * @param properties the request properties
+     * @return policy information to pass to the {@link AccessPlugin}, one per result and in the same order as {@code results}
+     * @throws StopProcessingException thrown to halt processing when a critical issue occurs during processing. This is
+     *                                 intended to prevent other plugins from processing as well.
+     */
+    default List<PolicyResponse> processPostQuery(List<Result> results,
+            Map<String, Serializable> properties) throws StopProcessingException {
+        List<PolicyResponse> responses = new ArrayList<>(results.size());
+        for (Result result : results) {
+            responses.add(processPostQuery(result, properties));
+        }
+        return responses;
+    }
+
     /**
      * Processes a {@link ResourceRequest}, prior to execution of the {@link ddf.catalog.operation.ResourceRequest}, to return policy information
      *
@@ -0,0 +1,48 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.transform;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.Map;
+
+import ddf.catalog.operation.SourceResponse;
+
+/**
+ * A {@link QueryResponseTransformer} that can write the transformed results directly to an
+ * {@link OutputStream} instead of building the complete {@link ddf.catalog.data.BinaryContent}
+ * in memory. Callers that own an output stream, such as endpoints writing an HTTP response,
+ * should prefer this method when a transformer implements it.
+ */
+public interface StreamingQueryResponseTransformer extends QueryResponseTransformer {
+
+    /**
+     * Transforms the list of results and writes the transformed content to the
+     * {@link OutputStream}. The stream is flushed but not closed.
+     *
+     * @param upstreamResponse
+     *            the response to transform
+     * @param arguments
+     *            the arguments that may be used to execute the transform
+     * @param outputStream
+     *            the stream the transformed content is written to
+     * @throws CatalogTransformerException
+     *             if the response cannot be transformed
+     * @throws IOException
+     *             if the transformed content cannot be written to the stream
+     */
+    void transform(SourceResponse upstreamResponse, Map<String, Serializable> arguments,
+            OutputStream outputStream) throws CatalogTransformerException, IOException;
+}
@@ -0,0 +1,41 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.validation;
+
+import java.util.List;
+import java.util.Optional;
+
+import ddf.catalog.data.Metacard;
+
+/**
+ * A {@link MetacardValidator} that can also validate a group of {@link Metacard}s at once, sharing
+ * work such as catalog queries across the group and checking the {@link Metacard}s in the group
+ * against each other.
+ * <p>
+ * <b> This code is experimental. While this interface is functional and tested, it may change or be
+ * removed in a future version of the library. </b>
+ * </p>
+ */
+public interface BatchMetacardValidator extends MetacardValidator {
+    /**
+     * Validates a list of {@link Metacard}s.
+     *
+     * @param metacards the {@link Metacard}s to validate, cannot be null
+     * @return a list with one entry per {@link Metacard}, in the same order as {@code metacards},
+     * containing the {@link ValidationException} describing the problems with that
+     * {@link Metacard}, or an empty {@link Optional} if there are none
+     * @throws IllegalArgumentException if {@code metacards} is null
+     */
+    List<Optional<ValidationException>> validateBatch(List<Metacard> metacards);
+}
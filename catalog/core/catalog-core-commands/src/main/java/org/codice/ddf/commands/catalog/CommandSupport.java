@@ -79,11 +79,24 @@ protected void printSuccessMessage(String message) {
     }
 
     protected void printProgressAndFlush(long start, long totalCount, long currentCount) {
-        console.print(getProgressBar(currentCount, totalCount, start, System.currentTimeMillis()));
+        printProgressAndFlush(start, totalCount, currentCount, "");
+    }
+
+    /**
+     * Prints the progress bar followed by {@code details}, e.g. per-stage statistics.
+     */
+    protected void printProgressAndFlush(long start, long totalCount, long currentCount,
+            String details) {
+        console.print(getProgressBar(currentCount,
+                totalCount,
+                start,
+                System.currentTimeMillis(),
+                details));
         console.flush();
     }
 
-    private String getProgressBar(long currentCount, long totalPossible, long start, long end) {
+    private String getProgressBar(long currentCount, long totalPossible, long start, long end,
+            String details) {
 
         int notches = calculateNotches(currentCount, totalPossible);
 
@@ -94,12 +107,13 @@ private String getProgressBar(long currentCount, long totalPossible, long start,
         String progressArrow = ">";
 
         // /r is required, it allows for the update in place
-        String progressBarFormat = "%1$4s%% [=%2$-50s] %3$5s records/sec\t\r";
+        String progressBarFormat = "%1$4s%% [=%2$-50s] %3$5s records/sec%4$s\t\r";
 
         return String.format(progressBarFormat,
                 progressPercentage,
                 StringUtils.repeat("=", notches) + progressArrow,
-                rate);
+                rate,
+                StringUtils.isEmpty(details) ? "" : " " + details);
     }
 
     private int calculateNotches(long currentCount, long totalPossible) {
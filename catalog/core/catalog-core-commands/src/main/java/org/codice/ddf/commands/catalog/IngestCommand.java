@@ -19,7 +19,6 @@
 import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.Serializable;
-import java.io.UncheckedIOException;
 import java.nio.file.DirectoryStream;
 import java.nio.file.FileVisitOption;
 import java.nio.file.FileVisitResult;
@@ -30,22 +29,16 @@
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.Phaser;
-import java.util.concurrent.RejectedExecutionHandler;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import org.apache.commons.io.FilenameUtils;
@@ -102,14 +95,14 @@ public class IngestCommand extends CatalogCommands {
     private static final int DEFAULT_BATCH_SIZE = 500;
 
     /**
-     * The maximum size of the blocking queue that holds metacards in process.
-     * This value has been set to be lower than the maximum number of parties
-     * to a single Phaser to simplify the Phaser processing (obviating the need
-     * for tiered Phasers) and to protect the server from running out of memory
-     * with too many objects in the queue at any time.
+     * The maximum size of the blocking queue that holds metacards waiting to be created. This
+     * protects the server from running out of memory with too many objects in the queue at any
+     * time.
      */
     private static final int MAX_QUEUE_SIZE = 65000;
 
+    private static final long PROGRESS_INTERVAL_MILLIS = 500;
+
     private static final String CONTENT = "content";
 
     private static final String FILE_NAME = "fileName";
@@ -132,8 +125,6 @@ public class IngestCommand extends CatalogCommands {
             .appendSuffix(" second", " seconds")
             .toFormatter();
 
-    private final Phaser phaser = new Phaser();
-
     private final AtomicInteger ingestCount = new AtomicInteger();
 
     private final AtomicInteger ignoreCount = new AtomicInteger();
@@ -161,6 +152,10 @@ public class IngestCommand extends CatalogCommands {
             "Multithreaded"}, multiValued = false, description = "Number of threads to use when ingesting. Setting this value too high for your system can cause performance degradation.")
     int multithreaded = 8;
 
+    @Option(name = "--transformThreads", required = false, multiValued = false, description = "Number of threads to use when transforming files into metacards. Defaults to the number of available processors.")
+    int transformThreads = Runtime.getRuntime()
+            .availableProcessors();
+
     // DDF-535: remove "-d" and "Ingest Failure Directory" aliases in ddf-3.0
     @Option(name = "--failedDir", required = false, aliases = {"-d", "-f",
             "Ingest Failure Directory"}, multiValued = false, description = "The directory to put files that failed to ingest.  Using this option will force a batch size of 1.")
@@ -202,57 +197,53 @@ protected Object executeWithSubject() throws Exception {
         int totalFiles = totalFileCount(inputFile);
         fileCount.set(totalFiles);
 
-        final ArrayBlockingQueue<Metacard> metacardQueue = new ArrayBlockingQueue<>(
-                batchSize * multithreaded);
-
-        ExecutorService queueExecutor = Executors.newSingleThreadExecutor();
+        final CatalogFacade catalog = getCatalog();
+        final IngestPipeline pipeline = new IngestPipeline(Math.max(transformThreads, 1),
+                multithreaded,
+                batchSize,
+                this::transformFile,
+                metacards -> submitBatch(catalog, metacards));
 
         final long start = System.currentTimeMillis();
 
         printProgressAndFlush(start, fileCount.get(), 0);
 
-        // Registering for the main thread and on behalf of the buildQueue thread;
-        // the buildQueue thread will unregister itself when the files have all
-        // been added to the blocking queue and the final registration will
-        // be held for the await.
-        phaser.register();
-        phaser.register();
-        queueExecutor.submit(() -> buildQueue(inputFile, metacardQueue, start));
-
-        final ScheduledExecutorService batchScheduler =
+        final ScheduledExecutorService progressScheduler =
                 Executors.newSingleThreadScheduledExecutor();
-
-        BlockingQueue<Runnable> blockingQueue = new ArrayBlockingQueue<>(multithreaded);
-        RejectedExecutionHandler rejectedExecutionHandler =
-                new ThreadPoolExecutor.CallerRunsPolicy();
-        ExecutorService executorService = new ThreadPoolExecutor(multithreaded,
-                multithreaded,
-                0L,
-                TimeUnit.MILLISECONDS,
-                blockingQueue,
-                rejectedExecutionHandler);
-
-        final CatalogFacade catalog = getCatalog();
-        submitToCatalog(batchScheduler, executorService, metacardQueue, catalog, start);
-
-        // await on catalog processing threads to complete emptying queue
-        phaser.awaitAdvance(phaser.arrive());
-
+        progressScheduler.scheduleWithFixedDelay(() -> printProgressAndFlush(start,
+                fileCount.get(),
+                ingestCount.get() + ignoreCount.get(),
+                pipeline.getStageSummary()),
+                PROGRESS_INTERVAL_MILLIS,
+                PROGRESS_INTERVAL_MILLIS,
+                TimeUnit.MILLISECONDS);
+
+        pipeline.start();
         try {
-            queueExecutor.shutdown();
-            executorService.shutdown();
-            batchScheduler.shutdown();
-        } catch (SecurityException e) {
-            LOGGER.info("Executor service shutdown was not permitted: {}", e);
+            buildQueue(inputFile, pipeline, start);
+        } finally {
+            // waits for the transformation and create stages to empty their queues
+            pipeline.finish();
+            try {
+                progressScheduler.shutdownNow();
+                progressScheduler.awaitTermination(PROGRESS_INTERVAL_MILLIS,
+                        TimeUnit.MILLISECONDS);
+            } catch (SecurityException e) {
+                LOGGER.info("Executor service shutdown was not permitted: {}", e);
+            }
         }
 
-        printProgressAndFlush(start, fileCount.get(), ingestCount.get() + ignoreCount.get());
+        printProgressAndFlush(start,
+                fileCount.get(),
+                ingestCount.get() + ignoreCount.get(),
+                pipeline.getStageSummary());
         long end = System.currentTimeMillis();
         console.println();
         String elapsedTime = timeFormatter.print(new Period(start, end).withMillis(0));
 
         console.println();
         console.printf(" %d file(s) ingested in %s %n", ingestCount.get(), elapsedTime);
+        console.printf(" %s %n", pipeline.getStageSummary());
 
         LOGGER.debug("{} file(s) ingested in {} [{} records/sec]",
                 ingestCount.get(),
@@ -262,6 +253,7 @@ protected Object executeWithSubject() throws Exception {
                 ingestCount.get(),
                 elapsedTime,
                 calculateRecordsPerSecond(ingestCount.get(), start, end));
+        INGEST_LOGGER.info("Ingest stages: {}", pipeline.getStageSummary());
 
         if (fileCount.get() != ingestCount.get()) {
             console.println();
@@ -364,7 +356,7 @@ private int totalFileCount(File inputFile) throws IOException {
     /**
      * Helper method to build ingest log strings
      */
-    private String buildIngestLog(ArrayList<Metacard> metacards) {
+    private String buildIngestLog(List<Metacard> metacards) {
         StringBuilder strBuilder = new StringBuilder();
 
         for (int i = 0; i < metacards.size(); i++) {
@@ -484,7 +476,15 @@ private void makeFailedIngestDirectory() {
         }
     }
 
-    private boolean processBatch(CatalogFacade catalog, ArrayList<Metacard> metacards)
+    private void submitBatch(CatalogFacade catalog, List<Metacard> metacards) {
+        try {
+            processBatch(catalog, metacards);
+        } catch (SourceUnavailableException e) {
+            INGEST_LOGGER.warn("Error on process batch.", e);
+        }
+    }
+
+    private boolean processBatch(CatalogFacade catalog, List<Metacard> metacards)
             throws SourceUnavailableException {
         CreateResponse createResponse = null;
 
@@ -505,9 +505,6 @@ private boolean processBatch(CatalogFacade catalog, ArrayList<Metacard> metacard
                         buildIngestLog(metacards),
                         e);
             }
-        } finally {
-            IntStream.range(0, metacards.size())
-                    .forEach(i -> phaser.arriveAndDeregister());
         }
 
         if (createResponse != null) {
@@ -526,45 +523,58 @@ private void moveToFailedIngestDirectory(File source) {
         }
     }
 
-    private void buildQueue(File inputFile, ArrayBlockingQueue<Metacard> metacardQueue,
-            long start) {
-        try {
-            if (includeContent) {
-                processIncludeContent(metacardQueue);
-            } else {
-                try {
-                    Stream<Path> ingestStream = Files.walk(inputFile.toPath(),
-                            FileVisitOption.FOLLOW_LINKS);
-                    ingestStream.map(Path::toFile)
-                            .filter(file -> !file.isDirectory())
-                            .forEach(file -> addFileToQueue(metacardQueue, start, file));
-                } catch (IOException e) {
-                    throw new UncheckedIOException(e);
+    private void buildQueue(File inputFile, IngestPipeline pipeline, long start)
+            throws IOException {
+        if (includeContent) {
+            processIncludeContent(pipeline);
+        } else {
+            try (Stream<Path> ingestStream = Files.walk(inputFile.toPath(),
+                    FileVisitOption.FOLLOW_LINKS)) {
+                Iterator<File> files = ingestStream.map(Path::toFile)
+                        .filter(file -> !file.isDirectory())
+                        .iterator();
+                while (files.hasNext()) {
+                    if (!addFileToQueue(pipeline, start, files.next())) {
+                        return;
+                    }
                 }
             }
-        } finally {
-            phaser.arriveAndDeregister();
         }
     }
 
-    private void addFileToQueue(ArrayBlockingQueue<Metacard> metacardQueue, long start, File file) {
+    /**
+     * @return false if the thread was interrupted and no more files should be added
+     */
+    private boolean addFileToQueue(IngestPipeline pipeline, long start, File file) {
         if (file.isHidden()) {
             fileCount.incrementAndGet();
             ignoreCount.incrementAndGet();
-            return;
+            return true;
         }
 
         String extension = "." + FilenameUtils.getExtension(file.getName());
         if (ignoreList != null && (ignoreList.contains(extension)
                 || ignoreList.contains(file.getName()))) {
             ignoreCount.incrementAndGet();
-            printProgressAndFlush(start, fileCount.get(), ingestCount.get() + ignoreCount.get());
-            return;
+            return true;
         }
 
-        Metacard result = null;
         try {
-            result = readMetacard(file);
+            pipeline.submitFile(file);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                    .interrupt();
+            INGEST_LOGGER.error("Thread interrupted while waiting to 'put' file: {}",
+                    file.getAbsolutePath(),
+                    e);
+            return false;
+        }
+    }
+
+    private Metacard transformFile(File file) {
+        try {
+            return readMetacard(file);
         } catch (IngestException e) {
             logIngestException(e, file);
             if (failedIngestDirectory != null) {
@@ -572,27 +582,25 @@ private void addFileToQueue(ArrayBlockingQueue<Metacard> metacardQueue, long sta
             }
             printErrorMessage(String.format("Failed to ingest file [%s].", file.getAbsolutePath()));
             INGEST_LOGGER.warn("Failed to ingest file [{}].", file.getAbsolutePath());
-        }
-
-        if (result != null) {
-            putMetacardOnQueue(metacardQueue, result);
+            return null;
         }
     }
 
-    private void putMetacardOnQueue(ArrayBlockingQueue<Metacard> metacardQueue, Metacard metacard) {
+    private boolean putMetacardOnQueue(IngestPipeline pipeline, Metacard metacard) {
         try {
-            phaser.register();
-            metacardQueue.put(metacard);
+            pipeline.submitMetacard(metacard);
+            return true;
         } catch (InterruptedException e) {
-            phaser.arriveAndDeregister();
-
+            Thread.currentThread()
+                    .interrupt();
             INGEST_LOGGER.error("Thread interrupted while waiting to 'put' metacard: {}",
                     metacard.getId(),
                     e);
+            return false;
         }
     }
 
-    private void processIncludeContent(ArrayBlockingQueue<Metacard> metacardQueue) {
+    private void processIncludeContent(IngestPipeline pipeline) {
         File inputFile = new File(filePath);
         Map<String, Serializable> arguments = new HashMap<>();
         arguments.put(DumpCommand.FILE_PATH, inputFile.getParent() + File.separator);
@@ -614,7 +622,9 @@ private void processIncludeContent(ArrayBlockingQueue<Metacard> metacardQueue) {
                     fileCount.set(metacardList.size());
 
                     for (Metacard metacard : metacardList) {
-                        putMetacardOnQueue(metacardQueue, metacard);
+                        if (!putMetacardOnQueue(pipeline, metacard)) {
+                            break;
+                        }
                     }
                 }
             } catch (IOException | CatalogTransformerException e) {
@@ -683,38 +693,6 @@ private void submitToStorageProvider(List<Metacard> metacardList) {
                 });
     }
 
-    private void submitToCatalog(ScheduledExecutorService batchScheduler,
-            ExecutorService executorService, ArrayBlockingQueue<Metacard> metacardQueue,
-            CatalogFacade catalog, long start) {
-
-        batchScheduler.scheduleWithFixedDelay(() -> {
-            int queueSize = metacardQueue.size();
-            if (queueSize > 0) {
-                ArrayList<Metacard> metacardBatch = new ArrayList<>(batchSize);
-
-                // When the producer has finished populating the queue, it will countdown
-                // the phaser. The remaining count in the phaser will be metacardCount + main thread
-                if (queueSize >= batchSize || queueSize == phaser.getRegisteredParties() - 1) {
-                    metacardQueue.drainTo(metacardBatch, batchSize);
-                }
-
-                if (!metacardBatch.isEmpty()) {
-                    executorService.submit(() -> {
-                        try {
-                            processBatch(catalog, metacardBatch);
-                        } catch (SourceUnavailableException e) {
-                            INGEST_LOGGER.warn("Error on process batch.", e);
-                        }
-                    });
-
-                    printProgressAndFlush(start,
-                            fileCount.get(),
-                            ingestCount.get() + ignoreCount.get());
-                }
-            }
-        }, 100, 100, TimeUnit.MILLISECONDS);
-    }
-
     private Map<String, List<File>> generateFileMap(File inputFile) throws IOException {
         if (!inputFile.exists()) {
             return null;
@@ -0,0 +1,333 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.commands.catalog;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ddf.catalog.data.Metacard;
+
+/**
+ * Staged ingest pipeline used by the {@link IngestCommand}.
+ * <p>
+ * Files handed to {@link #submitFile(File)} by the discovery stage are transformed into metacards
+ * by a pool of transformation threads, and the metacards are created in batches by a separate pool
+ * of create threads. Each stage hands its output to the next one through a bounded queue, so a
+ * slow stage blocks the stages feeding it instead of letting work pile up in memory, and
+ * CPU-bound transformation overlaps with I/O-bound creation.
+ */
+public class IngestPipeline {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IngestPipeline.class);
+
+    /**
+     * Number of discovered files that may wait in the queue for each transformation thread.
+     */
+    private static final int FILES_PER_TRANSFORM_THREAD = 64;
+
+    private static final long POLL_MILLIS = 100;
+
+    /**
+     * Maximum time a create thread waits for more metacards before submitting a partial batch.
+     */
+    private static final long BATCH_LINGER_MILLIS = 100;
+
+    private final Stage discoveryStage = new Stage("discover");
+
+    private final Stage transformStage = new Stage("transform");
+
+    private final Stage createStage = new Stage("create");
+
+    private final int transformThreads;
+
+    private final int createThreads;
+
+    private final int batchSize;
+
+    private final Function<File, Metacard> transformer;
+
+    private final Consumer<List<Metacard>> creator;
+
+    private final BlockingQueue<File> fileQueue;
+
+    private final BlockingQueue<Metacard> metacardQueue;
+
+    private final ExecutorService transformExecutor;
+
+    private final ExecutorService createExecutor;
+
+    private volatile boolean discoveryDone = false;
+
+    private volatile boolean transformDone = false;
+
+    private long start;
+
+    private long lastSubmit;
+
+    /**
+     * @param transformThreads number of threads transforming files into metacards
+     * @param createThreads    number of threads creating batches of metacards
+     * @param batchSize        maximum number of metacards handed to {@code creator} at a time
+     * @param transformer      transforms a file into a metacard, returns {@code null} if the file
+     *                         could not be transformed
+     * @param creator          creates a batch of metacards
+     */
+    public IngestPipeline(int transformThreads, int createThreads, int batchSize,
+            Function<File, Metacard> transformer, Consumer<List<Metacard>> creator) {
+        this.transformThreads = transformThreads;
+        this.createThreads = createThreads;
+        this.batchSize = batchSize;
+        this.transformer = transformer;
+        this.creator = creator;
+        this.fileQueue = new ArrayBlockingQueue<>(transformThreads * FILES_PER_TRANSFORM_THREAD);
+        this.metacardQueue = new ArrayBlockingQueue<>(batchSize * createThreads);
+        this.transformExecutor = Executors.newFixedThreadPool(transformThreads);
+        this.createExecutor = Executors.newFixedThreadPool(createThreads);
+    }
+
+    /**
+     * Starts the transformation and create threads.
+     */
+    public void start() {
+        start = System.nanoTime();
+        lastSubmit = start;
+        for (int i = 0; i < transformThreads; i++) {
+            transformExecutor.submit(this::transformFiles);
+        }
+        for (int i = 0; i < createThreads; i++) {
+            createExecutor.submit(this::createBatches);
+        }
+    }
+
+    /**
+     * Hands a discovered file to the transformation stage, blocking while the transformation
+     * stage is full. Must only be called by a single discovery thread.
+     *
+     * @param file the file to transform and ingest
+     * @throws InterruptedException if interrupted while waiting for the transformation stage
+     */
+    public void submitFile(File file) throws InterruptedException {
+        discoveryStage.record(System.nanoTime() - lastSubmit, 1);
+        fileQueue.put(file);
+        lastSubmit = System.nanoTime();
+    }
+
+    /**
+     * Hands an already transformed metacard directly to the create stage, blocking while the
+     * create stage is full.
+     *
+     * @param metacard the metacard to ingest
+     * @throws InterruptedException if interrupted while waiting for the create stage
+     */
+    public void submitMetacard(Metacard metacard) throws InterruptedException {
+        metacardQueue.put(metacard);
+    }
+
+    /**
+     * Signals that no more files or metacards will be submitted and waits until every submitted
+     * file has been transformed and every metacard has been handed to the creator.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void finish() throws InterruptedException {
+        discoveryDone = true;
+        try {
+            transformExecutor.shutdown();
+            transformExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            transformDone = true;
+            createExecutor.shutdown();
+            createExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } finally {
+            transformExecutor.shutdownNow();
+            createExecutor.shutdownNow();
+        }
+    }
+
+    public Stage getDiscoveryStage() {
+        return discoveryStage;
+    }
+
+    public Stage getTransformStage() {
+        return transformStage;
+    }
+
+    public Stage getCreateStage() {
+        return createStage;
+    }
+
+    /**
+     * @return a one line summary of the throughput, latency and backlog of every stage
+     */
+    public String getStageSummary() {
+        long elapsed = System.nanoTime() - start;
+        return String.format("%s | %s (%d queued) | %s (%d queued)",
+                discoveryStage.format(elapsed),
+                transformStage.format(elapsed),
+                fileQueue.size(),
+                createStage.format(elapsed),
+                metacardQueue.size());
+    }
+
+    private void transformFiles() {
+        try {
+            while (!discoveryDone || !fileQueue.isEmpty()) {
+                File file = fileQueue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (file != null) {
+                    Metacard metacard = transform(file);
+                    if (metacard != null) {
+                        metacardQueue.put(metacard);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                    .interrupt();
+        }
+    }
+
+    private Metacard transform(File file) {
+        long transformStart = System.nanoTime();
+        try {
+            return transformer.apply(file);
+        } catch (RuntimeException e) {
+            LOGGER.debug("Unable to transform file [{}].", file.getAbsolutePath(), e);
+            return null;
+        } finally {
+            transformStage.record(System.nanoTime() - transformStart, 1);
+        }
+    }
+
+    private void createBatches() {
+        try {
+            while (!transformDone || !metacardQueue.isEmpty()) {
+                Metacard metacard = metacardQueue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (metacard != null) {
+                    List<Metacard> batch = new ArrayList<>(batchSize);
+                    batch.add(metacard);
+                    fillBatch(batch);
+                    create(batch);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                    .interrupt();
+        }
+    }
+
+    /*
+        Adds queued metacards to the batch, waiting a short time for more metacards while the
+        batch is not full and the transformation stage is still running.
+     */
+    private void fillBatch(List<Metacard> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(BATCH_LINGER_MILLIS);
+        metacardQueue.drainTo(batch, batchSize - batch.size());
+        while (batch.size() < batchSize && !transformDone) {
+            long remaining = deadline - System.nanoTime();
+            Metacard metacard = remaining > 0 ?
+                    metacardQueue.poll(remaining, TimeUnit.NANOSECONDS) :
+                    null;
+            if (metacard == null) {
+                return;
+            }
+            batch.add(metacard);
+            metacardQueue.drainTo(batch, batchSize - batch.size());
+        }
+    }
+
+    private void create(List<Metacard> batch) {
+        long createStart = System.nanoTime();
+        try {
+            creator.accept(batch);
+        } catch (RuntimeException e) {
+            LOGGER.debug("Unable to create batch of {} metacards.", batch.size(), e);
+        } finally {
+            createStage.record(System.nanoTime() - createStart, batch.size());
+        }
+    }
+
+    /**
+     * Throughput and latency of a single pipeline stage.
+     */
+    public static class Stage {
+
+        private final String name;
+
+        private final LongAdder items = new LongAdder();
+
+        private final LongAdder operations = new LongAdder();
+
+        private final LongAdder busyNanos = new LongAdder();
+
+        Stage(String name) {
+            this.name = name;
+        }
+
+        void record(long nanos, int itemCount) {
+            busyNanos.add(nanos);
+            operations.increment();
+            items.add(itemCount);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return the number of items processed by this stage
+         */
+        public long getItemCount() {
+            return items.sum();
+        }
+
+        /**
+         * @return the average time in milliseconds a single operation (a file for the discovery
+         * and transformation stages, a batch for the create stage) took
+         */
+        public double getAverageLatencyMillis() {
+            long operationCount = operations.sum();
+            return operationCount == 0 ?
+                    0 :
+                    busyNanos.sum() / (double) operationCount / TimeUnit.MILLISECONDS.toNanos(1);
+        }
+
+        /**
+         * @param elapsedNanos time elapsed since the pipeline started
+         * @return the number of items processed per second
+         */
+        public long getThroughput(long elapsedNanos) {
+            return elapsedNanos <= 0 ?
+                    0 :
+                    getItemCount() * TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+        }
+
+        String format(long elapsedNanos) {
+            return String.format("%s %d/s %.1fms",
+                    name,
+                    getThroughput(elapsedNanos),
+                    getAverageLatencyMillis());
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.commands.catalog;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.MetacardImpl;
+
+public class IngestPipelineTest {
+
+    private final List<String> createdIds = Collections.synchronizedList(new ArrayList<>());
+
+    private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+
+    @Test
+    public void testAllFilesCreated() throws Exception {
+        IngestPipeline pipeline = new IngestPipeline(4, 2, 10, this::toMetacard, this::create);
+
+        pipeline.start();
+        List<String> expectedIds = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            pipeline.submitFile(new File("file" + i));
+            expectedIds.add("file" + i);
+        }
+        pipeline.finish();
+
+        assertThat(createdIds, containsInAnyOrder(expectedIds.toArray()));
+        assertThat(batchSizes, everyItem(lessThanOrEqualTo(10)));
+        assertThat(pipeline.getDiscoveryStage()
+                .getItemCount(), is(1000L));
+        assertThat(pipeline.getTransformStage()
+                .getItemCount(), is(1000L));
+        assertThat(pipeline.getCreateStage()
+                .getItemCount(), is(1000L));
+    }
+
+    @Test
+    public void testFailedTransformationsAreSkipped() throws Exception {
+        IngestPipeline pipeline = new IngestPipeline(2, 1, 5, file -> {
+            if (file.getName()
+                    .startsWith("bad")) {
+                throw new IllegalArgumentException("bad file");
+            }
+            return file.getName()
+                    .startsWith("null") ? null : toMetacard(file);
+        }, this::create);
+
+        pipeline.start();
+        pipeline.submitFile(new File("good1"));
+        pipeline.submitFile(new File("bad1"));
+        pipeline.submitFile(new File("null1"));
+        pipeline.submitFile(new File("good2"));
+        pipeline.finish();
+
+        assertThat(createdIds, containsInAnyOrder("good1", "good2"));
+        assertThat(pipeline.getTransformStage()
+                .getItemCount(), is(4L));
+    }
+
+    @Test
+    public void testSubmittedMetacardsSkipTransformation() throws Exception {
+        AtomicInteger transformations = new AtomicInteger();
+        IngestPipeline pipeline = new IngestPipeline(1, 1, 3, file -> {
+            transformations.incrementAndGet();
+            return toMetacard(file);
+        }, this::create);
+
+        pipeline.start();
+        for (int i = 0; i < 7; i++) {
+            MetacardImpl metacard = new MetacardImpl();
+            metacard.setId("metacard" + i);
+            pipeline.submitMetacard(metacard);
+        }
+        pipeline.finish();
+
+        assertThat(createdIds, hasSize(7));
+        assertThat(transformations.get(), is(0));
+    }
+
+    @Test
+    public void testSlowCreateBlocksTransformation() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger transformations = new AtomicInteger();
+        IngestPipeline pipeline = new IngestPipeline(1, 1, 2, file -> {
+            transformations.incrementAndGet();
+            return toMetacard(file);
+        }, metacards -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread()
+                        .interrupt();
+            }
+            create(metacards);
+        });
+
+        pipeline.start();
+        Thread discovery = new Thread(() -> {
+            try {
+                for (int i = 0; i < 500; i++) {
+                    pipeline.submitFile(new File("file" + i));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread()
+                        .interrupt();
+            }
+        });
+        discovery.start();
+        TimeUnit.MILLISECONDS.sleep(500);
+
+        // one batch being created, a full metacard queue, one metacard waiting to be queued and
+        // a full file queue
+        assertThat(transformations.get(), lessThanOrEqualTo(2 + 2 + 1));
+        assertThat(discovery.isAlive(), is(true));
+
+        release.countDown();
+        discovery.join();
+        pipeline.finish();
+
+        assertThat(createdIds, hasSize(500));
+    }
+
+    private Metacard toMetacard(File file) {
+        MetacardImpl metacard = new MetacardImpl();
+        metacard.setId(file.getName());
+        return metacard;
+    }
+
+    private void create(List<Metacard> metacards) {
+        batchSizes.add(metacards.size());
+        metacards.forEach(metacard -> createdIds.add(metacard.getId()));
+    }
+}
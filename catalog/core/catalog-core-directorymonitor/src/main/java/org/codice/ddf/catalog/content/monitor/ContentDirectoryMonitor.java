@@ -48,8 +48,22 @@
 public class ContentDirectoryMonitor implements DirectoryMonitor {
     private static final Logger LOGGER = LoggerFactory.getLogger(ContentDirectoryMonitor.class);
 
+    /**
+     * Number of files that may wait to be ingested for each ingest thread before the directory
+     * polling thread ingests files itself.
+     */
+    private static final int QUEUED_FILES_PER_THREAD = 4;
+
+    private static final int DEFAULT_NUM_THREADS = 1;
+
+    private static final int DEFAULT_MAX_FILES_PER_POLL = 500;
+
     private String monitoredDirectory = null;
 
+    private int numThreads = DEFAULT_NUM_THREADS;
+
+    private int maxFilesPerPoll = DEFAULT_MAX_FILES_PER_POLL;
+
     private boolean copyIngestedFiles = false;
 
     private final CamelContext camelContext;
@@ -168,6 +182,14 @@ public void updateCallback(Map<String, Object> properties) {
         if (properties != null) {
             setMonitoredDirectoryPath((String) properties.get("monitoredDirectoryPath"));
             setCopyIngestedFiles((Boolean) properties.get("copyIngestedFiles"));
+            Object numThreadsValue = properties.get("numThreads");
+            if (numThreadsValue != null) {
+                setNumThreads((Integer) numThreadsValue);
+            }
+            Object maxFilesPerPollValue = properties.get("maxFilesPerPoll");
+            if (maxFilesPerPollValue != null) {
+                setMaxFilesPerPoll((Integer) maxFilesPerPollValue);
+            }
             String[] parameterArray = (String[]) properties.get(Constants.ATTRIBUTE_OVERRIDES_KEY);
             if (parameterArray != null) {
                 setAttributeOverrides(Arrays.asList(parameterArray));
@@ -190,6 +212,21 @@ public void setCopyIngestedFiles(boolean copyIngestedFiles) {
         this.copyIngestedFiles = copyIngestedFiles;
     }
 
+    /**
+     * @param numThreads - number of files ingested concurrently
+     */
+    public void setNumThreads(int numThreads) {
+        this.numThreads = Math.max(numThreads, 1);
+    }
+
+    /**
+     * @param maxFilesPerPoll - maximum number of files picked up by a single scan of the
+     *                        monitored directory
+     */
+    public void setMaxFilesPerPoll(int maxFilesPerPoll) {
+        this.maxFilesPerPoll = Math.max(maxFilesPerPoll, 1);
+    }
+
     /**
      * @param attributeOverrides - a list of attributes to override
      */
@@ -263,7 +300,9 @@ public void configure() throws Exception {
                 // Configure the camel route to ignore changing file (larger files that are in the process of being copied)
                 // Set the readLockTimeout to continuously poll the directory so long as the directory monitor exists
                 // Set the readLockCheckInterval to check every 5 seconds
-                String inbox = "file:" + monitoredDirectory + "?moveFailed=.errors&readLock=changed&readLockTimeout=0&readLockCheckInterval=5000";
+                // Limit the number of files picked up by each scan so that very large directories
+                // are consumed in bounded increments
+                String inbox = "file:" + monitoredDirectory + "?moveFailed=.errors&readLock=changed&readLockTimeout=0&readLockCheckInterval=5000&maxMessagesPerPoll=" + maxFilesPerPoll;
                 if (copyIngestedFiles) {
                     inbox += "&move=.ingested";
                 } else {
@@ -281,8 +320,15 @@ public void configure() throws Exception {
                             simple(attributeOverrideString));
                 }
 
+                // Ingest files on a pool of threads fed by a bounded queue; when the queue is full
+                // the polling thread ingests the file itself, which stops it from picking up more
+                // files until the ingest threads catch up
                 LOGGER.trace("About to process scheme content:framework");
-                routeDefinition.process(systemSubjectBinder)
+                routeDefinition.threads(numThreads, numThreads)
+                        .maxQueueSize(numThreads * QUEUED_FILES_PER_THREAD)
+                        .callerRunsWhenRejected(true)
+                        .threadName("Content Directory Monitor")
+                        .process(systemSubjectBinder)
                         .to("content:framework");
             }
         };
@@ -17,6 +17,7 @@
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 
 import java.io.File;
@@ -32,6 +33,7 @@
 import org.apache.camel.model.FromDefinition;
 import org.apache.camel.model.ProcessorDefinition;
 import org.apache.camel.model.RouteDefinition;
+import org.apache.camel.model.ThreadsDefinition;
 import org.apache.camel.test.junit4.CamelTestSupport;
 import org.apache.commons.io.FileUtils;
 import org.junit.After;
@@ -232,7 +234,7 @@ private void verifyRoute(RouteDefinition routeDefinition, String monitoredDirect
 
         LOGGER.debug("uri = {}", uri);
 
-        String expectedUri = "file:" + monitoredDirectory + "?moveFailed=.errors&readLock=changed&readLockTimeout=0&readLockCheckInterval=5000";
+        String expectedUri = "file:" + monitoredDirectory + "?moveFailed=.errors&readLock=changed&readLockTimeout=0&readLockCheckInterval=5000&maxMessagesPerPoll=500";
         if (copyIngestedFiles) {
             expectedUri += "&move=.ingested";
         } else {
@@ -241,7 +243,11 @@ private void verifyRoute(RouteDefinition routeDefinition, String monitoredDirect
 
         assertThat(uri, equalTo(expectedUri));
         List<ProcessorDefinition<?>> processorDefinitions = routeDefinition.getOutputs();
-        assertThat(processorDefinitions.size(), is(2));
+        assertThat(processorDefinitions.size(), is(1));
+        assertThat(processorDefinitions.get(0), instanceOf(ThreadsDefinition.class));
+        assertThat(processorDefinitions.get(0)
+                .getOutputs()
+                .size(), is(2));
     }
 
     private void submitConfigOptions(ContentDirectoryMonitor monitor, String monitoredDirectory,
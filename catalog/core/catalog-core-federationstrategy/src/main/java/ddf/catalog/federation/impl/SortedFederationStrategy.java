@@ -15,7 +15,6 @@
 
 import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
@@ -49,6 +48,7 @@
 import ddf.catalog.source.Source;
 import ddf.catalog.util.impl.DistanceResultComparator;
 import ddf.catalog.util.impl.RelevanceResultComparator;
+import ddf.catalog.util.impl.SortedResultIterator;
 import ddf.catalog.util.impl.TemporalResultComparator;
 
 /**
@@ -145,7 +145,7 @@ public void run() {
                 }
             }
 
-            List<Result> resultList = new ArrayList<Result>();
+            List<List<Result>> sourceResultLists = new ArrayList<>(futures.size());
             long totalHits = 0;
             Set<ProcessingDetails> processingDetails = returnResults.getProcessingDetails();
 
@@ -177,7 +177,7 @@ public void run() {
                 }
                 if (sourceResponse != null) {
                     List<Result> sourceResults = sourceResponse.getResults();
-                    resultList.addAll(sourceResults);
+                    sourceResultLists.add(sourceResults);
                     long sourceHits = sourceResponse.getHits();
 
                     totalHits += sourceHits;
@@ -223,16 +223,20 @@ public void run() {
 
                 }
             }
-            LOGGER.debug("all sites finished returning results: {}", resultList.size());
-
-            Collections.sort(resultList, coreComparator);
+            LOGGER.debug("all sites finished returning results");
 
             returnResults.setHits(totalHits);
             int maxResults = query.getPageSize() > 0 ? query.getPageSize() : Integer.MAX_VALUE;
 
-            returnResults.addResults(
-                    resultList.size() > maxResults ? resultList.subList(0, maxResults) : resultList,
-                    true);
+            // Each source returns its results already sorted, so merge them instead of sorting
+            // everything and hand each result to the response queue as soon as it is final.
+            SortedResultIterator mergedResults = new SortedResultIterator(sourceResultLists,
+                    coreComparator,
+                    maxResults);
+            while (mergedResults.hasNext()) {
+                returnResults.addResult(mergedResults.next(), false);
+            }
+            returnResults.closeResultQueue();
         }
 
         private long getTimeRemaining(long deadline) {
@@ -53,6 +53,7 @@
 import ddf.catalog.pubsub.internal.PubSubConstants;
 import ddf.catalog.pubsub.internal.PubSubThread;
 import ddf.catalog.pubsub.internal.SubscriptionFilterVisitor;
+import ddf.catalog.pubsub.internal.SubscriptionIndex;
 import ddf.catalog.pubsub.predicate.Predicate;
 import ddf.catalog.util.impl.Requests;
 
@@ -75,6 +76,8 @@ public class EventProcessorImpl implements EventProcessor, EventHandler, PostIng
 
     private final ExecutorService threadPool = Executors.newCachedThreadPool();
 
+    private final SubscriptionIndex subscriptionIndex = new SubscriptionIndex();
+
     public EventProcessorImpl() {
         LOGGER.debug("INSIDE: EventProcessorImpl default constructor");
     }
@@ -115,6 +118,23 @@ public EventProcessorImpl(BundleContext bundleContext, EventAdmin eventAdmin,
      * @param eventAdmin - OSGi EventAdmin service used post events
      */
     public static void processEntry(Metacard metacard, String operation, EventAdmin eventAdmin) {
+        processEntry(metacard, operation, eventAdmin, null);
+    }
+
+    /**
+     * Processes an entry by adding properties from the metacard to the event. When a
+     * {@link SubscriptionIndex} is provided, the subscriptions that may match the entry are
+     * determined once and added to the event so that the other subscriptions can skip evaluating
+     * their predicates. Then the eventAdmin is used to post the metacard properties as a single
+     * event.
+     *
+     * @param metacard          - the metacard to process
+     * @param operation         - The type of event {@link PubSubConstants}
+     * @param eventAdmin        - OSGi EventAdmin service used post events
+     * @param subscriptionIndex - index of the subscriptions' predicates, may be null
+     */
+    public static void processEntry(Metacard metacard, String operation, EventAdmin eventAdmin,
+            SubscriptionIndex subscriptionIndex) {
         String methodName = "processEntry";
         LOGGER.debug("ENTERING: " + methodName);
 
@@ -193,6 +213,15 @@ public static void processEntry(Metacard metacard, String operation, EventAdmin
                 }
             }
 
+            if (subscriptionIndex != null) {
+                SubscriptionIndex.Candidates candidates = subscriptionIndex.getCandidates(
+                        properties);
+                LOGGER.debug("subscription candidates: {}", candidates);
+                if (candidates != null) {
+                    properties.put(PubSubConstants.HEADER_CANDIDATES_KEY, candidates);
+                }
+            }
+
             if (eventAdmin != null) {
                 eventAdmin.postEvent(new Event(PubSubConstants.PUBLISHED_EVENT_TOPIC_NAME,
                         properties));
@@ -238,7 +267,7 @@ public void handleEvent(Event event) {
             Metacard entry = (Metacard) event.getProperty(EventProcessor.EVENT_METACARD);
             LOGGER.debug("metacard ID = {}", entry.getId());
 
-            new PubSubThread(entry, topic, eventAdmin).start();
+            new PubSubThread(entry, topic, eventAdmin, subscriptionIndex).start();
         } else {
             LOGGER.debug(
                     "No existing subscriptions, so no need to handle event since there is no one listening ...");
@@ -282,13 +311,17 @@ public void createSubscription(Subscription subscription, String subscriptionId)
             Predicate finalPredicate = (Predicate) subscription.accept(visitor, null);
             LOGGER.debug("predicate from filter visitor: {}", finalPredicate);
 
+            // Index the subscription before its handler can receive events
+            subscriptionIndex.add(subscriptionId, finalPredicate);
+
             String[] topics = new String[] {PubSubConstants.PUBLISHED_EVENT_TOPIC_NAME};
 
             Dictionary<String, String[]> props = new Hashtable<>(1, 1);
             props.put(EventConstants.EVENT_TOPIC, topics);
             ServiceRegistration serviceRegistration =
                     bundleContext.registerService(EventHandler.class.getName(),
-                            new PublishedEventHandler(finalPredicate,
+                            new PublishedEventHandler(subscriptionId,
+                                    finalPredicate,
                                     subscription,
                                     preDelivery,
                                     catalog,
@@ -339,6 +372,7 @@ public void deleteSubscription(String subscriptionId) throws SubscriptionNotFoun
                 sr.unregister();
                 LOGGER.debug("Removal complete");
                 existingSubscriptions.remove(subscriptionId);
+                subscriptionIndex.remove(subscriptionId);
             } else {
                 LOGGER.debug("Unable to find existing subscription: {}.  May already be deleted.",
                         subscriptionId);
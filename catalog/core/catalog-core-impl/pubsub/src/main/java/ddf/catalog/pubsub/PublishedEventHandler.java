@@ -31,6 +31,7 @@
 import ddf.catalog.plugin.PreDeliveryPlugin;
 import ddf.catalog.pubsub.internal.DeliveryProcessor;
 import ddf.catalog.pubsub.internal.PubSubConstants;
+import ddf.catalog.pubsub.internal.SubscriptionIndex;
 import ddf.catalog.pubsub.predicate.Predicate;
 
 public class PublishedEventHandler implements EventHandler {
@@ -38,6 +39,8 @@ public class PublishedEventHandler implements EventHandler {
 
     private final ExecutorService threadPool;
 
+    private final String subscriptionId;
+
     private Predicate predicate;
 
     private Subscription subscription;
@@ -49,6 +52,13 @@ public class PublishedEventHandler implements EventHandler {
     public PublishedEventHandler(Predicate finalPredicate, Subscription subscription,
             List<PreDeliveryPlugin> preDelivery, CatalogFramework catalog,
             ExecutorService threadPool) {
+        this(null, finalPredicate, subscription, preDelivery, catalog, threadPool);
+    }
+
+    public PublishedEventHandler(String subscriptionId, Predicate finalPredicate,
+            Subscription subscription, List<PreDeliveryPlugin> preDelivery,
+            CatalogFramework catalog, ExecutorService threadPool) {
+        this.subscriptionId = subscriptionId;
         this.predicate = finalPredicate;
         this.subscription = subscription;
         this.preDelivery = preDelivery;
@@ -137,6 +147,15 @@ private void evaluateLocalSubscription(String metacardSourceId) {
         }
 
         private void evaluateEvent(Event event) {
+            SubscriptionIndex.Candidates candidates = (SubscriptionIndex.Candidates) event.getProperty(
+                    PubSubConstants.HEADER_CANDIDATES_KEY);
+            if (subscriptionId != null && candidates != null && !candidates.contains(
+                    subscriptionId)) {
+                LOGGER.debug("Subscription {} cannot match event, skipping evaluation",
+                        subscriptionId);
+                return;
+            }
+
             // If predicate is NULL then we are handling a filterless subscription - publish all events
             if (predicate == null || predicate.matches(event)) {
                 new DeliveryProcessor(subscription, preDelivery).process(event);
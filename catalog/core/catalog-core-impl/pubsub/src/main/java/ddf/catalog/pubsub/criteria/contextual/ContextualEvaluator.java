@@ -17,7 +17,9 @@
 import java.io.IOException;
 import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpressionException;
@@ -28,7 +30,10 @@
 import org.apache.lucene.analysis.tokenattributes.TermAttribute;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
+import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.TermEnum;
 import org.apache.lucene.queryParser.ParseException;
 import org.apache.lucene.queryParser.QueryParser;
 import org.apache.lucene.search.IndexSearcher;
@@ -241,6 +246,61 @@ public static Directory buildIndex(String fullDocument, String[] xpathSelectors)
         return index;
     }
 
+    /**
+     * Retrieve the distinct case-insensitive terms stored in an index built by
+     * {@link #buildIndex(String)}.
+     *
+     * @param index the Lucene index built for an entry's metadata
+     * @return the terms in the case-insensitive field of the index
+     * @throws IOException
+     */
+    public static Set<String> getIndexedTerms(Directory index) throws IOException {
+        Set<String> terms = new HashSet<String>();
+
+        IndexReader indexReader = IndexReader.open(index, true);
+        try {
+            TermEnum termEnum = indexReader.terms(new Term(FIELD_NAME, ""));
+            try {
+                do {
+                    Term term = termEnum.term();
+                    if (term == null || !FIELD_NAME.equals(term.field())) {
+                        break;
+                    }
+                    terms.add(term.text());
+                } while (termEnum.next());
+            } finally {
+                termEnum.close();
+            }
+        } finally {
+            indexReader.close();
+        }
+
+        return terms;
+    }
+
+    /**
+     * Tokenize the specified text with the same case-insensitive analyzer that is used to build
+     * the index and to parse search phrases.
+     *
+     * @param text the text to tokenize
+     * @return the distinct terms produced by the analyzer
+     * @throws IOException
+     */
+    public static Set<String> getAnalyzedTerms(String text) throws IOException {
+        Set<String> terms = new HashSet<String>();
+
+        ContextualAnalyzer contextualAnalyzer = new ContextualAnalyzer(Version.LUCENE_30);
+        TokenStream tokenStream = contextualAnalyzer.tokenStream(FIELD_NAME,
+                new StringReader(text));
+        TermAttribute termAttribute = tokenStream.addAttribute(TermAttribute.class);
+        while (tokenStream.incrementToken()) {
+            terms.add(termAttribute.term());
+        }
+        tokenStream.close();
+
+        return terms;
+    }
+
     private static void logTokens(Analyzer analyzer, String fieldName, String fullDocument,
             String analyzerName) throws IOException {
         if (!LOGGER.isDebugEnabled()) {
@@ -0,0 +1,441 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.pubsub.internal;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.lucene.store.Directory;
+import org.geotools.geometry.jts.WKTReader2;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.index.intervalrtree.SortedPackedIntervalRTree;
+import com.vividsolutions.jts.index.strtree.STRtree;
+import com.vividsolutions.jts.io.ParseException;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.pubsub.EventProcessorImpl.DateType;
+import ddf.catalog.pubsub.criteria.contextual.ContextualEvaluator;
+import ddf.catalog.pubsub.criteria.geospatial.SpatialOperator;
+import ddf.catalog.pubsub.predicate.AndPredicate;
+import ddf.catalog.pubsub.predicate.ContentTypePredicate;
+import ddf.catalog.pubsub.predicate.ContextualPredicate;
+import ddf.catalog.pubsub.predicate.GeospatialPredicate;
+import ddf.catalog.pubsub.predicate.OrPredicate;
+import ddf.catalog.pubsub.predicate.Predicate;
+import ddf.catalog.pubsub.predicate.TemporalPredicate;
+
+/**
+ * Reverse index of the subscriptions' {@link Predicate}s used to narrow down which subscriptions
+ * need to evaluate an entry event.
+ * <p>
+ * Each subscription's predicate tree is reduced to a set of index keys, at least one of which an
+ * entry must hit for the predicate to possibly match: contextual terms go into an inverted
+ * term&rarr;subscription index, geospatial criteria into an {@link STRtree}, absolute temporal
+ * ranges into an interval tree per {@link DateType} and literal content types into a hash map.
+ * Subscriptions whose predicate cannot be reduced (NOT, fuzzy or wildcard searches, relative
+ * temporal criteria, filterless subscriptions, ...) are always candidates.
+ * <p>
+ * The index only removes subscriptions that cannot match; the subscription's {@link Predicate}
+ * is still evaluated for every candidate.
+ */
+public class SubscriptionIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SubscriptionIndex.class);
+
+    private final Map<String, List<IndexKey>> subscriptionKeys = new ConcurrentHashMap<>();
+
+    private volatile Snapshot snapshot = new Snapshot(Collections.emptyMap());
+
+    private volatile boolean dirty = false;
+
+    /**
+     * Adds or replaces a subscription in the index.
+     *
+     * @param subscriptionId the ID of the subscription
+     * @param predicate      the subscription's predicate, {@code null} for filterless subscriptions
+     */
+    public void add(String subscriptionId, Predicate predicate) {
+        List<IndexKey> keys = predicate == null ? null : getKeys(predicate);
+        LOGGER.debug("Indexing subscription {} with keys {}", subscriptionId, keys);
+        subscriptionKeys.put(subscriptionId,
+                keys == null ? Collections.<IndexKey>emptyList() : keys);
+        dirty = true;
+    }
+
+    /**
+     * Removes a subscription from the index.
+     *
+     * @param subscriptionId the ID of the subscription
+     */
+    public void remove(String subscriptionId) {
+        if (subscriptionKeys.remove(subscriptionId) != null) {
+            dirty = true;
+        }
+    }
+
+    /**
+     * Determines the subscriptions that may match an entry event.
+     *
+     * @param properties the properties of the event, as built by
+     *                   {@link ddf.catalog.pubsub.EventProcessorImpl#processEntry}
+     * @return the candidate subscriptions, or {@code null} if every subscription is a candidate
+     */
+    public Candidates getCandidates(Map<String, Object> properties) {
+        Metacard metacard = (Metacard) properties.get(PubSubConstants.HEADER_ENTRY_KEY);
+        String operation = (String) properties.get(PubSubConstants.HEADER_OPERATION_KEY);
+        Map<String, Object> contextualMap =
+                (Map<String, Object>) properties.get(PubSubConstants.HEADER_CONTEXTUAL_KEY);
+        Directory defaultIndex = null;
+
+        if (contextualMap != null) {
+            // Predicates let every delete through when the source did not send the metadata
+            if (PubSubConstants.DELETE.equals(operation) && PubSubConstants.METADATA_DELETED.equals(
+                    contextualMap.get("METADATA"))) {
+                return null;
+            }
+            defaultIndex = (Directory) contextualMap.get("DEFAULT_INDEX");
+        }
+
+        Snapshot current = getSnapshot();
+        Set<String> matched = new HashSet<>();
+
+        if (defaultIndex != null && !current.terms.isEmpty()) {
+            try {
+                for (String term : ContextualEvaluator.getIndexedTerms(defaultIndex)) {
+                    addAll(matched, current.terms.get(term));
+                }
+            } catch (IOException e) {
+                LOGGER.debug("Unable to read terms of entry {}, not filtering event",
+                        metacard.getId(),
+                        e);
+                return null;
+            }
+        }
+
+        Object contentType = properties.get(PubSubConstants.HEADER_CONTENT_TYPE_KEY);
+        if (!current.contentTypes.isEmpty() && contentType != null) {
+            // Same type extraction as the ContentTypeEvaluator
+            String[] typeVersionPair = contentType.toString()
+                    .split(",");
+            String type = typeVersionPair.length == 0 || typeVersionPair[0].isEmpty() ?
+                    "null" :
+                    typeVersionPair[0];
+            addAll(matched, current.contentTypes.get(type));
+        }
+
+        if (current.spatial != null && StringUtils.isNotBlank(metacard.getLocation())) {
+            try {
+                Geometry location = new WKTReader2().read(metacard.getLocation());
+                Envelope envelope = location.getEnvelopeInternal();
+                for (Object subscriptionId : current.spatial.query(envelope)) {
+                    matched.add((String) subscriptionId);
+                }
+            } catch (ParseException e) {
+                LOGGER.debug("Unable to parse location of entry {}", metacard.getId(), e);
+            }
+        }
+
+        for (Map.Entry<DateType, SortedPackedIntervalRTree> entry : current.temporal.entrySet()) {
+            Date date = getDate(metacard, entry.getKey());
+            if (date != null) {
+                entry.getValue()
+                        .query(date.getTime(),
+                                date.getTime(),
+                                item -> matched.add((String) item));
+            }
+        }
+
+        return new Candidates(matched, current.unindexed);
+    }
+
+    private Snapshot getSnapshot() {
+        if (dirty) {
+            synchronized (this) {
+                if (dirty) {
+                    dirty = false;
+                    snapshot = new Snapshot(new HashMap<>(subscriptionKeys));
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Reduces a predicate to the index keys of which an entry must hit at least one.
+     *
+     * @return the keys, or {@code null} if the predicate cannot be reduced
+     */
+    static List<IndexKey> getKeys(Predicate predicate) {
+        if (predicate instanceof AndPredicate) {
+            // Both sides must match, so the most selective side is enough to find candidates
+            List<IndexKey> left = getKeys(((AndPredicate) predicate).getLeft());
+            List<IndexKey> right = getKeys(((AndPredicate) predicate).getRight());
+            if (left == null || right == null) {
+                return left == null ? right : left;
+            }
+            return selectivity(left) <= selectivity(right) ? left : right;
+        } else if (predicate instanceof OrPredicate) {
+            List<IndexKey> left = getKeys(((OrPredicate) predicate).getLeft());
+            List<IndexKey> right = getKeys(((OrPredicate) predicate).getRight());
+            if (left == null || right == null) {
+                return null;
+            }
+            List<IndexKey> keys = new ArrayList<>(left);
+            keys.addAll(right);
+            return keys;
+        } else if (predicate instanceof ContextualPredicate) {
+            Set<String> terms = ((ContextualPredicate) predicate).getCandidateTerms();
+            if (terms == null) {
+                return null;
+            }
+            List<IndexKey> keys = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                keys.add(new IndexKey(KeyType.TERM, term, null, null, 0, 0));
+            }
+            return keys;
+        } else if (predicate instanceof ContentTypePredicate) {
+            String type = ((ContentTypePredicate) predicate).getType();
+            // Content types are matched as regular expressions, only literal ones are indexed
+            if (type == null || !type.matches("[\\w\\- ]+")) {
+                return null;
+            }
+            return Collections.singletonList(new IndexKey(KeyType.CONTENT_TYPE,
+                    type,
+                    null,
+                    null,
+                    0,
+                    0));
+        } else if (predicate instanceof GeospatialPredicate) {
+            GeospatialPredicate geospatialPredicate = (GeospatialPredicate) predicate;
+            Geometry criteria = geospatialPredicate.getGeoCriteria();
+            if (criteria == null) {
+                return null;
+            }
+            Envelope envelope = new Envelope(criteria.getEnvelopeInternal());
+            if (geospatialPredicate.getDistance() > 0) {
+                envelope.expandBy(geospatialPredicate.getDistance());
+            } else if (!SpatialOperator.CONTAINS.name()
+                    .equalsIgnoreCase(geospatialPredicate.getGeoOperation())
+                    && !SpatialOperator.OVERLAPS.name()
+                    .equalsIgnoreCase(geospatialPredicate.getGeoOperation())) {
+                return null;
+            }
+            return Collections.singletonList(new IndexKey(KeyType.SPATIAL,
+                    null,
+                    envelope,
+                    null,
+                    0,
+                    0));
+        } else if (predicate instanceof TemporalPredicate) {
+            TemporalPredicate temporalPredicate = (TemporalPredicate) predicate;
+            Date start = temporalPredicate.getStart();
+            Date end = temporalPredicate.getEnd();
+            // Relative criteria have no fixed range until the event is evaluated
+            if (temporalPredicate.getType() == null || (start == null && end == null)) {
+                return null;
+            }
+            return Collections.singletonList(new IndexKey(KeyType.TEMPORAL,
+                    null,
+                    null,
+                    temporalPredicate.getType(),
+                    start == null ? Long.MIN_VALUE : start.getTime(),
+                    end == null ? Long.MAX_VALUE : end.getTime()));
+        }
+
+        return null;
+    }
+
+    private static int selectivity(List<IndexKey> keys) {
+        int worst = 0;
+        for (IndexKey key : keys) {
+            worst = Math.max(worst, key.type.ordinal());
+        }
+        return worst * 1000 + keys.size();
+    }
+
+    private static Date getDate(Metacard metacard, DateType type) {
+        switch (type) {
+        case modified:
+            return metacard.getModifiedDate();
+        case effective:
+            return metacard.getEffectiveDate();
+        case created:
+            return metacard.getCreatedDate();
+        case expiration:
+            return metacard.getExpirationDate();
+        default:
+            return null;
+        }
+    }
+
+    private static void addAll(Set<String> matched, Set<String> subscriptionIds) {
+        if (subscriptionIds != null) {
+            matched.addAll(subscriptionIds);
+        }
+    }
+
+    /**
+     * The subscriptions that may match an entry event.
+     */
+    public static class Candidates {
+
+        private final Set<String> matched;
+
+        private final Set<String> unindexed;
+
+        Candidates(Set<String> matched, Set<String> unindexed) {
+            this.matched = matched;
+            this.unindexed = unindexed;
+        }
+
+        public boolean contains(String subscriptionId) {
+            return matched.contains(subscriptionId) || unindexed.contains(subscriptionId);
+        }
+
+        @Override
+        public String toString() {
+            return "matched = " + matched + ", unindexed = " + unindexed;
+        }
+    }
+
+    /**
+     * Kinds of index keys, ordered from the most to the least selective.
+     */
+    enum KeyType {
+        TERM, CONTENT_TYPE, SPATIAL, TEMPORAL
+    }
+
+    static class IndexKey {
+
+        private final KeyType type;
+
+        private final String value;
+
+        private final Envelope envelope;
+
+        private final DateType dateType;
+
+        private final long start;
+
+        private final long end;
+
+        IndexKey(KeyType type, String value, Envelope envelope, DateType dateType, long start,
+                long end) {
+            this.type = type;
+            this.value = value;
+            this.envelope = envelope;
+            this.dateType = dateType;
+            this.start = start;
+            this.end = end;
+        }
+
+        KeyType getType() {
+            return type;
+        }
+
+        String getValue() {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            switch (type) {
+            case SPATIAL:
+                return type + ":" + envelope;
+            case TEMPORAL:
+                return type + ":" + dateType + "[" + start + "," + end + "]";
+            default:
+                return type + ":" + value;
+            }
+        }
+    }
+
+    /**
+     * Immutable view of the index, rebuilt lazily after subscriptions are added or removed since
+     * the tree indexes cannot be modified once they have been queried.
+     */
+    private static class Snapshot {
+
+        private final Map<String, Set<String>> terms = new HashMap<>();
+
+        private final Map<String, Set<String>> contentTypes = new HashMap<>();
+
+        private final Map<DateType, SortedPackedIntervalRTree> temporal =
+                new EnumMap<>(DateType.class);
+
+        private final Set<String> unindexed = new HashSet<>();
+
+        private STRtree spatial;
+
+        Snapshot(Map<String, List<IndexKey>> subscriptionKeys) {
+            for (Map.Entry<String, List<IndexKey>> entry : subscriptionKeys.entrySet()) {
+                String subscriptionId = entry.getKey();
+                if (entry.getValue()
+                        .isEmpty()) {
+                    unindexed.add(subscriptionId);
+                    continue;
+                }
+
+                for (IndexKey key : entry.getValue()) {
+                    switch (key.type) {
+                    case TERM:
+                        terms.computeIfAbsent(key.value, k -> new HashSet<>())
+                                .add(subscriptionId);
+                        break;
+                    case CONTENT_TYPE:
+                        contentTypes.computeIfAbsent(key.value, k -> new HashSet<>())
+                                .add(subscriptionId);
+                        break;
+                    case SPATIAL:
+                        if (spatial == null) {
+                            spatial = new STRtree();
+                        }
+                        spatial.insert(key.envelope, subscriptionId);
+                        break;
+                    case TEMPORAL:
+                        temporal.computeIfAbsent(key.dateType, k -> new SortedPackedIntervalRTree())
+                                .insert(key.start, key.end, subscriptionId);
+                        break;
+                    default:
+                        unindexed.add(subscriptionId);
+                    }
+                }
+            }
+
+            // The trees are built lazily on their first query, which is not thread safe, so
+            // build them before the snapshot is shared with the event threads
+            if (spatial != null) {
+                spatial.build();
+            }
+            for (SortedPackedIntervalRTree tree : temporal.values()) {
+                tree.query(0, 0, item -> {
+                });
+            }
+        }
+    }
+}
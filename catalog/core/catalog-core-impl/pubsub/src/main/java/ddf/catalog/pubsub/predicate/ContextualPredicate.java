@@ -18,6 +18,7 @@
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Map;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 import org.apache.commons.lang.StringUtils;
@@ -277,6 +278,55 @@ public boolean matches(Event properties) {
         return false;
     }
 
+    /**
+     * Returns the terms of which at least one must appear in an entry's default index for this
+     * predicate to match it. Only phrases made of plain terms joined by AND/OR can be reduced to
+     * such a set; {@code null} is returned for every other kind of search (text paths, case
+     * sensitive, fuzzy, wildcard or NOT searches) since they can match entries that contain none
+     * of the phrase's terms.
+     *
+     * @return the candidate terms, or {@code null} if they cannot be determined
+     */
+    public Set<String> getCandidateTerms() {
+        if (hasTextPaths() || caseSensitiveSearch || fuzzy || StringUtils.isBlank(searchPhrase)) {
+            return null;
+        }
+
+        StringBuilder text = new StringBuilder();
+        for (String word : searchPhrase.replace("\"", " ")
+                .trim()
+                .split("\\s+")) {
+            if (word.equals("AND") || word.equals("OR")) {
+                continue;
+            }
+            if (word.equals("NOT") || word.startsWith("-") || word.startsWith("!")) {
+                return null;
+            }
+
+            // After normalization every special character is escaped, so any bare character
+            // left is query syntax the term index cannot answer
+            for (int i = 0; i < word.length(); i++) {
+                char c = word.charAt(i);
+                if (c == '\\') {
+                    i++;
+                } else if (c == '*' || c == '?' || c == '~') {
+                    return null;
+                }
+            }
+            text.append(StringUtils.removeStart(word, "+")
+                    .replaceAll("\\\\(.)", "$1"))
+                    .append(' ');
+        }
+
+        try {
+            Set<String> terms = ContextualEvaluator.getAnalyzedTerms(text.toString());
+            return terms.isEmpty() ? null : terms;
+        } catch (IOException e) {
+            LOGGER.debug("Unable to analyze search phrase {}", searchPhrase, e);
+            return null;
+        }
+    }
+
     public String getSearchPhrase() {
         return searchPhrase;
     }
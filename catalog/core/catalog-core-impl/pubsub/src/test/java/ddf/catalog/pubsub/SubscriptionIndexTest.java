@@ -0,0 +1,195 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.pubsub;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.pubsub.EventProcessorImpl.DateType;
+import ddf.catalog.pubsub.criteria.contextual.ContextualEvaluator;
+import ddf.catalog.pubsub.criteria.geospatial.SpatialOperator;
+import ddf.catalog.pubsub.internal.PubSubConstants;
+import ddf.catalog.pubsub.internal.SubscriptionFilterVisitor;
+import ddf.catalog.pubsub.internal.SubscriptionIndex;
+import ddf.catalog.pubsub.predicate.ContentTypePredicate;
+import ddf.catalog.pubsub.predicate.ContextualPredicate;
+import ddf.catalog.pubsub.predicate.GeospatialPredicate;
+import ddf.catalog.pubsub.predicate.TemporalPredicate;
+
+public class SubscriptionIndexTest {
+
+    private static final long DAY = 24 * 60 * 60 * 1000L;
+
+    private SubscriptionIndex index;
+
+    private MetacardImpl metacard;
+
+    @Before
+    public void setUp() {
+        index = new SubscriptionIndex();
+
+        metacard = new MetacardImpl();
+        metacard.setId("ABC123");
+        metacard.setMetadata(TestDataLibrary.getCatAndDogEntry());
+        metacard.setContentTypeName("type1");
+        metacard.setLocation("POINT (10 10)");
+        metacard.setModifiedDate(new Date(10 * DAY));
+    }
+
+    @Test
+    public void testContextualTerms() throws Exception {
+        index.add("serengeti", contextual("serengeti"));
+        index.add("phrase", contextual("\"serengeti event\""));
+        index.add("or", contextual("zebra OR cat"));
+        index.add("miss", contextual("zebra AND lion"));
+
+        SubscriptionIndex.Candidates candidates = getCandidates(PubSubConstants.CREATE);
+
+        assertTrue(candidates.contains("serengeti"));
+        assertTrue(candidates.contains("phrase"));
+        assertTrue(candidates.contains("or"));
+        assertFalse(candidates.contains("miss"));
+    }
+
+    @Test
+    public void testUnindexableContextualIsAlwaysCandidate() throws Exception {
+        index.add("wildcard", contextual("zeb*"));
+        index.add("fuzzy", new ContextualPredicate("zebra", true, false, null));
+        index.add("not", contextual("dog NOT zebra"));
+        index.add("caseSensitive", new ContextualPredicate("Zebra", false, true, null));
+
+        SubscriptionIndex.Candidates candidates = getCandidates(PubSubConstants.CREATE);
+
+        assertTrue(candidates.contains("wildcard"));
+        assertTrue(candidates.contains("fuzzy"));
+        assertTrue(candidates.contains("not"));
+        assertTrue(candidates.contains("caseSensitive"));
+    }
+
+    @Test
+    public void testSpatial() throws Exception {
+        index.add("overlaps",
+                new GeospatialPredicate("POLYGON ((0 0, 20 0, 20 20, 0 20, 0 0))",
+                        SpatialOperator.OVERLAPS.name(),
+                        0.0));
+        index.add("far",
+                new GeospatialPredicate("POLYGON ((40 40, 50 40, 50 50, 40 50, 40 40))",
+                        SpatialOperator.CONTAINS.name(),
+                        0.0));
+        index.add("nearby", new GeospatialPredicate("POINT (12 12)", null, 3.0));
+
+        SubscriptionIndex.Candidates candidates = getCandidates(PubSubConstants.CREATE);
+
+        assertTrue(candidates.contains("overlaps"));
+        assertFalse(candidates.contains("far"));
+        assertTrue(candidates.contains("nearby"));
+    }
+
+    @Test
+    public void testTemporal() throws Exception {
+        index.add("during",
+                new TemporalPredicate(new Date(5 * DAY), new Date(15 * DAY), DateType.modified));
+        index.add("before",
+                new TemporalPredicate(new Date(DAY), new Date(2 * DAY), DateType.modified));
+        index.add("relative", new TemporalPredicate(DAY, DateType.modified));
+
+        SubscriptionIndex.Candidates candidates = getCandidates(PubSubConstants.CREATE);
+
+        assertTrue(candidates.contains("during"));
+        assertFalse(candidates.contains("before"));
+        assertTrue(candidates.contains("relative"));
+    }
+
+    @Test
+    public void testContentType() throws Exception {
+        index.add("type1", new ContentTypePredicate("type1", null));
+        index.add("type2", new ContentTypePredicate("type2", "version1"));
+        index.add("wildcard", new ContentTypePredicate("type*", null));
+
+        SubscriptionIndex.Candidates candidates = getCandidates(PubSubConstants.CREATE);
+
+        assertTrue(candidates.contains("type1"));
+        assertFalse(candidates.contains("type2"));
+        assertTrue(candidates.contains("wildcard"));
+    }
+
+    @Test
+    public void testCombinedPredicates() throws Exception {
+        index.add("andMiss",
+                SubscriptionFilterVisitor.and(new ContentTypePredicate("type1", null),
+                        contextual("zebra")));
+        index.add("orHit",
+                SubscriptionFilterVisitor.or(new ContentTypePredicate("type2", null),
+                        contextual("serengeti")));
+        index.add("orUnindexable",
+                SubscriptionFilterVisitor.or(new ContentTypePredicate("type2", null),
+                        contextual("zeb*")));
+        index.add("not",
+                SubscriptionFilterVisitor.not(new ContentTypePredicate("type2", null)));
+        index.add("filterless", null);
+
+        SubscriptionIndex.Candidates candidates = getCandidates(PubSubConstants.CREATE);
+
+        assertFalse(candidates.contains("andMiss"));
+        assertTrue(candidates.contains("orHit"));
+        assertTrue(candidates.contains("orUnindexable"));
+        assertTrue(candidates.contains("not"));
+        assertTrue(candidates.contains("filterless"));
+    }
+
+    @Test
+    public void testRemove() throws Exception {
+        index.add("filterless", null);
+        assertTrue(getCandidates(PubSubConstants.CREATE).contains("filterless"));
+
+        index.remove("filterless");
+        assertFalse(getCandidates(PubSubConstants.CREATE).contains("filterless"));
+    }
+
+    @Test
+    public void testDeletedMetadataIsNotFiltered() throws Exception {
+        index.add("miss", contextual("zebra"));
+        metacard.setMetadata(PubSubConstants.METADATA_DELETED);
+
+        assertNull(getCandidates(PubSubConstants.DELETE));
+    }
+
+    private ContextualPredicate contextual(String phrase) {
+        return new ContextualPredicate(phrase, false, false, null);
+    }
+
+    private SubscriptionIndex.Candidates getCandidates(String operation) throws Exception {
+        Map<String, Object> contextualMap = new HashMap<>();
+        contextualMap.put("DEFAULT_INDEX", ContextualEvaluator.buildIndex(metacard.getMetadata()));
+        contextualMap.put("METADATA", metacard.getMetadata());
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(PubSubConstants.HEADER_ENTRY_KEY, metacard);
+        properties.put(PubSubConstants.HEADER_OPERATION_KEY, operation);
+        properties.put(PubSubConstants.HEADER_CONTENT_TYPE_KEY,
+                metacard.getContentTypeName() + ",");
+        properties.put(PubSubConstants.HEADER_CONTEXTUAL_KEY, contextualMap);
+
+        return index.getCandidates(properties);
+    }
+}
@@ -27,6 +27,7 @@
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
@@ -535,8 +536,13 @@ private ContentItem generateContentFile(ContentItem item, Path contentDirectory)
 
         long copy;
 
-        try (InputStream inputStream = item.getInputStream()) {
-            copy = Files.copy(inputStream, contentItemPath);
+        Optional<Path> itemPath = item.getPath();
+        if (itemPath.isPresent() && createLink(contentItemPath, itemPath.get())) {
+            copy = Files.size(contentItemPath);
+        } else {
+            try (InputStream inputStream = item.getInputStream()) {
+                copy = Files.copy(inputStream, contentItemPath);
+            }
         }
 
         if (copy != item.getSize()) {
@@ -561,6 +567,25 @@ private ContentItem generateContentFile(ContentItem item, Path contentDirectory)
         return contentItem;
     }
 
+    /**
+     * Links the content file to the file the content item is already in, so its data doesn't
+     * have to be copied. Both files must be on the same file system.
+     *
+     * @return true if the link was created, false if the data has to be copied instead
+     */
+    private boolean createLink(Path contentItemPath, Path itemPath) {
+        try {
+            Files.createLink(contentItemPath, itemPath);
+            return true;
+        } catch (IOException | UnsupportedOperationException | SecurityException e) {
+            LOGGER.debug("Unable to link {} to {}, copying it instead.",
+                    contentItemPath,
+                    itemPath,
+                    e);
+            return false;
+        }
+    }
+
     public MimeTypeMapper getMimeTypeMapper() {
         return mimeTypeMapper;
     }
@@ -29,7 +29,9 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -37,6 +39,7 @@
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
@@ -54,6 +57,7 @@
 import ddf.catalog.content.StorageException;
 import ddf.catalog.content.data.ContentItem;
 import ddf.catalog.content.data.impl.ContentItemImpl;
+import ddf.catalog.content.data.impl.FileContentItem;
 import ddf.catalog.content.operation.CreateStorageRequest;
 import ddf.catalog.content.operation.CreateStorageResponse;
 import ddf.catalog.content.operation.DeleteStorageRequest;
@@ -140,6 +144,48 @@ public void testCreateMimeTypeWithIdAndOtherParameter() throws Exception {
         assertContentItem(TEST_INPUT_CONTENTS, mimeType, "test.xml");
     }
 
+    @Test
+    public void testCreateFromFile() throws Exception {
+        Path file = tempFolder.newFile("upload.nitf")
+                .toPath();
+        Files.write(file, TEST_INPUT_CONTENTS.getBytes(StandardCharsets.UTF_8));
+        String uuid = UUID.randomUUID()
+                .toString()
+                .replaceAll("-", "");
+        ContentItem contentItem = new FileContentItem(uuid,
+                "",
+                file,
+                NITF_MIME_TYPE,
+                TEST_INPUT_FILENAME,
+                Files.size(file),
+                mock(Metacard.class));
+        CreateStorageRequest createRequest = new CreateStorageRequestImpl(Collections.singletonList(
+                contentItem), null);
+
+        CreateStorageResponse createResponse = provider.create(createRequest);
+        provider.commit(createRequest);
+
+        Path storedFile;
+        try (Stream<Path> files = Files.walk(Paths.get(baseDir))) {
+            storedFile = files.filter(path -> path.getFileName()
+                    .toString()
+                    .equals(TEST_INPUT_FILENAME))
+                    .findFirst()
+                    .orElseThrow(() -> new AssertionError("Content was not stored"));
+        }
+        assertThat(Files.isSameFile(storedFile, file), is(true));
+        Files.delete(file);
+
+        URI uri = new URI(createResponse.getCreatedContentItems()
+                .get(0)
+                .getUri());
+        ReadStorageResponse readResponse = provider.read(new ReadStorageRequestImpl(uri, null));
+        try (InputStream inputStream = readResponse.getContentItem()
+                .getInputStream()) {
+            assertThat(IOUtils.toString(inputStream), is(TEST_INPUT_CONTENTS));
+        }
+    }
+
     @Test
     public void testRead() throws Exception {
         CreateStorageResponse createResponse = assertContentItem(TEST_INPUT_CONTENTS,
@@ -13,11 +13,7 @@
  */
 package ddf.catalog.source.solr;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.io.StringReader;
 import java.nio.charset.StandardCharsets;
@@ -48,9 +44,11 @@
 import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.util.NamedList;
 import org.apache.solr.common.util.SimpleOrderedMap;
 import org.codehaus.stax2.XMLInputFactory2;
 import org.codice.solr.factory.impl.ConfigurationStore;
+import org.codice.solr.xpath.XpathPathIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -70,6 +68,8 @@
 import ddf.catalog.data.Result;
 import ddf.catalog.data.impl.AttributeDescriptorImpl;
 import ddf.catalog.data.impl.BasicTypes;
+import ddf.catalog.data.impl.BinaryMetacardCodec;
+import ddf.catalog.data.impl.MetacardCodec;
 import ddf.catalog.data.impl.MetacardTypeImpl;
 import ddf.catalog.data.types.Validation;
 import lux.Config;
@@ -102,6 +102,8 @@ public class DynamicSchemaResolver {
 
     protected static final String FIELDS_KEY = "fields";
 
+    protected static final String SCHEMA_KEY = "schema";
+
     protected static final String COULD_NOT_SERIALIZE_OBJECT_MESSAGE = "Could not serialize object";
 
     protected static final XMLInputFactory XML_INPUT_FACTORY;
@@ -112,6 +114,7 @@ public class DynamicSchemaResolver {
             SchemaFields.METACARD_TYPE_FIELD_NAME,
             SchemaFields.METACARD_TYPE_OBJECT_FIELD_NAME,
             LUX_XML_FIELD_NAME,
+            XpathPathIndex.PATH_FIELD_NAME,
             SCORE_FIELD_NAME);
 
     private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
@@ -151,6 +154,10 @@ public class DynamicSchemaResolver {
 
     private Processor processor = new Processor(new Config());
 
+    private MetacardCodec metacardCodec = new BinaryMetacardCodec();
+
+    private volatile boolean pathIndexEnabled = false;
+
     public DynamicSchemaResolver() {
         this.schemaFields = new SchemaFields();
 
@@ -171,6 +178,16 @@ public DynamicSchemaResolver() {
         fieldsCache.add(Validation.VALIDATION_WARNINGS + SchemaFields.TEXT_SUFFIX);
     }
 
+    /**
+     * Sets the codec used to store {@link MetacardType}s and {@link AttributeFormat#OBJECT}
+     * values in Solr. Values that were stored with Java serialization can still be read.
+     *
+     * @param metacardCodec the codec to use
+     */
+    public void setMetacardCodec(MetacardCodec metacardCodec) {
+        this.metacardCodec = metacardCodec;
+    }
+
     /**
      * Adds the fields that are already in Solr to the cache. This method should be called
      * once the SolrClient is up to ensure the cache is synchronized with Solr.
@@ -208,6 +225,37 @@ public void addFieldsFromClient(SolrClient client) {
         } catch (SolrServerException | SolrException | IOException e) {
             LOGGER.info("Could not update cache for field names.", e);
         }
+
+        pathIndexEnabled = isSchemaField(client, XpathPathIndex.PATH_FIELD_NAME);
+        if (!pathIndexEnabled) {
+            LOGGER.info("Solr schema does not declare the {} field, XPath queries will not be "
+                    + "pre-filtered. Add the field to the schema.xml of the core to enable it.",
+                    XpathPathIndex.PATH_FIELD_NAME);
+        }
+    }
+
+    /**
+     * Checks whether the schema declares a field. Unlike the fields returned by the default luke
+     * request, this includes fields that no document has been indexed with yet.
+     */
+    private boolean isSchemaField(SolrClient client, String fieldName) {
+        SolrQuery query = new SolrQuery();
+        query.setRequestHandler("/admin/luke");
+        query.add("show", SCHEMA_KEY);
+
+        try {
+            Object schema = client.query(query)
+                    .getResponse()
+                    .get(SCHEMA_KEY);
+            if (schema instanceof NamedList) {
+                Object fields = ((NamedList<?>) schema).get(FIELDS_KEY);
+                return fields instanceof NamedList
+                        && ((NamedList<?>) fields).get(fieldName) != null;
+            }
+        } catch (SolrServerException | SolrException | IOException e) {
+            LOGGER.info("Could not read the Solr schema.", e);
+        }
+        return false;
     }
 
     /**
@@ -255,14 +303,11 @@ public void addFields(Metacard metacard, SolrInputDocument solrInputDocument)
                         solrInputDocument.addField(specialStringIndexName + SchemaFields.HAS_CASE,
                                 parsedTexts);
                     } else if (AttributeFormat.OBJECT.equals(format)) {
-                        ByteArrayOutputStream byteArrayOS = new ByteArrayOutputStream();
-                        List<Serializable> byteArrays = new ArrayList<>();
+                        List<Serializable> byteArrays = new ArrayList<>(attributeValues.size());
 
-                        try (ObjectOutputStream out = new ObjectOutputStream(byteArrayOS)) {
+                        try {
                             for (Serializable serializable : attributeValues) {
-                                out.writeObject(serializable);
-                                byteArrays.add(byteArrayOS.toByteArray());
-                                out.reset();
+                                byteArrays.add(metacardCodec.encodeValue(serializable));
                             }
                         } catch (IOException e) {
                             throw new MetacardCreationException(COULD_NOT_SERIALIZE_OBJECT_MESSAGE, e);
@@ -296,8 +341,13 @@ public void addFields(Metacard metacard, SolrInputDocument solrInputDocument)
                 .isDisableTextPath()) {
             if (StringUtils.isNotBlank(metacard.getMetadata())) {
                 try {
-                    byte[] luxXml = createTinyBinary(metacard.getMetadata());
-                    solrInputDocument.addField(LUX_XML_FIELD_NAME, luxXml);
+                    XdmNode document = parseMetadata(metacard.getMetadata());
+                    solrInputDocument.addField(LUX_XML_FIELD_NAME, createTinyBinary(document));
+                    // Cores created before the path index was added don't have the field
+                    if (pathIndexEnabled) {
+                        solrInputDocument.addField(XpathPathIndex.PATH_FIELD_NAME,
+                                XpathPathIndex.getPathTokens(document));
+                    }
                 } catch (XMLStreamException | SaxonApiException e) {
                     LOGGER.debug(
                             "Unable to parse metadata field.  XPath support unavailable for metacard {}",
@@ -357,7 +407,7 @@ private String createCenterPoint(List<Serializable> values) {
         return centerPoint.getY() + "," + centerPoint.getX();
     }
 
-    private byte[] createTinyBinary(String xml) throws XMLStreamException, SaxonApiException {
+    private XdmNode parseMetadata(String xml) throws XMLStreamException, SaxonApiException {
         SaxonDocBuilder builder = new SaxonDocBuilder(processor);
 
         XmlReader xmlReader = new XmlReader();
@@ -365,8 +415,10 @@ private byte[] createTinyBinary(String xml) throws XMLStreamException, SaxonApiE
         xmlReader.setStripNamespaces(true);
         xmlReader.read(IOUtils.toInputStream(xml));
 
-        XdmNode node = builder.getDocument();
+        return builder.getDocument();
+    }
 
+    private byte[] createTinyBinary(XdmNode node) {
         TinyTree tinyTree = ((TinyDocumentImpl) node.getUnderlyingNode()).getTree();
         TinyBinary tinyBinary = new TinyBinary(tinyTree, StandardCharsets.UTF_8);
 
@@ -412,21 +464,10 @@ public Serializable getDocValue(String solrFieldName, Object docValue) {
              */
             return Short.parseShort(docValue.toString());
         } else if (AttributeFormat.OBJECT.equals(format)) {
-
-            ByteArrayInputStream bais = null;
-            ObjectInputStream in = null;
             try {
-                bais = new ByteArrayInputStream((byte[]) docValue);
-                in = new ObjectInputStream(bais);
-                return (Serializable) in.readObject();
+                return metacardCodec.decodeValue((byte[]) docValue);
             } catch (IOException e) {
-                LOGGER.info("IO exception loading input document", e);
-            } catch (ClassNotFoundException e) {
                 LOGGER.info("Could not create object to return.", e);
-                // TODO which exception to throw?
-            } finally {
-                IOUtils.closeQuietly(bais);
-                IOUtils.closeQuietly(in);
             }
 
             return null;
@@ -539,28 +580,12 @@ public MetacardType getMetacardType(SolrDocument doc) throws MetacardCreationExc
 
         byte[] bytes = (byte[]) doc.getFirstValue(SchemaFields.METACARD_TYPE_OBJECT_FIELD_NAME);
 
-        ByteArrayInputStream bais = null;
-        ObjectInputStream in = null;
         try {
-
-            bais = new ByteArrayInputStream(bytes);
-
-            in = new ObjectInputStream(bais);
-
-            cachedMetacardType = (MetacardType) in.readObject();
-
+            cachedMetacardType = metacardCodec.decodeMetacardType(bytes);
         } catch (IOException e) {
-
             LOGGER.info("IO exception loading cached metacard type", e);
 
             throw new MetacardCreationException(COULD_NOT_READ_METACARD_TYPE_MESSAGE);
-        } catch (ClassNotFoundException e) {
-            LOGGER.info("Class exception loading cached metacard type", e);
-
-            throw new MetacardCreationException(COULD_NOT_READ_METACARD_TYPE_MESSAGE);
-        } finally {
-            IOUtils.closeQuietly(bais);
-            IOUtils.closeQuietly(in);
         }
 
         metacardTypeNameToSerialCache.put(mTypeFieldName, bytes);
@@ -627,22 +652,11 @@ private void addToFieldsCache(Set<AttributeDescriptor> descriptors) {
     }
 
     private byte[] serialize(MetacardType anywhereMType) throws MetacardCreationException {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-
         try {
-            ObjectOutputStream out = new ObjectOutputStream(baos);
-            out.writeObject(anywhereMType);
-
-            byte[] bytes = baos.toByteArray();
-
-            baos.close();
-            out.close();
-
-            return bytes;
+            return metacardCodec.encodeMetacardType(anywhereMType);
         } catch (IOException e) {
             throw new MetacardCreationException(COULD_NOT_READ_METACARD_TYPE_MESSAGE, e);
         }
-
     }
 
     private String findAnyMatchingNumericalField(String propertyName) {
@@ -13,17 +13,18 @@
  */
 package ddf.catalog.source.solr;
 
-import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 import ddf.catalog.data.Metacard;
 import ddf.catalog.filter.impl.SimpleFilterDelegate;
 
 /**
- * Filter delegate that returns all IDs used in metacard ID equality filters.
+ * Filter delegate that returns the IDs of the only metacards a filter can match, i.e., the IDs
+ * used in metacard ID equality filters that bound the whole filter. Returns an empty set if the
+ * filter can match metacards regardless of their ID.
  */
 public class MetacardIdEqualityFilterDelegate extends SimpleFilterDelegate<Set<String>> {
 
@@ -51,12 +52,33 @@ public <S> Set<String> propertyIsNotEqualTo(String propertyName, S literal,
 
     @Override
     public Set<String> and(List<Set<String>> operands) {
-        return joinIds(operands);
+        // Any bounded operand bounds the conjunction
+        Set<String> ids = null;
+        for (Set<String> operand : operands) {
+            if (!operand.isEmpty()) {
+                if (ids == null) {
+                    ids = new HashSet<>(operand);
+                } else {
+                    ids.retainAll(operand);
+                }
+            }
+        }
+
+        return ids == null ? Collections.emptySet() : ids;
     }
 
     @Override
     public Set<String> or(List<Set<String>> operands) {
-        return joinIds(operands);
+        // Every operand has to be bounded to bound the disjunction
+        Set<String> ids = new HashSet<>();
+        for (Set<String> operand : operands) {
+            if (operand.isEmpty()) {
+                return Collections.emptySet();
+            }
+            ids.addAll(operand);
+        }
+
+        return ids;
     }
 
     @Override
@@ -64,10 +86,4 @@ public Set<String> not(Set<String> operand) {
         return Collections.emptySet();
     }
 
-    private Set<String> joinIds(List<Set<String>> operands) {
-        return operands.stream()
-                .flatMap(Collection::stream)
-                .collect(Collectors.toSet());
-    }
-
 }
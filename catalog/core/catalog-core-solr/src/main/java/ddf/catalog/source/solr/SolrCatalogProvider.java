@@ -21,20 +21,15 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Objects;
 import java.util.Properties;
 import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
 
 import org.apache.commons.lang.StringUtils;
-import org.apache.commons.lang.math.NumberUtils;
 import org.apache.solr.client.solrj.SolrClient;
 import org.apache.solr.client.solrj.SolrQuery;
 import org.apache.solr.client.solrj.SolrRequest.METHOD;
 import org.apache.solr.client.solrj.SolrServerException;
-import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.client.solrj.response.SolrPingResponse;
 import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrDocumentList;
@@ -43,16 +38,11 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
-
 import ddf.catalog.data.ContentType;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.MetacardCreationException;
-import ddf.catalog.data.Result;
 import ddf.catalog.data.impl.AttributeImpl;
 import ddf.catalog.data.impl.MetacardImpl;
-import ddf.catalog.data.impl.ResultImpl;
 import ddf.catalog.filter.FilterAdapter;
 import ddf.catalog.operation.CreateRequest;
 import ddf.catalog.operation.CreateResponse;
@@ -110,14 +100,7 @@ public class SolrCatalogProvider extends MaskableImpl implements CatalogProvider
 
     private FilterAdapter filterAdapter;
 
-    /**
-     * Cache of Metacards that have been updated on Solr but might not be visible in the
-     * near real time index yet.  Cache is checked when ID queries fail from Solr.
-     */
-    private Cache<String, Metacard> pendingNrtIndex = CacheBuilder.newBuilder()
-            .expireAfterWrite(NumberUtils.toInt(System.getProperty("solr.provider.pending-nrt-ttl"),
-                    5), TimeUnit.SECONDS)
-            .build();
+    private final boolean updateLogEnabled;
 
     /**
      * Constructor that creates a new instance and allows for a custom {@link DynamicSchemaResolver}
@@ -145,6 +128,13 @@ public SolrCatalogProvider(SolrClient solrClient, FilterAdapter adapter,
                 adapter,
                 solrFilterDelegateFactory,
                 resolver);
+
+        updateLogEnabled = client.hasUpdateLog();
+        if (!updateLogEnabled) {
+            LOGGER.warn("Solr core has no update log, so every create and update is committed "
+                    + "to keep the new metacards visible to updates by ID. Add an <updateLog> to "
+                    + "the solrconfig.xml of the core to avoid these commits.");
+        }
     }
 
     /**
@@ -215,36 +205,31 @@ public void maskId(String id) {
 
     @Override
     public SourceResponse query(QueryRequest request) throws UnsupportedQueryException {
-        SourceResponse response = client.query(request);
-        queryPendingNrtIndex(request, response);
-        return response;
+        String id = getQueriedId(request);
+        if (id != null) {
+            return client.queryById(request, id);
+        }
+        return client.query(request);
     }
 
-    private void queryPendingNrtIndex(QueryRequest request, SourceResponse response)
-            throws UnsupportedQueryException {
-        if (request == null || request.getQuery() == null) {
-            return;
+    /**
+     * Returns the ID of the only metacard a query can match on its first page, so that it can be
+     * looked up without waiting for the near real time index.
+     */
+    private String getQueriedId(QueryRequest request) throws UnsupportedQueryException {
+        if (request == null || request.getQuery() == null || request.getQuery()
+                .getStartIndex() != 1) {
+            return null;
         }
 
         Set<String> ids = filterAdapter.adapt(request.getQuery(),
                 new MetacardIdEqualityFilterDelegate());
-        if (ids.size() == 0) {
-            return;
-        }
-
-        for (Result result : response.getResults()) {
-            ids.remove(result.getMetacard()
-                    .getId());
+        if (ids.size() != 1) {
+            return null;
         }
 
-        List<Result> pendingResults = pendingNrtIndex.getAllPresent(ids)
-                .values()
-                .stream()
-                .filter(Objects::nonNull)
-                .map(ResultImpl::new)
-                .collect(Collectors.toList());
-
-        response.getResults().addAll(pendingResults);
+        return ids.iterator()
+                .next();
     }
 
     @Override
@@ -282,15 +267,12 @@ public CreateResponse create(CreateRequest request) throws IngestException {
         }
 
         try {
-            client.add(output, isForcedAutoCommit());
+            client.add(output, isCommitRequired());
         } catch (SolrServerException | SolrException | IOException | MetacardCreationException e) {
             LOGGER.info("Solr could not ingest metacard(s) during create.", e);
             throw new IngestException("Could not ingest metacard(s).");
         }
 
-        pendingNrtIndex.putAll(output.stream()
-                .collect(Collectors.toMap(Metacard::getId, m -> copyMetacard(m))));
-
         return new CreateResponseImpl(request, request.getProperties(), output);
     }
 
@@ -328,16 +310,18 @@ public UpdateResponse update(UpdateRequest updateRequest) throws IngestException
                     .toString());
         }
 
-        /* 1a. Create the old Metacard Query */
-        String attributeQuery = getQuery(attributeName, identifiers);
-
-        SolrQuery query = new SolrQuery(attributeQuery);
-
-        QueryResponse idResults = null;
-
-        /* 1b. Execute Query */
+        /* 1a. Execute Query */
+        SolrDocumentList idResults = null;
         try {
-            idResults = solr.query(query, METHOD.POST);
+            if (Metacard.ID.equals(attributeName)) {
+                idResults = client.getByIds(identifiers);
+            } else {
+                SolrQuery query = new SolrQuery(getQuery(attributeName, identifiers));
+                // Ask for one more row than identifiers so duplicate matches are still detected
+                query.setRows(identifiers.size() + 1);
+                idResults = solr.query(query, METHOD.POST)
+                        .getResults();
+            }
         } catch (SolrServerException | IOException e) {
             LOGGER.info("Failed to query for metacard(s) before update.", e);
         }
@@ -345,22 +329,18 @@ public UpdateResponse update(UpdateRequest updateRequest) throws IngestException
         // map of old metacards to be populated
         Map<Serializable, Metacard> idToMetacardMap = new HashMap<>();
 
-        /* 1c. Populate list of old metacards */
-        if (idResults != null && idResults.getResults() != null && idResults.getResults()
-                .size() != 0) {
+        /* 1b. Populate list of old metacards */
+        if (idResults != null && idResults.size() != 0) {
 
-            LOGGER.debug("Found {} current metacard(s).",
-                    idResults.getResults()
-                            .size());
+            LOGGER.debug("Found {} current metacard(s).", idResults.size());
 
             // CHECK updates size assertion
-            if (idResults.getResults()
-                    .size() > updates.size()) {
+            if (idResults.size() > updates.size()) {
                 throw new IngestException(
                         "Found more metacards than updated metacards provided. Please ensure your attribute values match unique records.");
             }
 
-            for (SolrDocument doc : idResults.getResults()) {
+            for (SolrDocument doc : idResults) {
                 Metacard old;
                 try {
                     old = client.createMetacard(doc);
@@ -382,10 +362,6 @@ public UpdateResponse update(UpdateRequest updateRequest) throws IngestException
             }
         }
 
-        if (Metacard.ID.equals(attributeName)) {
-            idToMetacardMap.putAll(pendingNrtIndex.getAllPresent(identifiers));
-        }
-
         if (idToMetacardMap.size() == 0) {
             LOGGER.debug("No results found for given attribute values.");
 
@@ -420,16 +396,12 @@ public UpdateResponse update(UpdateRequest updateRequest) throws IngestException
         }
 
         try {
-            client.add(newMetacards, isForcedAutoCommit());
+            client.add(newMetacards, isCommitRequired());
         } catch (SolrServerException | SolrException | IOException | MetacardCreationException e) {
             LOGGER.info("Failed to update metacard(s) with Solr.", e);
             throw new IngestException("Failed to update metacard(s).");
         }
 
-        pendingNrtIndex.putAll(updateList.stream()
-                .collect(Collectors.toMap(u -> u.getNewMetacard()
-                        .getId(), u -> copyMetacard(u.getNewMetacard()))));
-
         return new UpdateResponseImpl(updateRequest, updateRequest.getProperties(), updateList);
     }
 
@@ -472,12 +444,6 @@ public DeleteResponse delete(DeleteRequest deleteRequest) throws IngestException
                     identifiers.size());
             deleteListOfMetacards(deletedMetacards, identifierPaged, attributeName);
         }
-        addPendingNrtDeletedMetacards(deletedMetacards, identifiers);
-
-        pendingNrtIndex.invalidateAll(deletedMetacards.stream()
-                .map(Metacard::getId)
-                .collect(Collectors.toList()));
-
         return new DeleteResponseImpl(deleteRequest, null, deletedMetacards);
 
     }
@@ -517,37 +483,23 @@ private void createListOfDeletedMetacards(List<Metacard> deletedMetacards,
         }
     }
 
-    private void addPendingNrtDeletedMetacards(List<Metacard> deletedMetacards,
-            List<? extends Serializable> identifiers) {
-        if (deletedMetacards.size() < identifiers.size() && pendingNrtIndex.getAllPresent(
-                identifiers)
-                .size() > 0) {
-            Map<String, Metacard> matches = pendingNrtIndex.getAllPresent(identifiers);
-
-            deletedMetacards.forEach(m -> matches.remove(m.getId()));
-            deletedMetacards.addAll(matches.values());
-        }
-    }
-
-    private Metacard copyMetacard(Metacard original) {
-        MetacardImpl copy = new MetacardImpl(original, original.getMetacardType());
-        copy.setSourceId(original.getSourceId());
-        return copy;
-    }
-
     private SolrDocumentList getSolrDocumentList(List<? extends Serializable> identifierPaged,
             String fieldName) throws IngestException {
-        SolrQuery query = new SolrQuery(client.getIdentifierQuery(fieldName, identifierPaged));
-        query.setRows(identifierPaged.size());
-
-        QueryResponse solrResponse;
         try {
-            solrResponse = solr.query(query, METHOD.POST);
+            if ((Metacard.ID + SchemaFields.TEXT_SUFFIX).equals(fieldName)) {
+                return client.getByIds(identifierPaged);
+            }
+
+            SolrQuery query = new SolrQuery(client.getIdentifierQuery(fieldName,
+                    identifierPaged));
+            query.setRows(identifierPaged.size());
+
+            return solr.query(query, METHOD.POST)
+                    .getResults();
         } catch (SolrServerException | IOException e) {
             LOGGER.info("Failed to get list of Solr documents for delete.", e);
             throw new IngestException(COULD_NOT_COMPLETE_DELETE_REQUEST_MESSAGE);
         }
-        return solrResponse.getResults();
     }
 
     private String getQuery(String attributeName, List<String> ids) throws IngestException {
@@ -593,6 +545,14 @@ public boolean isForcedAutoCommit() {
                 .isForceAutoCommit();
     }
 
+    /**
+     * Realtime get only finds uncommitted documents through the update log, so without one every
+     * change is committed.
+     */
+    private boolean isCommitRequired() {
+        return isForcedAutoCommit() || !updateLogEnabled;
+    }
+
     public void shutdown() {
         LOGGER.debug("Closing down Solr client.");
         try {
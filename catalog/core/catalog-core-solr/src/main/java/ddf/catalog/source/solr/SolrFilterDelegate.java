@@ -161,9 +161,9 @@ private void combineXpathFilterQueries(SolrQuery query, List<SolrQuery> subQueri
                 for (String param : params) {
                     if (StringUtils.startsWith(param, XPATH_QUERY_PARSER_PREFIX)) {
                         if (StringUtils.contains(param, XPATH_FILTER_QUERY_INDEX)) {
-                            xpathIndexes.add(StringUtils.substringAfter(StringUtils.substringBeforeLast(
-                                    param,
-                                    "\""), XPATH_FILTER_QUERY_INDEX + ":\""));
+                            // Keep the whole index query, which may itself combine several XPaths
+                            xpathIndexes.add(StringUtils.removeStart(param,
+                                    XPATH_QUERY_PARSER_PREFIX));
                         } else if (StringUtils.startsWith(param,
                                 XPATH_QUERY_PARSER_PREFIX + XPATH_FILTER_QUERY)) {
                             xpathFilters.add(StringUtils.substringAfter(StringUtils.substringBeforeLast(
@@ -184,13 +184,15 @@ private void combineXpathFilterQueries(SolrQuery query, List<SolrQuery> subQueri
                             operator.toLowerCase()) + ")\"";
 
             List<String> indexes = new ArrayList<>();
-            for (String xpath : xpathIndexes) {
-                indexes.add("(" + XPATH_FILTER_QUERY_INDEX + ":\"" + xpath + "\")");
+            for (String index : xpathIndexes) {
+                indexes.add("(" + index + ")");
+            }
+            if (indexes.isEmpty()) {
+                query.setParam(FILTER_QUERY_PARAM_NAME, filter);
+            } else {
+                String index = XPATH_QUERY_PARSER_PREFIX + StringUtils.join(indexes, operator);
+                query.setParam(FILTER_QUERY_PARAM_NAME, filter, index);
             }
-            // TODO DDF-1882 add pre-filter xpath index
-            //String index = XPATH_QUERY_PARSER_PREFIX + StringUtils.join(indexes, operator);
-            //query.setParam(FILTER_QUERY_PARAM_NAME, filter, index);
-            query.setParam(FILTER_QUERY_PARAM_NAME, filter);
         } else if (queryParams.size() > 0) {
             // Pass through original filter queries if only a single XPath is present
             query.setParam(FILTER_QUERY_PARAM_NAME,
@@ -727,11 +729,8 @@ private SolrQuery getXPathQuery(final String pattern, final String searchPhrase,
 
         SolrQuery solrQuery = new SolrQuery(query);
         solrQuery.addFilterQuery(
-                XPATH_QUERY_PARSER_PREFIX + XPATH_FILTER_QUERY + ":\"" + xpath + "\"");
-        // TODO DDF-1882 add pre-filter xpath index
-        //        solrQuery.addFilterQuery(
-        //                XPATH_QUERY_PARSER_PREFIX + XPATH_FILTER_QUERY + ":\"" + xpath + "\"",
-        //                XPATH_QUERY_PARSER_PREFIX + XPATH_FILTER_QUERY_INDEX + ":\"" + xpath + "\"");
+                XPATH_QUERY_PARSER_PREFIX + XPATH_FILTER_QUERY + ":\"" + xpath + "\"",
+                XPATH_QUERY_PARSER_PREFIX + XPATH_FILTER_QUERY_INDEX + ":\"" + xpath + "\"");
 
         return solrQuery;
     }
@@ -18,10 +18,12 @@
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.Transformer;
@@ -51,6 +53,7 @@
 import ddf.catalog.data.MetacardType;
 import ddf.catalog.data.Result;
 import ddf.catalog.data.impl.AttributeImpl;
+import ddf.catalog.data.impl.CompactMetacardImpl;
 import ddf.catalog.data.impl.ContentTypeImpl;
 import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.data.impl.ResultImpl;
@@ -77,6 +80,14 @@ public class SolrMetacardClientImpl implements SolrMetacardClient {
 
     private static final String QUOTE = "\"";
 
+    private static final String REALTIME_GET_HANDLER = "/get";
+
+    private static final String IDS_PARAM = "ids";
+
+    private static final String GET_VERSIONS_PARAM = "getVersions";
+
+    private static final String VERSIONS_KEY = "versions";
+
     public static final String SORT_FIELD_KEY = "sfield";
 
     public static final String POINT_KEY = "pt";
@@ -110,36 +121,133 @@ public SourceResponse query(QueryRequest request) throws UnsupportedQueryExcepti
 
         SolrQuery query = getSolrQuery(request, filterDelegateFactory.newInstance(resolver));
 
-        long totalHits;
-        List<Result> results = new ArrayList<>();
+        SolrDocumentList docs;
         try {
             QueryResponse solrResponse = client.query(query, SolrRequest.METHOD.POST);
-            totalHits = solrResponse.getResults()
-                    .getNumFound();
-            SolrDocumentList docs = solrResponse.getResults();
+            docs = solrResponse.getResults();
+        } catch (SolrServerException | IOException | SolrException e) {
+            throw new UnsupportedQueryException("Could not complete solr query.", e);
+        }
 
-            for (SolrDocument doc : docs) {
-                if (LOGGER.isDebugEnabled()) {
-                    LOGGER.debug("SOLR DOC: {}",
-                            doc.getFieldValue(Metacard.ID + SchemaFields.TEXT_SUFFIX));
-                }
-                ResultImpl tmpResult;
-                try {
-                    tmpResult = createResult(doc);
-                } catch (MetacardCreationException e) {
-                    throw new UnsupportedQueryException("Could not create metacard(s).", e);
-                }
+        return createResponse(request, docs);
+    }
 
-                results.add(tmpResult);
-            }
+    /**
+     * Runs a query that can only match the metacard with the given ID through Solr's realtime get
+     * handler, so that the metacard is found even if it hasn't been committed yet. Queries that
+     * need a searcher, i.e., XPath filters and distance sorts, are run as regular queries.
+     *
+     * @param request query request to execute against Solr
+     * @param id      ID of the only metacard the query can match
+     * @return converted Solr response
+     * @throws UnsupportedQueryException if the query is not supported
+     */
+    public SourceResponse queryById(QueryRequest request, String id)
+            throws UnsupportedQueryException {
+        SolrFilterDelegate solrFilterDelegate = filterDelegateFactory.newInstance(resolver);
+        SolrQuery query = getSolrQuery(request, solrFilterDelegate);
+
+        if (query.getFilterQueries() != null || solrFilterDelegate.isSortedByDistance()) {
+            return query(request);
+        }
 
+        SolrQuery realTimeQuery = new SolrQuery();
+        realTimeQuery.addFilterQuery(query.getQuery());
+
+        SolrDocumentList docs;
+        try {
+            docs = getByIds(Collections.singletonList(id), realTimeQuery);
         } catch (SolrServerException | IOException | SolrException e) {
             throw new UnsupportedQueryException("Could not complete solr query.", e);
         }
 
-        SourceResponse sourceResponse = new SourceResponseImpl(request, results, totalHits);
+        return createResponse(request, docs);
+    }
+
+    /**
+     * Gets documents by {@link Metacard#ID} through Solr's realtime get handler, which also
+     * returns documents that have been added but not committed yet.
+     *
+     * @param ids metacard IDs of the documents to get
+     * @return the documents found, in no particular order
+     * @throws IOException         if there is a communication error with the server
+     * @throws SolrServerException if there is an error on the server
+     */
+    public SolrDocumentList getByIds(Collection<? extends Serializable> ids)
+            throws IOException, SolrServerException {
+        return getByIds(ids, new SolrQuery());
+    }
+
+    /**
+     * Checks whether the core keeps an update log. Without one, the realtime get handler only
+     * returns documents that have been committed.
+     *
+     * @return true if the core has an update log, false if it doesn't or if it couldn't be checked
+     */
+    public boolean hasUpdateLog() {
+        SolrQuery query = new SolrQuery();
+        query.setRequestHandler(REALTIME_GET_HANDLER);
+        query.set(GET_VERSIONS_PARAM, 1);
+
+        try {
+            // The handler only lists the recent versions when there is an update log
+            return client.query(query)
+                    .getResponse()
+                    .get(VERSIONS_KEY) != null;
+        } catch (SolrServerException | SolrException | IOException e) {
+            LOGGER.info("Could not check whether Solr has an update log.", e);
+            return false;
+        }
+    }
+
+    private SolrDocumentList getByIds(Collection<? extends Serializable> ids, SolrQuery query)
+            throws IOException, SolrServerException {
+        // The handler splits the ids parameter on commas, so escape them in the IDs themselves
+        List<String> escapedIds = ids.stream()
+                .map(Object::toString)
+                .distinct()
+                .map(id -> id.replace("\\", "\\\\")
+                        .replace(",", "\\,"))
+                .collect(Collectors.toList());
+
+        query.setRequestHandler(REALTIME_GET_HANDLER);
+
+        SolrDocumentList docs = new SolrDocumentList();
+        for (int i = 0; i < escapedIds.size(); i += SolrCatalogProvider.MAX_BOOLEAN_CLAUSES) {
+            List<String> batch = escapedIds.subList(i,
+                    Math.min(i + SolrCatalogProvider.MAX_BOOLEAN_CLAUSES, escapedIds.size()));
+            query.set(IDS_PARAM, String.join(",", batch));
+
+            SolrDocumentList batchDocs = client.query(query, SolrRequest.METHOD.POST)
+                    .getResults();
+            if (batchDocs != null) {
+                docs.addAll(batchDocs);
+            }
+        }
+        docs.setNumFound(docs.size());
+
+        return docs;
+    }
+
+    private SourceResponse createResponse(QueryRequest request, SolrDocumentList docs)
+            throws UnsupportedQueryException {
+        List<Result> results = new ArrayList<>();
+        for (SolrDocument doc : docs) {
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("SOLR DOC: {}",
+                        doc.getFieldValue(Metacard.ID + SchemaFields.TEXT_SUFFIX));
+            }
+            ResultImpl tmpResult;
+            try {
+                tmpResult = createResult(doc);
+            } catch (MetacardCreationException e) {
+                throw new UnsupportedQueryException("Could not create metacard(s).", e);
+            }
+
+            results.add(tmpResult);
+        }
 
-        return sourceResponse;
+        return new SourceResponseImpl(request, results, docs.getNumFound());
     }
 
     @Override
@@ -395,7 +503,7 @@ private Double degreesToMeters(double distance) {
 
     public MetacardImpl createMetacard(SolrDocument doc) throws MetacardCreationException {
         MetacardType metacardType = resolver.getMetacardType(doc);
-        MetacardImpl metacard = new MetacardImpl(metacardType);
+        MetacardImpl metacard = new CompactMetacardImpl(metacardType);
 
         for (String solrFieldName : doc.getFieldNames()) {
             if (!resolver.isPrivateField(solrFieldName)) {
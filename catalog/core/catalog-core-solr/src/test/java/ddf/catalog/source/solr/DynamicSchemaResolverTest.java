@@ -15,21 +15,26 @@
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.HashSet;
 import java.util.Set;
 
-import org.apache.commons.io.IOUtils;
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.util.NamedList;
+import org.apache.solr.common.util.SimpleOrderedMap;
+import org.codice.solr.xpath.XpathPathIndex;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 
@@ -39,6 +44,8 @@
 import ddf.catalog.data.MetacardType;
 import ddf.catalog.data.impl.AttributeDescriptorImpl;
 import ddf.catalog.data.impl.BasicTypes;
+import ddf.catalog.data.impl.BinaryMetacardCodec;
+import ddf.catalog.data.impl.MetacardImpl;
 
 public class DynamicSchemaResolverTest {
     /**
@@ -90,14 +97,59 @@ public void testAddFields() throws Exception {
         }
     }
 
+    @Test
+    public void testAddFieldsIndexesPathsWhenSchemaHasPathField() throws Exception {
+        DynamicSchemaResolver resolver = new DynamicSchemaResolver();
+        resolver.addFieldsFromClient(mockClient(true));
+        SolrInputDocument solrInputDocument = new SolrInputDocument();
+
+        resolver.addFields(metacardWithMetadata(), solrInputDocument);
+
+        assertThat(solrInputDocument.containsKey(XpathPathIndex.PATH_FIELD_NAME), is(true));
+    }
+
+    @Test
+    public void testAddFieldsSkipsPathsWhenSchemaLacksPathField() throws Exception {
+        DynamicSchemaResolver resolver = new DynamicSchemaResolver();
+        resolver.addFieldsFromClient(mockClient(false));
+        SolrInputDocument solrInputDocument = mock(SolrInputDocument.class);
+
+        resolver.addFields(metacardWithMetadata(), solrInputDocument);
+
+        verify(solrInputDocument).addField(eq(DynamicSchemaResolver.LUX_XML_FIELD_NAME), any());
+        verify(solrInputDocument, never()).addField(eq(XpathPathIndex.PATH_FIELD_NAME), any());
+    }
+
+    private SolrClient mockClient(boolean hasPathField) throws Exception {
+        SimpleOrderedMap<Object> schemaFields = new SimpleOrderedMap<>();
+        schemaFields.add(DynamicSchemaResolver.LUX_XML_FIELD_NAME, new SimpleOrderedMap<>());
+        if (hasPathField) {
+            schemaFields.add(XpathPathIndex.PATH_FIELD_NAME, new SimpleOrderedMap<>());
+        }
+        SimpleOrderedMap<Object> schema = new SimpleOrderedMap<>();
+        schema.add(DynamicSchemaResolver.FIELDS_KEY, schemaFields);
+
+        NamedList<Object> lukeResponse = new NamedList<>();
+        lukeResponse.add(DynamicSchemaResolver.FIELDS_KEY, new SimpleOrderedMap<>());
+        lukeResponse.add(DynamicSchemaResolver.SCHEMA_KEY, schema);
+
+        QueryResponse response = mock(QueryResponse.class);
+        when(response.getResponse()).thenReturn(lukeResponse);
+        SolrClient client = mock(SolrClient.class);
+        when(client.query(any(SolrQuery.class))).thenReturn(response);
+        return client;
+    }
+
+    private Metacard metacardWithMetadata() {
+        MetacardImpl metacard = new MetacardImpl();
+        metacard.setId("id");
+        metacard.setMetadata("<root><child attr=\"value\"/></root>");
+        return metacard;
+    }
+
     private MetacardType deserializeMetacardType(byte[] serializedMetacardType)
             throws ClassNotFoundException, IOException {
-        ByteArrayInputStream bais = new ByteArrayInputStream((byte[]) serializedMetacardType);
-        ObjectInputStream in = new ObjectInputStream(bais);
-        MetacardType metacardType = (MetacardType) in.readObject();
-        IOUtils.closeQuietly(bais);
-        IOUtils.closeQuietly(in);
-        return metacardType;
+        return new BinaryMetacardCodec().decodeMetacardType(serializedMetacardType);
     }
 }
 
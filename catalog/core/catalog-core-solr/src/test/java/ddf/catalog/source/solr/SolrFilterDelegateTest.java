@@ -328,8 +328,10 @@ public void testDatePropertyIsBetween() {
     public void testXpathExists() {
         String xpath = "//root/sub/@attribute";
         String expectedQuery = "{!xpath}xpath:\"" + xpath + "\"";
+        String expectedIndex = "{!xpath}xpath_index:\"" + xpath + "\"";
         SolrQuery xpathQuery = toTest.xpathExists(xpath);
         assertThat(xpathQuery.getFilterQueries()[0], is(expectedQuery));
+        assertThat(xpathQuery.getFilterQueries()[1], is(expectedIndex));
     }
 
     @Test
@@ -361,10 +363,25 @@ public void testXpathOR() {
         String expectedIndex =
                 "{!xpath}(xpath_index:\"" + xpath + "[contains(lower-case(.), 'example1')]\") OR "
                         + "(xpath_index:\"" + xpath + "[contains(lower-case(.), 'example2')]\")";
-        // TODO DDF-1882 support xpath pre-filtering
-        //        assertThat(combinedQuery.getFilterQueries().length, is(2));
+        assertThat(combinedQuery.getFilterQueries().length, is(2));
         assertThat(combinedQuery.getFilterQueries()[0], is(combinedExpectedFilter));
-        //        assertThat(combinedQuery.getFilterQueries()[1], is(expectedIndex));
+        assertThat(combinedQuery.getFilterQueries()[1], is(expectedIndex));
+    }
+
+    @Test
+    public void testNestedXpathIndexesKeepGrouping() {
+        String xpath = "//root/sub/@attribute";
+        SolrQuery orQuery = toTest.or(Arrays.asList(toTest.xpathIsLike(xpath, "example1", false),
+                toTest.xpathIsLike(xpath, "example2", false)));
+        SolrQuery combinedQuery = toTest.and(Arrays.asList(orQuery, toTest.xpathExists(xpath)));
+
+        String expectedIndex =
+                "{!xpath}((xpath_index:\"" + xpath + "[contains(lower-case(.), 'example1')]\") OR "
+                        + "(xpath_index:\"" + xpath
+                        + "[contains(lower-case(.), 'example2')]\")) AND (xpath_index:\"" + xpath
+                        + "\")";
+        assertThat(combinedQuery.getFilterQueries().length, is(2));
+        assertThat(combinedQuery.getFilterQueries()[1], is(expectedIndex));
     }
 
     private Date getCannedTime() {
@@ -1213,6 +1213,49 @@ public String getAttributeName() {
 
     }
 
+    /**
+     * Tests that an update by an alternative attribute finds every old metacard, even when there
+     * are more than Solr returns by default.
+     *
+     * @throws IngestException
+     * @throws UnsupportedQueryException
+     */
+    @Test
+    public void testUpdateAlternativeAttributeManyMetacards()
+            throws IngestException, UnsupportedQueryException {
+
+        deleteAllIn(provider);
+
+        int metacardCount = 15;
+        List<Metacard> metacards = new ArrayList<>();
+        for (int i = 0; i < metacardCount; i++) {
+            MockMetacard metacard = new MockMetacard(Library.getFlagstaffRecord());
+            metacard.setTitle("Title " + i);
+            metacards.add(metacard);
+        }
+
+        create(metacards);
+
+        List<Entry<Serializable, Metacard>> updateList = new ArrayList<>();
+        for (Metacard metacard : metacards) {
+            MetacardImpl newMetacard = new MetacardImpl(metacard);
+            newMetacard.setContentTypeName("newContentName");
+            updateList.add(new SimpleEntry<>(metacard.getTitle(), newMetacard));
+        }
+
+        UpdateResponse response = provider.update(new UpdateRequestImpl(updateList,
+                Metacard.TITLE,
+                null));
+
+        assertThat(response.getUpdatedMetacards()
+                .size(), is(metacardCount));
+        for (Update update : response.getUpdatedMetacards()) {
+            assertThat(update.getNewMetacard()
+                    .getId(), is(update.getOldMetacard()
+                    .getId()));
+        }
+    }
+
     /**
      * Tests if we catch properly the case that the attribute value matches multiple Metacards.
      *
@@ -1797,6 +1840,85 @@ public void testDeletePendingNrtIndex() throws Exception {
         }
     }
 
+    @Test
+    public void testUpdateBatchPendingNrtIndex() throws Exception {
+        deleteAllIn(provider);
+        ConfigurationStore.getInstance()
+                .setForceAutoCommit(false);
+
+        try {
+            List<Metacard> metacards = new ArrayList<>();
+            for (int i = 0; i < 25; i++) {
+                metacards.add(new MockMetacard(Library.getFlagstaffRecord()));
+            }
+
+            CreateResponse createResponse = create(metacards);
+
+            List<String> ids = new ArrayList<>();
+            List<Metacard> updatedMetacards = new ArrayList<>();
+            for (Metacard created : createResponse.getCreatedMetacards()) {
+                ids.add(created.getId());
+                MockMetacard updatedMetacard = new MockMetacard(Library.getFlagstaffRecord());
+                updatedMetacard.setContentTypeName("updated");
+                updatedMetacards.add(updatedMetacard);
+            }
+
+            UpdateResponse updateResponse = update(ids.toArray(new String[ids.size()]),
+                    updatedMetacards);
+
+            assertThat(updateResponse.getUpdatedMetacards()
+                    .size(), is(25));
+            for (Update update : updateResponse.getUpdatedMetacards()) {
+                assertThat(update.getOldMetacard()
+                        .getContentTypeName(), is(MockMetacard.DEFAULT_TYPE));
+                assertThat(update.getNewMetacard()
+                        .getContentTypeName(), is("updated"));
+            }
+        } finally {
+            ConfigurationStore.getInstance()
+                    .setForceAutoCommit(true);
+        }
+    }
+
+    @Test
+    public void testQueryIdAndTitlePendingNrtIndex() throws Exception {
+        deleteAllIn(provider);
+        ConfigurationStore.getInstance()
+                .setForceAutoCommit(false);
+
+        try {
+            MockMetacard metacard = new MockMetacard(Library.getFlagstaffRecord());
+
+            String id = create(metacard).getCreatedMetacards()
+                    .get(0)
+                    .getId();
+
+            Filter idFilter = filterBuilder.attribute(Metacard.ID)
+                    .equalTo()
+                    .text(id);
+
+            Filter matchingFilter = filterBuilder.allOf(idFilter,
+                    filterBuilder.attribute(Metacard.TITLE)
+                            .like()
+                            .text(MockMetacard.DEFAULT_TITLE));
+
+            Filter nonMatchingFilter = filterBuilder.allOf(idFilter,
+                    filterBuilder.attribute(Metacard.TITLE)
+                            .like()
+                            .text("nonexistent title"));
+
+            assertThat(provider.query(quickQuery(matchingFilter))
+                    .getResults()
+                    .size(), is(1));
+            assertThat(provider.query(quickQuery(nonMatchingFilter))
+                    .getResults()
+                    .size(), is(0));
+        } finally {
+            ConfigurationStore.getInstance()
+                    .setForceAutoCommit(true);
+        }
+    }
+
     @Test
     public void testExtensibleMetacards() throws IngestException, UnsupportedQueryException {
 
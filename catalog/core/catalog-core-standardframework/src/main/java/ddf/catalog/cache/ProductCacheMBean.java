@@ -0,0 +1,52 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.cache;
+
+/**
+ * Statistics of the local product cache.
+ */
+public interface ProductCacheMBean {
+
+    String OBJECTNAME = "ddf.catalog.cache.impl.LocalProductCache:service=product-cache";
+
+    /**
+     * @return number of lookups that found a cached product
+     */
+    long getHitCount();
+
+    /**
+     * @return number of lookups that did not find a cached product
+     */
+    long getMissCount();
+
+    /**
+     * @return number of products removed or refused to keep the cache within its size limit
+     */
+    long getEvictionCount();
+
+    /**
+     * @return number of cached products
+     */
+    int getEntryCount();
+
+    /**
+     * @return total size in bytes of the cached products
+     */
+    long getSizeBytes();
+
+    /**
+     * @return maximum total size in bytes of the cached products, 0 if unlimited
+     */
+    long getMaxSizeBytes();
+}
@@ -0,0 +1,393 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.cache.impl;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ddf.catalog.cache.ProductCacheMBean;
+import ddf.catalog.resource.data.ReliableResource;
+
+/**
+ * Product cache for a single node that keeps its index in a memory-mapped file inside the product
+ * cache directory, so it is rebuilt from that file on restart.
+ * <p>
+ * The total size of the cached products is enforced when a product is added, using W-TinyLFU:
+ * new products enter a small LRU window, and a product leaving the window is only kept if it has
+ * been requested at least as often as the least recently used products it would replace.
+ * Products that are evicted or refused are deleted from the product cache directory.
+ * <p>
+ * Each {@link ReliableResource} is stored with Java serialization in a {@code <key>.ser} file,
+ * the same format the Hazelcast map store ({@link FileSystemPersistenceProvider}) uses for the
+ * clustered cache.
+ */
+public class LocalProductCache implements ProductCacheMBean, Closeable {
+
+    static final String INDEX_DIRECTORY = ".index";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LocalProductCache.class);
+
+    private static final String INDEX_FILE = "product-cache.idx";
+
+    private static final String ENTRY_EXTENSION = ".ser";
+
+    private static final int WINDOW_PERCENT = 1;
+
+    private static final int SKETCH_WIDTH = 4096;
+
+    private final File entryDirectory;
+
+    private final ProductCacheIndex index;
+
+    private final FrequencySketch sketch = new FrequencySketch(SKETCH_WIDTH);
+
+    private final LinkedHashMap<String, Entry> window = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final LinkedHashMap<String, Entry> main = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long windowBytes;
+
+    private long mainBytes;
+
+    private long maxSizeBytes;
+
+    private long hitCount;
+
+    private long missCount;
+
+    private long evictionCount;
+
+    private static class Entry {
+
+        private final String key;
+
+        private final String path;
+
+        private final long size;
+
+        private final int slot;
+
+        private ReliableResource resource;
+
+        Entry(String key, String path, long size, int slot) {
+            this.key = key;
+            this.path = path;
+            this.size = size;
+            this.slot = slot;
+        }
+    }
+
+    /**
+     * Opens the cache stored in {@code directory}, reading back any products cached before.
+     *
+     * @param directory    the product cache directory
+     * @param maxSizeBytes maximum total size of the cached products, 0 for no limit
+     * @throws IOException if the index file cannot be created or mapped
+     */
+    public LocalProductCache(File directory, long maxSizeBytes) throws IOException {
+        this.entryDirectory = new File(directory, INDEX_DIRECTORY);
+        if (!entryDirectory.isDirectory() && !entryDirectory.mkdirs()) {
+            throw new IOException("Unable to create directory " + entryDirectory.getAbsolutePath());
+        }
+        this.maxSizeBytes = maxSizeBytes;
+        this.index = new ProductCacheIndex(new File(entryDirectory, INDEX_FILE));
+
+        List<ProductCacheIndex.Slot> slots = index.load();
+        slots.sort(Comparator.comparingLong(slot -> slot.lastAccess));
+        for (ProductCacheIndex.Slot slot : slots) {
+            main.put(slot.key, new Entry(slot.key, slot.path, slot.size, slot.slot));
+            mainBytes += slot.size;
+        }
+        deleteUnindexedEntries();
+        LOGGER.debug("Loaded {} cached products ({} bytes) from {}",
+                main.size(),
+                mainBytes,
+                entryDirectory.getAbsolutePath());
+
+        evictToFit();
+    }
+
+    /**
+     * @param key the cache key
+     * @return the cached resource, or {@code null} if it is not cached
+     */
+    public synchronized ReliableResource get(String key) {
+        sketch.increment(key);
+
+        Entry entry = window.get(key);
+        if (entry == null) {
+            entry = main.get(key);
+        }
+        if (entry == null) {
+            missCount++;
+            return null;
+        }
+
+        if (entry.resource == null) {
+            entry.resource = readEntry(key);
+            if (entry.resource == null) {
+                removeEntry(key);
+                missCount++;
+                return null;
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        entry.resource.setLastTouchedMillis(now);
+        index.touch(entry.slot, now);
+        hitCount++;
+        return entry.resource;
+    }
+
+    /**
+     * Adds a product whose file is already in the product cache directory. If the cache does not
+     * admit the product, its file is deleted.
+     *
+     * @param resource the resource to cache
+     */
+    public synchronized void put(ReliableResource resource) {
+        String key = resource.getKey();
+        removeEntry(key);
+        sketch.increment(key);
+
+        long size = Math.max(resource.getSize(), 0L);
+        if (maxSizeBytes > 0 && size > maxSizeBytes) {
+            LOGGER.debug("Product {} of {} bytes is larger than the cache, not caching it",
+                    key,
+                    size);
+            evictionCount++;
+            FileUtils.deleteQuietly(new File(resource.getFilePath()));
+            return;
+        }
+
+        int slot;
+        try {
+            writeEntry(resource);
+            slot = index.add(key, resource.getFilePath(), size, resource.getLastTouchedMillis());
+        } catch (IOException e) {
+            LOGGER.info("Unable to add product {} to the product cache index", key, e);
+            FileUtils.deleteQuietly(entryFile(key));
+            return;
+        }
+        if (slot < 0) {
+            // Without an index slot the entry can't be found after a restart, so only keep it in
+            // memory
+            LOGGER.debug("Key and path of product {} are too long to persist in the index", key);
+            FileUtils.deleteQuietly(entryFile(key));
+        }
+
+        Entry entry = new Entry(key, resource.getFilePath(), size, slot);
+        entry.resource = resource;
+        window.put(key, entry);
+        windowBytes += size;
+
+        evictToFit();
+    }
+
+    /**
+     * Removes a product from the cache without deleting the product file.
+     *
+     * @param key the cache key
+     */
+    public synchronized void remove(String key) {
+        removeEntry(key);
+    }
+
+    public synchronized void setMaxSizeBytes(long maxSizeBytes) {
+        this.maxSizeBytes = maxSizeBytes;
+        evictToFit();
+    }
+
+    @Override
+    public synchronized long getMaxSizeBytes() {
+        return maxSizeBytes;
+    }
+
+    @Override
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    @Override
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    @Override
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    @Override
+    public synchronized int getEntryCount() {
+        return window.size() + main.size();
+    }
+
+    @Override
+    public synchronized long getSizeBytes() {
+        return windowBytes + mainBytes;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        index.close();
+    }
+
+    private void evictToFit() {
+        if (maxSizeBytes <= 0) {
+            return;
+        }
+
+        long windowMax = Math.max(1L, maxSizeBytes * WINDOW_PERCENT / 100);
+        long mainMax = maxSizeBytes - windowMax;
+
+        while (windowBytes > windowMax) {
+            Entry candidate = removeEldest(window);
+            windowBytes -= candidate.size;
+            admit(candidate, mainMax);
+        }
+
+        while (mainBytes > mainMax) {
+            Entry victim = removeEldest(main);
+            mainBytes -= victim.size;
+            evict(victim);
+        }
+    }
+
+    /**
+     * Moves a product leaving the window to the main region, if it has been requested at least as
+     * often as every least recently used product that has to be evicted to make room for it.
+     */
+    private void admit(Entry candidate, long mainMax) {
+        if (candidate.size > mainMax) {
+            evict(candidate);
+            return;
+        }
+
+        List<Entry> victims = new ArrayList<>();
+        long needed = mainBytes + candidate.size - mainMax;
+        int victimFrequency = 0;
+        for (Iterator<Entry> entries = main.values()
+                .iterator(); needed > 0 && entries.hasNext(); ) {
+            Entry victim = entries.next();
+            victims.add(victim);
+            needed -= victim.size;
+            victimFrequency = Math.max(victimFrequency, sketch.frequency(victim.key));
+        }
+
+        if (!victims.isEmpty() && sketch.frequency(candidate.key) < victimFrequency) {
+            evict(candidate);
+            return;
+        }
+
+        for (Entry victim : victims) {
+            main.remove(victim.key);
+            mainBytes -= victim.size;
+            evict(victim);
+        }
+        main.put(candidate.key, candidate);
+        mainBytes += candidate.size;
+    }
+
+    private Entry removeEldest(LinkedHashMap<String, Entry> region) {
+        Iterator<Entry> entries = region.values()
+                .iterator();
+        Entry eldest = entries.next();
+        entries.remove();
+        return eldest;
+    }
+
+    private void evict(Entry entry) {
+        LOGGER.debug("Evicting product {} from the product cache", entry.key);
+        evictionCount++;
+        index.remove(entry.slot);
+        FileUtils.deleteQuietly(entryFile(entry.key));
+        if (!FileUtils.deleteQuietly(new File(entry.path))) {
+            LOGGER.debug("Unable to delete cached product file {}", entry.path);
+        }
+    }
+
+    private void removeEntry(String key) {
+        Entry entry = window.remove(key);
+        if (entry != null) {
+            windowBytes -= entry.size;
+        } else {
+            entry = main.remove(key);
+            if (entry == null) {
+                return;
+            }
+            mainBytes -= entry.size;
+        }
+        index.remove(entry.slot);
+        FileUtils.deleteQuietly(entryFile(key));
+    }
+
+    /**
+     * Deletes entry files that have no slot in the index, such as those left behind when the
+     * cache stopped between writing an entry and adding it to the index.
+     */
+    private void deleteUnindexedEntries() {
+        File[] entryFiles =
+                entryDirectory.listFiles((dir, name) -> name.endsWith(ENTRY_EXTENSION));
+        if (entryFiles == null) {
+            return;
+        }
+
+        for (File entryFile : entryFiles) {
+            String name = entryFile.getName();
+            String key = name.substring(0, name.length() - ENTRY_EXTENSION.length());
+            if (!main.containsKey(key)) {
+                LOGGER.debug("Deleting product cache entry {} that is not in the index", key);
+                FileUtils.deleteQuietly(entryFile);
+            }
+        }
+    }
+
+    private void writeEntry(ReliableResource resource) throws IOException {
+        try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(
+                new FileOutputStream(entryFile(resource.getKey()))))) {
+            out.writeObject(resource);
+        }
+    }
+
+    private ReliableResource readEntry(String key) {
+        try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(
+                new FileInputStream(entryFile(key))))) {
+            return (ReliableResource) in.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            LOGGER.debug("Unable to read product cache entry {}", key, e);
+            return null;
+        }
+    }
+
+    private File entryFile(String key) {
+        return new File(entryDirectory, key + ENTRY_EXTENSION);
+    }
+}
@@ -0,0 +1,244 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.cache.impl;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Memory-mapped file of fixed-size slots, one per cached product, holding the cache key, the path
+ * of the product file, its size and the time it was last accessed.
+ * <p>
+ * Writes go straight to the mapped file, so the index survives a restart without a separate
+ * save step and is read back with a single scan. This class is not thread-safe.
+ */
+class ProductCacheIndex implements Closeable {
+
+    static final int SLOT_SIZE = 512;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProductCacheIndex.class);
+
+    private static final int MAGIC = 0x44504349;
+
+    private static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 16;
+
+    private static final int INITIAL_SLOTS = 1024;
+
+    private static final byte FREE = 0;
+
+    private static final byte USED = 1;
+
+    // state (1), key length (2), path length (2), size (8), last access (8)
+    private static final int SLOT_HEADER_SIZE = 21;
+
+    private static final int STATE_OFFSET = 0;
+
+    private static final int KEY_LENGTH_OFFSET = 1;
+
+    private static final int PATH_LENGTH_OFFSET = 3;
+
+    private static final int SIZE_OFFSET = 5;
+
+    private static final int LAST_ACCESS_OFFSET = 13;
+
+    private final RandomAccessFile file;
+
+    private final FileChannel channel;
+
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+
+    private MappedByteBuffer buffer;
+
+    private int slotCount;
+
+    /**
+     * Slot read back from the index file.
+     */
+    static class Slot {
+
+        final int slot;
+
+        final String key;
+
+        final String path;
+
+        final long size;
+
+        final long lastAccess;
+
+        Slot(int slot, String key, String path, long size, long lastAccess) {
+            this.slot = slot;
+            this.key = key;
+            this.path = path;
+            this.size = size;
+            this.lastAccess = lastAccess;
+        }
+    }
+
+    ProductCacheIndex(File indexFile) throws IOException {
+        file = new RandomAccessFile(indexFile, "rw");
+        channel = file.getChannel();
+
+        if (file.length() < HEADER_SIZE + SLOT_SIZE) {
+            initialize();
+        } else {
+            slotCount = (int) ((file.length() - HEADER_SIZE) / SLOT_SIZE);
+            map();
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                LOGGER.info("Product cache index {} is not readable, starting with an empty index",
+                        indexFile.getAbsolutePath());
+                initialize();
+            }
+        }
+    }
+
+    /**
+     * Reads every used slot. Must be called once, before any other operation, so that free
+     * slots are known.
+     *
+     * @return the used slots
+     */
+    List<Slot> load() {
+        List<Slot> slots = new ArrayList<>();
+        freeSlots.clear();
+        for (int slot = 0; slot < slotCount; slot++) {
+            int offset = offset(slot);
+            if (buffer.get(offset + STATE_OFFSET) != USED) {
+                freeSlots.add(slot);
+                continue;
+            }
+
+            int keyLength = buffer.getShort(offset + KEY_LENGTH_OFFSET);
+            int pathLength = buffer.getShort(offset + PATH_LENGTH_OFFSET);
+            if (keyLength <= 0 || pathLength < 0
+                    || keyLength + pathLength > SLOT_SIZE - SLOT_HEADER_SIZE) {
+                LOGGER.debug("Discarding corrupt product cache index slot {}", slot);
+                buffer.put(offset + STATE_OFFSET, FREE);
+                freeSlots.add(slot);
+                continue;
+            }
+
+            slots.add(new Slot(slot,
+                    readString(offset + SLOT_HEADER_SIZE, keyLength),
+                    readString(offset + SLOT_HEADER_SIZE + keyLength, pathLength),
+                    buffer.getLong(offset + SIZE_OFFSET),
+                    buffer.getLong(offset + LAST_ACCESS_OFFSET)));
+        }
+        return slots;
+    }
+
+    /**
+     * Writes an entry to a free slot.
+     *
+     * @return the slot number, or -1 if the key and path do not fit in a slot
+     */
+    int add(String key, String path, long size, long lastAccess) throws IOException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] pathBytes = path.getBytes(StandardCharsets.UTF_8);
+        if (keyBytes.length + pathBytes.length > SLOT_SIZE - SLOT_HEADER_SIZE) {
+            return -1;
+        }
+
+        if (freeSlots.isEmpty()) {
+            grow();
+        }
+        int slot = freeSlots.remove();
+        int offset = offset(slot);
+
+        buffer.putShort(offset + KEY_LENGTH_OFFSET, (short) keyBytes.length);
+        buffer.putShort(offset + PATH_LENGTH_OFFSET, (short) pathBytes.length);
+        buffer.putLong(offset + SIZE_OFFSET, size);
+        buffer.putLong(offset + LAST_ACCESS_OFFSET, lastAccess);
+        for (int i = 0; i < keyBytes.length; i++) {
+            buffer.put(offset + SLOT_HEADER_SIZE + i, keyBytes[i]);
+        }
+        for (int i = 0; i < pathBytes.length; i++) {
+            buffer.put(offset + SLOT_HEADER_SIZE + keyBytes.length + i, pathBytes[i]);
+        }
+        // written last so a partially written slot is never read back as used
+        buffer.put(offset + STATE_OFFSET, USED);
+        return slot;
+    }
+
+    void touch(int slot, long lastAccess) {
+        if (slot >= 0) {
+            buffer.putLong(offset(slot) + LAST_ACCESS_OFFSET, lastAccess);
+        }
+    }
+
+    void remove(int slot) {
+        if (slot >= 0) {
+            buffer.put(offset(slot) + STATE_OFFSET, FREE);
+            freeSlots.add(slot);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+        file.close();
+    }
+
+    private void initialize() throws IOException {
+        file.setLength(0);
+        slotCount = INITIAL_SLOTS;
+        file.setLength(HEADER_SIZE + (long) slotCount * SLOT_SIZE);
+        map();
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+    }
+
+    private void grow() throws IOException {
+        int oldCount = slotCount;
+        slotCount = oldCount * 2;
+        file.setLength(HEADER_SIZE + (long) slotCount * SLOT_SIZE);
+        map();
+        for (int slot = oldCount; slot < slotCount; slot++) {
+            freeSlots.add(slot);
+        }
+    }
+
+    private void map() throws IOException {
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE,
+                0,
+                HEADER_SIZE + (long) slotCount * SLOT_SIZE);
+    }
+
+    private String readString(int offset, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(offset + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int offset(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+}
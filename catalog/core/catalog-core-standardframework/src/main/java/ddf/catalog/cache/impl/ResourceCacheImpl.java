@@ -18,9 +18,17 @@
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
@@ -38,12 +46,21 @@
 import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.core.IMap;
 
+import ddf.catalog.cache.ProductCacheMBean;
 import ddf.catalog.cache.ResourceCacheInterface;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.resource.Resource;
 import ddf.catalog.resource.data.ReliableResource;
 
+/**
+ * Product cache backed by a Hazelcast map, or by a {@link LocalProductCache} when
+ * {@link #setLocalCacheEnabled(boolean)} is set to {@code true}.
+ * <p>
+ * Cache lookups and updates hold the read lock of {@code cacheLock}, and setting up, tearing down
+ * or switching the backing cache holds its write lock, so a lookup never sees a cache that is
+ * being closed or replaced.
+ */
 public class ResourceCacheImpl implements ResourceCacheInterface {
 
     private static final String KARAF_HOME = "karaf.home";
@@ -80,25 +97,127 @@ public class ResourceCacheImpl implements ResourceCacheInterface {
 
     private String xmlConfigFilename;
 
+    private final ReadWriteLock cacheLock = new ReentrantReadWriteLock();
+
+    private boolean localCacheEnabled;
+
+    private LocalProductCache localCache;
+
     /**
      * Called after all parameters are set
      */
     public void setCache(HazelcastInstance instance) {
         LOGGER.trace("ENTERING: setCache()");
-        this.instance = instance;
-        if (this.instance == null) {
-            Config cfg = getHazelcastConfig(context, xmlConfigFilename);
-            cfg.setClassLoader(getClass().getClassLoader());
-            this.instance = Hazelcast.newHazelcastInstance(cfg);
-        }
+        cacheLock.writeLock()
+                .lock();
+        try {
+            this.instance = instance;
+            if (this.instance == null) {
+                Config cfg = getHazelcastConfig(context, xmlConfigFilename);
+                cfg.setClassLoader(getClass().getClassLoader());
+                this.instance = Hazelcast.newHazelcastInstance(cfg);
+            }
 
-        cache = this.instance.getMap(PRODUCT_CACHE_NAME);
-        cacheListener.setHazelcastInstance(this.instance);
-        cache.addEntryListener(cacheListener, true);
+            cache = this.instance.getMap(PRODUCT_CACHE_NAME);
+            cacheListener.setHazelcastInstance(this.instance);
+            cache.addEntryListener(cacheListener, true);
+        } finally {
+            cacheLock.writeLock()
+                    .unlock();
+        }
     }
 
     public void setupCache() {
-        setCache(null);
+        cacheLock.writeLock()
+                .lock();
+        try {
+            if (localCacheEnabled) {
+                openLocalCache();
+            } else {
+                setCache(null);
+            }
+        } finally {
+            cacheLock.writeLock()
+                    .unlock();
+        }
+    }
+
+    /**
+     * @param localCacheEnabled {@code true} to keep the cache index in the product cache
+     *                          directory instead of a Hazelcast map. Defaults to {@code false}.
+     *                          If the cache has already been set up, it is torn down and set up
+     *                          again in the new mode; products cached in the previous mode are
+     *                          not carried over.
+     */
+    public void setLocalCacheEnabled(boolean localCacheEnabled) {
+        cacheLock.writeLock()
+                .lock();
+        try {
+            if (this.localCacheEnabled == localCacheEnabled) {
+                return;
+            }
+            this.localCacheEnabled = localCacheEnabled;
+
+            if (localCache != null || instance != null) {
+                LOGGER.debug("Switching product cache to {} mode",
+                        localCacheEnabled ? "local" : "Hazelcast");
+                teardownCache();
+                setupCache();
+            }
+        } finally {
+            cacheLock.writeLock()
+                    .unlock();
+        }
+    }
+
+    private void openLocalCache() {
+        try {
+            localCache = new LocalProductCache(new File(productCacheDirectory),
+                    cacheListener.getMaxDirSizeBytes());
+        } catch (IOException e) {
+            throw new IllegalStateException(
+                    "Unable to open product cache in " + productCacheDirectory, e);
+        }
+        registerLocalCacheMBean();
+    }
+
+    private void closeLocalCache() {
+        try {
+            localCache.close();
+        } catch (IOException e) {
+            LOGGER.info("Unable to close product cache index", e);
+        }
+        localCache = null;
+    }
+
+    private void registerLocalCacheMBean() {
+        MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName objectName = new ObjectName(ProductCacheMBean.OBJECTNAME);
+            try {
+                mbeanServer.registerMBean(new StandardMBean(localCache, ProductCacheMBean.class),
+                        objectName);
+            } catch (InstanceAlreadyExistsException e) {
+                LOGGER.debug("Re-registering product cache MBean");
+                mbeanServer.unregisterMBean(objectName);
+                mbeanServer.registerMBean(new StandardMBean(localCache, ProductCacheMBean.class),
+                        objectName);
+            }
+        } catch (Exception e) {
+            LOGGER.debug("Could not register product cache MBean.", e);
+        }
+    }
+
+    private void unregisterLocalCacheMBean() {
+        MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName objectName = new ObjectName(ProductCacheMBean.OBJECTNAME);
+            if (mbeanServer.isRegistered(objectName)) {
+                mbeanServer.unregisterMBean(objectName);
+            }
+        } catch (Exception e) {
+            LOGGER.debug("Could not unregister product cache MBean.", e);
+        }
     }
 
     private Config getHazelcastConfig(BundleContext context, String xmlConfigFilename) {
@@ -153,7 +272,21 @@ private Config getHazelcastConfig(BundleContext context, String xmlConfigFilenam
     }
 
     public void teardownCache() {
-        instance.shutdown();
+        cacheLock.writeLock()
+                .lock();
+        try {
+            if (localCache != null) {
+                unregisterLocalCacheMBean();
+                closeLocalCache();
+            } else if (instance != null) {
+                instance.shutdown();
+                instance = null;
+                cache = null;
+            }
+        } finally {
+            cacheLock.writeLock()
+                    .unlock();
+        }
     }
 
     public long getCacheDirMaxSizeMegabytes() {
@@ -164,6 +297,16 @@ public long getCacheDirMaxSizeMegabytes() {
     public void setCacheDirMaxSizeMegabytes(long cacheDirMaxSizeMegabytes) {
         LOGGER.debug("Setting max size for cache directory: {}", cacheDirMaxSizeMegabytes);
         cacheListener.setMaxDirSizeBytes(cacheDirMaxSizeMegabytes * BYTES_IN_MEGABYTES);
+        cacheLock.readLock()
+                .lock();
+        try {
+            if (localCache != null) {
+                localCache.setMaxSizeBytes(cacheDirMaxSizeMegabytes * BYTES_IN_MEGABYTES);
+            }
+        } finally {
+            cacheLock.readLock()
+                    .unlock();
+        }
     }
 
     public String getProductCacheDirectory() {
@@ -217,9 +360,22 @@ public void setProductCacheDirectory(final String productCacheDirectory) {
             }
         }
 
-        this.productCacheDirectory = newProductCacheDirectoryDir;
+        cacheLock.writeLock()
+                .lock();
+        try {
+            boolean changed = !newProductCacheDirectoryDir.equals(this.productCacheDirectory);
+            this.productCacheDirectory = newProductCacheDirectoryDir;
 
-        LOGGER.debug("Set product cache directory to: {}", this.productCacheDirectory);
+            LOGGER.debug("Set product cache directory to: {}", this.productCacheDirectory);
+
+            if (changed && localCache != null) {
+                closeLocalCache();
+                openLocalCache();
+            }
+        } finally {
+            cacheLock.writeLock()
+                    .unlock();
+        }
     }
 
     public BundleContext getContext() {
@@ -263,7 +419,18 @@ public boolean isPending(String key) {
     public void put(ReliableResource reliableResource) {
         LOGGER.trace("ENTERING: put(ReliableResource)");
         reliableResource.setLastTouchedMillis(System.currentTimeMillis());
-        cache.put(reliableResource.getKey(), reliableResource);
+        cacheLock.readLock()
+                .lock();
+        try {
+            if (localCache != null) {
+                localCache.put(reliableResource);
+            } else {
+                cache.put(reliableResource.getKey(), reliableResource);
+            }
+        } finally {
+            cacheLock.readLock()
+                    .unlock();
+        }
         removePendingCacheEntry(reliableResource.getKey());
 
         LOGGER.trace("EXITING: put(ReliableResource)");
@@ -305,7 +472,7 @@ public Resource getValid(String key, Metacard latestMetacard) {
         }
         LOGGER.debug("key {}", key);
 
-        ReliableResource cachedResource = (ReliableResource) cache.get(key);
+        ReliableResource cachedResource = getCachedResource(key);
 
         // Check that ReliableResource actually maps to a file (product) in the
         // product cache directory. This check handles the case if the product
@@ -322,7 +489,7 @@ public Resource getValid(String key, Metacard latestMetacard) {
                 LOGGER.trace("EXITING: get() for key {}", key);
                 return cachedResource;
             } else {
-                cache.remove(key);
+                removeCachedResource(key);
                 LOGGER.debug(
                         "Entry found in the cache, but no product found in cache directory for key = {} "
                                 + key);
@@ -346,7 +513,7 @@ public boolean containsValid(String key, Metacard latestMetacard) {
         if (key == null) {
             return false;
         }
-        ReliableResource cachedResource = (ReliableResource) cache.get(key);
+        ReliableResource cachedResource = getCachedResource(key);
         return (cachedResource != null) && (validateCacheEntry(cachedResource, latestMetacard));
     }
 
@@ -384,8 +551,37 @@ protected boolean validateCacheEntry(ReliableResource cachedResource, Metacard l
                     cachedResource.getFilePath());
         }
 
-        cache.remove(cachedResource.getKey());
+        removeCachedResource(cachedResource.getKey());
         LOGGER.trace("EXITING: validateCacheEntry");
         return false;
     }
+
+    private ReliableResource getCachedResource(String key) {
+        cacheLock.readLock()
+                .lock();
+        try {
+            if (localCache != null) {
+                return localCache.get(key);
+            }
+            return (ReliableResource) cache.get(key);
+        } finally {
+            cacheLock.readLock()
+                    .unlock();
+        }
+    }
+
+    private void removeCachedResource(String key) {
+        cacheLock.readLock()
+                .lock();
+        try {
+            if (localCache != null) {
+                localCache.remove(key);
+            } else {
+                cache.remove(key);
+            }
+        } finally {
+            cacheLock.readLock()
+                    .unlock();
+        }
+    }
 }
@@ -19,6 +19,7 @@
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
 
+import org.codice.ddf.checksum.ChecksumProvider;
 import org.osgi.framework.BundleContext;
 
 import ddf.catalog.cache.solr.impl.ValidationQueryFactory;
@@ -121,6 +122,8 @@ public class FrameworkProperties {
 
     private List<AttributeInjector> attributeInjectors = new ArrayList<>();
 
+    private List<ChecksumProvider> checksumProviders = new ArrayList<>();
+
     public List<CatalogProvider> getCatalogProviders() {
         return catalogProviders;
     }
@@ -383,4 +386,12 @@ public void setAttributeInjectors(List<AttributeInjector> attributeInjectors) {
     public List<AttributeInjector> getAttributeInjectors() {
         return attributeInjectors;
     }
+
+    public void setChecksumProviders(List<ChecksumProvider> checksumProviders) {
+        this.checksumProviders = checksumProviders;
+    }
+
+    public List<ChecksumProvider> getChecksumProviders() {
+        return checksumProviders;
+    }
 }
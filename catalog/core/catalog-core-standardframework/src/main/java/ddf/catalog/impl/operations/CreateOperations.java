@@ -13,6 +13,7 @@
  */
 package ddf.catalog.impl.operations;
 
+import static ddf.catalog.Constants.CONTENT_CHECKSUMS;
 import static ddf.catalog.Constants.CONTENT_PATHS;
 
 import java.io.IOException;
@@ -136,6 +137,7 @@ public CreateResponse create(CreateStorageRequest streamCreateRequest,
         List<ContentItem> contentItems = new ArrayList<>(streamCreateRequest.getContentItems()
                 .size());
         HashMap<String, Map<String, Path>> tmpContentPaths = new HashMap<>();
+        HashMap<String, Map<String, String>> contentChecksums = new HashMap<>();
 
         CreateResponse createResponse = null;
         CreateStorageRequest createStorageRequest = null;
@@ -144,11 +146,12 @@ public CreateResponse create(CreateStorageRequest streamCreateRequest,
         streamCreateRequest = opsStorageSupport.prepareStorageRequest(streamCreateRequest,
                 streamCreateRequest::getContentItems);
 
-        // Operation populates the metacardMap, contentItems, and tmpContentPaths
+        // Operation populates the metacardMap, contentItems, tmpContentPaths and contentChecksums
         opsMetacardSupport.generateMetacardAndContentItems(streamCreateRequest.getContentItems(),
                 metacardMap,
                 contentItems,
-                tmpContentPaths);
+                tmpContentPaths,
+                contentChecksums);
 
         if (blockCreateMetacards(metacardMap.values(), fanoutTagBlacklist)) {
             String message =
@@ -159,6 +162,8 @@ public CreateResponse create(CreateStorageRequest streamCreateRequest,
 
         streamCreateRequest.getProperties()
                 .put(CONTENT_PATHS, tmpContentPaths);
+        streamCreateRequest.getProperties()
+                .put(CONTENT_CHECKSUMS, contentChecksums);
 
         injectAttributes(metacardMap);
         setDefaultValues(metacardMap);
@@ -14,13 +14,16 @@
 package ddf.catalog.impl.operations;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
+import java.security.NoSuchAlgorithmException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -33,12 +36,15 @@
 import org.apache.tika.io.TikaInputStream;
 import org.apache.tika.metadata.Metadata;
 import org.apache.tika.mime.MediaType;
+import org.codice.ddf.checksum.ChecksumProvider;
 import org.codice.ddf.platform.util.InputValidation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.io.ByteSource;
+
 import ddf.catalog.content.data.ContentItem;
-import ddf.catalog.content.data.impl.ContentItemImpl;
+import ddf.catalog.content.data.impl.FileContentItem;
 import ddf.catalog.data.Attribute;
 import ddf.catalog.data.AttributeDescriptor;
 import ddf.catalog.data.AttributeInjector;
@@ -60,6 +66,11 @@
 public class OperationsMetacardSupport {
     private static final Logger LOGGER = LoggerFactory.getLogger(OperationsMetacardSupport.class);
 
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // How much of the start of the content is kept in memory for mime type detection
+    private static final int MIME_TYPE_PREFIX_SIZE = 64 * 1024;
+
     //
     // Injected properties
     //
@@ -90,11 +101,14 @@ Metacard applyInjectors(Metacard original, List<AttributeInjector> injectors) {
 
     void generateMetacardAndContentItems(List<ContentItem> incomingContentItems,
             Map<String, Metacard> metacardMap, List<ContentItem> contentItems,
-            Map<String, Map<String, Path>> tmpContentPaths) throws IngestException {
+            Map<String, Map<String, Path>> tmpContentPaths,
+            Map<String, Map<String, String>> contentChecksums) throws IngestException {
+        ChecksumProvider checksumProvider = getChecksumProvider();
         for (ContentItem contentItem : incomingContentItems) {
             try {
                 Path tmpPath = null;
                 long size;
+                CopiedContent copiedContent;
                 try (InputStream inputStream = contentItem.getInputStream()) {
                     if (inputStream == null) {
                         throw new IngestException(
@@ -105,7 +119,7 @@ void generateMetacardAndContentItems(List<ContentItem> incomingContentItems,
                             InputValidation.sanitizeFilename(contentItem.getFilename());
                     tmpPath = Files.createTempFile(FilenameUtils.getBaseName(sanitizedFilename),
                             FilenameUtils.getExtension(sanitizedFilename));
-                    Files.copy(inputStream, tmpPath, StandardCopyOption.REPLACE_EXISTING);
+                    copiedContent = copyContent(inputStream, tmpPath, checksumProvider);
                     size = Files.size(tmpPath);
 
                     final String key = contentItem.getId();
@@ -126,7 +140,9 @@ void generateMetacardAndContentItems(List<ContentItem> incomingContentItems,
                     throw new IngestException("Could not copy bytes of content message.", e);
                 }
                 String mimeTypeRaw = contentItem.getMimeTypeRawData();
-                mimeTypeRaw = guessMimeType(mimeTypeRaw, contentItem.getFilename(), tmpPath);
+                mimeTypeRaw = guessMimeType(mimeTypeRaw,
+                        contentItem.getFilename(),
+                        getContent(copiedContent.prefix, size, tmpPath));
 
                 if (!InputValidation.checkForClientSideVulnerableMimeType(mimeTypeRaw)) {
                     throw new IngestException("Unsupported mime type.");
@@ -139,13 +155,21 @@ void generateMetacardAndContentItems(List<ContentItem> incomingContentItems,
                         tmpPath);
                 metacardMap.put(metacard.getId(), metacard);
 
-                ContentItem generatedContentItem = new ContentItemImpl(metacard.getId(),
-                        com.google.common.io.Files.asByteSource(tmpPath.toFile()),
+                ContentItem generatedContentItem = new FileContentItem(metacard.getId(),
+                        "",
+                        tmpPath,
                         mimeTypeRaw,
                         fileName,
                         size,
                         metacard);
                 contentItems.add(generatedContentItem);
+
+                if (copiedContent.checksum != null) {
+                    Map<String, String> checksums = new HashMap<>();
+                    checksums.put(checksumProvider.getChecksumAlgorithm(),
+                            copiedContent.checksum);
+                    contentChecksums.put(generatedContentItem.getId(), checksums);
+                }
             } catch (Exception e) {
                 tmpContentPaths.values()
                         .stream()
@@ -203,13 +227,82 @@ private String updateFileExtension(String mimeTypeRaw, String fileName) {
         return fileName;
     }
 
+    private ChecksumProvider getChecksumProvider() {
+        List<ChecksumProvider> checksumProviders = frameworkProperties.getChecksumProviders();
+        if (checksumProviders == null) {
+            return null;
+        }
+        return checksumProviders.stream()
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Copies the content to the file, calculating its checksum and keeping the first
+     * {@link #MIME_TYPE_PREFIX_SIZE} bytes in memory as it goes so the content only has to be
+     * read once. The checksum is passed on to the storage plugins in the
+     * {@link ddf.catalog.Constants#CONTENT_CHECKSUMS} request property.
+     *
+     * @return the first bytes of the content and its checksum, if it could be calculated
+     */
+    private CopiedContent copyContent(InputStream inputStream, Path path,
+            ChecksumProvider checksumProvider) throws IOException {
+        try (OutputStream outputStream = Files.newOutputStream(path)) {
+            CopyingInputStream content = new CopyingInputStream(inputStream, outputStream);
+            String checksum = calculateChecksum(content, checksumProvider);
+
+            // Copy any content the checksum provider did not read, in which case its checksum is
+            // not the checksum of the whole content
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (content.read(buffer) != -1) {
+                checksum = null;
+            }
+
+            return new CopiedContent(content.getPrefix(), checksum);
+        }
+    }
+
+    private String calculateChecksum(InputStream content, ChecksumProvider checksumProvider)
+            throws IOException {
+        if (checksumProvider == null) {
+            return null;
+        }
+
+        try {
+            return checksumProvider.calculateChecksum(content);
+        } catch (NoSuchAlgorithmException e) {
+            LOGGER.debug("Unable to calculate {} checksum while copying content.",
+                    checksumProvider.getChecksumAlgorithm(),
+                    e);
+            return null;
+        }
+    }
+
+    /**
+     * Returns the content, served from the in-memory prefix and only reading the file for any
+     * bytes past it.
+     */
+    private ByteSource getContent(byte[] prefix, long size, Path path) {
+        if (prefix.length >= size) {
+            return ByteSource.wrap(prefix);
+        }
+        return ByteSource.concat(ByteSource.wrap(prefix),
+                com.google.common.io.Files.asByteSource(path.toFile())
+                        .slice(prefix.length, Long.MAX_VALUE));
+    }
+
     // package-private for unit testing
     String guessMimeType(String mimeTypeRaw, String fileName, Path tmpContentPath)
             throws IOException {
+        return guessMimeType(mimeTypeRaw,
+                fileName,
+                com.google.common.io.Files.asByteSource(tmpContentPath.toFile()));
+    }
+
+    private String guessMimeType(String mimeTypeRaw, String fileName, ByteSource content)
+            throws IOException {
         if (ContentItem.DEFAULT_MIME_TYPE.equals(mimeTypeRaw)) {
-            try (InputStream inputStreamMessageCopy = com.google.common.io.Files.asByteSource(
-                    tmpContentPath.toFile())
-                    .openStream()) {
+            try (InputStream inputStreamMessageCopy = content.openStream()) {
                 String mimeTypeGuess = frameworkProperties.getMimeTypeMapper()
                         .guessMimeType(inputStreamMessageCopy,
                                 FilenameUtils.getExtension(fileName));
@@ -221,7 +314,8 @@ String guessMimeType(String mimeTypeRaw, String fileName, Path tmpContentPath)
             }
             if (ContentItem.DEFAULT_MIME_TYPE.equals(mimeTypeRaw)) {
                 Detector detector = new DefaultProbDetector();
-                try (InputStream inputStreamMessageCopy = TikaInputStream.get(tmpContentPath)) {
+                try (InputStream inputStreamMessageCopy = TikaInputStream.get(
+                        content.openStream())) {
                     MediaType mediaType = detector.detect(inputStreamMessageCopy, new Metadata());
                     mimeTypeRaw = mediaType.toString();
                 } catch (IOException e) {
@@ -229,9 +323,7 @@ String guessMimeType(String mimeTypeRaw, String fileName, Path tmpContentPath)
                 }
             }
             if (mimeTypeRaw.equals("text/plain")) {
-                try (InputStream inputStreamMessageCopy = com.google.common.io.Files.asByteSource(
-                        tmpContentPath.toFile())
-                        .openStream();
+                try (InputStream inputStreamMessageCopy = content.openStream();
                         BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(
                                 inputStreamMessageCopy,
                                 Charset.forName("UTF-8")))) {
@@ -253,4 +345,97 @@ String guessMimeType(String mimeTypeRaw, String fileName, Path tmpContentPath)
         }
         return mimeTypeRaw;
     }
+
+    /**
+     * Content copied to a temp file.
+     */
+    private static class CopiedContent {
+
+        private final byte[] prefix;
+
+        private final String checksum;
+
+        CopiedContent(byte[] prefix, String checksum) {
+            this.prefix = prefix;
+            this.checksum = checksum;
+        }
+    }
+
+    /**
+     * Writes the bytes read from the content to an output stream, keeping the first
+     * {@link #MIME_TYPE_PREFIX_SIZE} of them in memory. Closing it does not close the content, so
+     * that it can be handed to a {@link ChecksumProvider} that closes the stream it reads.
+     */
+    private static class CopyingInputStream extends FilterInputStream {
+
+        private final OutputStream outputStream;
+
+        private final ByteArrayOutputStream prefix = new ByteArrayOutputStream();
+
+        CopyingInputStream(InputStream inputStream, OutputStream outputStream) {
+            super(inputStream);
+            this.outputStream = outputStream;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int read = super.read();
+            if (read != -1) {
+                outputStream.write(read);
+                if (prefix.size() < MIME_TYPE_PREFIX_SIZE) {
+                    prefix.write(read);
+                }
+            }
+            return read;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                outputStream.write(buffer, offset, read);
+                if (prefix.size() < MIME_TYPE_PREFIX_SIZE) {
+                    prefix.write(buffer,
+                            offset,
+                            Math.min(read, MIME_TYPE_PREFIX_SIZE - prefix.size()));
+                }
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // Skipped bytes still have to be copied
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long skipped = 0;
+            int read = 0;
+            while (skipped < n && read != -1) {
+                read = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+                skipped += Math.max(read, 0);
+            }
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public synchronized void mark(int readLimit) {
+        }
+
+        @Override
+        public synchronized void reset() throws IOException {
+            throw new IOException("mark/reset not supported");
+        }
+
+        @Override
+        public void close() {
+        }
+
+        byte[] getPrefix() {
+            return prefix.toByteArray();
+        }
+    }
 }
@@ -345,24 +345,41 @@ private QueryResponse populateQueryResponsePolicyMap(QueryResponse queryResponse
         HashMap<String, Set<String>> responsePolicyMap = new HashMap<>();
         Map<String, Serializable> unmodifiableProperties =
                 Collections.unmodifiableMap(queryResponse.getProperties());
-        for (Result result : queryResponse.getResults()) {
-            HashMap<String, Set<String>> itemPolicyMap = new HashMap<>();
-            for (PolicyPlugin plugin : frameworkProperties.getPolicyPlugins()) {
-                try {
-                    PolicyResponse policyResponse = plugin.processPostQuery(result,
-                            unmodifiableProperties);
-                    opsSecuritySupport.buildPolicyMap(itemPolicyMap,
-                            policyResponse.itemPolicy()
-                                    .entrySet());
-                    opsSecuritySupport.buildPolicyMap(responsePolicyMap,
-                            policyResponse.operationPolicy()
-                                    .entrySet());
-                } catch (StopProcessingException e) {
-                    throw new FederationException("Query could not be executed.", e);
-                }
+        List<Result> results = queryResponse.getResults();
+
+        List<HashMap<String, Set<String>>> itemPolicyMaps = new ArrayList<>(results.size());
+        for (int i = 0; i < results.size(); i++) {
+            itemPolicyMaps.add(new HashMap<>());
+        }
+
+        for (PolicyPlugin plugin : frameworkProperties.getPolicyPlugins()) {
+            List<PolicyResponse> policyResponses;
+            try {
+                policyResponses = plugin.processPostQuery(results, unmodifiableProperties);
+            } catch (StopProcessingException e) {
+                throw new FederationException("Query could not be executed.", e);
             }
-            result.getMetacard()
-                    .setAttribute(new AttributeImpl(Metacard.SECURITY, itemPolicyMap));
+            if (policyResponses == null || policyResponses.size() != results.size()) {
+                throw new FederationException(
+                        "Query could not be executed, policy plugin " + plugin.getClass()
+                                .getName() + " did not return a policy for every result.");
+            }
+
+            for (int i = 0; i < results.size(); i++) {
+                PolicyResponse policyResponse = policyResponses.get(i);
+                opsSecuritySupport.buildPolicyMap(itemPolicyMaps.get(i),
+                        policyResponse.itemPolicy()
+                                .entrySet());
+                opsSecuritySupport.buildPolicyMap(responsePolicyMap,
+                        policyResponse.operationPolicy()
+                                .entrySet());
+            }
+        }
+
+        for (int i = 0; i < results.size(); i++) {
+            results.get(i)
+                    .getMetacard()
+                    .setAttribute(new AttributeImpl(Metacard.SECURITY, itemPolicyMaps.get(i)));
         }
         queryResponse.getProperties()
                 .put(PolicyPlugin.OPERATION_SECURITY, responsePolicyMap);
@@ -13,6 +13,7 @@
  */
 package ddf.catalog.impl.operations;
 
+import static ddf.catalog.Constants.CONTENT_CHECKSUMS;
 import static ddf.catalog.Constants.CONTENT_PATHS;
 
 import java.io.Serializable;
@@ -156,6 +157,7 @@ public UpdateResponse update(UpdateStorageRequest streamUpdateRequest)
         List<ContentItem> contentItems = new ArrayList<>(streamUpdateRequest.getContentItems()
                 .size());
         HashMap<String, Map<String, Path>> tmpContentPaths = new HashMap<>();
+        HashMap<String, Map<String, String>> contentChecksums = new HashMap<>();
 
         UpdateResponse updateResponse = null;
         UpdateStorageRequest updateStorageRequest = null;
@@ -164,14 +166,17 @@ public UpdateResponse update(UpdateStorageRequest streamUpdateRequest)
         streamUpdateRequest = opsStorageSupport.prepareStorageRequest(streamUpdateRequest,
                 streamUpdateRequest::getContentItems);
 
-        // Operation populates the metacardMap, contentItems, and tmpContentPaths
+        // Operation populates the metacardMap, contentItems, tmpContentPaths and contentChecksums
         opsMetacardSupport.generateMetacardAndContentItems(streamUpdateRequest.getContentItems(),
                 metacardMap,
                 contentItems,
-                tmpContentPaths);
+                tmpContentPaths,
+                contentChecksums);
 
         streamUpdateRequest.getProperties()
                 .put(CONTENT_PATHS, tmpContentPaths);
+        streamUpdateRequest.getProperties()
+                .put(CONTENT_CHECKSUMS, contentChecksums);
 
         streamUpdateRequest = applyAttributeOverrides(streamUpdateRequest, metacardMap);
 
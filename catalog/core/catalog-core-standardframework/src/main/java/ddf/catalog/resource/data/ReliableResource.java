@@ -16,6 +16,8 @@
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 
 import javax.activation.MimeType;
@@ -27,6 +29,8 @@
 import org.slf4j.LoggerFactory;
 
 import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.BinaryMetacardCodec;
+import ddf.catalog.data.impl.MetacardCodec;
 import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.resource.Resource;
 
@@ -36,10 +40,13 @@
  */
 public class ReliableResource implements Resource, Serializable {
 
-    private static final long serialVersionUID = 1L;
+    // Version 2 writes the metacard with the MetacardCodec instead of Java serialization
+    private static final long serialVersionUID = 2L;
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ReliableResource.class);
 
+    private static final MetacardCodec METACARD_CODEC = new BinaryMetacardCodec();
+
     private String filePath;
 
     private MimeType mimeType;
@@ -53,7 +60,7 @@ public class ReliableResource implements Resource, Serializable {
     // The key used to store this object in the cache map
     private String key;
 
-    private Metacard metacard;
+    private transient Metacard metacard;
 
     //    public ReliableResource(String key, String filePath) {
     //        this(key, filePath, null, null);
@@ -176,4 +183,15 @@ public void setLastTouchedMillis(long lastTouchedMillis) {
     public Metacard getMetacard() {
         return metacard;
     }
+
+    private void writeObject(ObjectOutputStream stream) throws IOException {
+        stream.defaultWriteObject();
+        stream.writeObject(metacard != null ? METACARD_CODEC.encodeMetacard(metacard) : null);
+    }
+
+    private void readObject(ObjectInputStream stream) throws IOException, ClassNotFoundException {
+        stream.defaultReadObject();
+        byte[] metacardBytes = (byte[]) stream.readObject();
+        metacard = metacardBytes != null ? METACARD_CODEC.decodeMetacard(metacardBytes) : null;
+    }
 }
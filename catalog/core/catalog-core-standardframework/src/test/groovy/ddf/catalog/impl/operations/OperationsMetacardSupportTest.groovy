@@ -20,6 +20,7 @@ import ddf.catalog.source.IngestException
 import ddf.catalog.transform.InputTransformer
 import ddf.mime.MimeTypeMapper
 import ddf.mime.MimeTypeToTransformerMapper
+import org.codice.ddf.checksum.impl.Adler32ChecksumProvider
 import spock.lang.Specification
 
 import java.nio.file.Files
@@ -83,7 +84,8 @@ class OperationsMetacardSupportTest extends Specification {
         def contentPaths = [:]
 
         when:
-        opsMetacard.generateMetacardAndContentItems([], metacardMap, contentItems, contentPaths)
+        opsMetacard.generateMetacardAndContentItems([], metacardMap, contentItems, contentPaths,
+                [:])
 
         then:
         metacardMap.isEmpty()
@@ -101,7 +103,8 @@ class OperationsMetacardSupportTest extends Specification {
         def inputs = [item]
 
         when:
-        opsMetacard.generateMetacardAndContentItems(inputs, metacardMap, contentItems, contentPaths)
+        opsMetacard.generateMetacardAndContentItems(inputs, metacardMap, contentItems, contentPaths,
+                [:])
 
         then:
         thrown(IngestException)
@@ -117,7 +120,8 @@ class OperationsMetacardSupportTest extends Specification {
         def inputs = [item]
 
         when:
-        opsMetacard.generateMetacardAndContentItems(inputs, metacardMap, contentItems, contentPaths)
+        opsMetacard.generateMetacardAndContentItems(inputs, metacardMap, contentItems, contentPaths,
+                [:])
 
         then:
         thrown(IngestException)
@@ -136,7 +140,8 @@ class OperationsMetacardSupportTest extends Specification {
         def inputs = [item]
 
         when:
-        opsMetacard.generateMetacardAndContentItems(inputs, metacardMap, contentItems, contentPaths)
+        opsMetacard.generateMetacardAndContentItems(inputs, metacardMap, contentItems, contentPaths,
+                [:])
 
         then:
         thrown(IngestException)
@@ -156,7 +161,8 @@ class OperationsMetacardSupportTest extends Specification {
         def inputs = [item]
 
         when:
-        opsMetacard.generateMetacardAndContentItems(inputs, metacardMap, contentItems, contentPaths)
+        opsMetacard.generateMetacardAndContentItems(inputs, metacardMap, contentItems, contentPaths,
+                [:])
 
         then:
         metacardMap.size() == 1
@@ -169,6 +175,32 @@ class OperationsMetacardSupportTest extends Specification {
         contentPaths.keySet().first() == item.getId()
     }
 
+    def 'test generation of metacard and content calculates checksum while copying'() {
+        setup:
+        def metacardMap = [:]
+        List<ContentItem> contentItems = []
+        Map<String, Map<String, Path>> contentPaths = [:]
+        Map<String, Map<String, String>> contentChecksums = [:]
+        def checksumProvider = new Adler32ChecksumProvider()
+        frameworkProperties.checksumProviders = [checksumProvider]
+        frameworkProperties.mimeTypeMapper.guessMimeType(_, _) >> { 'text/plain' }
+        def item = Mock(ContentItem)
+        item.getFilename() >> 'joe.txt'
+        item.getInputStream() >> { new ByteArrayInputStream('hello'.bytes) }
+        item.getId() >> 'item.id'
+        item.getMimeTypeRawData() >> 'application/octet-stream'
+
+        when:
+        opsMetacard.generateMetacardAndContentItems([item], metacardMap, contentItems, contentPaths,
+                contentChecksums)
+
+        then:
+        contentItems.first().inputStream.text == 'hello'
+        contentChecksums.size() == 1
+        contentChecksums.get('genmeta_id') == [(checksumProvider.checksumAlgorithm):
+                checksumProvider.calculateChecksum(new ByteArrayInputStream('hello'.bytes))]
+    }
+
     def 'test generation of metacard and content supported ioexception from xformer'() {
         setup:
         def metacardMap = [:]
@@ -183,7 +215,8 @@ class OperationsMetacardSupportTest extends Specification {
         def inputs = [item]
 
         when:
-        opsMetacard.generateMetacardAndContentItems(inputs, metacardMap, contentItems, contentPaths)
+        opsMetacard.generateMetacardAndContentItems(inputs, metacardMap, contentItems, contentPaths,
+                [:])
 
         then:
         1 * transformer.transform(_) >> { throw new IOException() }
@@ -0,0 +1,213 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.cache.impl;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang.StringUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.resource.data.ReliableResource;
+
+public class LocalProductCacheTest {
+
+    private static final long MAX_SIZE = 1000L;
+
+    private static final long PRODUCT_SIZE = 400L;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File directory;
+
+    private LocalProductCache cache;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = temporaryFolder.getRoot();
+        cache = new LocalProductCache(directory, MAX_SIZE);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        cache.close();
+    }
+
+    @Test
+    public void testPutAndGet() throws IOException {
+        cache.put(product("a", PRODUCT_SIZE));
+
+        ReliableResource cached = cache.get("a");
+        assertThat(cached, notNullValue());
+        assertThat(cached.getMetacard()
+                .getId(), is("a"));
+        assertThat(cache.get("b"), nullValue());
+
+        assertThat(cache.getHitCount(), is(1L));
+        assertThat(cache.getMissCount(), is(1L));
+        assertThat(cache.getEntryCount(), is(1));
+        assertThat(cache.getSizeBytes(), is(PRODUCT_SIZE));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedProductIsEvicted() throws IOException {
+        cache.put(product("a", PRODUCT_SIZE));
+        cache.put(product("b", PRODUCT_SIZE));
+        cache.get("a");
+
+        cache.put(product("c", PRODUCT_SIZE));
+
+        assertThat(cache.get("b"), nullValue());
+        assertThat(productFile("b").exists(), is(false));
+        assertThat(cache.get("a"), notNullValue());
+        assertThat(cache.get("c"), notNullValue());
+        assertThat(cache.getEvictionCount(), is(1L));
+        assertThat(cache.getSizeBytes(), is(2 * PRODUCT_SIZE));
+    }
+
+    @Test
+    public void testFrequentlyUsedProductsAreNotReplaced() throws IOException {
+        cache.put(product("a", PRODUCT_SIZE));
+        cache.put(product("b", PRODUCT_SIZE));
+        for (int i = 0; i < 3; i++) {
+            cache.get("a");
+            cache.get("b");
+        }
+
+        cache.put(product("c", PRODUCT_SIZE));
+
+        assertThat(cache.get("c"), nullValue());
+        assertThat(productFile("c").exists(), is(false));
+        assertThat(cache.get("a"), notNullValue());
+        assertThat(cache.get("b"), notNullValue());
+    }
+
+    @Test
+    public void testProductLargerThanCacheIsRejected() throws IOException {
+        cache.put(product("a", MAX_SIZE + 1));
+
+        assertThat(cache.get("a"), nullValue());
+        assertThat(productFile("a").exists(), is(false));
+        assertThat(cache.getEvictionCount(), is(1L));
+    }
+
+    @Test
+    public void testRemoveKeepsProductFile() throws IOException {
+        cache.put(product("a", PRODUCT_SIZE));
+
+        cache.remove("a");
+
+        assertThat(cache.get("a"), nullValue());
+        assertThat(productFile("a").exists(), is(true));
+        assertThat(cache.getSizeBytes(), is(0L));
+    }
+
+    @Test
+    public void testCacheIsRebuiltFromIndex() throws IOException {
+        cache.put(product("a", PRODUCT_SIZE));
+        cache.put(product("b", PRODUCT_SIZE));
+        cache.close();
+
+        cache = new LocalProductCache(directory, MAX_SIZE);
+
+        assertThat(cache.getEntryCount(), is(2));
+        assertThat(cache.getSizeBytes(), is(2 * PRODUCT_SIZE));
+        ReliableResource cached = cache.get("b");
+        assertThat(cached, notNullValue());
+        assertThat(cached.getMetacard()
+                .getId(), is("b"));
+        assertThat(cached.getSize(), is(PRODUCT_SIZE));
+    }
+
+    @Test
+    public void testSmallerLimitIsEnforcedOnRestart() throws IOException {
+        cache.put(product("a", PRODUCT_SIZE));
+        cache.put(product("b", PRODUCT_SIZE));
+        cache.close();
+
+        cache = new LocalProductCache(directory, PRODUCT_SIZE + 100);
+
+        assertThat(cache.getEntryCount(), is(1));
+        assertThat(cache.getEvictionCount(), is(1L));
+    }
+
+    @Test
+    public void testProductWithoutIndexSlotIsOnlyKeptInMemory() throws IOException {
+        String longDirectory = StringUtils.repeat("d", 200);
+        File file = new File(directory,
+                longDirectory + File.separator + longDirectory + File.separator + longDirectory
+                        + File.separator + "a");
+        cache.put(product("a", PRODUCT_SIZE, file));
+
+        assertThat(cache.get("a"), notNullValue());
+        assertThat(entryFile("a").exists(), is(false));
+        cache.close();
+
+        cache = new LocalProductCache(directory, MAX_SIZE);
+        assertThat(cache.getEntryCount(), is(0));
+    }
+
+    @Test
+    public void testUnindexedEntryFilesAreDeletedOnRestart() throws IOException {
+        cache.put(product("a", PRODUCT_SIZE));
+        cache.close();
+        File orphan = entryFile("orphan");
+        FileUtils.writeByteArrayToFile(orphan, new byte[1]);
+
+        cache = new LocalProductCache(directory, MAX_SIZE);
+
+        assertThat(orphan.exists(), is(false));
+        assertThat(entryFile("a").exists(), is(true));
+        assertThat(cache.get("a"), notNullValue());
+    }
+
+    private ReliableResource product(String key, long size) throws IOException {
+        return product(key, size, productFile(key));
+    }
+
+    private ReliableResource product(String key, long size, File file) throws IOException {
+        FileUtils.writeByteArrayToFile(file, new byte[(int) size]);
+
+        MetacardImpl metacard = new MetacardImpl();
+        metacard.setId(key);
+        ReliableResource resource = new ReliableResource(key,
+                file.getAbsolutePath(),
+                null,
+                key,
+                metacard);
+        resource.setSize(size);
+        resource.setLastTouchedMillis(System.currentTimeMillis());
+        return resource;
+    }
+
+    private File productFile(String key) {
+        return new File(directory, key);
+    }
+
+    private File entryFile(String key) {
+        return new File(new File(directory, LocalProductCache.INDEX_DIRECTORY), key + ".ser");
+    }
+}
@@ -274,6 +274,26 @@ public void testContainsTrueValid() throws URISyntaxException {
         assertTrue(resourceCache.containsValid(cacheKey, latestMetacard));
     }
 
+    @Test
+    public void testSwitchToLocalCache() throws URISyntaxException {
+        MetacardImpl cachedMetacard = generateMetacard();
+        MetacardImpl latestMetacard = generateMetacard();
+
+        resourceCache.setLocalCacheEnabled(true);
+        try {
+            assertTrue(new File(defaultProductCacheDirectory,
+                    LocalProductCache.INDEX_DIRECTORY).isDirectory());
+            resourceCache.put(new ReliableResource("cacheKey1", "", null, "name", cachedMetacard));
+            assertTrue(resourceCache.containsValid("cacheKey1", latestMetacard));
+
+            resourceCache.setLocalCacheEnabled(false);
+            resourceCache.put(new ReliableResource("cacheKey2", "", null, "name", cachedMetacard));
+            assertTrue(resourceCache.containsValid("cacheKey2", latestMetacard));
+        } finally {
+            resourceCache.teardownCache();
+        }
+    }
+
     @Test
     public void testContainsFalseValid() throws URISyntaxException {
         MetacardImpl latestMetacard = generateMetacard();
@@ -15,11 +15,14 @@
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Serializable;
 import java.security.NoSuchAlgorithmException;
 import java.util.List;
+import java.util.Map;
 
 import org.codice.ddf.checksum.ChecksumProvider;
 
+import ddf.catalog.Constants;
 import ddf.catalog.content.data.ContentItem;
 import ddf.catalog.content.operation.CreateStorageRequest;
 import ddf.catalog.content.operation.UpdateStorageRequest;
@@ -42,7 +45,7 @@ public CreateStorageRequest process(CreateStorageRequest input)
         if (input == null) {
             throw new IllegalArgumentException("CreateStorageRequest cannot be null");
         }
-        runChecksum(input.getContentItems());
+        runChecksum(input.getContentItems(), input.getProperties());
 
         return input;
     }
@@ -53,16 +56,28 @@ public UpdateStorageRequest process(UpdateStorageRequest input)
         if (input == null) {
             throw new IllegalArgumentException("UpdateStorageRequest cannot be null");
         }
-        runChecksum(input.getContentItems());
+        runChecksum(input.getContentItems(), input.getProperties());
 
         return input;
     }
 
-    private void runChecksum(List<ContentItem> contentItems) throws PluginExecutionException {
+    private void runChecksum(List<ContentItem> contentItems, Map<String, Serializable> properties)
+            throws PluginExecutionException {
+        String checksumAlgorithm = checksumProvider.getChecksumAlgorithm();
         for (ContentItem contentItem : contentItems) {
+            // Use the checksum calculated by the framework while it copied the content, if any
+            String calculatedChecksum = getCalculatedChecksum(properties,
+                    contentItem.getId(),
+                    checksumAlgorithm);
+            if (calculatedChecksum != null) {
+                addChecksumAttributes(contentItem.getMetacard(),
+                        checksumAlgorithm,
+                        calculatedChecksum);
+                continue;
+            }
+
             try (InputStream inputStream = contentItem.getInputStream()) {
                 //calculate checksum so that it can be added as an attribute on metacard
-                String checksumAlgorithm = checksumProvider.getChecksumAlgorithm();
                 String checksumValue;
 
                 try {
@@ -82,6 +97,22 @@ private void runChecksum(List<ContentItem> contentItems) throws PluginExecutionE
         }
     }
 
+    @SuppressWarnings("unchecked")
+    private String getCalculatedChecksum(Map<String, Serializable> properties, String id,
+            String checksumAlgorithm) {
+        if (properties == null) {
+            return null;
+        }
+
+        Map<String, Map<String, String>> contentChecksums =
+                (Map<String, Map<String, String>>) properties.get(Constants.CONTENT_CHECKSUMS);
+        if (contentChecksums == null || contentChecksums.get(id) == null) {
+            return null;
+        }
+        return contentChecksums.get(id)
+                .get(checksumAlgorithm);
+    }
+
     private void addChecksumAttributes(Metacard metacard, final String checksumAlgorithm,
             final String checksumValue) {
         metacard.setAttribute(new AttributeImpl(Metacard.CHECKSUM_ALGORITHM,
@@ -21,18 +21,25 @@
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Serializable;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.codice.ddf.checksum.ChecksumProvider;
 import org.junit.Before;
 import org.junit.Test;
 
+import ddf.catalog.Constants;
 import ddf.catalog.content.data.ContentItem;
 import ddf.catalog.content.operation.CreateStorageRequest;
 import ddf.catalog.content.operation.UpdateStorageRequest;
@@ -53,6 +60,8 @@ public class TestChecksum {
 
     private static final String SAMPLE_CHECKSUM_VALUE = "324D54D92B2D97471F9F4624596EA9F5";
 
+    private static final String CONTENT_ITEM_ID = "contentItemId";
+
     @Before
     public void initialize() throws IOException, NoSuchAlgorithmException {
         mockChecksumProvider = mock(ChecksumProvider.class);
@@ -67,6 +76,7 @@ public void initialize() throws IOException, NoSuchAlgorithmException {
 
         List<ContentItem> mockContentItems = new ArrayList<>();
         ContentItem mockContentItem = mock(ContentItem.class);
+        when(mockContentItem.getId()).thenReturn(CONTENT_ITEM_ID);
         when(mockContentItem.getInputStream()).thenReturn(inputStream);
         when(mockContentItem.getMetacard()).thenReturn(new MetacardImpl());
         mockContentItems.add(mockContentItem);
@@ -113,6 +123,36 @@ public void testProcessUpdateWithValidInput() throws PluginExecutionException {
         assertThat(checksumAlgorithm, is(SAMPLE_CHECKSUM_ALGORITHM));
     }
 
+    @Test
+    public void testProcessCreateUsesCalculatedChecksum() throws Exception {
+        when(mockCreateRequest.getProperties()).thenReturn(getContentChecksums(
+                SAMPLE_CHECKSUM_ALGORITHM,
+                "calculated"));
+
+        CreateStorageRequest request = checksum.process(mockCreateRequest);
+
+        verify(mockChecksumProvider, never()).calculateChecksum(any(InputStream.class));
+        assertThat(request.getContentItems()
+                .get(0)
+                .getMetacard()
+                .getAttribute(Metacard.CHECKSUM)
+                .getValue(), is("calculated"));
+    }
+
+    @Test
+    public void testProcessUpdateIgnoresCalculatedChecksumOfOtherAlgorithm() throws Exception {
+        when(mockUpdateRequest.getProperties()).thenReturn(getContentChecksums("Adler32",
+                "calculated"));
+
+        UpdateStorageRequest request = checksum.process(mockUpdateRequest);
+
+        assertThat(request.getContentItems()
+                .get(0)
+                .getMetacard()
+                .getAttribute(Metacard.CHECKSUM)
+                .getValue(), is(SAMPLE_CHECKSUM_VALUE));
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testProcessCreateWithNullInput() throws PluginExecutionException {
         checksum.process((CreateStorageRequest)null);
@@ -148,4 +188,13 @@ public void testProcessUpdateChecksumCalculationIOException() throws Exception {
             assertThat(e.getCause(), instanceOf(IOException.class));
         }
     }
+
+    private Map<String, Serializable> getContentChecksums(String algorithm, String value) {
+        HashMap<String, Map<String, String>> contentChecksums = new HashMap<>();
+        contentChecksums.put(CONTENT_ITEM_ID, Collections.singletonMap(algorithm, value));
+
+        Map<String, Serializable> properties = new HashMap<>();
+        properties.put(Constants.CONTENT_CHECKSUMS, contentChecksums);
+        return properties;
+    }
 }
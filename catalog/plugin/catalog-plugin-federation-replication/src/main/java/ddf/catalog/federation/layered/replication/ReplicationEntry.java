@@ -0,0 +1,85 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.federation.layered.replication;
+
+/**
+ * A change to a metacard that still has to be sent to the parent.
+ */
+class ReplicationEntry {
+
+    enum Operation {
+        CREATE, UPDATE, DELETE
+    }
+
+    private final Operation operation;
+
+    private final String id;
+
+    private final String mimeType;
+
+    private final byte[] data;
+
+    private final long timestamp;
+
+    private final long nextPosition;
+
+    ReplicationEntry(Operation operation, String id, String mimeType, byte[] data) {
+        this(operation, id, mimeType, data, System.currentTimeMillis(), -1);
+    }
+
+    ReplicationEntry(Operation operation, String id, String mimeType, byte[] data,
+            long timestamp, long nextPosition) {
+        this.operation = operation;
+        this.id = id;
+        this.mimeType = mimeType;
+        this.data = data;
+        this.timestamp = timestamp;
+        this.nextPosition = nextPosition;
+    }
+
+    Operation getOperation() {
+        return operation;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    String getMimeType() {
+        return mimeType;
+    }
+
+    byte[] getData() {
+        return data;
+    }
+
+    /**
+     * @return the time the change was queued, in milliseconds since the epoch
+     */
+    long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @return the position of the next entry in the queue's log, or -1 if the entry hasn't been
+     * read from a log
+     */
+    long getNextPosition() {
+        return nextPosition;
+    }
+
+    ReplicationEntry withOperation(Operation newOperation) {
+        return new ReplicationEntry(newOperation, id, mimeType, data, timestamp, nextPosition);
+    }
+}
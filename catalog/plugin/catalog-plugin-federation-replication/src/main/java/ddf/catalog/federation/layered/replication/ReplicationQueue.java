@@ -0,0 +1,499 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.federation.layered.replication;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Durable FIFO queue of {@link ReplicationEntry}s, backed by an append-only log file.
+ * <p>
+ * Each record in the log is made of its body length, the CRC32 of its body and the body itself.
+ * A separate offset file holds the position of the first record that hasn't been acknowledged.
+ * Entries are synced to disk before {@link #append(List)} returns, so queued changes survive a
+ * restart; entries that were taken but not acknowledged are taken again after a restart. An
+ * append that fails is removed from the log, so it never hides the entries appended after it.
+ * <p>
+ * Interrupting a thread while it reads or writes a file channel closes the channel. When that
+ * happens the files are reopened by the next operation on the queue, which drops the records of
+ * the interrupted append and reloads the queue from disk.
+ * <p>
+ * The log is truncated whenever every entry has been acknowledged. If entries keep being appended
+ * faster than they are acknowledged, the log is compacted instead once its acknowledged records
+ * take up more than the compaction threshold and at least half of the log, by copying the
+ * remaining records into a new log.
+ */
+class ReplicationQueue implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReplicationQueue.class);
+
+    static final String LOG_FILE_NAME = "replication.log";
+
+    static final String OFFSET_FILE_NAME = "replication.offset";
+
+    static final String COMPACT_FILE_NAME = "replication.log.compact";
+
+    static final long DEFAULT_COMPACT_THRESHOLD = 64L * 1024 * 1024;
+
+    private static final int HEADER_SIZE = Integer.BYTES * 2;
+
+    private static final int NULL_LENGTH = -1;
+
+    private static final ReplicationEntry.Operation[] OPERATIONS =
+            ReplicationEntry.Operation.values();
+
+    private final Path directory;
+
+    private final long compactThreshold;
+
+    private FileChannel log;
+
+    private FileChannel offsetFile;
+
+    private long readPosition;
+
+    private long writePosition;
+
+    private int size;
+
+    private long oldestTimestamp;
+
+    private boolean closed;
+
+    ReplicationQueue(Path directory) throws IOException {
+        this(directory, DEFAULT_COMPACT_THRESHOLD);
+    }
+
+    ReplicationQueue(Path directory, long compactThreshold) throws IOException {
+        this.directory = directory;
+        this.compactThreshold = compactThreshold;
+        Files.createDirectories(directory);
+
+        log = openLog();
+        offsetFile = openOffsetFile();
+
+        recover();
+    }
+
+    /**
+     * Appends entries to the end of the queue and syncs them to disk.
+     *
+     * @param entries entries to append
+     * @throws IOException if the entries couldn't be written
+     */
+    synchronized void append(List<ReplicationEntry> entries) throws IOException {
+        if (entries.isEmpty()) {
+            return;
+        }
+        reopenIfClosed();
+
+        List<ByteBuffer> records = new ArrayList<>(entries.size());
+        for (ReplicationEntry entry : entries) {
+            records.add(encode(entry));
+        }
+
+        long position = writePosition;
+        try {
+            for (ByteBuffer record : records) {
+                while (record.hasRemaining()) {
+                    position += write(record, position);
+                }
+            }
+            log.force(false);
+        } catch (IOException | RuntimeException e) {
+            // Remove the partial records, so that they don't hide the next append. Later appends
+            // overwrite them even if they can't be removed, and reopening the log removes them if
+            // it was closed by an interrupt.
+            try {
+                log.truncate(writePosition);
+            } catch (IOException | RuntimeException te) {
+                e.addSuppressed(te);
+            }
+            throw e;
+        }
+        writePosition = position;
+
+        if (size == 0) {
+            oldestTimestamp = entries.get(0)
+                    .getTimestamp();
+        }
+        size += entries.size();
+
+        notifyAll();
+    }
+
+    /**
+     * Returns the entries at the head of the queue without removing them, waiting for entries to
+     * be appended if the queue is empty.
+     *
+     * @param maxEntries maximum number of entries to return
+     * @param timeout    maximum time to wait for entries
+     * @param unit       unit of the timeout
+     * @return the entries at the head of the queue, or an empty list if the timeout elapsed
+     * @throws IOException          if the entries couldn't be read
+     * @throws InterruptedException if interrupted while waiting
+     */
+    synchronized List<ReplicationEntry> take(int maxEntries, long timeout, TimeUnit unit)
+            throws IOException, InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (size == 0) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return Collections.emptyList();
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+        reopenIfClosed();
+
+        int count = Math.min(maxEntries, size);
+        List<ReplicationEntry> entries = new ArrayList<>(count);
+        long position = readPosition;
+        for (int i = 0; i < count; i++) {
+            ReplicationEntry entry = read(position);
+            if (entry == null) {
+                throw new IOException("Replication queue log is corrupt at position " + position);
+            }
+            entries.add(entry);
+            position = entry.getNextPosition();
+        }
+
+        return entries;
+    }
+
+    /**
+     * Removes entries previously returned by {@link #take(int, long, TimeUnit)} from the head of
+     * the queue.
+     *
+     * @param entries entries to remove, in the order they were taken
+     * @throws IOException if the new head of the queue couldn't be recorded
+     */
+    synchronized void acknowledge(List<ReplicationEntry> entries) throws IOException {
+        if (entries.isEmpty()) {
+            return;
+        }
+        reopenIfClosed();
+
+        size -= entries.size();
+        if (size == 0) {
+            // Record the new offset before truncating, so that a crash in between can only cause
+            // entries to be sent again
+            writeOffset(0);
+            log.truncate(0);
+            log.force(false);
+            readPosition = 0;
+            writePosition = 0;
+        } else {
+            readPosition = entries.get(entries.size() - 1)
+                    .getNextPosition();
+            writeOffset(readPosition);
+            oldestTimestamp = readTimestamp(readPosition);
+            if (readPosition >= compactThreshold && readPosition >= writePosition - readPosition) {
+                compact();
+            }
+        }
+    }
+
+    /**
+     * @return the number of entries in the queue
+     */
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @return the time the oldest entry in the queue was queued, in milliseconds since the epoch,
+     * or 0 if the queue is empty
+     */
+    synchronized long getOldestTimestamp() {
+        return size == 0 ? 0 : oldestTimestamp;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        closed = true;
+        try {
+            log.close();
+        } finally {
+            offsetFile.close();
+        }
+    }
+
+    /**
+     * Replaces the log with a copy of its records that haven't been acknowledged. Positions of
+     * entries taken before compacting are no longer valid, so this must only be called once every
+     * taken entry has been acknowledged.
+     */
+    private void compact() throws IOException {
+        LOGGER.debug("Compacting replication queue log, discarding {} acknowledged bytes.",
+                readPosition);
+        Path compacted = directory.resolve(COMPACT_FILE_NAME);
+        try (FileChannel copy = FileChannel.open(compacted,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            long position = readPosition;
+            while (position < writePosition) {
+                position += log.transferTo(position, writePosition - position, copy);
+            }
+            copy.force(false);
+        }
+
+        // Reset the offset before replacing the log, so that a crash in between can only cause
+        // entries to be sent again
+        writeOffset(0);
+        log.close();
+        try {
+            Files.move(compacted,
+                    directory.resolve(LOG_FILE_NAME),
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // Keep using the old log; its acknowledged records are sent again after a restart
+            log = openLog();
+            writeOffset(readPosition);
+            throw e;
+        }
+        log = openLog();
+
+        writePosition -= readPosition;
+        readPosition = 0;
+    }
+
+    private FileChannel openLog() throws IOException {
+        return FileChannel.open(directory.resolve(LOG_FILE_NAME),
+                StandardOpenOption.CREATE,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+    }
+
+    private FileChannel openOffsetFile() throws IOException {
+        return FileChannel.open(directory.resolve(OFFSET_FILE_NAME),
+                StandardOpenOption.CREATE,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Reopens the log and offset files if an interrupted thread closed either of them, and reloads
+     * the queue from disk. Entries that were taken but not acknowledged keep their positions, and
+     * entries that were acknowledged but not yet removed from the log are taken again.
+     */
+    private void reopenIfClosed() throws IOException {
+        if (closed || (log.isOpen() && offsetFile.isOpen())) {
+            return;
+        }
+
+        LOGGER.debug("Reopening replication queue files closed by an interrupted thread.");
+        log.close();
+        offsetFile.close();
+        log = openLog();
+        offsetFile = openOffsetFile();
+
+        // Remove the records of an append that was interrupted before it completed
+        if (log.size() > writePosition) {
+            log.truncate(writePosition);
+        }
+        size = 0;
+        recover();
+    }
+
+    /**
+     * Writes bytes to the log.
+     *
+     * @return the number of bytes written
+     */
+    int write(ByteBuffer buffer, long position) throws IOException {
+        return log.write(buffer, position);
+    }
+
+    private void recover() throws IOException {
+        readPosition = readOffset();
+        if (readPosition > log.size()) {
+            LOGGER.warn("Replication queue offset is past the end of its log, resending all of it.");
+            readPosition = 0;
+        }
+
+        long position = readPosition;
+        ReplicationEntry entry;
+        while ((entry = read(position)) != null) {
+            if (size == 0) {
+                oldestTimestamp = entry.getTimestamp();
+            }
+            size++;
+            position = entry.getNextPosition();
+        }
+
+        if (position < log.size()) {
+            LOGGER.warn("Discarding incomplete record at the end of the replication queue log.");
+            log.truncate(position);
+        }
+        writePosition = position;
+
+        LOGGER.debug("Recovered {} replication queue entries.", size);
+    }
+
+    private ByteBuffer encode(ReplicationEntry entry) {
+        byte[] id = getBytes(entry.getId());
+        byte[] mimeType = getBytes(entry.getMimeType());
+        byte[] data = entry.getData();
+
+        int bodySize = Long.BYTES + 1 + Integer.BYTES * 3 + length(id) + length(mimeType)
+                + length(data);
+        ByteBuffer record = ByteBuffer.allocate(HEADER_SIZE + bodySize);
+        record.putInt(bodySize)
+                .putInt(0)
+                .putLong(entry.getTimestamp())
+                .put((byte) entry.getOperation()
+                        .ordinal());
+        putBytes(record, id);
+        putBytes(record, mimeType);
+        putBytes(record, data);
+
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), HEADER_SIZE, bodySize);
+        record.putInt(Integer.BYTES, (int) crc.getValue());
+
+        record.flip();
+        return record;
+    }
+
+    /**
+     * Reads the record at a position in the log.
+     *
+     * @return the entry, or null if there isn't a complete record at the position
+     */
+    private ReplicationEntry read(long position) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        if (!readFully(header, position)) {
+            return null;
+        }
+        int bodySize = header.getInt(0);
+        int checksum = header.getInt(Integer.BYTES);
+        if (bodySize <= 0 || position + HEADER_SIZE + bodySize > log.size()) {
+            return null;
+        }
+
+        ByteBuffer body = ByteBuffer.allocate(bodySize);
+        if (!readFully(body, position + HEADER_SIZE)) {
+            return null;
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(body.array());
+        if ((int) crc.getValue() != checksum) {
+            return null;
+        }
+
+        body.flip();
+        long timestamp = body.getLong();
+        ReplicationEntry.Operation operation = OPERATIONS[body.get()];
+        String id = getString(getBytes(body));
+        String mimeType = getString(getBytes(body));
+        byte[] data = getBytes(body);
+
+        return new ReplicationEntry(operation,
+                id,
+                mimeType,
+                data,
+                timestamp,
+                position + HEADER_SIZE + bodySize);
+    }
+
+    private long readTimestamp(long position) throws IOException {
+        ByteBuffer timestamp = ByteBuffer.allocate(Long.BYTES);
+        return readFully(timestamp, position + HEADER_SIZE) ? timestamp.getLong(0) : 0;
+    }
+
+    private boolean readFully(ByteBuffer buffer, long position) throws IOException {
+        long current = position;
+        while (buffer.hasRemaining()) {
+            int read = log.read(buffer, current);
+            if (read < 0) {
+                return false;
+            }
+            current += read;
+        }
+        return true;
+    }
+
+    private long readOffset() throws IOException {
+        ByteBuffer offset = ByteBuffer.allocate(Long.BYTES);
+        long position = 0;
+        while (offset.hasRemaining()) {
+            int read = offsetFile.read(offset, position);
+            if (read < 0) {
+                return 0;
+            }
+            position += read;
+        }
+        return offset.getLong(0);
+    }
+
+    private void writeOffset(long offset) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+        buffer.putLong(offset)
+                .flip();
+        long position = 0;
+        while (buffer.hasRemaining()) {
+            position += offsetFile.write(buffer, position);
+        }
+        offsetFile.force(false);
+    }
+
+    private static byte[] getBytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String getString(byte[] value) {
+        return value == null ? null : new String(value, StandardCharsets.UTF_8);
+    }
+
+    private static int length(byte[] value) {
+        return value == null ? 0 : value.length;
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.putInt(NULL_LENGTH);
+        } else {
+            buffer.putInt(value.length)
+                    .put(value);
+        }
+    }
+
+    private static byte[] getBytes(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] value = new byte[length];
+        buffer.get(value);
+        return value;
+    }
+}
@@ -0,0 +1,233 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.federation.layered.replication;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import org.apache.cxf.jaxrs.client.WebClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.Meter;
+
+/**
+ * Sends the entries of a {@link ReplicationQueue} to the parent in batches, retrying with
+ * exponential backoff while the parent is unavailable.
+ * <p>
+ * The parent's REST endpoint takes a single metacard per request, so a batch is sent as one
+ * request per metacard on the same client. Changes to the same metacard within a batch are
+ * compacted into a single request first.
+ */
+class ReplicationSender implements Runnable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReplicationSender.class);
+
+    static final long INITIAL_BACKOFF_MILLIS = TimeUnit.SECONDS.toMillis(1);
+
+    static final long MAX_BACKOFF_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private static final long POLL_SECONDS = 1;
+
+    private final ReplicationQueue queue;
+
+    private final Supplier<WebClient> clientSupplier;
+
+    private final Meter sent;
+
+    private final Meter failed;
+
+    private volatile int batchSize;
+
+    ReplicationSender(ReplicationQueue queue, Supplier<WebClient> clientSupplier, int batchSize,
+            Meter sent, Meter failed) {
+        this.queue = queue;
+        this.clientSupplier = clientSupplier;
+        this.batchSize = batchSize;
+        this.sent = sent;
+        this.failed = failed;
+    }
+
+    void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void run() {
+        while (!Thread.currentThread()
+                .isInterrupted()) {
+            try {
+                sendBatch();
+            } catch (InterruptedException e) {
+                Thread.currentThread()
+                        .interrupt();
+            } catch (IOException | RuntimeException e) {
+                LOGGER.warn("Failed to read the replication queue. Retrying in {} ms.",
+                        INITIAL_BACKOFF_MILLIS,
+                        e);
+                try {
+                    Thread.sleep(INITIAL_BACKOFF_MILLIS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread()
+                            .interrupt();
+                }
+            }
+        }
+        LOGGER.debug("Replication sender stopped with {} entries queued.", queue.size());
+    }
+
+    /**
+     * Sends the next batch of entries and removes it from the queue once every entry has been
+     * sent.
+     */
+    void sendBatch() throws IOException, InterruptedException {
+        List<ReplicationEntry> batch = queue.take(Math.max(batchSize, 1),
+                POLL_SECONDS,
+                TimeUnit.SECONDS);
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        Deque<ReplicationEntry> pending = new ArrayDeque<>(compact(batch));
+        long backoff = INITIAL_BACKOFF_MILLIS;
+        while (!pending.isEmpty()) {
+            if (send(pending.peek())) {
+                pending.remove();
+                backoff = INITIAL_BACKOFF_MILLIS;
+            } else {
+                LOGGER.debug("Retrying replication to the parent in {} ms.", backoff);
+                Thread.sleep(backoff);
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            }
+        }
+
+        queue.acknowledge(batch);
+    }
+
+    /**
+     * Compacts the changes to each metacard into a single change, e.g., a create followed by
+     * updates becomes a create of the last update, and a create followed by a delete is dropped.
+     */
+    static List<ReplicationEntry> compact(List<ReplicationEntry> entries) {
+        Map<String, ReplicationEntry> compacted = new LinkedHashMap<>();
+        for (ReplicationEntry entry : entries) {
+            ReplicationEntry previous = compacted.get(entry.getId());
+            if (previous == null) {
+                compacted.put(entry.getId(), entry);
+                continue;
+            }
+
+            switch (entry.getOperation()) {
+            case UPDATE:
+                compacted.put(entry.getId(),
+                        previous.getOperation() == ReplicationEntry.Operation.CREATE ?
+                                entry.withOperation(ReplicationEntry.Operation.CREATE) :
+                                entry);
+                break;
+            case DELETE:
+                if (previous.getOperation() == ReplicationEntry.Operation.CREATE) {
+                    compacted.remove(entry.getId());
+                } else {
+                    compacted.put(entry.getId(), entry);
+                }
+                break;
+            default:
+                // The parent still has the metacard if it was deleted and created again
+                compacted.put(entry.getId(),
+                        previous.getOperation() == ReplicationEntry.Operation.DELETE ?
+                                entry.withOperation(ReplicationEntry.Operation.UPDATE) :
+                                entry);
+                break;
+            }
+        }
+        return new ArrayList<>(compacted.values());
+    }
+
+    /**
+     * Sends an entry to the parent.
+     *
+     * @return true if the entry doesn't need to be sent again, false if it should be retried
+     */
+    private boolean send(ReplicationEntry entry) {
+        WebClient client = clientSupplier.get();
+        if (client == null) {
+            return false;
+        }
+
+        WebClient entryClient = WebClient.fromClient(client);
+        Response response;
+        try {
+            switch (entry.getOperation()) {
+            case CREATE:
+                response = entryClient.type(getValidMimeType(entry.getMimeType()))
+                        .post(entry.getData());
+                break;
+            case UPDATE:
+                response = entryClient.path(entry.getId())
+                        .type(getValidMimeType(entry.getMimeType()))
+                        .put(entry.getData());
+                break;
+            default:
+                response = entryClient.path(entry.getId())
+                        .delete();
+                break;
+            }
+        } catch (RuntimeException e) {
+            LOGGER.debug("Could not send {} of metacard [{}] to the parent.",
+                    entry.getOperation(),
+                    entry.getId(),
+                    e);
+            failed.mark();
+            return false;
+        }
+
+        Response.Status.Family family = Response.Status.Family.familyOf(response.getStatus());
+        if (family == Response.Status.Family.SUCCESSFUL) {
+            sent.mark();
+            return true;
+        }
+
+        failed.mark();
+        if (family == Response.Status.Family.CLIENT_ERROR) {
+            LOGGER.warn("Parent rejected {} of metacard [{}] with status {}. It will not be retried.",
+                    entry.getOperation(),
+                    entry.getId(),
+                    response.getStatus());
+            return true;
+        }
+
+        LOGGER.debug("Parent responded to {} of metacard [{}] with status {}.",
+                entry.getOperation(),
+                entry.getId(),
+                response.getStatus());
+        return false;
+    }
+
+    private String getValidMimeType(String mimeTypeValue) {
+        if (mimeTypeValue == null) {
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
+        return mimeTypeValue;
+    }
+}
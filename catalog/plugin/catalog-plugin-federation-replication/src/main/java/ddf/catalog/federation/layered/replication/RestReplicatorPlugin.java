@@ -14,19 +14,23 @@
 package ddf.catalog.federation.layered.replication;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
-import javax.ws.rs.core.MediaType;
-import javax.ws.rs.core.Response;
-
-import org.apache.commons.lang.builder.ToStringBuilder;
 import org.apache.cxf.jaxrs.client.WebClient;
 import org.codice.ddf.configuration.PropertyResolver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.JmxReporter;
+import com.codahale.metrics.MetricRegistry;
+
 import ddf.catalog.data.BinaryContent;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.operation.CreateResponse;
@@ -40,10 +44,31 @@
 import ddf.catalog.transform.MetacardTransformer;
 import ddf.catalog.util.impl.Requests;
 
+/**
+ * Replicates local creates, updates and deletes to a parent node.
+ * <p>
+ * Changes are written to a durable queue under {@code <DDF_HOME>/data/replication} and sent to the
+ * parent by a background {@link ReplicationSender}, so ingest doesn't wait on the parent and
+ * changes made while the parent is unavailable are sent once it comes back.
+ */
 public class RestReplicatorPlugin implements PostIngestPlugin {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(RestReplicatorPlugin.class);
 
+    private static final int DEFAULT_BATCH_SIZE = 100;
+
+    private final MetricRegistry metrics = new MetricRegistry();
+
+    private final JmxReporter reporter = JmxReporter.forRegistry(metrics)
+            .inDomain("ddf.metrics.catalog.replication")
+            .build();
+
+    private final ReplicationQueue queue;
+
+    private final ReplicationSender sender;
+
+    private final ExecutorService executor;
+
     /**
      * A configurable property of parent's location.
      */
@@ -51,10 +76,34 @@ public class RestReplicatorPlugin implements PostIngestPlugin {
 
     private MetacardTransformer transformer = null;
 
-    private WebClient client;
+    private volatile WebClient client;
 
-    public RestReplicatorPlugin(String endpointAddress) {
+    public RestReplicatorPlugin(String endpointAddress) throws IOException {
+        this(endpointAddress,
+                Paths.get(System.getProperty("ddf.home"), "data", "replication"),
+                Executors.newSingleThreadExecutor());
+    }
+
+    public RestReplicatorPlugin(String endpointAddress, Path queueDirectory,
+            ExecutorService executor) throws IOException {
         setParentAddress(endpointAddress);
+
+        this.queue = new ReplicationQueue(queueDirectory);
+        this.executor = executor;
+        this.sender = new ReplicationSender(queue,
+                () -> client,
+                DEFAULT_BATCH_SIZE,
+                metrics.meter("Sent"),
+                metrics.meter("Failed"));
+
+        metrics.register("QueueDepth", (Gauge<Integer>) queue::size);
+        metrics.register("Lag", (Gauge<Long>) () -> {
+            long oldestTimestamp = queue.getOldestTimestamp();
+            return oldestTimestamp == 0 ? 0 : System.currentTimeMillis() - oldestTimestamp;
+        });
+
+        executor.execute(sender);
+        reporter.start();
     }
 
     @Override
@@ -62,15 +111,13 @@ public CreateResponse process(CreateResponse input) throws PluginExecutionExcept
 
         if (Requests.isLocal(input.getRequest()) && client != null && transformer != null) {
 
-            for (Metacard m : input.getCreatedMetacards()) {
-
-                String data = transform(m, client);
+            List<ReplicationEntry> entries = new ArrayList<>();
 
-                Response r = client.post(data);
-
-                LOGGER.debug("Posted the following GeoJSON: {}\n", data);
-                LOGGER.debug("RESPONSE: [{}]", ToStringBuilder.reflectionToString(r));
+            for (Metacard m : input.getCreatedMetacards()) {
+                entries.add(transform(ReplicationEntry.Operation.CREATE, m.getId(), m));
             }
+
+            enqueue(entries);
         }
 
         return input;
@@ -81,10 +128,6 @@ public UpdateResponse process(UpdateResponse input) throws PluginExecutionExcept
 
         if (Requests.isLocal(input.getRequest()) && client != null && transformer != null) {
 
-            WebClient updateClient = WebClient.fromClient(client);
-
-            updateClient.type(MediaType.APPLICATION_JSON);
-
             List<Update> updates = input.getUpdatedMetacards();
 
             if (updates == null) {
@@ -97,6 +140,8 @@ public UpdateResponse process(UpdateResponse input) throws PluginExecutionExcept
                         "Cannot replicate records that are not updated by " + Metacard.ID));
             }
 
+            List<ReplicationEntry> entries = new ArrayList<>();
+
             for (int i = 0; i < updates.size(); i++) {
 
                 Update update = updates.get(i);
@@ -106,20 +151,17 @@ public UpdateResponse process(UpdateResponse input) throws PluginExecutionExcept
                         .get(i)
                         .getKey() != null) {
 
-                    updateClient.path(request.getUpdates()
-                            .get(i)
-                            .getKey());
-
-                    Metacard newMetacard = update.getNewMetacard();
-
-                    String newData = transform(newMetacard, updateClient);
-
-                    Response r = updateClient.put(newData);
-
-                    LOGGER.debug("RESPONSE: [{}]", ToStringBuilder.reflectionToString(r));
+                    entries.add(transform(ReplicationEntry.Operation.UPDATE,
+                            request.getUpdates()
+                                    .get(i)
+                                    .getKey()
+                                    .toString(),
+                            update.getNewMetacard()));
                 }
 
             }
+
+            enqueue(entries);
         }
 
         return input;
@@ -130,31 +172,25 @@ public DeleteResponse process(DeleteResponse input) throws PluginExecutionExcept
 
         if (input != null && Requests.isLocal(input.getRequest()) && client != null) {
 
-            WebClient updateClient = WebClient.fromClient(client);
-
-            updateClient.type(MediaType.APPLICATION_JSON);
-
             if (input.getDeletedMetacards() == null || input.getDeletedMetacards()
                     .isEmpty()) {
                 return input;
             }
 
-            for (int i = 0; i < input.getDeletedMetacards()
-                    .size(); i++) {
+            List<ReplicationEntry> entries = new ArrayList<>();
 
-                Metacard metacard = input.getDeletedMetacards()
-                        .get(i);
+            for (Metacard metacard : input.getDeletedMetacards()) {
 
                 if (metacard != null && metacard.getId() != null) {
-
-                    updateClient.path(metacard.getId());
-
-                    Response r = updateClient.delete();
-
-                    LOGGER.debug("RESPONSE: [{}]", ToStringBuilder.reflectionToString(r));
+                    entries.add(new ReplicationEntry(ReplicationEntry.Operation.DELETE,
+                            metacard.getId(),
+                            null,
+                            null));
                 }
 
             }
+
+            enqueue(entries);
         }
 
         return input;
@@ -197,13 +233,50 @@ public void setTransformer(MetacardTransformer transformer) {
         LOGGER.debug("Changed transformer to [{}]", this.transformer);
     }
 
-    private String transform(Metacard m, WebClient client) throws PluginExecutionException {
+    /**
+     * Sets the maximum number of queued changes sent to the parent per batch.
+     */
+    public void setBatchSize(int batchSize) {
+        sender.setBatchSize(batchSize);
+        LOGGER.debug("Changed batch size to [{}]", batchSize);
+    }
+
+    /**
+     * @return the number of changes waiting to be sent to the parent
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public void destroy() {
+        executor.shutdownNow();
+        reporter.stop();
+        try {
+            queue.close();
+        } catch (IOException e) {
+            LOGGER.debug("Could not close the replication queue.", e);
+        }
+    }
+
+    private void enqueue(List<ReplicationEntry> entries) throws PluginExecutionException {
+        try {
+            queue.append(entries);
+        } catch (IOException e) {
+            LOGGER.warn("Could not queue {} metacard(s) for replication.", entries.size(), e);
+            throw new PluginExecutionException("Could not queue metacards for replication.");
+        }
+    }
+
+    private ReplicationEntry transform(ReplicationEntry.Operation operation, String id,
+            Metacard m) throws PluginExecutionException {
 
         BinaryContent binaryContent;
         try {
             binaryContent = transformer.transform(m, new HashMap<>());
-            client.type(getValidMimeType(binaryContent.getMimeTypeValue()));
-            return new String(binaryContent.getByteArray(), StandardCharsets.UTF_8);
+            return new ReplicationEntry(operation,
+                    id,
+                    binaryContent.getMimeTypeValue(),
+                    binaryContent.getByteArray());
         } catch (IOException e) {
             LOGGER.debug("Could not understand metacard.", e);
             throw new PluginExecutionException("Could not send metacard.");
@@ -212,11 +285,4 @@ private String transform(Metacard m, WebClient client) throws PluginExecutionExc
             throw new PluginExecutionException("Could not send metacard.");
         }
     }
-
-    private String getValidMimeType(String mimeTypeValue) {
-        if (mimeTypeValue == null) {
-            return MediaType.APPLICATION_OCTET_STREAM;
-        }
-        return mimeTypeValue;
-    }
 }
@@ -27,6 +27,7 @@
 import java.io.InputStream;
 import java.util.Arrays;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
@@ -36,12 +37,15 @@
 import org.apache.cxf.jaxrs.JAXRSServerFactoryBean;
 import org.apache.cxf.jaxrs.client.WebClient;
 import org.apache.cxf.jaxrs.lifecycle.SingletonResourceProvider;
+import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Ignore;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -81,6 +85,9 @@ public class TestPlugin {
 
     private static Metacard metacard;
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @BeforeClass
     public static void initialize() throws InterruptedException {
         // startServer();
@@ -134,9 +141,9 @@ public static void destroy() {
     }
 
     @Before
-    public void setup() {
+    public void setup() throws IOException {
         // given
-        plugin = new RestReplicatorPlugin(ENDPOINT_ADDRESS);
+        plugin = createPlugin(ENDPOINT_ADDRESS);
         transformer = mock(MetacardTransformer.class);
         BinaryContent bc = mock(BinaryContent.class);
         byte[] bytes = {86};
@@ -151,6 +158,19 @@ public void setup() {
         metacard = getMockMetacard();
     }
 
+    @After
+    public void tearDown() {
+        plugin.destroy();
+    }
+
+    private RestReplicatorPlugin createPlugin(String endpointAddress) throws IOException {
+        // The sender isn't started, so queued changes stay in the queue
+        return new RestReplicatorPlugin(endpointAddress,
+                temporaryFolder.getRoot()
+                        .toPath(),
+                mock(ExecutorService.class));
+    }
+
     private Metacard getMockMetacard() {
         Metacard metacard = mock(Metacard.class);
         when(metacard.getMetadata()).thenReturn(getSample());
@@ -222,9 +242,11 @@ public void testCreateNullParent()
     @Test
     @Ignore
     public void testCreateNullTransformer()
-            throws PluginExecutionException, IngestException, SourceUnavailableException {
+            throws PluginExecutionException, IngestException, SourceUnavailableException,
+            IOException {
         // given
-        plugin = new RestReplicatorPlugin(null);
+        plugin.destroy();
+        plugin = createPlugin(null);
         CreateResponse createResponse = new CreateResponseImpl(new CreateRequestImpl(metacard),
                 null,
                 Arrays.asList(metacard));
@@ -254,6 +276,38 @@ public void testCreateBadTransform()
 
     }
 
+    @Test
+    public void testCreateQueued()
+            throws PluginExecutionException, IngestException, SourceUnavailableException {
+        // given
+        CreateResponse createResponse = new CreateResponseImpl(new CreateRequestImpl(metacard),
+                null,
+                Arrays.asList(metacard, metacard));
+
+        // when
+        CreateResponse response = plugin.process(createResponse);
+
+        // then
+        assertThat(plugin.getQueueDepth(), is(2));
+        assertThat(response, sameInstance(createResponse));
+    }
+
+    @Test
+    public void testQueuedAcrossRestart()
+            throws PluginExecutionException, IngestException, SourceUnavailableException,
+            IOException {
+        // given
+        when(metacard.getId()).thenReturn("23");
+        plugin.process(new DeleteResponseImpl(null, null, Arrays.asList(metacard)));
+        plugin.destroy();
+
+        // when
+        plugin = createPlugin(ENDPOINT_ADDRESS);
+
+        // then
+        assertThat(plugin.getQueueDepth(), is(1));
+    }
+
     @Test
     @Ignore
     public void testCreate()
@@ -0,0 +1,321 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.federation.layered.replication;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ReplicationQueueTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path directory;
+
+    private ReplicationQueue queue;
+
+    @Before
+    public void setup() throws IOException {
+        directory = temporaryFolder.getRoot()
+                .toPath();
+        queue = new ReplicationQueue(directory);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        queue.close();
+    }
+
+    @Test
+    public void testTakeInOrder() throws Exception {
+        queue.append(Arrays.asList(create("1"), update("2")));
+        queue.append(Arrays.asList(delete("3")));
+
+        List<ReplicationEntry> entries = queue.take(10, 1, TimeUnit.SECONDS);
+
+        assertThat(entries.size(), is(3));
+        assertThat(entries.get(0)
+                .getId(), is("1"));
+        assertThat(entries.get(0)
+                .getOperation(), is(ReplicationEntry.Operation.CREATE));
+        assertThat(new String(entries.get(0)
+                .getData(), StandardCharsets.UTF_8), is("data 1"));
+        assertThat(entries.get(1)
+                .getOperation(), is(ReplicationEntry.Operation.UPDATE));
+        assertThat(entries.get(2)
+                .getId(), is("3"));
+        assertThat(entries.get(2)
+                .getData(), nullValue());
+        assertThat(entries.get(2)
+                .getMimeType(), nullValue());
+    }
+
+    @Test
+    public void testTakeBatchSize() throws Exception {
+        queue.append(Arrays.asList(create("1"), create("2"), create("3")));
+
+        List<ReplicationEntry> first = queue.take(2, 1, TimeUnit.SECONDS);
+        queue.acknowledge(first);
+        List<ReplicationEntry> second = queue.take(2, 1, TimeUnit.SECONDS);
+
+        assertThat(first.size(), is(2));
+        assertThat(second.size(), is(1));
+        assertThat(second.get(0)
+                .getId(), is("3"));
+        assertThat(queue.size(), is(1));
+    }
+
+    @Test
+    public void testTakeEmptyQueue() throws Exception {
+        assertThat(queue.take(10, 10, TimeUnit.MILLISECONDS), is(empty()));
+        assertThat(queue.getOldestTimestamp(), is(0L));
+    }
+
+    @Test
+    public void testTakeWithoutAcknowledge() throws Exception {
+        queue.append(Arrays.asList(create("1")));
+
+        queue.take(10, 1, TimeUnit.SECONDS);
+
+        assertThat(queue.take(10, 1, TimeUnit.SECONDS)
+                .get(0)
+                .getId(), is("1"));
+        assertThat(queue.size(), is(1));
+    }
+
+    @Test
+    public void testAcknowledgeAllTruncatesLog() throws Exception {
+        queue.append(Arrays.asList(create("1"), create("2")));
+
+        queue.acknowledge(queue.take(10, 1, TimeUnit.SECONDS));
+
+        assertThat(queue.size(), is(0));
+        assertThat(Files.size(directory.resolve(ReplicationQueue.LOG_FILE_NAME)), is(0L));
+    }
+
+    @Test
+    public void testRecoverUnacknowledgedEntries() throws Exception {
+        queue.append(Arrays.asList(create("1"), create("2"), create("3")));
+        queue.acknowledge(queue.take(1, 1, TimeUnit.SECONDS));
+        queue.close();
+
+        queue = new ReplicationQueue(directory);
+
+        List<ReplicationEntry> entries = queue.take(10, 1, TimeUnit.SECONDS);
+        assertThat(queue.size(), is(2));
+        assertThat(entries.get(0)
+                .getId(), is("2"));
+        assertThat(entries.get(1)
+                .getId(), is("3"));
+    }
+
+    @Test
+    public void testRecoverDiscardsIncompleteRecord() throws Exception {
+        queue.append(Arrays.asList(create("1"), create("2")));
+        queue.close();
+
+        Path log = directory.resolve(ReplicationQueue.LOG_FILE_NAME);
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 1);
+        }
+
+        queue = new ReplicationQueue(directory);
+        assertThat(queue.size(), is(1));
+
+        queue.append(Arrays.asList(create("3")));
+        List<ReplicationEntry> entries = queue.take(10, 1, TimeUnit.SECONDS);
+        assertThat(entries.size(), is(2));
+        assertThat(entries.get(1)
+                .getId(), is("3"));
+    }
+
+    @Test
+    public void testRecoverDiscardsCorruptRecord() throws Exception {
+        queue.append(Arrays.asList(create("1"), create("2")));
+        queue.close();
+
+        Path log = directory.resolve(ReplicationQueue.LOG_FILE_NAME);
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {0}), channel.size() - 1);
+        }
+
+        queue = new ReplicationQueue(directory);
+        assertThat(queue.size(), is(1));
+    }
+
+    @Test
+    public void testFailedAppendIsRemovedFromLog() throws Exception {
+        queue.append(Arrays.asList(create("1")));
+        long logSize = Files.size(directory.resolve(ReplicationQueue.LOG_FILE_NAME));
+        queue.close();
+
+        queue = new ReplicationQueue(directory) {
+            private boolean failed;
+
+            @Override
+            int write(ByteBuffer buffer, long position) throws IOException {
+                if (failed) {
+                    return super.write(buffer, position);
+                }
+                failed = true;
+                ByteBuffer partial = buffer.duplicate();
+                partial.limit(partial.position() + partial.remaining() / 2);
+                super.write(partial, position);
+                throw new IOException("No space left on device");
+            }
+        };
+
+        try {
+            queue.append(Arrays.asList(create("2")));
+            fail("Expected the append to fail");
+        } catch (IOException e) {
+            assertThat(Files.size(directory.resolve(ReplicationQueue.LOG_FILE_NAME)),
+                    is(logSize));
+            assertThat(queue.size(), is(1));
+        }
+
+        queue.append(Arrays.asList(create("3")));
+        assertThat(queue.take(10, 1, TimeUnit.SECONDS)
+                .size(), is(2));
+        queue.close();
+
+        queue = new ReplicationQueue(directory);
+        List<ReplicationEntry> entries = queue.take(10, 1, TimeUnit.SECONDS);
+        assertThat(entries.size(), is(2));
+        assertThat(entries.get(0)
+                .getId(), is("1"));
+        assertThat(entries.get(1)
+                .getId(), is("3"));
+    }
+
+    @Test
+    public void testInterruptedAppendReopensLog() throws Exception {
+        queue.append(Arrays.asList(create("1")));
+        queue.close();
+
+        queue = new ReplicationQueue(directory) {
+            private boolean interrupted;
+
+            @Override
+            int write(ByteBuffer buffer, long position) throws IOException {
+                if (!interrupted) {
+                    interrupted = true;
+                    ByteBuffer partial = buffer.duplicate();
+                    partial.limit(partial.position() + partial.remaining() / 2);
+                    super.write(partial, position);
+                    Thread.currentThread()
+                            .interrupt();
+                }
+                return super.write(buffer, position);
+            }
+        };
+
+        try {
+            queue.append(Arrays.asList(create("2")));
+            fail("Expected the append to fail");
+        } catch (ClosedByInterruptException e) {
+            assertThat(Thread.interrupted(), is(true));
+        }
+
+        queue.append(Arrays.asList(create("3")));
+        List<ReplicationEntry> entries = queue.take(10, 1, TimeUnit.SECONDS);
+        assertThat(entries.size(), is(2));
+        queue.acknowledge(entries.subList(0, 1));
+        queue.close();
+
+        queue = new ReplicationQueue(directory);
+        entries = queue.take(10, 1, TimeUnit.SECONDS);
+        assertThat(entries.size(), is(1));
+        assertThat(entries.get(0)
+                .getId(), is("3"));
+    }
+
+    @Test
+    public void testAcknowledgePastThresholdCompactsLog() throws Exception {
+        queue.close();
+        queue = new ReplicationQueue(directory, 1);
+        Path log = directory.resolve(ReplicationQueue.LOG_FILE_NAME);
+        queue.append(Arrays.asList(create("1"), create("2"), create("3")));
+        long logSize = Files.size(log);
+
+        queue.acknowledge(queue.take(2, 1, TimeUnit.SECONDS));
+
+        assertThat(Files.size(log), lessThan(logSize));
+        queue.append(Arrays.asList(create("4")));
+        List<ReplicationEntry> entries = queue.take(10, 1, TimeUnit.SECONDS);
+        assertThat(entries.size(), is(2));
+        assertThat(entries.get(0)
+                .getId(), is("3"));
+        assertThat(entries.get(1)
+                .getId(), is("4"));
+        queue.close();
+
+        queue = new ReplicationQueue(directory, 1);
+        entries = queue.take(10, 1, TimeUnit.SECONDS);
+        assertThat(entries.size(), is(2));
+        assertThat(entries.get(0)
+                .getId(), is("3"));
+    }
+
+    @Test
+    public void testAcknowledgeBelowThresholdDoesNotCompactLog() throws Exception {
+        queue.append(Arrays.asList(create("1"), create("2")));
+        long logSize = Files.size(directory.resolve(ReplicationQueue.LOG_FILE_NAME));
+
+        queue.acknowledge(queue.take(1, 1, TimeUnit.SECONDS));
+
+        assertThat(Files.size(directory.resolve(ReplicationQueue.LOG_FILE_NAME)), is(logSize));
+    }
+
+    private ReplicationEntry create(String id) {
+        return entry(ReplicationEntry.Operation.CREATE, id);
+    }
+
+    private ReplicationEntry update(String id) {
+        return entry(ReplicationEntry.Operation.UPDATE, id);
+    }
+
+    private ReplicationEntry delete(String id) {
+        return new ReplicationEntry(ReplicationEntry.Operation.DELETE, id, null, null);
+    }
+
+    private ReplicationEntry entry(ReplicationEntry.Operation operation, String id) {
+        return new ReplicationEntry(operation,
+                id,
+                "application/json",
+                ("data " + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.federation.layered.replication;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.Assert.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class ReplicationSenderTest {
+
+    @Test
+    public void testCompactDistinctMetacards() {
+        List<ReplicationEntry> compacted = ReplicationSender.compact(Arrays.asList(create("1",
+                "a"), update("2", "b"), delete("3")));
+
+        assertThat(compacted.size(), is(3));
+    }
+
+    @Test
+    public void testCompactCreateThenUpdate() {
+        List<ReplicationEntry> compacted = ReplicationSender.compact(Arrays.asList(create("1",
+                "a"), update("1", "b"), update("1", "c")));
+
+        assertThat(compacted.size(), is(1));
+        assertEntry(compacted.get(0), ReplicationEntry.Operation.CREATE, "c");
+    }
+
+    @Test
+    public void testCompactCreateThenDelete() {
+        List<ReplicationEntry> compacted = ReplicationSender.compact(Arrays.asList(create("1",
+                "a"), update("1", "b"), delete("1")));
+
+        assertThat(compacted, is(empty()));
+    }
+
+    @Test
+    public void testCompactUpdateThenDelete() {
+        List<ReplicationEntry> compacted = ReplicationSender.compact(Arrays.asList(update("1",
+                "a"), delete("1")));
+
+        assertThat(compacted.size(), is(1));
+        assertThat(compacted.get(0)
+                .getOperation(), is(ReplicationEntry.Operation.DELETE));
+    }
+
+    @Test
+    public void testCompactDeleteThenCreate() {
+        List<ReplicationEntry> compacted = ReplicationSender.compact(Arrays.asList(delete("1"),
+                create("1", "a")));
+
+        assertThat(compacted.size(), is(1));
+        assertEntry(compacted.get(0), ReplicationEntry.Operation.UPDATE, "a");
+    }
+
+    @Test
+    public void testCompactKeepsOrder() {
+        List<ReplicationEntry> compacted = ReplicationSender.compact(Arrays.asList(create("1",
+                "a"), create("2", "b"), update("1", "c")));
+
+        assertThat(compacted.get(0)
+                .getId(), is("1"));
+        assertThat(compacted.get(1)
+                .getId(), is("2"));
+    }
+
+    private void assertEntry(ReplicationEntry entry, ReplicationEntry.Operation operation,
+            String data) {
+        assertThat(entry.getOperation(), is(operation));
+        assertThat(new String(entry.getData(), StandardCharsets.UTF_8), is(data));
+    }
+
+    private ReplicationEntry create(String id, String data) {
+        return entry(ReplicationEntry.Operation.CREATE, id, data);
+    }
+
+    private ReplicationEntry update(String id, String data) {
+        return entry(ReplicationEntry.Operation.UPDATE, id, data);
+    }
+
+    private ReplicationEntry delete(String id) {
+        return new ReplicationEntry(ReplicationEntry.Operation.DELETE, id, null, null);
+    }
+
+    private ReplicationEntry entry(ReplicationEntry.Operation operation, String id,
+            String data) {
+        return new ReplicationEntry(operation,
+                id,
+                "application/json",
+                data.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -17,13 +17,16 @@
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.slf4j.Logger;
@@ -42,6 +45,7 @@
 import ddf.catalog.plugin.PreIngestPlugin;
 import ddf.catalog.plugin.StopProcessingException;
 import ddf.catalog.util.Describable;
+import ddf.catalog.validation.BatchMetacardValidator;
 import ddf.catalog.validation.MetacardValidator;
 import ddf.catalog.validation.ValidationException;
 
@@ -89,8 +93,18 @@ public UpdateRequest process(UpdateRequest input)
     private <T> List<T> validateList(List<T> requestItems, Function<T, Metacard> itemToMetacard) {
         Map<String, Integer> counter = new HashMap<>();
 
-        List<T> validated = requestItems.stream()
-                .map(item -> validate(item, itemToMetacard, counter))
+        List<Metacard> metacards = requestItems.stream()
+                .map(itemToMetacard)
+                .collect(Collectors.toList());
+        Map<MetacardValidator, List<Optional<ValidationException>>> batchResults =
+                validateBatches(metacards);
+
+        List<T> validated = IntStream.range(0, requestItems.size())
+                .mapToObj(index -> validate(requestItems.get(index),
+                        metacards.get(index),
+                        index,
+                        batchResults,
+                        counter))
                 .filter(didNotFailEnforcedValidator)
                 .collect(Collectors.toList());
 
@@ -101,14 +115,33 @@ private <T> List<T> validateList(List<T> requestItems, Function<T, Metacard> ite
         return validated;
     }
 
-    private <T> T validate(T item, Function<T, Metacard> itemToMetacard,
+    /**
+     * Runs each {@link BatchMetacardValidator} once over all of the metacards in the request, so
+     * that it can share work such as catalog queries across the request.
+     */
+    private Map<MetacardValidator, List<Optional<ValidationException>>> validateBatches(
+            List<Metacard> metacards) {
+        Map<MetacardValidator, List<Optional<ValidationException>>> batchResults =
+                new IdentityHashMap<>();
+
+        for (MetacardValidator validator : metacardValidators) {
+            if (validator instanceof BatchMetacardValidator) {
+                batchResults.put(validator,
+                        ((BatchMetacardValidator) validator).validateBatch(metacards));
+            }
+        }
+
+        return batchResults;
+    }
+
+    private <T> T validate(T item, Metacard metacard, int index,
+            Map<MetacardValidator, List<Optional<ValidationException>>> batchResults,
             Map<String, Integer> counter) {
         Set<String> errors = new HashSet<>();
         Set<String> warnings = new HashSet<>();
         Set<String> errorValidators = new HashSet<>();
         Set<String> warningValidators = new HashSet<>();
 
-        Metacard metacard = itemToMetacard.apply(item);
         Set<String> tags = metacard.getTags();
         tags.remove(VALID_TAG);
         tags.remove(INVALID_TAG);
@@ -117,7 +150,14 @@ private <T> T validate(T item, Function<T, Metacard> itemToMetacard,
 
         for (MetacardValidator validator : metacardValidators) {
             try {
-                validator.validate(metacard);
+                List<Optional<ValidationException>> results = batchResults.get(validator);
+                if (results == null) {
+                    validator.validate(metacard);
+                } else if (results.get(index)
+                        .isPresent()) {
+                    throw results.get(index)
+                            .get();
+                }
             } catch (ValidationException e) {
                 String validatorName = getValidatorName(validator);
                 boolean validationErrorsExist = CollectionUtils.isNotEmpty(e.getErrors());
@@ -23,18 +23,24 @@
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
 import static org.mockito.Matchers.argThat;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.withSettings;
 
 import java.io.Serializable;
 import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
@@ -63,6 +69,7 @@
 import ddf.catalog.plugin.PluginExecutionException;
 import ddf.catalog.plugin.StopProcessingException;
 import ddf.catalog.util.Describable;
+import ddf.catalog.validation.BatchMetacardValidator;
 import ddf.catalog.validation.MetacardValidator;
 import ddf.catalog.validation.ValidationException;
 
@@ -294,6 +301,34 @@ public void testMetacardFailsEnforcedValidator()
         verifyEnforcedUpdate(updateRequest, updatedMetacards.subList(1, updatedMetacards.size()));
     }
 
+    @Test
+    public void testBatchValidatorValidatesWholeRequestOnce() throws Exception {
+        ValidationException validationException = mock(ValidationException.class);
+        when(validationException.getErrors()).thenReturn(Collections.singletonList(SAMPLE_ERROR));
+        BatchMetacardValidator batchValidator = mock(BatchMetacardValidator.class,
+                withSettings().extraInterfaces(Describable.class));
+        when(batchValidator.validateBatch(anyListOf(Metacard.class))).thenReturn(Arrays.asList(
+                Optional.of(validationException),
+                Optional.empty()));
+        metacardValidators.add(batchValidator);
+
+        CreateRequest createRequest = plugin.process(getMockCreateRequest());
+        List<Metacard> metacards = createRequest.getMetacards();
+
+        assertThat(metacards, hasSize(2));
+        expectError.accept(metacards.get(0)
+                .getAttribute(Validation.VALIDATION_ERRORS));
+        assertThat(metacards.get(0)
+                .getTags(), hasItem(INVALID_TAG));
+        expectNone.accept(metacards.get(1)
+                .getAttribute(Validation.VALIDATION_ERRORS));
+        assertThat(metacards.get(1)
+                .getTags(), hasItem(VALID_TAG));
+
+        verify(batchValidator, times(1)).validateBatch(anyListOf(Metacard.class));
+        verify(batchValidator, never()).validate(any(Metacard.class));
+    }
+
     @Test
     public void testMetacardPassesEnforcedValidatorsNoDescribable()
             throws StopProcessingException, PluginExecutionException {
@@ -20,7 +20,10 @@
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
 import java.util.Vector;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -52,6 +55,10 @@
 import org.xml.sax.helpers.XMLFilterImpl;
 import org.xml.sax.helpers.XMLReaderFactory;
 
+import com.codahale.metrics.JmxReporter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+
 import ddf.catalog.data.Metacard;
 import ddf.catalog.util.Describable;
 import ddf.catalog.validation.MetacardValidator;
@@ -59,6 +66,7 @@
 import ddf.catalog.validation.impl.ValidationExceptionImpl;
 import net.sf.saxon.Configuration;
 import net.sf.saxon.TransformerFactoryImpl;
+import net.sf.saxon.om.DocumentInfo;
 
 /**
  * This pre-ingest service provides validation of an ingested XML document against a Schematron
@@ -79,6 +87,9 @@
  * When XML documents are ingested, this service will run the XSLT generated by stage 3 against the
  * XML document, validating it against the "compiled" Schematron schema file.
  * <p>
+ * The XML document is parsed once per validation into a Saxon tree that is shared by all of the
+ * Schematron schema files, which are run against it in parallel.
+ * <p>
  * This service is using the SVRL script, hence the output of the validation will be an
  * SVRL-formatted XML document.
  *
@@ -113,7 +124,13 @@ public class SchematronValidationService implements MetacardValidator, Describab
 
     private ExecutorService pool = getThreadPool();
 
-    private List<Future<Templates>> validators = new ArrayList<>();
+    private List<Future<Validator>> validators = new ArrayList<>();
+
+    private final MetricRegistry metrics = new MetricRegistry();
+
+    private final JmxReporter reporter = JmxReporter.forRegistry(metrics)
+            .inDomain("ddf.metrics.catalog.schematron")
+            .build();
 
     private static ExecutorService getThreadPool() throws NumberFormatException {
         Integer threadPoolSize = Integer.parseInt(System.getProperty(
@@ -135,17 +152,26 @@ public void init() throws SchematronInitializationException {
         config.setErrorListener(new SaxonErrorListener(schematronFileNames));
 
         updateValidators();
+        reporter.start();
+    }
+
+    public void destroy() {
+        reporter.stop();
+        pool.shutdownNow();
     }
 
     private void updateValidators() throws SchematronInitializationException {
-        validators.clear();
+        List<Future<Validator>> updatedValidators = new ArrayList<>();
         for (String schematronFileName : schematronFileNames) {
-            FutureTask<Templates> task = new FutureTask<Templates>(() -> {
-                return compileSchematronRules(schematronFileName);
+            FutureTask<Validator> task = new FutureTask<Validator>(() -> {
+                return new Validator(compileSchematronRules(schematronFileName),
+                        metrics.timer(MetricRegistry.name(StringUtils.defaultString(id,
+                                "Validator"), new File(schematronFileName).getName())));
             });
-            validators.add(task);
+            updatedValidators.add(task);
             pool.submit(task);
         }
+        validators = updatedValidators;
     }
 
     private Templates compileSchematronRules(String schematronFileName)
@@ -266,8 +292,17 @@ public void validate(Metacard metacard) throws ValidationException {
                     && !namespace.equals(XMLUtils.getRootNamespace(metadata)))) {
                 return;
             }
-            for (Future<Templates> validator : validators) {
-                schematronReport = generateReport(metadata, validator.get(10, TimeUnit.MINUTES));
+
+            List<Validator> currentValidators = new ArrayList<>();
+            for (Future<Validator> validator : validators) {
+                currentValidators.add(validator.get(10, TimeUnit.MINUTES));
+            }
+
+            List<SchematronReport> reports = generateReports(parse(metadata),
+                    currentValidators);
+
+            for (SchematronReport report : reports) {
+                schematronReport = report;
                 if (!schematronReport.isValid(suppressWarnings)) {
                     throw new SchematronValidationException("Schematron validation failed.",
                             schematronReport.getErrors()
@@ -285,8 +320,44 @@ public void validate(Metacard metacard) throws ValidationException {
         }
     }
 
-    private SchematronReport generateReport(String metadata, Templates validator)
-            throws SchematronValidationException {
+    /**
+     * Runs every validator against the document, in parallel when there is more than one.
+     *
+     * @return the reports, in the same order as {@code validators}
+     */
+    private List<SchematronReport> generateReports(DocumentInfo document,
+            List<Validator> validators)
+            throws SchematronValidationException, InterruptedException, ExecutionException {
+        if (validators.size() == 1) {
+            List<SchematronReport> reports = new ArrayList<>();
+            reports.add(validators.get(0)
+                    .generateReport(document));
+            return reports;
+        }
+
+        List<Callable<SchematronReport>> tasks = validators.stream()
+                .map(validator -> (Callable<SchematronReport>) () -> validator.generateReport(
+                        document))
+                .collect(Collectors.toList());
+
+        List<SchematronReport> reports = new ArrayList<>();
+        for (Future<SchematronReport> report : pool.invokeAll(tasks)) {
+            try {
+                reports.add(report.get());
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof SchematronValidationException) {
+                    throw (SchematronValidationException) e.getCause();
+                }
+                throw e;
+            }
+        }
+        return reports;
+    }
+
+    /**
+     * Parses the metadata into a Saxon tree that can be shared by all of the validators.
+     */
+    private DocumentInfo parse(String metadata) throws SchematronValidationException {
         XMLReader xmlReader = null;
         try {
             XMLReader xmlParser = XMLReaderFactory.createXMLReader();
@@ -299,19 +370,14 @@ private SchematronReport generateReport(String metadata, Templates validator)
             throw new SchematronValidationException(e);
         }
 
-        SchematronReport report;
         try {
-            Transformer transformer = validator.newTransformer();
-            DOMResult schematronResult = new DOMResult();
-            transformer.transform(
-                    new SAXSource(xmlReader, new InputSource(new StringReader(metadata))),
-                    schematronResult);
-            report = new SvrlReport(schematronResult);
+            return ((TransformerFactoryImpl) transformerFactory).getConfiguration()
+                    .buildDocument(new SAXSource(xmlReader,
+                            new InputSource(new StringReader(metadata))));
         } catch (TransformerException e) {
             throw new SchematronValidationException(
                     "Could not setup validator to perform validation.", e);
         }
-        return report;
     }
 
     /**
@@ -354,6 +420,47 @@ public String getOrganization() {
         return null;
     }
 
+    /**
+     * A compiled Schematron schema file, with a pool of {@link Transformer}s that are reused
+     * across validations and a timer of how long each validation against it takes.
+     */
+    private static class Validator {
+
+        private final Templates templates;
+
+        private final Queue<Transformer> transformers = new ConcurrentLinkedQueue<>();
+
+        private final Timer timer;
+
+        Validator(Templates templates, Timer timer) {
+            this.templates = templates;
+            this.timer = timer;
+        }
+
+        SchematronReport generateReport(DocumentInfo document)
+                throws SchematronValidationException {
+            Transformer transformer = transformers.poll();
+            try (Timer.Context ignored = timer.time()) {
+                if (transformer == null) {
+                    transformer = templates.newTransformer();
+                }
+                DOMResult schematronResult = new DOMResult();
+                transformer.transform(document, schematronResult);
+                return new SvrlReport(schematronResult);
+            } catch (TransformerException e) {
+                // Don't return a transformer that failed to the pool.
+                transformer = null;
+                throw new SchematronValidationException(
+                        "Could not setup validator to perform validation.", e);
+            } finally {
+                if (transformer != null) {
+                    transformer.reset();
+                    transformers.offer(transformer);
+                }
+            }
+        }
+    }
+
     /**
      * The Listener class which catches Saxon configuration errors.
      * <p>
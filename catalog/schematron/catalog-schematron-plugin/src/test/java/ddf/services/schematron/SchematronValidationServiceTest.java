@@ -140,6 +140,23 @@ public void testWithIncorrectNamespace()
         assertThat(service.getSchematronReport(), is(nullValue()));
     }
 
+    @Test
+    public void testValidatorsAreReusedAcrossValidations()
+            throws ValidationException, IOException, SchematronInitializationException {
+        SchematronValidationService service = getService("dog_legs.sch", "dog_paws.sch");
+        for (int i = 0; i < 3; i++) {
+            try {
+                service.validate(getMetacard("dog_3leg_3paw.xml"));
+                fail("Expected the three legged dog to fail validation");
+            } catch (SchematronValidationException e) {
+                assertThat(e.getErrors()
+                        .isEmpty(), is(false));
+            }
+            service.validate(getMetacard("dog_4leg_4paw.xml"));
+        }
+        service.destroy();
+    }
+
     @Test(expected = ValidationException.class)
     public void testSchematronFileNotFound()
             throws ValidationException, IOException, SchematronInitializationException {
@@ -16,12 +16,14 @@
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.StringJoiner;
 import java.util.TreeMap;
 
+import org.apache.shiro.authz.Permission;
 import org.apache.shiro.subject.Subject;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.FrameworkUtil;
@@ -195,15 +197,11 @@ public DeleteResponse processPostDelete(DeleteResponse input) throws StopProcess
 
         List<Metacard> results = input.getDeletedMetacards();
         List<Metacard> newResults = new ArrayList<>(results.size());
-        KeyValueCollectionPermission securityPermission = new KeyValueCollectionPermission(
-                CollectionPermission.READ_ACTION);
+        boolean[] permitted = checkPermissions(results, subject, CollectionPermission.READ_ACTION);
         int filteredMetacards = 0;
-        for (Metacard metacard : results) {
-            Attribute attr = metacard.getAttribute(Metacard.SECURITY);
-            if (!checkPermissions(attr,
-                    securityPermission,
-                    subject,
-                    CollectionPermission.READ_ACTION)) {
+        for (int i = 0; i < results.size(); i++) {
+            Metacard metacard = results.get(i);
+            if (!permitted[i]) {
                 for (FilterStrategy filterStrategy : filterStrategies.values()) {
                     FilterResult filterResult = filterStrategy.process(input, metacard);
                     if (filterResult.processed()) {
@@ -250,17 +248,18 @@ public QueryResponse processPostQuery(QueryResponse input) throws StopProcessing
 
         List<Result> results = input.getResults();
         List<Result> newResults = new ArrayList<>(results.size());
-        Metacard metacard;
-        KeyValueCollectionPermission securityPermission = new KeyValueCollectionPermission(
+        List<Metacard> metacards = new ArrayList<>(results.size());
+        for (Result result : results) {
+            metacards.add(result.getMetacard());
+        }
+        boolean[] permitted = checkPermissions(metacards,
+                subject,
                 CollectionPermission.READ_ACTION);
         int filteredMetacards = 0;
-        for (Result result : results) {
-            metacard = result.getMetacard();
-            Attribute attr = metacard.getAttribute(Metacard.SECURITY);
-            if (!checkPermissions(attr,
-                    securityPermission,
-                    subject,
-                    CollectionPermission.READ_ACTION)) {
+        for (int i = 0; i < results.size(); i++) {
+            Result result = results.get(i);
+            Metacard metacard = metacards.get(i);
+            if (!permitted[i]) {
                 for (FilterStrategy filterStrategy : filterStrategies.values()) {
                     FilterResult filterResult = filterStrategy.process(input, metacard);
                     if (filterResult.processed()) {
@@ -357,6 +356,48 @@ private Subject getSubject(Request input) throws StopProcessingException {
         return subject;
     }
 
+    /**
+     * Checks the permissions of all metacards with a single call to the {@link Subject}. Each
+     * distinct set of security attributes is only evaluated once.
+     *
+     * @return whether the subject is permitted, for each metacard
+     */
+    private boolean[] checkPermissions(List<Metacard> metacards, Subject subject, String action) {
+        Map<Map<String, Set<String>>, Integer> permissionIndexes = new HashMap<>();
+        List<Permission> permissions = new ArrayList<>();
+        int[] metacardPermissions = new int[metacards.size()];
+
+        for (int i = 0; i < metacards.size(); i++) {
+            Attribute attr = metacards.get(i)
+                    .getAttribute(Metacard.SECURITY);
+            Map<String, Set<String>> map = null;
+            if (attr != null) {
+                map = (Map<String, Set<String>>) attr.getValue();
+            }
+
+            Integer index = permissionIndexes.get(map);
+            if (index == null) {
+                index = permissions.size();
+                permissionIndexes.put(map, index);
+                permissions.add(map != null ?
+                        new KeyValueCollectionPermission(action, map) :
+                        new KeyValueCollectionPermission(action));
+            }
+            metacardPermissions[i] = index;
+        }
+
+        boolean[] permitted = new boolean[metacards.size()];
+        if (permissions.isEmpty()) {
+            return permitted;
+        }
+
+        boolean[] permissionResults = subject.isPermitted(permissions);
+        for (int i = 0; i < metacards.size(); i++) {
+            permitted[i] = permissionResults[metacardPermissions[i]];
+        }
+        return permitted;
+    }
+
     private boolean checkPermissions(Attribute attr,
             KeyValueCollectionPermission securityPermission, Subject subject, String action) {
         Map<String, Set<String>> map = null;
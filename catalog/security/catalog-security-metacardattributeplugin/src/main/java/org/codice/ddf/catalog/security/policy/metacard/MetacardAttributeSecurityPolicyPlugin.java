@@ -112,6 +112,25 @@ private synchronized Map<String, Set<String>> buildSecurityMap(Metacard metacard
         return securityMap;
     }
 
+    /**
+     * Returns the values of the configured attributes of the metacard. Metacards with the same
+     * values get the same security map.
+     */
+    private List<List<Serializable>> getSecurityAttributeValues(Metacard metacard) {
+        List<List<Serializable>> values = new ArrayList<>();
+        if (metacard != null) {
+            for (String attributeName : mcIntersectAttrs.keySet()) {
+                Attribute attribute = metacard.getAttribute(attributeName);
+                values.add(attribute != null ? attribute.getValues() : null);
+            }
+            for (String attributeName : mcUnionAttrs.keySet()) {
+                Attribute attribute = metacard.getAttribute(attributeName);
+                values.add(attribute != null ? attribute.getValues() : null);
+            }
+        }
+        return values;
+    }
+
     private List<String> listAsStrings(List list) {
         return list;
     }
@@ -164,6 +183,23 @@ public PolicyResponse processPostQuery(Result input, Map<String, Serializable> p
         return new PolicyResponseImpl(null, buildSecurityMap(input.getMetacard()));
     }
 
+    /**
+     * Builds the security map once for each distinct set of security attribute values, and
+     * returns the same response for every result that has them.
+     */
+    @Override
+    public synchronized List<PolicyResponse> processPostQuery(List<Result> results,
+            Map<String, Serializable> properties) throws StopProcessingException {
+        Map<List<List<Serializable>>, PolicyResponse> responses = new HashMap<>();
+        List<PolicyResponse> resultResponses = new ArrayList<>(results.size());
+        for (Result result : results) {
+            Metacard metacard = result.getMetacard();
+            resultResponses.add(responses.computeIfAbsent(getSecurityAttributeValues(metacard),
+                    values -> new PolicyResponseImpl(null, buildSecurityMap(metacard))));
+        }
+        return resultResponses;
+    }
+
     @Override
     public PolicyResponse processPreResource(ResourceRequest resourceRequest)
             throws StopProcessingException {
@@ -14,6 +14,7 @@
 package org.codice.ddf.catalog.security.policy.metacard;
 
 import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsSame.sameInstance;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
@@ -22,6 +23,7 @@
 
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -324,6 +326,30 @@ public void testProcessPostQuery() throws StopProcessingException {
                 .get("parsed.other"));
     }
 
+    @Test
+    public void testProcessPostQueryResults() throws StopProcessingException {
+        Metacard sameMarkings = new MetacardImpl();
+        sameMarkings.setAttribute(new AttributeImpl("parsed.security",
+                Arrays.asList("A", "B", "C")));
+        sameMarkings.setAttribute(new AttributeImpl("parsed.countries",
+                Arrays.asList("USA", "CAN")));
+        sameMarkings.setAttribute(new AttributeImpl("parsed.other", Arrays.asList("Q")));
+        List<Result> results = Arrays.asList(mockResult(metacard),
+                mockResult(metacard1),
+                mockResult(sameMarkings));
+
+        List<PolicyResponse> policyResponses = plugin.processPostQuery(results, new HashMap<>());
+
+        assertThat(policyResponses.size(), is(3));
+        assertThat(policyResponses.get(0)
+                .itemPolicy(), is(plugin.processPostQuery(results.get(0), new HashMap<>())
+                .itemPolicy()));
+        assertThat(policyResponses.get(1)
+                .itemPolicy(), is(plugin.processPostQuery(results.get(1), new HashMap<>())
+                .itemPolicy()));
+        assertThat(policyResponses.get(2), is(sameInstance(policyResponses.get(0))));
+    }
+
     @Test
     public void testProcessPostResource() throws StopProcessingException {
         PolicyResponse policyResponse = plugin.processPostResource(mock(ResourceResponse.class),
@@ -366,4 +392,10 @@ public void testUnusedMethods() throws StopProcessingException {
         assertThat(policyResponse.itemPolicy()
                 .size(), is(0));
     }
+
+    private Result mockResult(Metacard metacard) {
+        Result result = mock(Result.class);
+        when(result.getMetacard()).thenReturn(metacard);
+        return result;
+    }
 }
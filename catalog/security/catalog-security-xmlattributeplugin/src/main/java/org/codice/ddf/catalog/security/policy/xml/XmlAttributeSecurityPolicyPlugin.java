@@ -270,6 +270,23 @@ public PolicyResponse processPostQuery(Result result, Map<String, Serializable>
         return new PolicyResponseImpl(null, parseSecurityMetadata(result.getMetacard()));
     }
 
+    /**
+     * Parses the metadata once for each distinct metadata document, and returns the same response
+     * for every result that has it.
+     */
+    @Override
+    public List<PolicyResponse> processPostQuery(List<Result> results,
+            Map<String, Serializable> map) throws StopProcessingException {
+        Map<String, PolicyResponse> responses = new HashMap<>();
+        List<PolicyResponse> resultResponses = new ArrayList<>(results.size());
+        for (Result result : results) {
+            Metacard metacard = result.getMetacard();
+            resultResponses.add(responses.computeIfAbsent(metacard.getMetadata(),
+                    metadata -> new PolicyResponseImpl(null, parseSecurityMetadata(metacard))));
+        }
+        return resultResponses;
+    }
+
     @Override
     public PolicyResponse processPreResource(ResourceRequest resourceRequest)
             throws StopProcessingException {
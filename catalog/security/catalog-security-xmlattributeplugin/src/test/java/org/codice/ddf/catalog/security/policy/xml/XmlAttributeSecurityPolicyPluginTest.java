@@ -190,6 +190,30 @@ public void testProcessQuery() throws StopProcessingException, PluginExecutionEx
                 .size(), Matchers.is(3));
     }
 
+    @Test
+    public void testProcessQueryResults() throws StopProcessingException {
+        MetacardImpl sameMetadata = new MetacardImpl();
+        sameMetadata.setMetadata(TEST_METADATA);
+        MetacardImpl otherMetadata = new MetacardImpl();
+        otherMetadata.setMetadata(TEST_METADATA_2);
+        List<Result> results = new ArrayList<>();
+        for (MetacardImpl resultMetacard : Arrays.asList(metacard, otherMetadata, sameMetadata)) {
+            Result mockResult = mock(Result.class);
+            when(mockResult.getMetacard()).thenReturn(resultMetacard);
+            results.add(mockResult);
+        }
+
+        List<PolicyResponse> policyResponses = plugin.processPostQuery(results, new HashMap<>());
+
+        org.junit.Assert.assertThat(policyResponses.size(), Matchers.is(3));
+        org.junit.Assert.assertThat(policyResponses.get(0)
+                .itemPolicy(), Matchers.is(plugin.parseSecurityMetadata(metacard)));
+        org.junit.Assert.assertThat(policyResponses.get(1)
+                .itemPolicy(), Matchers.is(plugin.parseSecurityMetadata(otherMetadata)));
+        org.junit.Assert.assertThat(policyResponses.get(2),
+                Matchers.sameInstance(policyResponses.get(0)));
+    }
+
     @Test
     public void testProcessResource() throws StopProcessingException, PluginExecutionException {
         PolicyResponse policyResponse = plugin.processPostResource(mock(ResourceResponse.class),
@@ -44,6 +44,7 @@
 import ddf.catalog.resource.Resource;
 import ddf.catalog.transform.CatalogTransformerException;
 import ddf.catalog.transform.QueryResponseTransformer;
+import ddf.catalog.transform.StreamingQueryResponseTransformer;
 
 /**
  * CswRecordCollectionMessageBodyWriter generates an xml response for a {@link CswRecordCollection}
@@ -128,6 +129,19 @@ public void writeTo(CswRecordCollection recordCollection, Class<?> type, Type ge
                     "Unable to locate Transformer."));
         }
 
+        if (transformer instanceof StreamingQueryResponseTransformer) {
+            // write directly to the response rather than buffering the transformed content
+            try {
+                ((StreamingQueryResponseTransformer) transformer).transform(
+                        recordCollection.getSourceResponse(),
+                        arguments,
+                        outStream);
+            } catch (CatalogTransformerException e) {
+                throw new WebApplicationException(e);
+            }
+            return;
+        }
+
         BinaryContent content = null;
         try {
             content = transformer.transform(recordCollection.getSourceResponse(), arguments);
@@ -18,7 +18,10 @@
 import static org.hamcrest.Matchers.is;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -26,6 +29,7 @@
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
@@ -54,6 +58,7 @@
 import ddf.catalog.resource.impl.ResourceImpl;
 import ddf.catalog.transform.CatalogTransformerException;
 import ddf.catalog.transform.QueryResponseTransformer;
+import ddf.catalog.transform.StreamingQueryResponseTransformer;
 import net.opengis.cat.csw.v_2_0_2.ElementSetType;
 import net.opengis.cat.csw.v_2_0_2.ResultType;
 
@@ -178,6 +183,35 @@ public void testWriteToWithMimeType()
         // TODO failure case
     }
 
+    @Test
+    public void testWriteToWithStreamingTransformer()
+            throws WebApplicationException, IOException, CatalogTransformerException {
+        CswRecordCollectionMessageBodyWriter writer = new CswRecordCollectionMessageBodyWriter(
+                mockManager);
+        StreamingQueryResponseTransformer streamingTransformer = mock(
+                StreamingQueryResponseTransformer.class);
+        when(mockManager.getTransformerBySchema(anyString())).thenReturn(streamingTransformer);
+        doAnswer(invocation -> {
+            ((OutputStream) invocation.getArguments()[2]).write("bytes".getBytes());
+            return null;
+        }).when(streamingTransformer)
+                .transform(any(SourceResponse.class), any(Map.class), any(OutputStream.class));
+
+        CswRecordCollection collection = createCswRecordCollection(6);
+        collection.setOutputSchema(CswConstants.CSW_OUTPUT_SCHEMA);
+        collection.setResultType(ResultType.RESULTS);
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        writer.writeTo(collection, null, null, null, null, null, stream);
+
+        verify(streamingTransformer).transform(any(SourceResponse.class),
+                any(Map.class),
+                eq(stream));
+        verify(streamingTransformer, never()).transform(any(SourceResponse.class),
+                any(Map.class));
+        assertThat(stream.toString(), is("bytes"));
+    }
+
     @Test
     public void testWriteToProductData() throws MimeTypeParseException, IOException {
         CswRecordCollectionMessageBodyWriter writer = new CswRecordCollectionMessageBodyWriter(
@@ -85,10 +85,16 @@ public float lengthNorm(final FieldInvertState fieldInvertState) {
 
     private String indexLocation;
 
+    private GeoNamesIndexListener indexListener;
+
     public void setIndexLocation(final String indexLocation) {
         this.indexLocation = indexLocation;
     }
 
+    public void setIndexListener(final GeoNamesIndexListener indexListener) {
+        this.indexListener = indexListener;
+    }
+
     @Override
     public void updateIndex(final List<GeoEntry> geoEntryList, final boolean create,
             final ProgressCallback progressCallback) throws GeoEntryIndexingException {
@@ -146,6 +152,14 @@ public void updateProgress(final int progress) {
         } catch (IOException e) {
             throw new GeoEntryIndexingException("Error writing to the index.", e);
         }
+
+        notifyIndexListener();
+    }
+
+    private void notifyIndexListener() {
+        if (indexListener != null) {
+            indexListener.indexUpdated();
+        }
     }
 
     IndexWriter createIndexWriter(final boolean create, final Directory directory)
@@ -187,6 +201,8 @@ private void buildIndex(final List<GeoEntry> geoEntryList, final boolean create,
         } catch (IOException e) {
             throw new GeoEntryIndexingException("Error writing to the index.", e);
         }
+
+        notifyIndexListener();
     }
 
     private void indexGeoEntries(final IndexWriter indexWriter, final List<GeoEntry> geoEntryList,
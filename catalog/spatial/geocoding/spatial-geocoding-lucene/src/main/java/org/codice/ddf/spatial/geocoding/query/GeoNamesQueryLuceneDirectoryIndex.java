@@ -19,29 +19,81 @@
 import java.text.ParseException;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.apache.commons.lang.StringUtils;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.SearcherFactory;
+import org.apache.lucene.search.SearcherManager;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
 import org.codice.ddf.spatial.geocoding.GeoEntry;
 import org.codice.ddf.spatial.geocoding.GeoEntryQueryException;
 import org.codice.ddf.spatial.geocoding.context.NearbyLocation;
+import org.codice.ddf.spatial.geocoding.index.GeoNamesIndexListener;
 import org.codice.ddf.spatial.geocoding.index.GeoNamesLuceneIndexer;
 import org.locationtech.spatial4j.context.SpatialContext;
 import org.locationtech.spatial4j.shape.Shape;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class GeoNamesQueryLuceneDirectoryIndex extends GeoNamesQueryLuceneIndex {
+/**
+ * Queries the GeoNames index stored at {@code indexLocation}.
+ * <p>
+ * A single {@link SearcherManager} is shared by all queries so that the index is only reopened
+ * after {@link GeoNamesLuceneIndexer} reports a change through {@link #indexUpdated()}. When
+ * {@code populatedPlaceGridEnabled} is set, the places in the index are also loaded into a
+ * {@link PopulatedPlaceGrid} each time the searcher is (re)opened, and nearby-city and country
+ * code lookups are answered from that grid instead of the index.
+ */
+public class GeoNamesQueryLuceneDirectoryIndex extends GeoNamesQueryLuceneIndex
+        implements GeoNamesIndexListener {
     private static final Logger LOGGER =
             LoggerFactory.getLogger(GeoNamesQueryLuceneDirectoryIndex.class);
 
+    private final Object searcherManagerLock = new Object();
+
+    private final AtomicBoolean refreshNeeded = new AtomicBoolean(false);
+
     private String indexLocation;
 
+    private boolean populatedPlaceGridEnabled = false;
+
+    private Directory directory;
+
+    private SearcherManager searcherManager;
+
+    private volatile PopulatedPlaceGrid populatedPlaceGrid;
+
     public void setIndexLocation(final String indexLocation) {
-        this.indexLocation = indexLocation;
+        synchronized (searcherManagerLock) {
+            if (!StringUtils.equals(this.indexLocation, indexLocation)) {
+                this.indexLocation = indexLocation;
+                closeSearcherManager();
+            }
+        }
+    }
+
+    public void setPopulatedPlaceGridEnabled(final boolean populatedPlaceGridEnabled) {
+        synchronized (searcherManagerLock) {
+            if (this.populatedPlaceGridEnabled != populatedPlaceGridEnabled) {
+                this.populatedPlaceGridEnabled = populatedPlaceGridEnabled;
+                closeSearcherManager();
+            }
+        }
+    }
+
+    public void destroy() {
+        synchronized (searcherManagerLock) {
+            closeSearcherManager();
+        }
+    }
+
+    @Override
+    public void indexUpdated() {
+        refreshNeeded.set(true);
     }
 
     @Override
@@ -69,8 +121,72 @@ private Directory openDirectoryAndCheckForIndex() throws GeoEntryQueryException
         }
     }
 
+    /**
+     * Returns the shared {@link SearcherManager}, opening it if the index has been created since
+     * the last call and refreshing it if the index has been updated. Returns null if there is no
+     * index yet.
+     */
+    private SearcherManager getSearcherManager() throws GeoEntryQueryException {
+        synchronized (searcherManagerLock) {
+            if (searcherManager == null) {
+                directory = openDirectoryAndCheckForIndex();
+                if (directory == null) {
+                    return null;
+                }
+
+                try {
+                    refreshNeeded.set(false);
+                    searcherManager = new SearcherManager(createIndexReader(directory),
+                            new GeoNamesSearcherFactory());
+                } catch (IOException e) {
+                    closeSearcherManager();
+                    throw new GeoEntryQueryException("Error reading the index", e);
+                }
+            } else if (refreshNeeded.compareAndSet(true, false)) {
+                try {
+                    searcherManager.maybeRefreshBlocking();
+                } catch (IOException e) {
+                    refreshNeeded.set(true);
+                    throw new GeoEntryQueryException("Error refreshing the index", e);
+                }
+            }
+
+            return searcherManager;
+        }
+    }
+
+    private void closeSearcherManager() {
+        populatedPlaceGrid = null;
+
+        if (searcherManager != null) {
+            try {
+                searcherManager.close();
+            } catch (IOException e) {
+                LOGGER.debug("Error closing the GeoNames index searcher.", e);
+            }
+            searcherManager = null;
+        }
+
+        if (directory != null) {
+            try {
+                directory.close();
+            } catch (IOException e) {
+                LOGGER.debug("Error closing the GeoNames index directory.", e);
+            }
+            directory = null;
+        }
+    }
+
+    private void release(final SearcherManager manager, final IndexSearcher indexSearcher) {
+        try {
+            manager.release(indexSearcher);
+        } catch (IOException e) {
+            LOGGER.debug("Error releasing the GeoNames index searcher.", e);
+        }
+    }
+
     @Override
-    protected IndexReader createIndexReader(final Directory directory) throws IOException {
+    protected DirectoryReader createIndexReader(final Directory directory) throws IOException {
         return DirectoryReader.open(directory);
     }
 
@@ -84,9 +200,17 @@ protected IndexSearcher createIndexSearcher(final IndexReader indexReader) {
     @Override
     public List<GeoEntry> query(final String queryString, final int maxResults)
             throws GeoEntryQueryException {
-        final Directory directory = openDirectoryAndCheckForIndex();
+        final SearcherManager manager = getSearcherManager();
+        if (manager == null) {
+            return doQuery(queryString, maxResults, null);
+        }
 
-        return doQuery(queryString, maxResults, directory);
+        final IndexSearcher indexSearcher = acquire(manager);
+        try {
+            return searchIndex(queryString, maxResults, indexSearcher);
+        } finally {
+            release(manager, indexSearcher);
+        }
     }
 
     @Override
@@ -99,19 +223,74 @@ public List<NearbyLocation> getNearestCities(final String location, final int ra
         }
 
         Shape shape = SpatialContext.GEO.readShapeFromWkt(location);
-        final Directory directory = openDirectoryAndCheckForIndex();
+        final SearcherManager manager = getSearcherManager();
+        if (manager == null) {
+            return doGetNearestCities(shape, radiusInKm, maxResults, null);
+        }
+
+        final PopulatedPlaceGrid grid = populatedPlaceGrid;
+        if (grid != null) {
+            validateNearestCitiesArguments(shape, radiusInKm, maxResults);
+            return grid.getNearestCities(shape.getCenter(), radiusInKm, maxResults);
+        }
 
-        return doGetNearestCities(shape, radiusInKm, maxResults, directory);
+        final IndexSearcher indexSearcher = acquire(manager);
+        try {
+            return searchNearestCities(shape, radiusInKm, maxResults, indexSearcher);
+        } finally {
+            release(manager, indexSearcher);
+        }
     }
 
     @Override
     public Optional<String> getCountryCode(String wktLocation, int radius)
             throws GeoEntryQueryException, ParseException {
-        final Directory directory = openDirectoryAndCheckForIndex();
+        final SearcherManager manager = getSearcherManager();
 
         Shape shape = SpatialContext.GEO.readShapeFromWkt(wktLocation);
-        String countryCode = doGetCountryCode(shape, radius, directory);
+        if (manager == null) {
+            return Optional.ofNullable(doGetCountryCode(shape, radius, null));
+        }
 
-        return Optional.ofNullable(countryCode);
+        final PopulatedPlaceGrid grid = populatedPlaceGrid;
+        if (grid != null) {
+            validateCountryCodeArguments(shape, radius);
+            return Optional.ofNullable(grid.getCountryCode(shape.getCenter(), radius));
+        }
+
+        final IndexSearcher indexSearcher = acquire(manager);
+        try {
+            return Optional.ofNullable(searchCountryCode(shape, radius, indexSearcher));
+        } finally {
+            release(manager, indexSearcher);
+        }
+    }
+
+    private IndexSearcher acquire(final SearcherManager manager) throws GeoEntryQueryException {
+        try {
+            return manager.acquire();
+        } catch (IOException e) {
+            throw new GeoEntryQueryException("Error reading the index", e);
+        }
+    }
+
+    /**
+     * Creates searchers with the GeoNames similarity and, when enabled, rebuilds the populated
+     * place grid from each newly opened reader.
+     */
+    private class GeoNamesSearcherFactory extends SearcherFactory {
+        @Override
+        public IndexSearcher newSearcher(final IndexReader reader,
+                final IndexReader previousReader) throws IOException {
+            final IndexSearcher indexSearcher = createIndexSearcher(reader);
+
+            if (populatedPlaceGridEnabled) {
+                final PopulatedPlaceGrid grid = createPopulatedPlaceGrid(indexSearcher);
+                LOGGER.debug("Loaded {} populated places into the in-memory grid.", grid.size());
+                populatedPlaceGrid = grid;
+            }
+
+            return indexSearcher;
+        }
     }
 }
@@ -20,13 +20,17 @@
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.queries.CustomScoreQuery;
 import org.apache.lucene.queries.function.FunctionQuery;
@@ -38,8 +42,10 @@
 import org.apache.lucene.search.BoostQuery;
 import org.apache.lucene.search.DisjunctionMaxQuery;
 import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SimpleCollector;
 import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.SortField;
 import org.apache.lucene.search.TermQuery;
@@ -81,8 +87,19 @@ public abstract class GeoNamesQueryLuceneIndex implements GeoEntryQueryable {
             {"PPL", "PPLA", "PPLA2", "PPLA3", "PPLA4", "PPLC", "PPLCH", "PPLF", "PPLG", "PPLL",
                     "PPLR", "PPLS", "PPLX"};
 
+    private static final Set<String> CITY_FEATURE_CODE_SET =
+            new HashSet<>(Arrays.asList(CITY_FEATURE_CODES));
+
     private static final BooleanQuery PPL_QUERY;
 
+    private static final Set<String> GRID_FIELDS =
+            new HashSet<>(Arrays.asList(GeoNamesLuceneConstants.NAME_FIELD,
+                    GeoNamesLuceneConstants.LATITUDE_FIELD,
+                    GeoNamesLuceneConstants.LONGITUDE_FIELD,
+                    GeoNamesLuceneConstants.POPULATION_FIELD,
+                    GeoNamesLuceneConstants.COUNTRY_CODE_FIELD,
+                    GeoNamesLuceneConstants.FEATURE_CODE_FIELD));
+
     static {
         BooleanQuery.Builder builder = new BooleanQuery.Builder();
         // Create an OR query on the feature_code field that will accept any of the above feature
@@ -106,21 +123,24 @@ protected boolean indexExists(final Directory directory) throws IOException {
 
     protected List<GeoEntry> doQuery(final String queryString, final int maxResults,
             final Directory directory) throws GeoEntryQueryException {
-        if (StringUtils.isBlank(queryString)) {
-            throw new IllegalArgumentException("The query string cannot be null or empty.");
-        }
-
-        if (maxResults < 1) {
-            throw new IllegalArgumentException("maxResults must be positive.");
-        }
+        validateQueryArguments(queryString, maxResults);
 
         if (directory == null) {
             return Collections.emptyList();
         }
 
         try (final IndexReader indexReader = createIndexReader(directory)) {
-            final IndexSearcher indexSearcher = createIndexSearcher(indexReader);
+            return searchIndex(queryString, maxResults, createIndexSearcher(indexReader));
+        } catch (IOException e) {
+            throw new GeoEntryQueryException("Error reading the index", e);
+        }
+    }
 
+    protected List<GeoEntry> searchIndex(final String queryString, final int maxResults,
+            final IndexSearcher indexSearcher) throws GeoEntryQueryException {
+        validateQueryArguments(queryString, maxResults);
+
+        try {
             final Query query = createQuery(queryString);
 
             final TopDocs topDocs = indexSearcher.search(query, maxResults);
@@ -219,26 +239,28 @@ query searching for any of the terms in the query string (the OR query). We take
     protected List<NearbyLocation> doGetNearestCities(final Shape shape, final int radiusInKm,
             final int maxResults, final Directory directory) throws GeoEntryQueryException {
 
-        notNull(shape,
-                "GeoNamesQueryLuceneIndex.doGetNearestCities(): argument 'shape' may not be null.");
-
-        if (radiusInKm <= 0) {
-            throw new IllegalArgumentException(
-                    "GeoNamesQueryLuceneIndex.doGetNearestCities(): radiusInKm must be positive.");
-        }
-
-        if (maxResults <= 0) {
-            throw new IllegalArgumentException(
-                    "GeoNamesQueryLuceneIndex.doGetNearestCities(): maxResults must be positive.");
-        }
+        validateNearestCitiesArguments(shape, radiusInKm, maxResults);
 
         if (directory == null) {
             return Collections.emptyList();
         }
 
         try (final IndexReader indexReader = createIndexReader(directory)) {
-            final IndexSearcher indexSearcher = createIndexSearcher(indexReader);
+            return searchNearestCities(shape,
+                    radiusInKm,
+                    maxResults,
+                    createIndexSearcher(indexReader));
+        } catch (IOException e) {
+            throw new GeoEntryQueryException("Error reading the index", e);
+        }
+    }
 
+    protected List<NearbyLocation> searchNearestCities(final Shape shape, final int radiusInKm,
+            final int maxResults, final IndexSearcher indexSearcher)
+            throws GeoEntryQueryException {
+        validateNearestCitiesArguments(shape, radiusInKm, maxResults);
+
+        try {
             final List<NearbyLocation> closestCities = new ArrayList<>();
 
             final Point center = shape.getCenter();
@@ -286,15 +308,20 @@ protected String doGetCountryCode(Shape shape, int radiusInKm, Directory directo
         notNull(directory,
                 "GeoNamesQueryLuceneIndex.doGetCountryCode(): argument 'directory' may not be null.");
 
-        if (radiusInKm <= 0) {
-            throw new IllegalArgumentException(
-                    "GeoNamesQueryLuceneIndex.doGetCountryCode(): radiusInKm must be positive.");
-        }
+        validateCountryCodeArguments(shape, radiusInKm);
 
         try (final IndexReader indexReader = createIndexReader(directory)) {
+            return searchCountryCode(shape, radiusInKm, createIndexSearcher(indexReader));
+        } catch (IOException e) {
+            throw new GeoEntryQueryException("Error reading the index", e);
+        }
+    }
 
-            final IndexSearcher indexSearcher = createIndexSearcher(indexReader);
+    protected String searchCountryCode(final Shape shape, final int radiusInKm,
+            final IndexSearcher indexSearcher) throws GeoEntryQueryException {
+        validateCountryCodeArguments(shape, radiusInKm);
 
+        try {
             final Point center = shape.getCenter();
 
             final Query filter = createSpatialQuery(center, radiusInKm);
@@ -319,6 +346,81 @@ protected String doGetCountryCode(Shape shape, int radiusInKm, Directory directo
         }
     }
 
+    /**
+     * Loads every place in the index into a {@link PopulatedPlaceGrid} so that nearby-city and
+     * country code lookups can be answered from memory. Country code lookups rank every place in
+     * the search radius, not only the populated places, so the grid holds all of them.
+     */
+    protected PopulatedPlaceGrid createPopulatedPlaceGrid(final IndexSearcher indexSearcher)
+            throws IOException {
+        final PopulatedPlaceGrid.Builder builder = new PopulatedPlaceGrid.Builder();
+
+        indexSearcher.search(new MatchAllDocsQuery(), new SimpleCollector() {
+            private LeafReader leafReader;
+
+            @Override
+            protected void doSetNextReader(final LeafReaderContext context) {
+                leafReader = context.reader();
+            }
+
+            @Override
+            public void collect(final int doc) throws IOException {
+                final Document document = leafReader.document(doc, GRID_FIELDS);
+                final String featureCode =
+                        document.get(GeoNamesLuceneConstants.FEATURE_CODE_FIELD);
+                builder.add(document.get(GeoNamesLuceneConstants.NAME_FIELD),
+                        Double.parseDouble(document.get(GeoNamesLuceneConstants.LATITUDE_FIELD)),
+                        Double.parseDouble(document.get(GeoNamesLuceneConstants.LONGITUDE_FIELD)),
+                        Long.parseLong(document.get(GeoNamesLuceneConstants.POPULATION_FIELD)),
+                        document.get(GeoNamesLuceneConstants.COUNTRY_CODE_FIELD),
+                        CITY_FEATURE_CODE_SET.contains(featureCode));
+            }
+
+            @Override
+            public boolean needsScores() {
+                return false;
+            }
+        });
+
+        return builder.build();
+    }
+
+    private void validateQueryArguments(final String queryString, final int maxResults) {
+        if (StringUtils.isBlank(queryString)) {
+            throw new IllegalArgumentException("The query string cannot be null or empty.");
+        }
+
+        if (maxResults < 1) {
+            throw new IllegalArgumentException("maxResults must be positive.");
+        }
+    }
+
+    protected void validateNearestCitiesArguments(final Shape shape, final int radiusInKm,
+            final int maxResults) {
+        notNull(shape,
+                "GeoNamesQueryLuceneIndex.doGetNearestCities(): argument 'shape' may not be null.");
+
+        if (radiusInKm <= 0) {
+            throw new IllegalArgumentException(
+                    "GeoNamesQueryLuceneIndex.doGetNearestCities(): radiusInKm must be positive.");
+        }
+
+        if (maxResults <= 0) {
+            throw new IllegalArgumentException(
+                    "GeoNamesQueryLuceneIndex.doGetNearestCities(): maxResults must be positive.");
+        }
+    }
+
+    protected void validateCountryCodeArguments(final Shape shape, final int radiusInKm) {
+        notNull(shape,
+                "GeoNamesQueryLuceneIndex.doGetCountryCode(): argument 'shape' may not be null.");
+
+        if (radiusInKm <= 0) {
+            throw new IllegalArgumentException(
+                    "GeoNamesQueryLuceneIndex.doGetCountryCode(): radiusInKm must be positive.");
+        }
+    }
+
     private Query createSpatialQuery(Point shapeCenter, int radiusInKm) {
         final SpatialPrefixTree grid = new GeohashPrefixTree(SPATIAL_CONTEXT,
                 GeoNamesLuceneConstants.GEOHASH_LEVELS);
@@ -0,0 +1,238 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p/>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ **/
+
+package org.codice.ddf.spatial.geocoding.query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.codice.ddf.spatial.geocoding.context.NearbyLocation;
+import org.codice.ddf.spatial.geocoding.context.impl.NearbyLocationImpl;
+import org.locationtech.spatial4j.context.SpatialContext;
+import org.locationtech.spatial4j.distance.DistanceUtils;
+import org.locationtech.spatial4j.shape.Point;
+import org.locationtech.spatial4j.shape.Rectangle;
+import org.locationtech.spatial4j.shape.impl.PointImpl;
+
+/**
+ * An immutable, in-memory grid of places used to answer nearby-city and country code lookups
+ * without searching the Lucene index.
+ * <p>
+ * Places are bucketed into one-degree latitude/longitude cells and stored in parallel arrays
+ * ordered by cell, so a radius lookup only has to scan the cells covered by the search circle.
+ * Like the index searches, nearby-city lookups only consider populated places, while country code
+ * lookups consider every place. Places with the same population are ranked in the order they were
+ * added, which matches the order of the index searches when they are added in index order.
+ */
+class PopulatedPlaceGrid {
+    private static final SpatialContext SPATIAL_CONTEXT = SpatialContext.GEO;
+
+    private static final int COLUMNS = 360;
+
+    private static final int ROWS = 180;
+
+    private final int[] cellStarts;
+
+    private final double[] latitudes;
+
+    private final double[] longitudes;
+
+    private final long[] populations;
+
+    private final String[] names;
+
+    private final String[] countryCodes;
+
+    private final boolean[] populatedPlaces;
+
+    private final int[] ranks;
+
+    private PopulatedPlaceGrid(final Builder builder) {
+        final int size = builder.size;
+        final int[] cells = new int[size];
+
+        // Counting sort of the places by cell: cellStarts[c] ends up holding the offset of the
+        // first place in cell c, and cellStarts[c + 1] the offset just past its last place.
+        cellStarts = new int[ROWS * COLUMNS + 1];
+        for (int i = 0; i < size; i++) {
+            cells[i] = cell(builder.latitudes[i], builder.longitudes[i]);
+            cellStarts[cells[i] + 1]++;
+        }
+        for (int c = 0; c < ROWS * COLUMNS; c++) {
+            cellStarts[c + 1] += cellStarts[c];
+        }
+
+        latitudes = new double[size];
+        longitudes = new double[size];
+        populations = new long[size];
+        names = new String[size];
+        countryCodes = new String[size];
+        populatedPlaces = new boolean[size];
+        ranks = new int[size];
+
+        final int[] next = new int[ROWS * COLUMNS];
+        System.arraycopy(cellStarts, 0, next, 0, next.length);
+        for (int i = 0; i < size; i++) {
+            final int position = next[cells[i]]++;
+            latitudes[position] = builder.latitudes[i];
+            longitudes[position] = builder.longitudes[i];
+            populations[position] = builder.populations[i];
+            names[position] = builder.names[i];
+            countryCodes[position] = builder.countryCodes[i];
+            populatedPlaces[position] = builder.populatedPlaces[i];
+            ranks[position] = i;
+        }
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * Returns up to {@code maxResults} populated places within {@code radiusInKm} of
+     * {@code center}, in descending order of population.
+     */
+    public List<NearbyLocation> getNearestCities(final Point center, final int radiusInKm,
+            final int maxResults) {
+        final List<Integer> matches = search(center, radiusInKm, true);
+
+        final List<NearbyLocation> closestCities = new ArrayList<>();
+        for (int i = 0; i < matches.size() && i < maxResults; i++) {
+            final int position = matches.get(i);
+            closestCities.add(new NearbyLocationImpl(center,
+                    new PointImpl(longitudes[position], latitudes[position], SPATIAL_CONTEXT),
+                    names[position]));
+        }
+
+        return closestCities;
+    }
+
+    /**
+     * Returns the country code of the most populous place within {@code radiusInKm} of
+     * {@code center}, or null if there is none.
+     */
+    public String getCountryCode(final Point center, final int radiusInKm) {
+        final List<Integer> matches = search(center, radiusInKm, false);
+        return matches.isEmpty() ? null : countryCodes[matches.get(0)];
+    }
+
+    private List<Integer> search(final Point center, final int radiusInKm,
+            final boolean populatedPlacesOnly) {
+        final double radiusInDegrees = radiusInKm * DistanceUtils.KM_TO_DEG;
+        final Rectangle boundingBox = SPATIAL_CONTEXT.getShapeFactory()
+                .circle(center, radiusInDegrees)
+                .getBoundingBox();
+
+        final int minRow = row(boundingBox.getMinY());
+        final int maxRow = row(boundingBox.getMaxY());
+        final int minColumn;
+        int maxColumn;
+        if (boundingBox.getWidth() >= 360) {
+            // The circle covers a pole, so every longitude is in range.
+            minColumn = 0;
+            maxColumn = COLUMNS - 1;
+        } else {
+            minColumn = column(boundingBox.getMinX());
+            maxColumn = column(boundingBox.getMaxX());
+            if (maxColumn < minColumn) {
+                // The box crosses the date line, so wrap around to the start of the row.
+                maxColumn += COLUMNS;
+            }
+        }
+
+        final List<Integer> matches = new ArrayList<>();
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                final int c = row * COLUMNS + (column % COLUMNS);
+                for (int position = cellStarts[c]; position < cellStarts[c + 1]; position++) {
+                    if ((!populatedPlacesOnly || populatedPlaces[position])
+                            && SPATIAL_CONTEXT.calcDistance(center,
+                            longitudes[position],
+                            latitudes[position]) <= radiusInDegrees) {
+                        matches.add(position);
+                    }
+                }
+            }
+        }
+
+        matches.sort((a, b) -> populations[a] == populations[b] ?
+                Integer.compare(ranks[a], ranks[b]) :
+                Long.compare(populations[b], populations[a]));
+        return matches;
+    }
+
+    private static int cell(final double latitude, final double longitude) {
+        return row(latitude) * COLUMNS + column(longitude);
+    }
+
+    private static int row(final double latitude) {
+        return Math.max(0, Math.min(ROWS - 1, (int) Math.floor(latitude + 90)));
+    }
+
+    private static int column(final double longitude) {
+        return Math.floorMod((int) Math.floor(longitude + 180), COLUMNS);
+    }
+
+    public static class Builder {
+        private static final int INITIAL_CAPACITY = 1024;
+
+        private int size;
+
+        private double[] latitudes = new double[INITIAL_CAPACITY];
+
+        private double[] longitudes = new double[INITIAL_CAPACITY];
+
+        private long[] populations = new long[INITIAL_CAPACITY];
+
+        private String[] names = new String[INITIAL_CAPACITY];
+
+        private String[] countryCodes = new String[INITIAL_CAPACITY];
+
+        private boolean[] populatedPlaces = new boolean[INITIAL_CAPACITY];
+
+        // Country codes repeat heavily, so share one instance of each.
+        private final Map<String, String> countryCodeInstances = new HashMap<>();
+
+        public Builder add(final String name, final double latitude, final double longitude,
+                final long population, final String countryCode, final boolean populatedPlace) {
+            if (size == names.length) {
+                final int capacity = size * 2;
+                latitudes = Arrays.copyOf(latitudes, capacity);
+                longitudes = Arrays.copyOf(longitudes, capacity);
+                populations = Arrays.copyOf(populations, capacity);
+                names = Arrays.copyOf(names, capacity);
+                countryCodes = Arrays.copyOf(countryCodes, capacity);
+                populatedPlaces = Arrays.copyOf(populatedPlaces, capacity);
+            }
+
+            names[size] = name;
+            latitudes[size] = latitude;
+            longitudes[size] = longitude;
+            populations[size] = population;
+            countryCodes[size] = countryCode == null ?
+                    null :
+                    countryCodeInstances.computeIfAbsent(countryCode, code -> code);
+            populatedPlaces[size] = populatedPlace;
+            size++;
+            return this;
+        }
+
+        public PopulatedPlaceGrid build() {
+            return new PopulatedPlaceGrid(this);
+        }
+    }
+}
@@ -257,4 +257,17 @@ public void testDirectoryCreatedForNewIndex() throws GeoEntryIndexingException {
 
         assertTrue(Files.exists(Paths.get(INDEX_PATH)));
     }
+
+    @Test
+    public void testIndexListenerNotifiedAfterUpdate()
+            throws GeoEntryIndexingException, IOException {
+        configureMocks();
+
+        final GeoNamesIndexListener indexListener = mock(GeoNamesIndexListener.class);
+        geoNamesLuceneIndexer.setIndexListener(indexListener);
+
+        geoNamesLuceneIndexer.updateIndex(GEO_ENTRY_LIST, true, null);
+
+        verify(indexListener, times(1)).indexUpdated();
+    }
 }
@@ -26,6 +26,8 @@
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 import java.io.IOException;
 import java.util.Collections;
@@ -107,6 +109,8 @@ public class TestGeoNamesQueryLuceneIndex extends TestBase {
 
     private static final String TEST_POINT = "POINT (56.78 1.5)";
 
+    private static final String AIRPORT_POINT = "POINT (56.5 1.25)";
+
     private static final GeoEntry GEO_ENTRY_1 = new GeoEntry.Builder().name(NAME_1)
             .latitude(LAT_1)
             .longitude(LON_1)
@@ -538,4 +542,94 @@ public void testDoQueryNullDirectory() throws GeoEntryQueryException {
         List<GeoEntry> result = directoryIndex.doQuery("test", 1, null);
         assertThat(result, empty());
     }
+
+    @Test
+    public void testSearcherIsReusedAcrossQueries() throws Exception {
+        directoryIndex.query("phoenix", 1);
+        directoryIndex.getNearestCities(TEST_POINT, 50, 1);
+        directoryIndex.getCountryCode(TEST_POINT, 50);
+
+        verify(directoryIndex, times(1)).openDirectory();
+        verify(directoryIndex, times(1)).createIndexReader(any(Directory.class));
+    }
+
+    @Test
+    public void testSearcherIsRefreshedAfterIndexUpdate() throws Exception {
+        final GeoEntry tempe = new GeoEntry.Builder().name("Tempe")
+                .latitude(LAT_1)
+                .longitude(LON_1)
+                .featureCode(FEATURE_CODE_1)
+                .population(POP_3)
+                .alternateNames("")
+                .countryCode(COUNTRY_CODE1)
+                .build();
+
+        assertThat(directoryIndex.query("tempe", 1), empty());
+
+        final IndexWriterConfig indexWriterConfig = new IndexWriterConfig(new StandardAnalyzer());
+        indexWriterConfig.setOpenMode(OpenMode.APPEND);
+        try (final IndexWriter indexWriter = new IndexWriter(directory, indexWriterConfig)) {
+            indexWriter.addDocument(createDocumentFromGeoEntry(tempe));
+        }
+
+        // The shared searcher is only reopened once the indexer reports a change.
+        assertThat(directoryIndex.query("tempe", 1), empty());
+
+        directoryIndex.indexUpdated();
+
+        final List<GeoEntry> results = directoryIndex.query("tempe", 1);
+        assertThat(results.size(), is(1));
+        assertThat(results.get(0)
+                .getName(), is("Tempe"));
+    }
+
+    @Test
+    public void testPopulatedPlaceGrid() throws Exception {
+        final List<NearbyLocation> indexNearestCities = directoryIndex.doGetNearestCities(
+                SPATIAL_CONTEXT.readShapeFromWkt(TEST_POINT),
+                100,
+                10,
+                directory);
+        assertThat(directoryIndex.doGetCountryCode(SPATIAL_CONTEXT.readShapeFromWkt(AIRPORT_POINT),
+                20,
+                directory), is(COUNTRY_CODE2));
+
+        directoryIndex.setPopulatedPlaceGridEnabled(true);
+
+        final List<NearbyLocation> gridNearestCities = directoryIndex.getNearestCities(TEST_POINT,
+                100,
+                10);
+
+        assertThat(gridNearestCities.size(), is(2));
+        assertThat(gridNearestCities.size(), is(indexNearestCities.size()));
+        for (int i = 0; i < gridNearestCities.size(); i++) {
+            assertThat(gridNearestCities.get(i)
+                    .getName(), is(indexNearestCities.get(i)
+                    .getName()));
+            assertThat(gridNearestCities.get(i)
+                    .getDistance(), is(indexNearestCities.get(i)
+                    .getDistance()));
+        }
+
+        assertThat(directoryIndex.getCountryCode(TEST_POINT, 50)
+                .get(), is(COUNTRY_CODE1));
+        assertThat(directoryIndex.getCountryCode("POINT (0 1)", 50)
+                .isPresent(), is(false));
+        // Like the index, the grid uses every feature for country codes, not only cities.
+        assertThat(directoryIndex.getCountryCode(AIRPORT_POINT, 20)
+                .get(), is(COUNTRY_CODE2));
+        assertThat(directoryIndex.getNearestCities(AIRPORT_POINT, 20, 10), is(empty()));
+
+        // Text queries still go to the index.
+        assertThat(directoryIndex.query("glendale", 1)
+                .get(0)
+                .getName(), is(NAME_3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPopulatedPlaceGridNonPositiveRadius() throws Exception {
+        directoryIndex.setPopulatedPlaceGridEnabled(true);
+
+        directoryIndex.getNearestCities(TEST_POINT, 0, 1);
+    }
 }
@@ -0,0 +1,118 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p/>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ **/
+
+package org.codice.ddf.spatial.geocoding.query;
+
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+
+import org.codice.ddf.spatial.geocoding.context.NearbyLocation;
+import org.junit.Before;
+import org.junit.Test;
+import org.locationtech.spatial4j.context.SpatialContext;
+import org.locationtech.spatial4j.shape.Point;
+
+public class TestPopulatedPlaceGrid {
+    private static final SpatialContext SPATIAL_CONTEXT = SpatialContext.GEO;
+
+    private PopulatedPlaceGrid grid;
+
+    @Before
+    public void setUp() {
+        final PopulatedPlaceGrid.Builder builder = new PopulatedPlaceGrid.Builder();
+        for (int i = 0; i < 2000; i++) {
+            // Filler entries spread around the globe so the builder has to grow.
+            builder.add("Filler" + i, (i % 170) - 85, (i % 350) - 175, 1, "ZZ", true);
+        }
+
+        grid = builder.add("West", 0.1, 179.9, 100, "W", true)
+                .add("East", 0.1, -179.9, 1000, "E", true)
+                .add("North", 89.8, 0, 10, "N", true)
+                .add("AcrossThePole", 89.8, 180, 20, "P", true)
+                .add("Airport", -30.5, 20, 5000, "A", false)
+                .add("Town", -30.5, 20.2, 50, "T", true)
+                .add("Village", -30.5, 19.8, 50, "V", true)
+                .build();
+    }
+
+    @Test
+    public void testSize() {
+        assertThat(grid.size(), is(2007));
+    }
+
+    @Test
+    public void testNearestCitiesAcrossDateLine() {
+        final Point center = SPATIAL_CONTEXT.makePoint(179.95, 0.1);
+
+        final List<NearbyLocation> nearestCities = grid.getNearestCities(center, 50, 10);
+
+        assertThat(nearestCities.size(), is(2));
+        assertThat(nearestCities.get(0)
+                .getName(), is("East"));
+        assertThat(nearestCities.get(1)
+                .getName(), is("West"));
+        assertThat(grid.getCountryCode(center, 50), is("E"));
+    }
+
+    @Test
+    public void testNearestCitiesMaxResults() {
+        final Point center = SPATIAL_CONTEXT.makePoint(179.95, 0.1);
+
+        final List<NearbyLocation> nearestCities = grid.getNearestCities(center, 50, 1);
+
+        assertThat(nearestCities.size(), is(1));
+        assertThat(nearestCities.get(0)
+                .getName(), is("East"));
+    }
+
+    @Test
+    public void testNearestCitiesAroundPole() {
+        final Point center = SPATIAL_CONTEXT.makePoint(90, 89.9);
+
+        final List<NearbyLocation> nearestCities = grid.getNearestCities(center, 50, 10);
+
+        assertThat(nearestCities.size(), is(2));
+        assertThat(nearestCities.get(0)
+                .getName(), is("AcrossThePole"));
+        assertThat(nearestCities.get(1)
+                .getName(), is("North"));
+    }
+
+    @Test
+    public void testOnlyPopulatedPlacesAreCities() {
+        final Point center = SPATIAL_CONTEXT.makePoint(20, -30.5);
+
+        final List<NearbyLocation> nearestCities = grid.getNearestCities(center, 40, 10);
+
+        // Town and Village have the same population, and Town was added first.
+        assertThat(nearestCities.size(), is(2));
+        assertThat(nearestCities.get(0)
+                .getName(), is("Town"));
+        assertThat(nearestCities.get(1)
+                .getName(), is("Village"));
+        assertThat(grid.getCountryCode(center, 40), is("A"));
+    }
+
+    @Test
+    public void testNoPlacesInRadius() {
+        final Point center = SPATIAL_CONTEXT.makePoint(90.5, -40.5);
+
+        assertThat(grid.getNearestCities(center, 10, 10), is(empty()));
+        assertThat(grid.getCountryCode(center, 10), is(nullValue()));
+    }
+}
@@ -21,6 +21,9 @@
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 import javax.ws.rs.GET;
@@ -28,7 +31,11 @@
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.CacheControl;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
 import javax.ws.rs.core.UriBuilder;
 import javax.ws.rs.core.UriBuilderException;
@@ -39,6 +46,7 @@
 import org.codice.ddf.branding.BrandingRegistry;
 import org.codice.ddf.configuration.SystemBaseUrl;
 import org.codice.ddf.configuration.SystemInfo;
+import org.opengis.filter.Filter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -47,16 +55,26 @@
 import com.github.jknack.handlebars.io.ClassPathTemplateLoader;
 
 import ddf.catalog.CatalogFramework;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.federation.FederationException;
+import ddf.catalog.filter.FilterBuilder;
+import ddf.catalog.operation.QueryRequest;
 import ddf.catalog.operation.SourceInfoResponse;
+import ddf.catalog.operation.impl.QueryImpl;
+import ddf.catalog.operation.impl.QueryRequestImpl;
 import ddf.catalog.operation.impl.SourceInfoRequestEnterprise;
 import ddf.catalog.source.SourceDescriptor;
 import ddf.catalog.source.SourceUnavailableException;
+import ddf.catalog.source.UnsupportedQueryException;
+import de.micromata.opengis.kml.v_2_2_0.Document;
 import de.micromata.opengis.kml.v_2_2_0.Folder;
 import de.micromata.opengis.kml.v_2_2_0.Kml;
 import de.micromata.opengis.kml.v_2_2_0.KmlFactory;
 import de.micromata.opengis.kml.v_2_2_0.Link;
 import de.micromata.opengis.kml.v_2_2_0.NetworkLink;
+import de.micromata.opengis.kml.v_2_2_0.Placemark;
 import de.micromata.opengis.kml.v_2_2_0.RefreshMode;
+import de.micromata.opengis.kml.v_2_2_0.Region;
 import de.micromata.opengis.kml.v_2_2_0.ViewRefreshMode;
 
 /**
@@ -84,6 +102,8 @@ public class KmlEndpoint {
 
     private static final String OPENSEARCH_FORMAT_KEY = "format";
 
+    private static final String OPENSEARCH_COUNT_KEY = "count";
+
     private static final String ICONS_RESOURCE_LOC = "icons/";
 
     private static final long REFRESH_INTERVAL = 12 * 60 * 60; // 12 Hours in Seconds
@@ -104,10 +124,33 @@ public class KmlEndpoint {
 
     private static final String COUNT_PARAM = "count=";
 
+    private static final String BBOX_PARAM = "bbox";
+
+    private static final String TILES_URL_PATH = "tiles";
+
+    /**
+     * Deepest level of the super-overlay. Tiles at this level always link to their results.
+     */
+    private static final int MAX_TILE_LEVEL = 18;
+
+    /**
+     * Size in pixels a tile's {@link Region} must take up on screen before its children are loaded.
+     */
+    private static final double MIN_LOD_PIXELS = 128;
+
+    /**
+     * Size in pixels past which a tile's result counts are hidden in favor of its children.
+     */
+    private static final double MAX_CLUSTER_LOD_PIXELS = 2 * MIN_LOD_PIXELS;
+
+    private static final int TILE_MAX_AGE = 5 * 60; // 5 Minutes in Seconds
+
     private static final Logger LOGGER = LoggerFactory.getLogger(KmlEndpoint.class);
 
     private CatalogFramework framework;
 
+    private FilterBuilder filterBuilder;
+
     private Kml styleDoc;
 
     private String styleUrl;
@@ -120,6 +163,10 @@ public class KmlEndpoint {
 
     private Integer maxResults = 100;
 
+    private Boolean superOverlay = false;
+
+    private Integer clusterThreshold = 100;
+
     private String webSite;
 
     private String logo;
@@ -131,9 +178,15 @@ public class KmlEndpoint {
     private ClassPathTemplateLoader templateLoader;
 
     public KmlEndpoint(BrandingRegistry brandingPlugin, CatalogFramework catalogFramework) {
+        this(brandingPlugin, catalogFramework, null);
+    }
+
+    public KmlEndpoint(BrandingRegistry brandingPlugin, CatalogFramework catalogFramework,
+            FilterBuilder filterBuilder) {
         Optional<BrandingRegistry> brandingRegistry = Optional.ofNullable(brandingPlugin);
         LOGGER.trace("ENTERING: KML Endpoint Constructor");
         this.framework = catalogFramework;
+        this.filterBuilder = filterBuilder;
         templateLoader = new ClassPathTemplateLoader();
         templateLoader.setPrefix("/templates");
         templateLoader.setSuffix(".hbt");
@@ -205,6 +258,26 @@ public void setMaxResults(Integer maxResults) {
         this.maxResults = maxResults;
     }
 
+    /**
+     * Sets if the ddf.catalog.source.Source {@link NetworkLink}s should be Region-based
+     * super-overlays instead of View-based queries.
+     *
+     * @param superOverlay - true to enable
+     */
+    public void setSuperOverlay(Boolean superOverlay) {
+        this.superOverlay = superOverlay;
+    }
+
+    /**
+     * Sets the number of results in a super-overlay tile above which the tile shows the number of
+     * results in each of its quarters instead of the results themselves.
+     *
+     * @param clusterThreshold - maximum number of results shown in a tile
+     */
+    public void setClusterThreshold(Integer clusterThreshold) {
+        this.clusterThreshold = clusterThreshold;
+    }
+
     public String getWebSite() {
         return this.webSite;
     }
@@ -318,15 +391,19 @@ public Kml getAvailableSources(@Context UriInfo uriInfo) {
             Folder folder = kml.createAndSetFolder();
             folder.setOpen(true);
             for (SourceDescriptor descriptor : response.getSourceInfo()) {
-                UriBuilder builder = UriBuilder.fromUri(uriInfo.getBaseUri());
-                builder = generateEndpointUrl(
-                        SystemBaseUrl.getRootContext() + FORWARD_SLASH + CATALOG_URL_PATH
-                                + FORWARD_SLASH + OPENSEARCH_URL_PATH, builder);
-                builder = builder.queryParam(SOURCE_PARAM, descriptor.getSourceId());
-                builder = builder.queryParam(OPENSEARCH_SORT_KEY, OPENSEARCH_DEFAULT_SORT);
-                builder = builder.queryParam(OPENSEARCH_FORMAT_KEY, KML_TRANSFORM_PARAM);
-                NetworkLink networkLink = generateViewBasedNetworkLink(builder.build()
-                        .toURL(), descriptor.getSourceId());
+                NetworkLink networkLink;
+                if (isSuperOverlay()) {
+                    networkLink = generateTileNetworkLink(uriInfo,
+                            descriptor.getSourceId(),
+                            new RegionTile(0, 0, 0));
+                    networkLink.setName(descriptor.getSourceId());
+                    networkLink.setOpen(true);
+                    networkLink.setVisibility(this.visibleByDefault);
+                } else {
+                    networkLink = generateViewBasedNetworkLink(generateQueryUrl(uriInfo,
+                            descriptor.getSourceId()).build()
+                            .toURL(), descriptor.getSourceId());
+                }
                 folder.getFeature()
                         .add(networkLink);
             }
@@ -345,6 +422,200 @@ public Kml getAvailableSources(@Context UriInfo uriInfo) {
         }
     }
 
+    /**
+     * Creates a tile of the super-overlay of a {@link ddf.catalog.source.Source}. A tile with few
+     * enough results links to the results within its bounds. Otherwise, it shows the number of
+     * results in each of its quarters until it's close enough to load the quarters themselves.
+     * <p>
+     * Tiles are tagged with the result counts they were built from so that KML Clients refreshing
+     * an unchanged tile get a 304 Not Modified response.
+     *
+     * @param uriInfo  - injected resource providing the URI.
+     * @param request  - injected request, used to evaluate the preconditions.
+     * @param sourceId - the id of the {@link ddf.catalog.source.Source} to query.
+     * @param level    - the level of the tile, 0 being the whole world.
+     * @param x        - the column of the tile, counted from the west.
+     * @param y        - the row of the tile, counted from the south.
+     * @return - {@link Kml} containing the tile's {@link Document}.
+     */
+    @GET
+    @Path(FORWARD_SLASH + TILES_URL_PATH + "/{sourceId}/{level}/{x}/{y}")
+    @Produces(KML_MIME_TYPE)
+    public Response getKmlTile(@Context UriInfo uriInfo, @Context Request request,
+            @PathParam("sourceId") String sourceId, @PathParam("level") int level,
+            @PathParam("x") int x, @PathParam("y") int y) {
+        if (!isSuperOverlay()) {
+            throw new WebApplicationException(Status.NOT_FOUND);
+        }
+
+        RegionTile tile;
+        try {
+            tile = new RegionTile(level, x, y);
+        } catch (IllegalArgumentException e) {
+            throw new WebApplicationException(e, Status.BAD_REQUEST);
+        }
+
+        try {
+            List<Long> counts = Collections.emptyList();
+            if (tile.getLevel() < MAX_TILE_LEVEL) {
+                counts = new ArrayList<>(4);
+                for (RegionTile child : tile.getChildren()) {
+                    counts.add(countResults(sourceId, child));
+                }
+            }
+
+            EntityTag entityTag = new EntityTag(
+                    tile.getKey() + ":" + clusterThreshold + ":" + StringUtils.join(counts, ','));
+            CacheControl cacheControl = new CacheControl();
+            cacheControl.setPrivate(true);
+            cacheControl.setMaxAge(TILE_MAX_AGE);
+
+            Response.ResponseBuilder notModified = request.evaluatePreconditions(entityTag);
+            if (notModified != null) {
+                return notModified.cacheControl(cacheControl)
+                        .build();
+            }
+
+            return Response.ok(createTile(uriInfo, sourceId, tile, counts))
+                    .tag(entityTag)
+                    .cacheControl(cacheControl)
+                    .build();
+        } catch (UnsupportedQueryException | SourceUnavailableException | FederationException e) {
+            LOGGER.debug("Unable to count the results of tile {} of source {}", tile, sourceId, e);
+            throw new WebApplicationException(e, Status.INTERNAL_SERVER_ERROR);
+        } catch (UnknownHostException | MalformedURLException | UriBuilderException e) {
+            throw new WebApplicationException(e, Status.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    private boolean isSuperOverlay() {
+        return Boolean.TRUE.equals(superOverlay) && filterBuilder != null;
+    }
+
+    /*
+     * Counts the results of a source within a tile. Returns a negative count if the source
+     * doesn't report its number of hits.
+     */
+    private long countResults(String sourceId, RegionTile tile)
+            throws UnsupportedQueryException, SourceUnavailableException, FederationException {
+        Filter filter = filterBuilder.attribute(Metacard.ANY_GEO)
+                .intersecting()
+                .wkt(tile.toWkt());
+        QueryRequest request = new QueryRequestImpl(new QueryImpl(filter, 1, 1, null, true, 0),
+                Collections.singletonList(sourceId));
+        return framework.query(request)
+                .getHits();
+    }
+
+    private Kml createTile(UriInfo uriInfo, String sourceId, RegionTile tile, List<Long> counts)
+            throws UnknownHostException, MalformedURLException {
+        Kml kml = KmlFactory.createKml();
+        Document document = kml.createAndSetDocument();
+        document.setName(sourceId + " " + tile.getKey());
+
+        long total = 0;
+        for (Long count : counts) {
+            if (count < 0) {
+                total = -1;
+                break;
+            }
+            total += count;
+        }
+
+        if (counts.isEmpty() || total < 0 || total <= clusterThreshold) {
+            UriBuilder builder = generateQueryUrl(uriInfo, sourceId);
+            builder = builder.queryParam(BBOX_PARAM, tile.toBbox());
+            builder = builder.queryParam(OPENSEARCH_COUNT_KEY, clusterThreshold);
+            NetworkLink networkLink = document.createAndAddNetworkLink();
+            networkLink.setName(sourceId);
+            networkLink.setOpen(true);
+            Link link = networkLink.createAndSetLink();
+            link.setHref(builder.build()
+                    .toURL()
+                    .toString());
+            link.setViewRefreshMode(ViewRefreshMode.NEVER);
+            return kml;
+        }
+
+        Folder clusters = document.createAndAddFolder();
+        clusters.setName("Results");
+        clusters.setRegion(createRegion(tile, 0, MAX_CLUSTER_LOD_PIXELS));
+        List<RegionTile> children = tile.getChildren();
+        for (int i = 0; i < children.size(); i++) {
+            RegionTile child = children.get(i);
+            long count = counts.get(i);
+            if (count == 0) {
+                continue;
+            }
+
+            Placemark placemark = clusters.createAndAddPlacemark();
+            placemark.setName(String.valueOf(count));
+            placemark.setDescription(count + " results");
+            placemark.createAndSetPoint()
+                    .addToCoordinates((child.getWest() + child.getEast()) / 2,
+                            (child.getSouth() + child.getNorth()) / 2);
+
+            document.getFeature()
+                    .add(generateTileNetworkLink(uriInfo, sourceId, child));
+        }
+
+        return kml;
+    }
+
+    /*
+     * Generates a Region-based Network Link to a tile of the super-overlay. KML Clients refresh
+     * it when the tile's HTTP cache entry expires.
+     */
+    private NetworkLink generateTileNetworkLink(UriInfo uriInfo, String sourceId,
+            RegionTile tile) throws UnknownHostException {
+        UriBuilder builder = generateEndpointUrl(
+                SystemBaseUrl.getRootContext() + FORWARD_SLASH + CATALOG_URL_PATH + FORWARD_SLASH
+                        + KML_TRANSFORM_PARAM + FORWARD_SLASH + TILES_URL_PATH,
+                UriBuilder.fromUri(uriInfo.getBaseUri()));
+        builder = builder.segment(sourceId,
+                String.valueOf(tile.getLevel()),
+                String.valueOf(tile.getX()),
+                String.valueOf(tile.getY()));
+
+        NetworkLink networkLink = KmlFactory.createNetworkLink();
+        networkLink.setName(tile.getKey());
+        networkLink.setRegion(createRegion(tile, MIN_LOD_PIXELS, -1));
+        Link link = networkLink.createAndSetLink();
+        link.setHref(builder.build()
+                .toString());
+        link.setViewRefreshMode(ViewRefreshMode.ON_REGION);
+        link.setRefreshMode(RefreshMode.ON_EXPIRE);
+
+        return networkLink;
+    }
+
+    private Region createRegion(RegionTile tile, double minLodPixels, double maxLodPixels) {
+        return KmlFactory.createRegion()
+                .withLatLonAltBox(KmlFactory.createLatLonAltBox()
+                        .withNorth(tile.getNorth())
+                        .withSouth(tile.getSouth())
+                        .withEast(tile.getEast())
+                        .withWest(tile.getWest()))
+                .withLod(KmlFactory.createLod()
+                        .withMinLodPixels(minLodPixels)
+                        .withMaxLodPixels(maxLodPixels));
+    }
+
+    /*
+     * Creates the URL of an OpenSearch query returning the results of a source as KML.
+     */
+    private UriBuilder generateQueryUrl(UriInfo uriInfo, String sourceId)
+            throws UnknownHostException {
+        UriBuilder builder = UriBuilder.fromUri(uriInfo.getBaseUri());
+        builder = generateEndpointUrl(
+                SystemBaseUrl.getRootContext() + FORWARD_SLASH + CATALOG_URL_PATH + FORWARD_SLASH
+                        + OPENSEARCH_URL_PATH, builder);
+        builder = builder.queryParam(SOURCE_PARAM, sourceId);
+        builder = builder.queryParam(OPENSEARCH_SORT_KEY, OPENSEARCH_DEFAULT_SORT);
+        builder = builder.queryParam(OPENSEARCH_FORMAT_KEY, KML_TRANSFORM_PARAM);
+        return builder;
+    }
+
     /*
      * Generates xml for View-based Network Link
      * 
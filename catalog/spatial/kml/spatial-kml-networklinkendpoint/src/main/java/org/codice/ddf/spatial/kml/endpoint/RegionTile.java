@@ -0,0 +1,123 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ **/
+
+package org.codice.ddf.spatial.kml.endpoint;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A tile of the quadtree used to build KML super-overlays. The tile at level 0 covers the whole
+ * world and every tile is divided into four tiles of the next level. Columns are counted from the
+ * west and rows from the south.
+ */
+final class RegionTile {
+
+    static final int MAX_LEVEL = 30;
+
+    private static final String KEY_SEPARATOR = "/";
+
+    private final int level;
+
+    private final int x;
+
+    private final int y;
+
+    RegionTile(int level, int x, int y) {
+        if (level < 0 || level > MAX_LEVEL) {
+            throw new IllegalArgumentException("Invalid tile level: " + level);
+        }
+        int tiles = 1 << level;
+        if (x < 0 || x >= tiles || y < 0 || y >= tiles) {
+            throw new IllegalArgumentException(
+                    "Invalid tile [" + x + ", " + y + "] for level " + level);
+        }
+        this.level = level;
+        this.x = x;
+        this.y = y;
+    }
+
+    int getLevel() {
+        return level;
+    }
+
+    int getX() {
+        return x;
+    }
+
+    int getY() {
+        return y;
+    }
+
+    double getWidth() {
+        return 360.0 / (1 << level);
+    }
+
+    double getHeight() {
+        return 180.0 / (1 << level);
+    }
+
+    double getWest() {
+        return -180 + x * getWidth();
+    }
+
+    double getEast() {
+        return getWest() + getWidth();
+    }
+
+    double getSouth() {
+        return -90 + y * getHeight();
+    }
+
+    double getNorth() {
+        return getSouth() + getHeight();
+    }
+
+    /**
+     * @return the four tiles of the next level, from south-west to north-east
+     */
+    List<RegionTile> getChildren() {
+        return Arrays.asList(new RegionTile(level + 1, 2 * x, 2 * y),
+                new RegionTile(level + 1, 2 * x + 1, 2 * y),
+                new RegionTile(level + 1, 2 * x, 2 * y + 1),
+                new RegionTile(level + 1, 2 * x + 1, 2 * y + 1));
+    }
+
+    /**
+     * @return the key identifying the tile, in the form {@code level/x/y}
+     */
+    String getKey() {
+        return level + KEY_SEPARATOR + x + KEY_SEPARATOR + y;
+    }
+
+    /**
+     * @return the bounds of the tile in the form of an OpenSearch {@code bbox} parameter
+     */
+    String toBbox() {
+        return getWest() + "," + getSouth() + "," + getEast() + "," + getNorth();
+    }
+
+    String toWkt() {
+        return String.format("POLYGON ((%1$s %2$s, %3$s %2$s, %3$s %4$s, %1$s %4$s, %1$s %2$s))",
+                getWest(),
+                getSouth(),
+                getEast(),
+                getNorth());
+    }
+
+    @Override
+    public String toString() {
+        return getKey();
+    }
+}
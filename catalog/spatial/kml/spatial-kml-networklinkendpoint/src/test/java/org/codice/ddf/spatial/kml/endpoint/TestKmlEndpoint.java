@@ -15,11 +15,16 @@
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.anyOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
@@ -32,7 +37,10 @@
 import java.util.Set;
 
 import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriBuilder;
 import javax.ws.rs.core.UriBuilderException;
 import javax.ws.rs.core.UriInfo;
@@ -45,15 +53,25 @@
 import org.junit.Test;
 
 import ddf.catalog.CatalogFramework;
+import ddf.catalog.federation.FederationException;
+import ddf.catalog.filter.FilterBuilder;
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.operation.QueryResponse;
 import ddf.catalog.operation.SourceInfoRequest;
 import ddf.catalog.operation.SourceInfoResponse;
 import ddf.catalog.source.SourceDescriptor;
 import ddf.catalog.source.SourceUnavailableException;
+import ddf.catalog.source.UnsupportedQueryException;
 import ddf.catalog.source.impl.SourceDescriptorImpl;
+import de.micromata.opengis.kml.v_2_2_0.Document;
 import de.micromata.opengis.kml.v_2_2_0.Folder;
 import de.micromata.opengis.kml.v_2_2_0.Kml;
+import de.micromata.opengis.kml.v_2_2_0.LatLonAltBox;
 import de.micromata.opengis.kml.v_2_2_0.Link;
 import de.micromata.opengis.kml.v_2_2_0.NetworkLink;
+import de.micromata.opengis.kml.v_2_2_0.Placemark;
+import de.micromata.opengis.kml.v_2_2_0.RefreshMode;
+import de.micromata.opengis.kml.v_2_2_0.ViewRefreshMode;
 
 public class TestKmlEndpoint {
 
@@ -264,4 +282,130 @@ public void testExceptionGetCustomIconLocation() {
         kmlEndpoint.setIconLoc(bomberPath);
         kmlEndpoint.getIcon(null, JET_ICON);
     }
+
+    @Test
+    public void testGetAvailableSourcesSuperOverlay() {
+        KmlEndpoint kmlEndpoint = new KmlEndpoint(mockBranding,
+                mockFramework,
+                mock(FilterBuilder.class, RETURNS_DEEP_STUBS));
+        kmlEndpoint.setSuperOverlay(true);
+        Kml response = kmlEndpoint.getAvailableSources(mockUriInfo);
+        Folder folder = (Folder) response.getFeature();
+        assertThat(folder.getFeature()
+                .size(), is(2));
+        NetworkLink nl1 = (NetworkLink) folder.getFeature()
+                .get(0);
+        assertThat(nl1.getName(), anyOf(is(REMOTE_SITE_NAME), is(LOCAL_SITE_NAME)));
+        assertThat(nl1.getRegion(), notNullValue());
+        Link link = nl1.getLink();
+        assertThat(link.getViewRefreshMode(), is(ViewRefreshMode.ON_REGION));
+        assertThat(link.getRefreshMode(), is(RefreshMode.ON_EXPIRE));
+        URI uri = UriBuilder.fromUri(link.getHref())
+                .build();
+        assertThat(uri.getHost(), is(TEST_HOST));
+        assertThat(uri.getPath(),
+                is("/services/catalog/kml/tiles/" + nl1.getName() + "/0/0/0"));
+    }
+
+    @Test
+    public void testGetKmlTileBelowThreshold() throws Exception {
+        KmlEndpoint kmlEndpoint = createSuperOverlayEndpoint(10);
+        Response response = kmlEndpoint.getKmlTile(mockUriInfo,
+                mock(Request.class),
+                LOCAL_SITE_NAME,
+                0,
+                0,
+                0);
+        assertThat(response.getStatus(), is(200));
+        assertThat(response.getEntityTag(), notNullValue());
+        Document document = (Document) ((Kml) response.getEntity()).getFeature();
+        assertThat(document.getFeature(), hasSize(1));
+        NetworkLink networkLink = (NetworkLink) document.getFeature()
+                .get(0);
+        URI uri = UriBuilder.fromUri(networkLink.getLink()
+                .getHref())
+                .build();
+        assertThat(uri.getPath(), is("/services/catalog/query"));
+        assertThat(uri.getQuery(), containsString("src=" + LOCAL_SITE_NAME));
+        assertThat(uri.getQuery(), containsString("bbox=-180.0,-90.0,180.0,90.0"));
+        assertThat(uri.getQuery(), containsString("count=100"));
+    }
+
+    @Test
+    public void testGetKmlTileAboveThreshold() throws Exception {
+        KmlEndpoint kmlEndpoint = createSuperOverlayEndpoint(60);
+        Response response = kmlEndpoint.getKmlTile(mockUriInfo,
+                mock(Request.class),
+                LOCAL_SITE_NAME,
+                1,
+                1,
+                0);
+        assertThat(response.getStatus(), is(200));
+        Document document = (Document) ((Kml) response.getEntity()).getFeature();
+        assertThat(document.getFeature(), hasSize(5));
+
+        Folder clusters = (Folder) document.getFeature()
+                .get(0);
+        assertThat(clusters.getFeature(), hasSize(4));
+        Placemark placemark = (Placemark) clusters.getFeature()
+                .get(0);
+        assertThat(placemark.getName(), is("60"));
+
+        NetworkLink child = (NetworkLink) document.getFeature()
+                .get(1);
+        LatLonAltBox bounds = child.getRegion()
+                .getLatLonAltBox();
+        assertThat(bounds.getWest(), is(0.0));
+        assertThat(bounds.getSouth(), is(-90.0));
+        assertThat(bounds.getEast(), is(90.0));
+        assertThat(bounds.getNorth(), is(-45.0));
+        assertThat(UriBuilder.fromUri(child.getLink()
+                .getHref())
+                .build()
+                .getPath(), is("/services/catalog/kml/tiles/" + LOCAL_SITE_NAME + "/2/2/0"));
+    }
+
+    @Test
+    public void testGetKmlTileNotModified() throws Exception {
+        KmlEndpoint kmlEndpoint = createSuperOverlayEndpoint(60);
+        Request request = mock(Request.class);
+        when(request.evaluatePreconditions(any(EntityTag.class))).thenReturn(
+                Response.notModified());
+        Response response = kmlEndpoint.getKmlTile(mockUriInfo, request, LOCAL_SITE_NAME, 0, 0, 0);
+        assertThat(response.getStatus(), is(304));
+        assertThat(response.hasEntity(), is(false));
+    }
+
+    @Test(expected = WebApplicationException.class)
+    public void testGetKmlTileInvalid() throws Exception {
+        KmlEndpoint kmlEndpoint = createSuperOverlayEndpoint(60);
+        kmlEndpoint.getKmlTile(mockUriInfo, mock(Request.class), LOCAL_SITE_NAME, 1, 2, 0);
+    }
+
+    @Test(expected = WebApplicationException.class)
+    public void testGetKmlTileDisabled() throws Exception {
+        CatalogFramework framework = mock(CatalogFramework.class);
+        KmlEndpoint kmlEndpoint = new KmlEndpoint(mockBranding,
+                framework,
+                mock(FilterBuilder.class, RETURNS_DEEP_STUBS));
+        try {
+            kmlEndpoint.getKmlTile(mockUriInfo, mock(Request.class), LOCAL_SITE_NAME, 0, 0, 0);
+        } finally {
+            verify(framework, never()).query(any(QueryRequest.class));
+        }
+    }
+
+    private KmlEndpoint createSuperOverlayEndpoint(long hitsPerQuarter)
+            throws UnsupportedQueryException, SourceUnavailableException, FederationException {
+        QueryResponse queryResponse = mock(QueryResponse.class);
+        when(queryResponse.getHits()).thenReturn(hitsPerQuarter);
+        CatalogFramework framework = mock(CatalogFramework.class);
+        when(framework.query(any(QueryRequest.class))).thenReturn(queryResponse);
+
+        KmlEndpoint kmlEndpoint = new KmlEndpoint(mockBranding,
+                framework,
+                mock(FilterBuilder.class, RETURNS_DEEP_STUBS));
+        kmlEndpoint.setSuperOverlay(true);
+        return kmlEndpoint;
+    }
 }
@@ -14,8 +14,6 @@
 package org.codice.ddf.spatial.kml.transformer;
 
 import java.io.IOException;
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
@@ -25,6 +23,7 @@
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.WordUtils;
+import org.apache.commons.lang.time.FastDateFormat;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -52,7 +51,8 @@ public class DescriptionTemplateHelper {
                     Metacard.THUMBNAIL,
                     Metacard.CONTENT_TYPE_VERSION));
 
-    private DateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssZ");
+    private static final FastDateFormat DATE_FORMAT =
+            FastDateFormat.getInstance("yyyy-MM-dd'T'HH:mm:ssZ");
 
     private ActionProvider resourceActionProvider;
 
@@ -76,9 +76,9 @@ public String prettyPrint(Attribute attribute, AttributeFormat format) {
             return DatatypeConverter.printBase64Binary((byte[]) attribute.getValue());
         case DATE:
             if (attribute != null && attribute.getValue() != null) {
-                return dateFormat.format((Date) attribute.getValue());
+                return DATE_FORMAT.format((Date) attribute.getValue());
             } else {
-                return dateFormat.format(new Date());
+                return DATE_FORMAT.format(new Date());
             }
             // There is no way to prettyPrint these
         case GEOMETRY:
@@ -14,23 +14,30 @@
 package org.codice.ddf.spatial.kml.transformer;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Serializable;
-import java.io.StringWriter;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
-import java.nio.charset.StandardCharsets;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.TimeZone;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import javax.activation.MimeType;
 import javax.activation.MimeTypeParseException;
@@ -41,8 +48,10 @@
 import javax.xml.bind.Marshaller;
 import javax.xml.bind.Unmarshaller;
 import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
 
 import org.apache.commons.lang3.StringUtils;
 import org.osgi.framework.BundleContext;
@@ -67,6 +76,7 @@
 import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.operation.SourceResponse;
 import ddf.catalog.transform.CatalogTransformerException;
+import ddf.catalog.transform.StreamingQueryResponseTransformer;
 import de.micromata.opengis.kml.v_2_2_0.Coordinate;
 import de.micromata.opengis.kml.v_2_2_0.Document;
 import de.micromata.opengis.kml.v_2_2_0.Geometry;
@@ -82,11 +92,17 @@
  * {@link SourceResponse} and produce a KML representation. This service attempts to first locate a
  * {@link KMLEntryTransformer} for a given {@link Metacard} based on the metadata-content-type. If
  * no {@link KMLEntryTransformer} can be found, the default transformation is performed.
+ * <p>
+ * Placemarks for a {@link SourceResponse} are created and marshalled in parallel, in chunks of
+ * {@value #PLACEMARK_CHUNK_SIZE} results, and written to the output as KML fragments. Only callers
+ * that use the {@link StreamingQueryResponseTransformer} method, such as the CSW endpoint, get the
+ * KML streamed to their output. Callers that go through the catalog framework, such as the
+ * OpenSearch endpoint, get a {@link BinaryContent} that holds the whole document in memory.
  *
  * @author Ashraf Barakat, Ian Barnett, Keith C Wire
  *
  */
-public class KMLTransformerImpl implements KMLTransformer {
+public class KMLTransformerImpl implements KMLTransformer, StreamingQueryResponseTransformer {
 
     private static final String UTF_8 = "UTF-8";
 
@@ -102,6 +118,20 @@ public class KMLTransformerImpl implements KMLTransformer {
 
     private static final String DESCRIPTION_TEMPLATE = "description";
 
+    private static final String KML_NAMESPACE = "http://www.opengis.net/kml/2.2";
+
+    /**
+     * Namespaces, other than the default KML namespace, that are declared once on the kml element
+     * instead of on every placemark
+     */
+    private static final Map<String, String> NAMESPACES;
+
+    static final int PLACEMARK_CHUNK_SIZE = 100;
+
+    private static final int BUFFER_SIZE = 1024;
+
+    private static final XMLOutputFactory XML_OUTPUT_FACTORY = XMLOutputFactory.newFactory();
+
     private static final Logger LOGGER = LoggerFactory.getLogger(KMLTransformerImpl.class);
 
     protected static final MimeType KML_MIMETYPE = new MimeType();
@@ -109,6 +139,12 @@ public class KMLTransformerImpl implements KMLTransformer {
     private static List<StyleSelector> defaultStyle = new ArrayList<StyleSelector>();
 
     static {
+        Map<String, String> namespaces = new LinkedHashMap<>();
+        namespaces.put("gx", "http://www.google.com/kml/ext/2.2");
+        namespaces.put("atom", "http://www.w3.org/2005/Atom");
+        namespaces.put("xal", "urn:oasis:names:tc:ciq:xsdschema:xAL:2.0");
+        NAMESPACES = Collections.unmodifiableMap(namespaces);
+
         try {
             KML_MIMETYPE.setPrimaryType("application");
             KML_MIMETYPE.setSubType("vnd.google-earth.kml+xml");
@@ -121,12 +157,40 @@ public class KMLTransformerImpl implements KMLTransformer {
 
     private JAXBContext jaxbContext;
 
-    private ClassPathTemplateLoader templateLoader;
+    private final Queue<Marshaller> marshallers = new ConcurrentLinkedQueue<>();
+
+    private Template descriptionTemplate;
 
     private KmlStyleMap styleMapper;
 
     private DescriptionTemplateHelper templateHelper;
 
+    /**
+     * The placemarks of a chunk of results, marshalled as KML fragments.
+     */
+    private static class PlacemarkChunk {
+
+        private final ContentOutputStream content = new ContentOutputStream();
+
+        private int count;
+
+        private boolean needDefaultStyle;
+    }
+
+    /**
+     * {@link ByteArrayOutputStream} that hands out its buffer without copying it.
+     */
+    private static class ContentOutputStream extends ByteArrayOutputStream {
+
+        ContentOutputStream() {
+            super(BUFFER_SIZE);
+        }
+
+        InputStream toInputStream() {
+            return new ByteArrayInputStream(buf, 0, count);
+        }
+    }
+
     public KMLTransformerImpl(BundleContext bundleContext, String defaultStylingName,
             KmlStyleMap mapper, ActionProvider actionProvider) {
         this.context = bundleContext;
@@ -170,9 +234,20 @@ public KMLTransformerImpl(BundleContext bundleContext, String defaultStylingName
             LOGGER.debug("Exception while opening default style resource.", e);
         }
 
-        templateLoader = new ClassPathTemplateLoader();
+        ClassPathTemplateLoader templateLoader = new ClassPathTemplateLoader();
         templateLoader.setPrefix(TEMPLATE_DIRECTORY);
         templateLoader.setSuffix(TEMPLATE_SUFFIX);
+
+        // The template is packaged with this bundle, so it can only change when the bundle is
+        // updated, which creates a new transformer
+        Handlebars handlebars = new Handlebars(templateLoader);
+        handlebars.registerHelpers(templateHelper);
+        try {
+            descriptionTemplate = handlebars.compile(DESCRIPTION_TEMPLATE);
+        } catch (IOException e) {
+            LOGGER.info("Failed to compile description template. Titles will be used instead.",
+                    e);
+        }
     }
 
     /**
@@ -307,15 +382,14 @@ protected Placemark performDefaultTransformation(Metacard entry, String url)
         kmlPlacemark.setGeometry(getKmlGeoFromWkt(entry.getLocation()));
 
         String description = entry.getTitle();
-        Handlebars handlebars = new Handlebars(templateLoader);
-        handlebars.registerHelpers(templateHelper);
-        try {
-            Template template = handlebars.compile(DESCRIPTION_TEMPLATE);
-            description = template.apply(new HandlebarsMetacard(entry));
-            LOGGER.debug(description);
+        if (descriptionTemplate != null) {
+            try {
+                description = descriptionTemplate.apply(new HandlebarsMetacard(entry));
+                LOGGER.debug(description);
 
-        } catch (IOException e) {
-            LOGGER.debug("Failed to apply description Template", e);
+            } catch (IOException e) {
+                LOGGER.debug("Failed to apply description Template", e);
+            }
         }
         kmlPlacemark.setDescription(description);
 
@@ -423,12 +497,10 @@ public BinaryContent transform(Metacard metacard, Map<String, Serializable> argu
             Kml kml = KmlFactory.createKml()
                     .withFeature(placemark);
 
-            String transformedKmlString = marshalKml(kml);
+            ContentOutputStream kmlOutputStream = new ContentOutputStream();
+            marshalKml(kml, kmlOutputStream);
 
-            InputStream kmlInputStream = new ByteArrayInputStream(transformedKmlString.getBytes(
-                    StandardCharsets.UTF_8));
-
-            return new BinaryContentImpl(kmlInputStream, KML_MIMETYPE);
+            return new BinaryContentImpl(kmlOutputStream.toInputStream(), KML_MIMETYPE);
         } catch (Exception e) {
             LOGGER.debug("Error transforming metacard ({}) to KML: {}",
                     metacard.getId(),
@@ -437,9 +509,25 @@ public BinaryContent transform(Metacard metacard, Map<String, Serializable> argu
         }
     }
 
+    /**
+     * Writes the KML into a single in-memory buffer, which the returned content reads from without
+     * copying it.
+     */
     @Override
     public BinaryContent transform(SourceResponse upstreamResponse,
             Map<String, Serializable> arguments) throws CatalogTransformerException {
+        ContentOutputStream kmlOutputStream = new ContentOutputStream();
+        try {
+            transform(upstreamResponse, arguments, kmlOutputStream);
+        } catch (IOException e) {
+            throw new CatalogTransformerException("Unable to write KML.", e);
+        }
+        return new BinaryContentImpl(kmlOutputStream.toInputStream(), KML_MIMETYPE);
+    }
+
+    @Override
+    public void transform(SourceResponse upstreamResponse, Map<String, Serializable> arguments,
+            OutputStream outputStream) throws CatalogTransformerException, IOException {
         LOGGER.trace("ENTERING: ResponseQueue transform");
         if (arguments == null) {
             LOGGER.debug("Null arguments, unable to complete transform");
@@ -452,60 +540,185 @@ public BinaryContent transform(SourceResponse upstreamResponse,
         LOGGER.debug("rest string url arg: {}", restUriAbsolutePath);
 
         // Transform Metacards to KML
-        Document kmlDoc = KmlFactory.createDocument();
+        List<Result> results = upstreamResponse.getResults() == null ?
+                Collections.emptyList() :
+                new ArrayList<>(upstreamResponse.getResults());
+        List<PlacemarkChunk> chunks = transformPlacemarks(results, arguments);
+
+        int placemarkCount = 0;
         boolean needDefaultStyle = false;
-        for (Result result : upstreamResponse.getResults()) {
-            try {
-                Placemark placemark = transformEntry(null, result.getMetacard(), arguments);
+        for (PlacemarkChunk chunk : chunks) {
+            placemarkCount += chunk.count;
+            needDefaultStyle |= chunk.needDefaultStyle;
+        }
+
+        Marshaller marshaller = null;
+        try {
+            XMLStreamWriter writer = createKmlWriter(outputStream);
+            writer.writeStartDocument(UTF_8, "1.0");
+            writer.writeStartElement(KML_NAMESPACE, "kml");
+            writer.writeDefaultNamespace(KML_NAMESPACE);
+            for (Map.Entry<String, String> namespace : NAMESPACES.entrySet()) {
+                writer.writeNamespace(namespace.getKey(), namespace.getValue());
+            }
+
+            writer.writeStartElement(KML_NAMESPACE, "Document");
+            writer.writeAttribute("id", docId);
+            writeElement(writer,
+                    "name",
+                    KML_RESPONSE_QUEUE_PREFIX + placemarkCount + CLOSE_PARENTHESIS);
+            writeElement(writer, "open", "0");
+
+            if (needDefaultStyle) {
+                marshaller = acquireMarshaller(true);
+                for (StyleSelector styleSelector : defaultStyle) {
+                    marshaller.marshal(styleSelector, writer);
+                }
+            }
+
+            // The placemarks were already marshalled, so they are copied straight to the output
+            writer.flush();
+            for (PlacemarkChunk chunk : chunks) {
+                chunk.content.writeTo(outputStream);
+            }
+
+            writer.writeEndElement();
+            writer.writeEndElement();
+            writer.writeEndDocument();
+            writer.flush();
+        } catch (JAXBException | XMLStreamException e) {
+            throw new CatalogTransformerException("Failed to marshal KML.", e);
+        } finally {
+            releaseMarshaller(marshaller);
+        }
+        outputStream.flush();
+        LOGGER.trace("EXITING: ResponseQueue transform");
+    }
+
+    /**
+     * Creates and marshals the placemarks for a list of results. Lists larger than
+     * {@value #PLACEMARK_CHUNK_SIZE} results are split into chunks that are processed in parallel.
+     *
+     * @return the marshalled chunks, in result order
+     */
+    private List<PlacemarkChunk> transformPlacemarks(List<Result> results,
+            Map<String, Serializable> arguments) throws CatalogTransformerException {
+        if (results.size() <= PLACEMARK_CHUNK_SIZE) {
+            return Collections.singletonList(transformPlacemarkChunk(results, arguments));
+        }
+
+        List<ForkJoinTask<PlacemarkChunk>> tasks = new ArrayList<>();
+        for (int start = 0; start < results.size(); start += PLACEMARK_CHUNK_SIZE) {
+            List<Result> chunk = results.subList(start,
+                    Math.min(start + PLACEMARK_CHUNK_SIZE, results.size()));
+            tasks.add(ForkJoinPool.commonPool()
+                    .submit(() -> transformPlacemarkChunk(chunk, arguments)));
+        }
+
+        List<PlacemarkChunk> chunks = new ArrayList<>(tasks.size());
+        try {
+            for (ForkJoinTask<PlacemarkChunk> task : tasks) {
+                chunks.add(task.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                    .interrupt();
+            throw new CatalogTransformerException("Interrupted while creating placemarks.", e);
+        } catch (ExecutionException e) {
+            throw new CatalogTransformerException("Failed to create placemarks.", e.getCause());
+        } finally {
+            tasks.forEach(task -> task.cancel(false));
+        }
+        return chunks;
+    }
+
+    private PlacemarkChunk transformPlacemarkChunk(List<Result> results,
+            Map<String, Serializable> arguments) throws CatalogTransformerException {
+        PlacemarkChunk chunk = new PlacemarkChunk();
+        Marshaller marshaller = null;
+        try {
+            marshaller = acquireMarshaller(true);
+            XMLStreamWriter writer = createKmlWriter(chunk.content);
+            for (Result result : results) {
+                Placemark placemark;
+                try {
+                    placemark = transformEntry(null, result.getMetacard(), arguments);
+                } catch (CatalogTransformerException e) {
+                    LOGGER.debug(
+                            "Error transforming current metacard ({}) to KML and will continue with remaining query responses.",
+                            result.getMetacard()
+                                    .getId(), e);
+                    continue;
+                }
                 if (placemark.getStyleSelector()
                         .isEmpty() && StringUtils.isEmpty(placemark.getStyleUrl())) {
                     placemark.setStyleUrl("#default");
-                    needDefaultStyle = true;
+                    chunk.needDefaultStyle = true;
                 }
-                kmlDoc.getFeature()
-                        .add(placemark);
-            } catch (CatalogTransformerException e) {
-                LOGGER.debug(
-                        "Error transforming current metacard ({}) to KML and will continue with remaining query responses.",
-                        result.getMetacard()
-                                .getId(), e);
+                marshaller.marshal(placemark, writer);
+                chunk.count++;
             }
+            writer.flush();
+        } catch (JAXBException | XMLStreamException e) {
+            throw new CatalogTransformerException("Failed to marshal placemarks.", e);
+        } finally {
+            releaseMarshaller(marshaller);
         }
+        return chunk;
+    }
 
-        if (needDefaultStyle) {
-            kmlDoc.getStyleSelector()
-                    .addAll(defaultStyle);
+    /**
+     * Creates a writer with the KML namespaces bound, so that fragments marshalled to it don't
+     * declare them again.
+     */
+    private XMLStreamWriter createKmlWriter(OutputStream outputStream)
+            throws XMLStreamException {
+        XMLStreamWriter writer = XML_OUTPUT_FACTORY.createXMLStreamWriter(outputStream, UTF_8);
+        writer.setDefaultNamespace(KML_NAMESPACE);
+        for (Map.Entry<String, String> namespace : NAMESPACES.entrySet()) {
+            writer.setPrefix(namespace.getKey(), namespace.getValue());
         }
+        return writer;
+    }
 
-        Kml kmlResult = encloseKml(kmlDoc,
-                docId,
-                KML_RESPONSE_QUEUE_PREFIX + kmlDoc.getFeature()
-                        .size() + CLOSE_PARENTHESIS);
-
-        String transformedKml = marshalKml(kmlResult);
-        
-        InputStream kmlInputStream = new ByteArrayInputStream(transformedKml.getBytes(
-                StandardCharsets.UTF_8));
-        LOGGER.trace("EXITING: ResponseQueue transform");
-        return new BinaryContentImpl(kmlInputStream, KML_MIMETYPE);
+    private void writeElement(XMLStreamWriter writer, String name, String value)
+            throws XMLStreamException {
+        writer.writeStartElement(KML_NAMESPACE, name);
+        writer.writeCharacters(value);
+        writer.writeEndElement();
     }
 
-    private String marshalKml(Kml kmlResult) {
+    private void marshalKml(Kml kmlResult, OutputStream outputStream) throws JAXBException {
+        Marshaller marshaller = acquireMarshaller(false);
+        try {
+            marshaller.marshal(kmlResult, outputStream);
+        } finally {
+            releaseMarshaller(marshaller);
+        }
+    }
 
-        String kmlResultString = null;
-        StringWriter writer = new StringWriter();
+    /**
+     * Takes a marshaller from the pool, creating one if the pool is empty. Marshallers aren't
+     * thread-safe, so a marshaller must only be used by one thread until it is released.
+     */
+    private Marshaller acquireMarshaller(boolean fragment) throws JAXBException {
+        if (jaxbContext == null) {
+            throw new JAXBException("Unable to marshal KML without a JAXB Context.");
+        }
 
-        try {
-            Marshaller marshaller = jaxbContext.createMarshaller();
+        Marshaller marshaller = marshallers.poll();
+        if (marshaller == null) {
+            marshaller = jaxbContext.createMarshaller();
             marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.FALSE);
             marshaller.setProperty(Marshaller.JAXB_ENCODING, UTF_8);
-            marshaller.marshal(kmlResult, writer);
-        } catch (JAXBException e) {
-            LOGGER.debug("Failed to marshal KML: ", e);
         }
+        marshaller.setProperty(Marshaller.JAXB_FRAGMENT, fragment);
+        return marshaller;
+    }
 
-        kmlResultString = writer.toString();
-
-        return kmlResultString;
+    private void releaseMarshaller(Marshaller marshaller) {
+        if (marshaller != null) {
+            marshallers.offer(marshaller);
+        }
     }
 }
@@ -13,8 +13,8 @@
  **/
 package org.codice.ddf.spatial.kml.transformer;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,7 +32,7 @@ public class KmlStyleMap {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(KmlStyleMap.class);
 
-    private List<KmlStyleMapEntry> styleMap = new ArrayList<KmlStyleMapEntry>();
+    private List<KmlStyleMapEntry> styleMap = new CopyOnWriteArrayList<>();
 
     public KmlStyleMap() {
     }
@@ -13,8 +13,10 @@
  **/
 package org.codice.ddf.spatial.kml.transformer;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.any;
@@ -22,9 +24,14 @@
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
+import java.io.Serializable;
 import java.net.URL;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.TimeZone;
 
 import org.apache.commons.io.IOUtils;
@@ -37,8 +44,13 @@
 import ddf.action.ActionProvider;
 import ddf.catalog.data.BinaryContent;
 import ddf.catalog.data.Metacard;
+import ddf.catalog.data.Result;
 import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.ResultImpl;
+import ddf.catalog.operation.impl.SourceResponseImpl;
 import ddf.catalog.transform.CatalogTransformerException;
+import de.micromata.opengis.kml.v_2_2_0.Document;
+import de.micromata.opengis.kml.v_2_2_0.Kml;
 import de.micromata.opengis.kml.v_2_2_0.LineString;
 import de.micromata.opengis.kml.v_2_2_0.MultiGeometry;
 import de.micromata.opengis.kml.v_2_2_0.Placemark;
@@ -291,6 +303,76 @@ public void testTransformMetacardGetsDefaultStyle()
         IOUtils.toString(content.getInputStream());
     }
 
+    @Test
+    public void testTransformSourceResponse() throws CatalogTransformerException, IOException {
+        List<Result> results = new ArrayList<>();
+        MetacardImpl point = createMockMetacard();
+        point.setLocation(POINT_WKT);
+        results.add(new ResultImpl(point));
+        // Metacards that can't be transformed are left out
+        results.add(new ResultImpl(createMockMetacard()));
+        MetacardImpl polygon = createMockMetacard();
+        polygon.setLocation(POLYGON_WKT);
+        results.add(new ResultImpl(polygon));
+
+        BinaryContent content = kmlTransformer.transform(new SourceResponseImpl(null, results),
+                getArguments());
+
+        assertThat(content.getMimeTypeValue(), is(KMLTransformerImpl.KML_MIMETYPE.toString()));
+        String kmlString = IOUtils.toString(content.getInputStream());
+        Document document = (Document) Kml.unmarshal(kmlString)
+                .getFeature();
+        assertThat(document.getName(), is("Results (2)"));
+        assertThat(document.getStyleSelector()
+                .isEmpty(), is(false));
+        assertThat(document.getFeature()
+                .size(), is(2));
+        assertThat(((Placemark) document.getFeature()
+                .get(0)).getStyleUrl(), is("#default"));
+        assertThat(((Placemark) document.getFeature()
+                .get(1)).getGeometry(), instanceOf(MultiGeometry.class));
+        // Namespaces are only declared on the kml element
+        assertThat(kmlString, not(containsString("<Placemark xmlns")));
+    }
+
+    @Test
+    public void testTransformSourceResponseInChunks()
+            throws CatalogTransformerException, IOException {
+        int resultCount = KMLTransformerImpl.PLACEMARK_CHUNK_SIZE * 2 + 1;
+        List<Result> results = new ArrayList<>();
+        for (int i = 0; i < resultCount; i++) {
+            MetacardImpl metacard = createMockMetacard();
+            metacard.setId(String.valueOf(i));
+            metacard.setLocation(POINT_WKT);
+            results.add(new ResultImpl(metacard));
+        }
+
+        BinaryContent content = kmlTransformer.transform(new SourceResponseImpl(null, results),
+                getArguments());
+
+        Document document = (Document) Kml.unmarshal(IOUtils.toString(content.getInputStream()))
+                .getFeature();
+        assertThat(document.getName(), is("Results (" + resultCount + ")"));
+        assertThat(document.getFeature()
+                .size(), is(resultCount));
+        for (int i = 0; i < resultCount; i++) {
+            assertThat(document.getFeature()
+                    .get(i)
+                    .getId(), is("Placemark-" + i));
+        }
+    }
+
+    @Test(expected = CatalogTransformerException.class)
+    public void testTransformSourceResponseNullArguments() throws CatalogTransformerException {
+        kmlTransformer.transform(new SourceResponseImpl(null, new ArrayList<>()), null);
+    }
+
+    private Map<String, Serializable> getArguments() {
+        Map<String, Serializable> arguments = new HashMap<>();
+        arguments.put("url", "http://example.com/services/catalog/query");
+        return arguments;
+    }
+
     private MetacardImpl createMockMetacard() {
         MetacardImpl metacard = new MetacardImpl();
         metacard.setContentTypeName("myContentType");
@@ -41,6 +41,7 @@
 import ddf.catalog.data.AttributeType.AttributeFormat;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.MetacardType;
+import ddf.catalog.data.impl.CompactMetacardImpl;
 import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.transform.CatalogTransformerException;
 import ddf.catalog.transform.InputTransformer;
@@ -108,7 +109,7 @@ public Metacard transform(InputStream input, String id)
         if (isEmpty(propertyTypeName) || metacardTypes == null) {
             LOGGER.debug(
                     "MetacardType specified in input is null or empty.  Assuming default MetacardType");
-            metacard = new MetacardImpl();
+            metacard = new CompactMetacardImpl();
         } else {
             MetacardType metacardType = metacardTypes.stream()
                     .filter(type -> type.getName()
@@ -119,7 +120,7 @@ public Metacard transform(InputStream input, String id)
                                     + propertyTypeName));
 
             LOGGER.debug("Found registered MetacardType: {}", propertyTypeName);
-            metacard = new MetacardImpl(metacardType);
+            metacard = new CompactMetacardImpl(metacardType);
         }
 
         MetacardType metacardType = metacard.getMetacardType();
@@ -40,7 +40,7 @@
 import ddf.catalog.data.MetacardType;
 import ddf.catalog.data.impl.AttributeImpl;
 import ddf.catalog.data.impl.BasicTypes;
-import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.CompactMetacardImpl;
 import ddf.catalog.data.types.Validation;
 import ddf.catalog.transform.CatalogTransformerException;
 
@@ -92,9 +92,9 @@ public SaxEventHandlerDelegate(List<SaxEventHandler> eventHandlers) {
     public Metacard read(InputStream inputStream) throws CatalogTransformerException {
 
         /*
-         * Create a new MetacardImpl with the proper MetacardType
+         * Create a new CompactMetacardImpl with the proper MetacardType
          */
-        Metacard metacard = new MetacardImpl(metacardType);
+        Metacard metacard = new CompactMetacardImpl(metacardType);
 
         try {
             InputSource newStream = new InputSource(new BufferedInputStream(inputStream));
@@ -13,17 +13,24 @@
  **/
 package ddf.catalog.transformer.xml;
 
+import java.io.BufferedWriter;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Serializable;
-import java.io.StringWriter;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ForkJoinPool;
-import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.activation.MimeType;
@@ -43,7 +50,7 @@
 import ddf.catalog.data.impl.BinaryContentImpl;
 import ddf.catalog.operation.SourceResponse;
 import ddf.catalog.transform.CatalogTransformerException;
-import ddf.catalog.transform.QueryResponseTransformer;
+import ddf.catalog.transform.StreamingQueryResponseTransformer;
 import ddf.catalog.transformer.api.MetacardMarshaller;
 import ddf.catalog.transformer.api.PrintWriter;
 import ddf.catalog.transformer.api.PrintWriterProvider;
@@ -51,114 +58,82 @@
 /**
  * Transforms a {@link SourceResponse} object into Metacard Element XML text, which is GML 3.1.1.
  * compliant XML.
+ * <p>
+ * Results are marshalled in parallel in chunks of {@code threshold} metacards. Chunks are written
+ * in result order as soon as they complete, and at most {@code maxPendingChunks} chunks are
+ * marshalled or waiting to be written at any time, which caps the memory used by a transformation
+ * regardless of the number of results.
  */
 public class XmlResponseQueueTransformer extends AbstractXmlTransformer
-        implements QueryResponseTransformer {
+        implements StreamingQueryResponseTransformer {
 
     public static final int BUFFER_SIZE = 1024;
 
-    private static class MetacardForkTask extends RecursiveTask<StringWriter> {
-        private static final long serialVersionUID = 1L;
-
-        private final transient ImmutableList<Result> resultList;
+    public static final int DEFAULT_MAX_PENDING_CHUNKS = 16;
 
-        private final transient ForkJoinPool fjp;
+    private static final String METACARDS_END_TAG = "</metacards>";
 
-        private final transient GeometryTransformer geometryTransformer;
+    private static class MetacardChunkTask implements Callable<String> {
 
-        private final int threshold;
+        private final List<Result> resultList;
 
         private final AtomicBoolean cancelOperation;
 
-        private final transient MetacardMarshaller metacardMarshaller;
-
-        MetacardForkTask(ImmutableList<Result> resultList, ForkJoinPool fjp,
-                GeometryTransformer geometryTransformer, int threshold, MetacardMarshaller mcm) {
-            this(resultList, fjp, geometryTransformer, threshold, new AtomicBoolean(false), mcm);
-        }
+        private final MetacardMarshaller metacardMarshaller;
 
-        private MetacardForkTask(ImmutableList<Result> resultList, ForkJoinPool fjp,
-                GeometryTransformer geometryTransformer, int threshold,
-                AtomicBoolean cancelOperation, MetacardMarshaller mcm) {
+        MetacardChunkTask(List<Result> resultList, AtomicBoolean cancelOperation,
+                MetacardMarshaller mcm) {
             this.resultList = resultList;
-            this.fjp = fjp;
-            this.geometryTransformer = geometryTransformer;
-            this.threshold = threshold;
             this.cancelOperation = cancelOperation;
             this.metacardMarshaller = mcm;
         }
 
         @Override
-        protected StringWriter compute() {
+        public String call() {
             if (cancelOperation.get()) {
-                return null;
-            }
-
-            if (resultList.size() < threshold) {
-                return doCompute();
-            } else {
-                int half = resultList.size() / 2;
-
-                MetacardForkTask fLeft = new MetacardForkTask(resultList.subList(0, half),
-                        fjp,
-                        geometryTransformer,
-                        threshold,
-                        cancelOperation,
-                        metacardMarshaller);
-                fLeft.fork();
-                MetacardForkTask fRight = new MetacardForkTask(resultList.subList(half,
-                        resultList.size()),
-                        fjp,
-                        geometryTransformer,
-                        threshold,
-                        cancelOperation,
-                        metacardMarshaller);
-                StringWriter rightList = fRight.compute();
-                StringWriter leftList = fLeft.join();
-
-                leftList.append(rightList.getBuffer());
-                return leftList;
+                return "";
             }
-        } // end compute()
 
-        private StringWriter doCompute() {
-            StringWriter sw = new StringWriter(BUFFER_SIZE);
+            StringBuilder sb = new StringBuilder(BUFFER_SIZE);
             Map<String, Serializable> args = new HashMap<>();
             args.put(MetacardMarshallerImpl.OMIT_XML_DECL, Boolean.TRUE);
             try {
                 for (Result result : resultList) {
                     Metacard metacard = result.getMetacard();
-                    String xmlString = metacardMarshaller.marshal(metacard, args);
-                    sw.append(xmlString);
+                    sb.append(metacardMarshaller.marshal(metacard, args));
                 }
             } catch (XmlPullParserException | IOException | CatalogTransformerException e) {
                 cancelOperation.set(true);
                 throw new RuntimeException("Failure to write node; operation aborted", e);
             }
-            return sw;
+            return sb.toString();
         }
+    } // end MetacardChunkTask class
 
-        private void writeObject(ObjectOutputStream stream) throws IOException {
-            stream.defaultWriteObject();
-        }
+    /**
+     * {@link ByteArrayOutputStream} that hands out its buffer without copying it.
+     */
+    private static class ContentOutputStream extends ByteArrayOutputStream {
 
-        private void readObject(ObjectInputStream stream)
-                throws IOException, ClassNotFoundException {
-            stream.defaultReadObject();
+        ContentOutputStream() {
+            super(BUFFER_SIZE);
         }
 
-    } // end MetacardForkTask class
+        InputStream toInputStream() {
+            return new ByteArrayInputStream(buf, 0, count);
+        }
+    }
 
     private final ForkJoinPool fjp;
 
-    private final GeometryTransformer geometryTransformer;
-
     private final PrintWriterProvider printWriterProvider;
 
     private final MetacardMarshaller metacardMarshaller;
 
     private int threshold;
 
+    private int maxPendingChunks = DEFAULT_MAX_PENDING_CHUNKS;
+
     private static final Logger LOGGER = LoggerFactory.getLogger(XmlResponseQueueTransformer.class);
 
     private final MimeType mimeType;
@@ -181,11 +156,9 @@ private void readObject(ObjectInputStream stream)
 
     /**
      * Constructs a transformer that will convert query responses to XML.
-     * The {@code ForkJoinPool} is used for splitting large collections of {@link Metacard}s
-     * into smaller collections for concurrent processing. Currently injected through Blueprint,
-     * if we choose to use fork-join for other tasks in the application, we should move the
-     * construction of the pool from its current location. Conversely, if we move to Java 8 we
-     * can simply use the new {@code commonPool} static method provided on {@code ForkJoinPool}.
+     * The {@code ForkJoinPool} is used for marshalling chunks of {@link Metacard}s concurrently.
+     * Currently injected through Blueprint, if we choose to use fork-join for other tasks in the
+     * application, we should move the construction of the pool from its current location.
      *
      * @param fjp the {@code ForkJoinPool} to inject
      */
@@ -193,7 +166,6 @@ public XmlResponseQueueTransformer(Parser parser, ForkJoinPool fjp, PrintWriterP
             MetacardMarshaller mcm, MimeType mimeType) {
         super(parser);
         this.fjp = fjp;
-        geometryTransformer = new GeometryTransformer(parser);
         this.printWriterProvider = pwp;
         this.metacardMarshaller = mcm;
         this.mimeType = mimeType;
@@ -215,40 +187,93 @@ public void setThreshold(int threshold) {
         this.threshold = threshold <= 1 ? 2 : threshold;
     }
 
+    /**
+     * @param maxPendingChunks the maximum number of threshold-sized chunks that are marshalled or
+     *                         waiting to be written at the same time
+     */
+    public void setMaxPendingChunks(int maxPendingChunks) {
+        this.maxPendingChunks = maxPendingChunks < 1 ? 1 : maxPendingChunks;
+    }
+
     @Override
     public BinaryContent transform(SourceResponse response, Map<String, Serializable> args)
             throws CatalogTransformerException {
         try {
-            PrintWriter writer = printWriterProvider.build(Metacard.class);
-            writer.setRawValue("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n");
+            ContentOutputStream outputStream = new ContentOutputStream();
+            transform(response, args, outputStream);
 
-            writer.startNode("metacards");
-            for (Map.Entry<String, String> nsRow : NAMESPACE_MAP.entrySet()) {
-                writer.addAttribute(nsRow.getKey(), nsRow.getValue());
-            }
+            return new BinaryContentImpl(outputStream.toInputStream(), mimeType);
+        } catch (Exception e) {
+            LOGGER.info("Failed Query response transformation", e);
+            throw new CatalogTransformerException("Failed Query response transformation");
+        }
+    }
 
-            if (response.getResults() != null && !response.getResults()
-                    .isEmpty()) {
-                StringWriter metacardContent = fjp.invoke(new MetacardForkTask(ImmutableList.copyOf(
-                        response.getResults()),
-                        fjp,
-                        geometryTransformer,
-                        threshold,
-                        metacardMarshaller));
-
-                writer.setRawValue(metacardContent.getBuffer()
-                        .toString());
-            }
+    @Override
+    public void transform(SourceResponse response, Map<String, Serializable> args,
+            OutputStream outputStream) throws CatalogTransformerException, IOException {
+        if (response == null) {
+            throw new CatalogTransformerException("Cannot transform null SourceResponse");
+        }
 
-            writer.endNode(); // metacards
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream,
+                StandardCharsets.UTF_8));
 
-            ByteArrayInputStream bais = new ByteArrayInputStream(writer.makeString()
-                    .getBytes(StandardCharsets.UTF_8));
+        PrintWriter printWriter = printWriterProvider.build(Metacard.class);
+        printWriter.setRawValue(
+                "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n");
 
-            return new BinaryContentImpl(bais, mimeType);
-        } catch (Exception e) {
-            LOGGER.info("Failed Query response transformation", e);
-            throw new CatalogTransformerException("Failed Query response transformation");
+        printWriter.startNode("metacards");
+        for (Map.Entry<String, String> nsRow : NAMESPACE_MAP.entrySet()) {
+            printWriter.addAttribute(nsRow.getKey(), nsRow.getValue());
+        }
+        // closes the start tag so the metacards can be written after it
+        printWriter.setRawValue("");
+        printWriter.flush();
+        writer.write(printWriter.makeString());
+
+        if (response.getResults() != null && !response.getResults()
+                .isEmpty()) {
+            writeMetacards(ImmutableList.copyOf(response.getResults()), writer);
+        }
+
+        writer.write(METACARDS_END_TAG);
+        writer.flush();
+    }
+
+    private void writeMetacards(List<Result> results, Writer writer)
+            throws CatalogTransformerException, IOException {
+        int chunkSize = threshold <= 1 ? 2 : threshold;
+        AtomicBoolean cancelOperation = new AtomicBoolean(false);
+        Deque<ForkJoinTask<String>> pendingChunks = new ArrayDeque<>(maxPendingChunks);
+        int nextChunkStart = 0;
+
+        try {
+            while (nextChunkStart < results.size() || !pendingChunks.isEmpty()) {
+                while (nextChunkStart < results.size()
+                        && pendingChunks.size() < maxPendingChunks) {
+                    int chunkEnd = Math.min(nextChunkStart + chunkSize, results.size());
+                    pendingChunks.add(fjp.submit(new MetacardChunkTask(results.subList(
+                            nextChunkStart,
+                            chunkEnd), cancelOperation, metacardMarshaller)));
+                    nextChunkStart = chunkEnd;
+                }
+
+                String chunk;
+                try {
+                    chunk = pendingChunks.remove()
+                            .join();
+                } catch (RuntimeException e) {
+                    throw new CatalogTransformerException("Failed to marshal metacards", e);
+                }
+                writer.write(chunk);
+                writer.flush();
+            }
+        } finally {
+            if (!pendingChunks.isEmpty()) {
+                cancelOperation.set(true);
+                pendingChunks.forEach(chunk -> chunk.cancel(false));
+            }
         }
     }
 }
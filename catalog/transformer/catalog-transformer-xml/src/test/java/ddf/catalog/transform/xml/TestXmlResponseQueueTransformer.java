@@ -26,12 +26,14 @@
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -410,6 +412,53 @@ public void testCompareSerialToFork()
         assertEquals(serialOutput.replaceAll("\\s", ""), forkOutput.replaceAll("\\s", ""));
     }
 
+    @Test
+    public void testStreamingMatchesBufferedOutput()
+            throws IOException, CatalogTransformerException, XpathException, SAXException {
+        List<Metacard> metacards = new ArrayList<>();
+        for (int i = 1; i <= 25; i++) {
+            metacards.add(new MetacardStub("source" + i, "id" + i));
+        }
+        SourceResponse response = givenSourceResponse(metacards.toArray(new Metacard[0]));
+
+        transformer.setThreshold(2);
+        transformer.setMaxPendingChunks(1);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        transformer.transform(response, null, outputStream);
+        String streamedOutput = new String(outputStream.toByteArray(), StandardCharsets.UTF_8);
+
+        String bufferedOutput = new String(transformer.transform(response, null)
+                .getByteArray(), StandardCharsets.UTF_8);
+
+        assertEquals(bufferedOutput, streamedOutput);
+        assertXpathEvaluatesTo("25", "count(/mc:metacards/mc:metacard)", streamedOutput);
+        assertXpathEvaluatesTo("id1", "/mc:metacards/mc:metacard[1]/@gml:id", streamedOutput);
+        assertXpathEvaluatesTo("id25", "/mc:metacards/mc:metacard[25]/@gml:id", streamedOutput);
+    }
+
+    @Test(expected = CatalogTransformerException.class)
+    public void testStreamingMetacardMarshallThrowsXmlPullParserException()
+            throws IOException, CatalogTransformerException, XmlPullParserException,
+            MimeTypeParseException {
+        SourceResponse response = givenSourceResponse(new MetacardStub("source1", "id1"),
+                new MetacardStub("source2", "id2"),
+                new MetacardStub("source3", "id3"));
+
+        MetacardMarshaller mockMetacardMarshaller = mock(MetacardMarshaller.class);
+        when(mockMetacardMarshaller.marshal(any(Metacard.class),
+                any(Map.class))).thenThrow(new XmlPullParserException(""));
+
+        XmlResponseQueueTransformer xrqt = new XmlResponseQueueTransformer(parser,
+                FJP,
+                new PrintWriterProviderImpl(),
+                mockMetacardMarshaller,
+                getMimeType());
+        xrqt.setThreshold(2);
+
+        xrqt.transform(response, null, new ByteArrayOutputStream());
+    }
+
     @Test
     public void testXmlResponseQueueTransformer() throws Exception {
 
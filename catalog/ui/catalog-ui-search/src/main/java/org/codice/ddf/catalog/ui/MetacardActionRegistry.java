@@ -51,4 +51,13 @@ public <Metacard> List<Action> list(Metacard metacard) {
         
         return actions;
     }
+
+    /**
+     * @return a registry with the action providers currently available, for listing the actions
+     * of many metacards without going through the service references for each one
+     */
+    public MetacardActionRegistry snapshot() {
+        return new MetacardActionRegistry(new ArrayList<>(actionProviders),
+                new ArrayList<>(multiActionProviders));
+    }
 }
@@ -18,6 +18,10 @@
 import static spark.Spark.post;
 import static spark.route.RouteOverview.enableRouteOverview;
 
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.concurrent.TimeUnit;
 
 import org.boon.json.JsonParserFactory;
@@ -41,6 +45,7 @@
 import ddf.catalog.source.SourceUnavailableException;
 import ddf.catalog.source.UnsupportedQueryException;
 import spark.servlet.SparkApplication;
+import spark.utils.GzipUtils;
 
 public class QueryApplication implements SparkApplication {
 
@@ -69,7 +74,16 @@ public void init() {
 
             CqlQueryResponse cqlQueryResponse = executeCqlQuery(cqlRequest);
 
-            return mapper.toJson(cqlQueryResponse);
+            // Stream the response instead of returning the JSON of all the results as a string
+            res.type(APPLICATION_JSON);
+            res.header("Content-Encoding", "gzip");
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(GzipUtils.checkAndWrap(
+                    req.raw(),
+                    res.raw(),
+                    true), StandardCharsets.UTF_8))) {
+                cqlQueryResponse.writeJson(mapper, writer);
+            }
+            return "";
         });
 
         after("/cql", (req, res) -> {
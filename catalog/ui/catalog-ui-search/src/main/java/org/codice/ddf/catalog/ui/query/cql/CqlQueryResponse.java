@@ -13,6 +13,9 @@
  */
 package org.codice.ddf.catalog.ui.query.cql;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -20,6 +23,7 @@
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import org.boon.json.ObjectMapper;
 import org.codice.ddf.catalog.ui.query.delegate.SearchTerm;
 import org.codice.ddf.catalog.ui.query.delegate.SearchTermsDelegate;
 import org.slf4j.Logger;
@@ -42,7 +46,13 @@ public class CqlQueryResponse {
 
     private static final SearchTermsDelegate SEARCH_TERMS_DELEGATE = new SearchTermsDelegate();
 
-    private final List<CqlResult> results;
+    private static final int RESULT_BATCH_SIZE = 64;
+
+    private final List<Result> queryResults;
+
+    private final CqlResultContext resultContext;
+
+    private List<CqlResult> results;
 
     private final String id;
 
@@ -80,15 +90,46 @@ public CqlQueryResponse(String id, QueryRequest request, QueryResponse queryResp
                         }));
 
         final Set<SearchTerm> searchTerms = extractSearchTerms(request.getQuery(), filterAdapter);
-        results = queryResponse.getResults()
-                .stream()
-                .map(result -> new CqlResult(result,
-                        searchTerms,
-                        queryResponse.getRequest(),
-                        normalize,
-                        filterAdapter,
-                        actionRegistry))
-                .collect(Collectors.toList());
+        queryResults = queryResponse.getResults();
+        resultContext = new CqlResultContext(queryResponse.getRequest()
+                .getQuery(), searchTerms, normalize, filterAdapter, actionRegistry);
+    }
+
+    /**
+     * Writes the response as JSON. The results are converted in parallel, a batch at a time, and
+     * written as soon as their batch is converted instead of building the JSON of the whole
+     * response in memory.
+     *
+     * @param mapper the mapper used to convert the parts of the response to JSON
+     * @param writer the writer the JSON is written to
+     * @throws IOException if the JSON cannot be written
+     */
+    public void writeJson(ObjectMapper mapper, Writer writer) throws IOException {
+        writer.write("{\"id\":");
+        mapper.toJson(id, writer);
+        writer.write(",\"status\":");
+        mapper.toJson(status, writer);
+        writer.write(",\"types\":");
+        mapper.toJson(types, writer);
+        writer.write(",\"results\":[");
+
+        for (int start = 0; start < queryResults.size(); start += RESULT_BATCH_SIZE) {
+            List<String> batch = queryResults.subList(start,
+                    Math.min(start + RESULT_BATCH_SIZE, queryResults.size()))
+                    .parallelStream()
+                    .map(result -> mapper.toJson(new CqlResult(result, resultContext)))
+                    .collect(Collectors.toList());
+
+            for (int i = 0; i < batch.size(); i++) {
+                if (start + i > 0) {
+                    writer.write(',');
+                }
+                writer.write(batch.get(i));
+            }
+        }
+
+        writer.write("]}");
+        writer.flush();
     }
 
     private Set<SearchTerm> extractSearchTerms(Query query, FilterAdapter filterAdapter) {
@@ -102,6 +143,12 @@ private Set<SearchTerm> extractSearchTerms(Query query, FilterAdapter filterAdap
     }
 
     public List<CqlResult> getResults() {
+        if (results == null) {
+            results = new ArrayList<>(queryResults.size());
+            for (Result result : queryResults) {
+                results.add(new CqlResult(result, resultContext));
+            }
+        }
         return results;
     }
 
@@ -23,6 +23,7 @@
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
@@ -47,6 +48,7 @@
 import ddf.catalog.data.Attribute;
 import ddf.catalog.data.AttributeDescriptor;
 import ddf.catalog.data.Metacard;
+import ddf.catalog.data.MetacardType;
 import ddf.catalog.data.Result;
 import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.filter.FilterAdapter;
@@ -76,6 +78,8 @@ public class CqlResult {
 
     private static final String CACHED = "cached";
 
+    private static final Pattern TOKEN_DELIMITER = Pattern.compile("[\\s\\p{Punct}]+");
+
     private static final DateTimeFormatter ISO_8601_DATE_FORMAT = DateTimeFormat.forPattern(
             "yyyy-MM-dd'T'HH:mm:ss.SSSZ")
             .withZoneUTC();
@@ -96,6 +100,15 @@ public class CqlResult {
 
     public CqlResult(Result result, Set<SearchTerm> searchTerms, QueryRequest queryRequest,
             boolean normalize, FilterAdapter filterAdapter, ActionRegistry actionRegistry) {
+        this(result,
+                new CqlResultContext(queryRequest.getQuery(),
+                        searchTerms,
+                        normalize,
+                        filterAdapter,
+                        actionRegistry));
+    }
+
+    CqlResult(Result result, CqlResultContext context) {
 
         Metacard mc = result.getMetacard();
 
@@ -111,51 +124,46 @@ public CqlResult(Result result, Set<SearchTerm> searchTerms, QueryRequest queryR
                 .map(Boolean.class::cast)
                 .orElse(false);
 
-        distance = normalizeDistance(result, queryRequest.getQuery(), filterAdapter);
+        distance = normalizeDistance(result, context.getQueryShape());
 
         relevance = result.getRelevanceScore();
-        if (normalize) {
-            countMatches(searchTerms, mc);
+        if (context.isNormalize()) {
+            countMatches(context, mc);
         }
 
-        actions = actionRegistry.list(result.getMetacard())
+        actions = context.getActionRegistry()
+                .list(result.getMetacard())
                 .stream()
                 .collect(Collectors.toList());
         metacard = metacardToMap(result);
     }
 
-    private void countMatches(Set<SearchTerm> searchTerms, Metacard mc) {
-        List<String> textAttributes = mc.getMetacardType()
-                .getAttributeDescriptors()
+    private void countMatches(CqlResultContext context, Metacard mc) {
+        MetacardType metacardType = mc.getMetacardType();
+        if (metacardType == null) {
+            return;
+        }
+
+        List<String> textAttributes = context.getTextAttributeNames(metacardType)
                 .stream()
-                .filter(CqlResult::isTextAttribute)
+                .map(mc::getAttribute)
                 .filter(Objects::nonNull)
-                .map(descriptor -> mc.getAttribute(descriptor.getName()))
+                .map(Attribute::getValue)
                 .filter(Objects::nonNull)
-                .map(attribute -> Optional.ofNullable(attribute.getValue()))
-                .filter(Optional::isPresent)
-                .map(Optional::get)
                 .map(Object::toString)
                 .collect(Collectors.toList());
 
-        List<SearchTerm> terms = searchTerms.stream()
-                .filter(term -> !"*".equals(term.getTerm()))
-                .collect(Collectors.toList());
-
         int totalTokens = 0;
         for (String value : textAttributes) {
             BufferedReader reader = new BufferedReader(new StringReader(value.toLowerCase()));
             String line;
             try {
                 while ((line = reader.readLine()) != null) {
-                    String[] tokens = line.split("[\\s\\p{Punct}]+");
+                    String[] tokens = TOKEN_DELIMITER.split(line);
                     for (String token : tokens) {
                         totalTokens++;
-                        for (SearchTerm term : terms) {
-                            if (term.match(token)) {
-                                matches.put(term.getTerm(),
-                                        matches.getOrDefault(term.getTerm(), 0) + 1);
-                            }
+                        for (String term : context.match(token)) {
+                            matches.merge(term, 1, Integer::sum);
                         }
                     }
                 }
@@ -175,27 +183,43 @@ private void addCachedDate(Metacard metacard, Map<String, Object> json) {
         }
     }
 
-    private Double normalizeDistance(Result result, Query query, FilterAdapter filterAdapter) {
-        Double distance = result.getDistanceInMeters();
-
+    /**
+     * Parses the WKT of the query's spatial criteria once, so that it can be shared by all the
+     * results of the query.
+     *
+     * @return the shape of the query's spatial criteria, or {@code null} if it has none or it
+     * cannot be parsed
+     */
+    static Shape parseQueryShape(Query query, FilterAdapter filterAdapter) {
         try {
             String queryWkt = filterAdapter.adapt(query, WKT_QUERY_DELEGATE);
             if (StringUtils.isNotBlank(queryWkt)) {
-                Shape queryShape = WKT_READER.read(queryWkt);
-                if (result.getMetacard() != null && StringUtils.isNotBlank(result.getMetacard()
-                        .getLocation())) {
-                    Shape locationShape = WKT_READER.read(result.getMetacard()
-                            .getLocation());
-
-                    distance =
-                            DistanceUtils.degrees2Dist(SPATIAL_CONTEXT.calcDistance(locationShape.getCenter(),
-                                    queryShape.getCenter()), DistanceUtils.EARTH_MEAN_RADIUS_KM)
-                                    * 1000;
-                }
+                return WKT_READER.read(queryWkt);
             }
         } catch (IOException | ParseException | UnsupportedQueryException e) {
             LOGGER.debug("Unable to parse query wkt", e);
         }
+        return null;
+    }
+
+    private Double normalizeDistance(Result result, Shape queryShape) {
+        Double distance = result.getDistanceInMeters();
+
+        try {
+            if (queryShape != null && result.getMetacard() != null
+                    && StringUtils.isNotBlank(result.getMetacard()
+                    .getLocation())) {
+                Shape locationShape = WKT_READER.read(result.getMetacard()
+                        .getLocation());
+
+                double degrees = SPATIAL_CONTEXT.calcDistance(locationShape.getCenter(),
+                        queryShape.getCenter());
+                distance = DistanceUtils.degrees2Dist(degrees, DistanceUtils.EARTH_MEAN_RADIUS_KM)
+                        * 1000;
+            }
+        } catch (IOException | ParseException e) {
+            LOGGER.debug("Unable to parse metacard wkt", e);
+        }
 
         return distance;
     }
@@ -226,7 +250,7 @@ private Map<String, Object> metacardToMap(Result result) {
         return geoJson;
     }
 
-    private static boolean isTextAttribute(AttributeDescriptor descriptor) {
+    static boolean isTextAttribute(AttributeDescriptor descriptor) {
         switch (descriptor.getType()
                 .getAttributeFormat()) {
         case STRING:
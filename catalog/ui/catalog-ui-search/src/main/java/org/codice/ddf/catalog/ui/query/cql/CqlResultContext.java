@@ -0,0 +1,131 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.ui.query.cql;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.codice.ddf.catalog.ui.MetacardActionRegistry;
+import org.codice.ddf.catalog.ui.query.delegate.SearchTerm;
+import org.locationtech.spatial4j.shape.Shape;
+
+import ddf.action.ActionRegistry;
+import ddf.catalog.data.AttributeDescriptor;
+import ddf.catalog.data.MetacardType;
+import ddf.catalog.filter.FilterAdapter;
+import ddf.catalog.operation.Query;
+
+/**
+ * The state of a query that is shared by all its {@link CqlResult}s, so that it is computed once
+ * per response instead of once per result.
+ */
+class CqlResultContext {
+
+    private final Shape queryShape;
+
+    private final boolean normalize;
+
+    private final Map<String, List<String>> exactTerms = new HashMap<>();
+
+    private final List<SearchTerm> wildcardTerms = new ArrayList<>();
+
+    private final ActionRegistry actionRegistry;
+
+    private final Map<MetacardType, List<String>> textAttributeNames = new ConcurrentHashMap<>();
+
+    CqlResultContext(Query query, Set<SearchTerm> searchTerms, boolean normalize,
+            FilterAdapter filterAdapter, ActionRegistry actionRegistry) {
+        this.queryShape = CqlResult.parseQueryShape(query, filterAdapter);
+        this.normalize = normalize;
+
+        for (SearchTerm term : searchTerms) {
+            if ("*".equals(term.getTerm())) {
+                continue;
+            }
+
+            if (term.isWildcard()) {
+                wildcardTerms.add(term);
+            } else {
+                exactTerms.computeIfAbsent(term.getTerm(), key -> new ArrayList<>())
+                        .add(term.getTerm());
+            }
+        }
+
+        // Select the action providers once instead of going through the service references for
+        // every result
+        if (actionRegistry instanceof MetacardActionRegistry) {
+            this.actionRegistry = ((MetacardActionRegistry) actionRegistry).snapshot();
+        } else {
+            this.actionRegistry = actionRegistry;
+        }
+    }
+
+    /**
+     * @return the shape of the query's spatial criteria, or {@code null} if it has none
+     */
+    Shape getQueryShape() {
+        return queryShape;
+    }
+
+    boolean isNormalize() {
+        return normalize;
+    }
+
+    ActionRegistry getActionRegistry() {
+        return actionRegistry;
+    }
+
+    /**
+     * @param metacardType the type of a result's metacard
+     * @return the names of the text attributes of the metacard type
+     */
+    List<String> getTextAttributeNames(MetacardType metacardType) {
+        return textAttributeNames.computeIfAbsent(metacardType,
+                type -> Collections.unmodifiableList(type.getAttributeDescriptors()
+                        .stream()
+                        .filter(Objects::nonNull)
+                        .filter(CqlResult::isTextAttribute)
+                        .map(AttributeDescriptor::getName)
+                        .collect(Collectors.toList())));
+    }
+
+    /**
+     * @param token a lower case token of a result's text attribute
+     * @return the search terms that match the token, once for each search term of the query
+     */
+    List<String> match(String token) {
+        List<String> exact = exactTerms.get(token);
+        if (wildcardTerms.isEmpty()) {
+            return exact == null ? Collections.emptyList() : exact;
+        }
+
+        List<String> matches = new ArrayList<>();
+        if (exact != null) {
+            matches.addAll(exact);
+        }
+        for (SearchTerm term : wildcardTerms) {
+            if (term.match(token)) {
+                matches.add(term.getTerm());
+            }
+        }
+        return matches;
+    }
+}
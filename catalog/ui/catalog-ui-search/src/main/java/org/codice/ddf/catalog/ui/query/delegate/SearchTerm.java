@@ -43,6 +43,10 @@ public String getTerm() {
         return term;
     }
 
+    public boolean isWildcard() {
+        return pattern != null;
+    }
+
     public boolean match(String other) {
         if ("*".equals(term)) {
             return true;
@@ -0,0 +1,165 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.ui.query.cql;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.boon.json.JsonFactory;
+import org.boon.json.JsonParserFactory;
+import org.boon.json.JsonSerializerFactory;
+import org.boon.json.ObjectMapper;
+import org.boon.json.implementation.ObjectMapperImpl;
+import org.codice.ddf.catalog.ui.query.delegate.SearchTerm;
+import org.codice.ddf.catalog.ui.query.delegate.SearchTermsDelegate;
+import org.codice.ddf.catalog.ui.query.delegate.WktQueryDelegate;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableSet;
+
+import ddf.action.ActionRegistry;
+import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.ResultImpl;
+import ddf.catalog.filter.FilterAdapter;
+import ddf.catalog.filter.FilterDelegate;
+import ddf.catalog.operation.Query;
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.operation.QueryResponse;
+
+public class CqlQueryResponseTest {
+
+    private static final int RESULT_COUNT = 150;
+
+    private ObjectMapper mapper = new ObjectMapperImpl(new JsonParserFactory().usePropertyOnly(),
+            new JsonSerializerFactory().includeEmpty()
+                    .includeNulls()
+                    .includeDefaultValues());
+
+    private QueryRequest request;
+
+    private QueryResponse queryResponse;
+
+    private FilterAdapter filterAdapter;
+
+    private ActionRegistry actionRegistry;
+
+    @Before
+    public void setUp() throws Exception {
+        Query query = mock(Query.class);
+        request = mock(QueryRequest.class);
+        when(request.getQuery()).thenReturn(query);
+
+        List<Result> results = new ArrayList<>();
+        for (int i = 0; i < RESULT_COUNT; i++) {
+            MetacardImpl metacard = new MetacardImpl();
+            metacard.setId("id" + i);
+            metacard.setTitle("Alpha beta. Bravo alpha");
+            metacard.setLocation("POINT (0 1)");
+            results.add(new ResultImpl(metacard));
+        }
+
+        queryResponse = mock(QueryResponse.class);
+        when(queryResponse.getRequest()).thenReturn(request);
+        when(queryResponse.getResults()).thenReturn(results);
+        when(queryResponse.getHits()).thenReturn((long) RESULT_COUNT);
+        when(queryResponse.getProcessingDetails()).thenReturn(Collections.emptySet());
+
+        filterAdapter = mock(FilterAdapter.class);
+        when(filterAdapter.adapt(any(Query.class), any(FilterDelegate.class))).thenAnswer(
+                invocation -> {
+                    Object delegate = invocation.getArguments()[1];
+                    if (delegate instanceof SearchTermsDelegate) {
+                        return ImmutableSet.of(new SearchTerm("alpha"),
+                                new SearchTerm("b*"),
+                                new SearchTerm("*"));
+                    } else if (delegate instanceof WktQueryDelegate) {
+                        return "POINT (0 0)";
+                    }
+                    return null;
+                });
+
+        actionRegistry = mock(ActionRegistry.class);
+        when(actionRegistry.list(any())).thenReturn(Collections.emptyList());
+    }
+
+    @Test
+    public void testQueryIsAdaptedOncePerResponse() throws Exception {
+        CqlQueryResponse response = createResponse();
+
+        assertThat(response.getResults(), hasSize(RESULT_COUNT));
+        verify(filterAdapter, times(2)).adapt(any(Query.class), any(FilterDelegate.class));
+    }
+
+    @Test
+    public void testResultMatchesAndDistance() throws Exception {
+        CqlResult result = createResponse().getResults()
+                .get(0);
+
+        assertThat(result.getMatches()
+                .get("alpha"), is(2));
+        assertThat(result.getMatches()
+                .get("b*"), is(2));
+        // The tokens of the title and of the id
+        assertThat(result.getMatches()
+                .get("*"), is(5));
+        assertThat(result.getDistance(), closeTo(111195, 1));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testWriteJson() throws Exception {
+        StringWriter writer = new StringWriter();
+        createResponse().writeJson(mapper, writer);
+
+        Map<String, Object> json = (Map<String, Object>) JsonFactory.create()
+                .fromJson(writer.toString());
+
+        assertThat(json.get("id"), is("queryId"));
+        assertThat(((Map<String, Object>) json.get("status")).get("count"), is(RESULT_COUNT));
+
+        List<Map<String, Object>> results = (List<Map<String, Object>>) json.get("results");
+        assertThat(results, hasSize(RESULT_COUNT));
+        for (int i = 0; i < RESULT_COUNT; i++) {
+            Map<String, Object> metacard = (Map<String, Object>) results.get(i)
+                    .get("metacard");
+            assertThat(((Map<String, Object>) metacard.get("properties")).get("id"), is("id" + i));
+        }
+    }
+
+    private CqlQueryResponse createResponse() {
+        return new CqlQueryResponse("queryId",
+                request,
+                queryResponse,
+                "source",
+                10,
+                true,
+                filterAdapter,
+                actionRegistry);
+    }
+}
@@ -15,36 +15,54 @@
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.ArrayUtils;
+import org.codice.ddf.security.common.Security;
 import org.opengis.filter.Filter;
+import org.opengis.filter.sort.SortBy;
+import org.opengis.filter.sort.SortOrder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
 
 import ddf.catalog.CatalogFramework;
 import ddf.catalog.data.Attribute;
 import ddf.catalog.data.Metacard;
+import ddf.catalog.data.Result;
 import ddf.catalog.federation.FederationException;
 import ddf.catalog.filter.FilterBuilder;
+import ddf.catalog.filter.impl.SortByImpl;
 import ddf.catalog.operation.QueryRequest;
 import ddf.catalog.operation.SourceResponse;
 import ddf.catalog.operation.impl.QueryImpl;
 import ddf.catalog.operation.impl.QueryRequestImpl;
 import ddf.catalog.source.SourceUnavailableException;
 import ddf.catalog.source.UnsupportedQueryException;
-import ddf.catalog.validation.MetacardValidator;
+import ddf.catalog.validation.BatchMetacardValidator;
 import ddf.catalog.validation.ReportingMetacardValidator;
 import ddf.catalog.validation.ValidationException;
 import ddf.catalog.validation.impl.ValidationExceptionImpl;
@@ -52,9 +70,10 @@
 import ddf.catalog.validation.impl.violation.ValidationViolationImpl;
 import ddf.catalog.validation.report.MetacardValidationReport;
 import ddf.catalog.validation.violation.ValidationViolation;
+import ddf.security.Subject;
 
 public class DuplicationValidator
-        implements MetacardValidator, ReportingMetacardValidator, ddf.catalog.util.Describable,
+        implements BatchMetacardValidator, ReportingMetacardValidator, ddf.catalog.util.Describable,
         org.codice.ddf.platform.services.common.Describable {
     private static final Logger LOGGER = LoggerFactory.getLogger(DuplicationValidator.class);
 
@@ -64,6 +83,21 @@
 
     private static final String VERSION = "version";
 
+    // Keeps each OR query well under Solr's default limit of 1024 boolean clauses.
+    private static final int MAX_VALUES_PER_QUERY = 500;
+
+    static final int PAGE_SIZE = 1000;
+
+    // Each page starts this many results before the end of the previous one, so that results
+    // deleted while paging don't shift unread results past the start of the next page.
+    static final int PAGE_OVERLAP = PAGE_SIZE / 10;
+
+    // Gives up paging after this many step backs, e.g., if results are deleted faster than they
+    // can be paged through.
+    private static final int MAX_PAGE_RETRIES = 10;
+
+    private static final SortBy ID_SORT = new SortByImpl(Metacard.ID, SortOrder.ASCENDING);
+
     private static Properties describableProperties = new Properties();
 
     static {
@@ -83,6 +117,20 @@
 
     private String[] warnOnDuplicateAttributes;
 
+    private boolean knownValueFilterEnabled = false;
+
+    private int knownValueFilterSize = 1000000;
+
+    private long knownValueFilterMaxAgeMillis = TimeUnit.HOURS.toMillis(1);
+
+    private boolean initialized = false;
+
+    private volatile KnownValueFilter knownValueFilter;
+
+    private ExecutorService executorService;
+
+    private Future<?> knownValueFilterLoad;
+
     public DuplicationValidator(CatalogFramework catalogFramework, FilterBuilder filterBuilder) {
         this.catalogFramework = catalogFramework;
         this.filterBuilder = filterBuilder;
@@ -99,6 +147,7 @@ public void setErrorOnDuplicateAttributes(String[] attributeStrings) {
         if (attributeStrings != null) {
             this.errorOnDuplicateAttributes = Arrays.copyOf(attributeStrings,
                     attributeStrings.length);
+            resetKnownValueFilter();
         }
     }
 
@@ -113,6 +162,77 @@ public void setWarnOnDuplicateAttributes(String[] attributeStrings) {
         if (attributeStrings != null) {
             this.warnOnDuplicateAttributes = Arrays.copyOf(attributeStrings,
                     attributeStrings.length);
+            resetKnownValueFilter();
+        }
+    }
+
+    /**
+     * Enables a local probabilistic filter of the attribute values already in the catalog. Once
+     * the filter has been loaded, the duplicate query is skipped for metacards whose values are
+     * definitely not in the catalog.
+     *
+     * @param knownValueFilterEnabled
+     */
+    public void setKnownValueFilterEnabled(boolean knownValueFilterEnabled) {
+        if (this.knownValueFilterEnabled != knownValueFilterEnabled) {
+            this.knownValueFilterEnabled = knownValueFilterEnabled;
+            resetKnownValueFilter();
+        }
+    }
+
+    /**
+     * Setter for the number of attribute values the known value filter is sized for. The filter
+     * still works past this size, but skips fewer queries.
+     *
+     * @param knownValueFilterSize
+     */
+    public void setKnownValueFilterSize(int knownValueFilterSize) {
+        if (knownValueFilterSize > 0 && this.knownValueFilterSize != knownValueFilterSize) {
+            this.knownValueFilterSize = knownValueFilterSize;
+            resetKnownValueFilter();
+        }
+    }
+
+    /**
+     * Setter for how long the known value filter is trusted after it has been loaded. Once it
+     * expires, metacards are queried for duplicates again while the filter is reloaded in the
+     * background. This bounds how long values ingested without going through this node's
+     * {@link DuplicationValidatorPostIngestPlugin} can be missed. A value of 0 or less never
+     * expires the filter.
+     *
+     * @param knownValueFilterMaxAgeMinutes
+     */
+    public void setKnownValueFilterMaxAgeMinutes(int knownValueFilterMaxAgeMinutes) {
+        this.knownValueFilterMaxAgeMillis = TimeUnit.MINUTES.toMillis(
+                knownValueFilterMaxAgeMinutes);
+    }
+
+    public void init() {
+        synchronized (this) {
+            initialized = true;
+            executorService = createExecutorService();
+        }
+        resetKnownValueFilter();
+    }
+
+    public synchronized void destroy() {
+        initialized = false;
+        knownValueFilter = null;
+        if (executorService != null) {
+            executorService.shutdownNow();
+            executorService = null;
+        }
+    }
+
+    /**
+     * Adds the configured attribute values of newly ingested metacards to the known value filter.
+     *
+     * @param metacards the metacards that were created or updated
+     */
+    public void recordIngested(List<Metacard> metacards) {
+        final KnownValueFilter filter = knownValueFilter;
+        if (filter != null) {
+            metacards.forEach(metacard -> addKnownValues(filter, metacard));
         }
     }
 
@@ -130,28 +250,64 @@ public void validate(Metacard metacard) throws ValidationException {
         final Optional<MetacardValidationReport> report = validateMetacard(metacard);
 
         if (report.isPresent()) {
-            final List<String> errors = report.get()
-                    .getMetacardValidationViolations()
-                    .stream()
-                    .filter(validationViolation -> validationViolation.getSeverity()
-                            .equals(ValidationViolation.Severity.ERROR))
-                    .map(ValidationViolation::getMessage)
-                    .collect(Collectors.toList());
-            final List<String> warnings = report.get()
-                    .getMetacardValidationViolations()
-                    .stream()
-                    .filter(validationViolation -> validationViolation.getSeverity()
-                            .equals(ValidationViolation.Severity.WARNING))
-                    .map(ValidationViolation::getMessage)
-                    .collect(Collectors.toList());
-
-            String message = String.format("Duplicate data found in catalog for ID {%s}.",
-                    metacard.getId());
-            final ValidationExceptionImpl exception = new ValidationExceptionImpl(message);
-            exception.setErrors(errors);
-            exception.setWarnings(warnings);
-            throw exception;
+            throw createValidationException(metacard, report.get());
+        }
+    }
+
+    /**
+     * Validates all of the metacards with one query per configured attribute (per
+     * {@value #MAX_VALUES_PER_QUERY} values) instead of one query per metacard. A metacard is also
+     * reported as a duplicate of any earlier metacard in the list that shares one of its values.
+     */
+    @Override
+    public List<Optional<ValidationException>> validateBatch(List<Metacard> metacards) {
+        Preconditions.checkArgument(metacards != null, "The metacards cannot be null.");
+
+        final List<Set<ValidationViolation>> violations = metacards.stream()
+                .map(metacard -> new HashSet<ValidationViolation>())
+                .collect(Collectors.toList());
+
+        if (ArrayUtils.isNotEmpty(warnOnDuplicateAttributes)) {
+            reportDuplicates(metacards,
+                    warnOnDuplicateAttributes,
+                    ValidationViolation.Severity.WARNING,
+                    violations);
+        }
+        if (ArrayUtils.isNotEmpty(errorOnDuplicateAttributes)) {
+            reportDuplicates(metacards,
+                    errorOnDuplicateAttributes,
+                    ValidationViolation.Severity.ERROR,
+                    violations);
         }
+
+        return IntStream.range(0, metacards.size())
+                .mapToObj(index -> getReport(violations.get(index)).map(report ->
+                        (ValidationException) createValidationException(metacards.get(index),
+                                report)))
+                .collect(Collectors.toList());
+    }
+
+    private ValidationExceptionImpl createValidationException(Metacard metacard,
+            MetacardValidationReport report) {
+        final List<String> errors = report.getMetacardValidationViolations()
+                .stream()
+                .filter(validationViolation -> validationViolation.getSeverity()
+                        .equals(ValidationViolation.Severity.ERROR))
+                .map(ValidationViolation::getMessage)
+                .collect(Collectors.toList());
+        final List<String> warnings = report.getMetacardValidationViolations()
+                .stream()
+                .filter(validationViolation -> validationViolation.getSeverity()
+                        .equals(ValidationViolation.Severity.WARNING))
+                .map(ValidationViolation::getMessage)
+                .collect(Collectors.toList());
+
+        String message = String.format("Duplicate data found in catalog for ID {%s}.",
+                metacard.getId());
+        final ValidationExceptionImpl exception = new ValidationExceptionImpl(message);
+        exception.setErrors(errors);
+        exception.setWarnings(warnings);
+        return exception;
     }
 
     private Set<ValidationViolation> reportDuplicates(final Metacard metacard) {
@@ -196,7 +352,9 @@ private ValidationViolation reportDuplicates(final Metacard metacard, String[] a
                     metacard.getId(),
                     collectionToString(uniqueAttributeNames));
 
-            SourceResponse response = query(uniqueAttributes, metacard.getId());
+            SourceResponse response = isDefinitelyNew(uniqueAttributes) ?
+                    null :
+                    query(uniqueAttributes, metacard.getId());
             if (response != null) {
                 response.getResults()
                         .forEach(result -> duplicates.add(result.getMetacard()
@@ -211,6 +369,306 @@ private ValidationViolation reportDuplicates(final Metacard metacard, String[] a
         return violation;
     }
 
+    private void reportDuplicates(final List<Metacard> metacards, String[] attributeNames,
+            ValidationViolation.Severity severity, List<Set<ValidationViolation>> violations) {
+
+        final Map<String, Set<String>> valuesByAttribute = new HashMap<>();
+        for (Metacard metacard : metacards) {
+            for (String attributeName : attributeNames) {
+                Set<String> values = getValues(metacard, attributeName);
+                if (!values.isEmpty()) {
+                    valuesByAttribute.computeIfAbsent(attributeName, name -> new HashSet<>())
+                            .addAll(values);
+                }
+            }
+        }
+
+        final Map<String, Map<String, Set<String>>> catalogDuplicates = new HashMap<>();
+        valuesByAttribute.forEach((attributeName, values) -> catalogDuplicates.put(attributeName,
+                queryDuplicates(attributeName, values)));
+
+        // Metacards earlier in the batch, by attribute and value, so that duplicates within the
+        // batch are reported the same way as if the metacards had been ingested one at a time.
+        final Map<String, Map<String, List<String>>> batchDuplicates = new HashMap<>();
+
+        for (int index = 0; index < metacards.size(); index++) {
+            final Metacard metacard = metacards.get(index);
+            final String label = metacard.getId() != null ?
+                    metacard.getId() :
+                    String.format("metacard %d of this request", index + 1);
+            final Set<String> uniqueAttributeNames = new HashSet<>();
+            final Set<String> duplicates = new HashSet<>();
+
+            for (String attributeName : attributeNames) {
+                final Set<String> values = getValues(metacard, attributeName);
+                if (values.isEmpty()) {
+                    continue;
+                }
+                uniqueAttributeNames.add(attributeName);
+
+                for (String value : values) {
+                    duplicates.addAll(catalogDuplicates.get(attributeName)
+                            .getOrDefault(value, Collections.emptySet()));
+
+                    final List<String> earlier = batchDuplicates.computeIfAbsent(attributeName,
+                            name -> new HashMap<>())
+                            .computeIfAbsent(value, v -> new ArrayList<>());
+                    duplicates.addAll(earlier);
+                    earlier.add(label);
+                }
+            }
+
+            duplicates.remove(metacard.getId());
+            duplicates.remove(label);
+            if (!duplicates.isEmpty()) {
+                final ValidationViolation violation = createViolation(uniqueAttributeNames,
+                        duplicates,
+                        severity);
+                LOGGER.debug(violation.getMessage());
+                violations.get(index)
+                        .add(violation);
+            }
+        }
+    }
+
+    /**
+     * Finds the metacards in the catalog that have any of the {@code values} for
+     * {@code attributeName}.
+     *
+     * @return the IDs of the matching metacards, keyed by the value they matched
+     */
+    private Map<String, Set<String>> queryDuplicates(String attributeName, Set<String> values) {
+        final KnownValueFilter filter = getUsableKnownValueFilter();
+        final List<String> candidates = values.stream()
+                .filter(value -> filter == null || filter.mightContain(attributeName, value))
+                .collect(Collectors.toList());
+
+        LOGGER.debug("Checking {} of {} values of attribute [{}] for duplicates",
+                candidates.size(),
+                values.size(),
+                attributeName);
+
+        final Map<String, Set<String>> duplicates = new HashMap<>();
+        for (List<String> chunk : Lists.partition(candidates, MAX_VALUES_PER_QUERY)) {
+            final Set<String> chunkValues = new HashSet<>(chunk);
+            final Filter[] filters = chunk.stream()
+                    .map(value -> filterBuilder.attribute(attributeName)
+                            .equalTo()
+                            .text(value))
+                    .toArray(Filter[]::new);
+
+            queryAll(filterBuilder.anyOf(filters), result -> {
+                final Metacard match = result.getMetacard();
+                getValues(match, attributeName).stream()
+                        .filter(chunkValues::contains)
+                        .forEach(value -> duplicates.computeIfAbsent(value,
+                                v -> new HashSet<>())
+                                .add(match.getId()));
+            });
+        }
+
+        return duplicates;
+    }
+
+    /**
+     * Pages through all of the results of a query against the local catalog, sorted by ID.
+     * <p>
+     * The catalog can't page with a cursor, so results are paged by index. Pages overlap, and a
+     * page is only accepted if it starts at or before the last ID already read; otherwise results
+     * were deleted while paging and the query steps back. Results ingested while paging may be
+     * missed, but no result that was in the catalog for the whole query is skipped.
+     *
+     * @return false if the query failed or could not page through all of the results
+     */
+    private boolean queryAll(Filter filter, Consumer<Result> consumer) {
+        int startIndex = 1;
+        int retries = 0;
+        String lastId = null;
+        while (true) {
+            QueryImpl query = new QueryImpl(filter, startIndex, PAGE_SIZE, ID_SORT, false, 0);
+            SourceResponse response;
+            try {
+                response = catalogFramework.query(new QueryRequestImpl(query));
+            } catch (FederationException | SourceUnavailableException | UnsupportedQueryException e) {
+                LOGGER.debug("Query failed ", e);
+                return false;
+            }
+
+            final List<Result> results = response.getResults();
+            if (startIndex > 1 && (results.isEmpty() || compareIds(results.get(0), lastId) > 0)) {
+                if (++retries > MAX_PAGE_RETRIES) {
+                    LOGGER.debug("Results changed too quickly to page through them.");
+                    return false;
+                }
+                startIndex = Math.max(1, startIndex - PAGE_SIZE);
+                continue;
+            }
+
+            for (Result result : results) {
+                if (lastId == null || compareIds(result, lastId) > 0) {
+                    consumer.accept(result);
+                    lastId = result.getMetacard()
+                            .getId();
+                }
+            }
+            if (results.size() < PAGE_SIZE) {
+                return true;
+            }
+            startIndex += PAGE_SIZE - PAGE_OVERLAP;
+        }
+    }
+
+    private int compareIds(Result result, String id) {
+        return String.valueOf(result.getMetacard()
+                .getId())
+                .compareTo(id);
+    }
+
+    private Set<String> getValues(Metacard metacard, String attributeName) {
+        return getValues(metacard.getAttribute(attributeName));
+    }
+
+    private Set<String> getValues(Attribute attribute) {
+        if (attribute == null || attribute.getValues() == null) {
+            return Collections.emptySet();
+        }
+
+        return attribute.getValues()
+                .stream()
+                .filter(value -> value != null)
+                .map(value -> value.toString()
+                        .trim())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    private boolean isDefinitelyNew(Set<Attribute> attributes) {
+        final KnownValueFilter filter = getUsableKnownValueFilter();
+        if (filter == null) {
+            return false;
+        }
+
+        return attributes.stream()
+                .allMatch(attribute -> getValues(attribute).stream()
+                        .noneMatch(value -> filter.mightContain(attribute.getName(), value)));
+    }
+
+    private void addKnownValues(KnownValueFilter filter, Metacard metacard) {
+        for (String attributeName : getConfiguredAttributeNames()) {
+            getValues(metacard, attributeName).forEach(value -> filter.put(attributeName, value));
+        }
+    }
+
+    private Set<String> getConfiguredAttributeNames() {
+        final Set<String> attributeNames = new HashSet<>();
+        if (warnOnDuplicateAttributes != null) {
+            attributeNames.addAll(Arrays.asList(warnOnDuplicateAttributes));
+        }
+        if (errorOnDuplicateAttributes != null) {
+            attributeNames.addAll(Arrays.asList(errorOnDuplicateAttributes));
+        }
+        return attributeNames;
+    }
+
+    /**
+     * Returns the known value filter if its negative answers can be trusted, i.e., it has been
+     * loaded and hasn't expired. An expired filter is reloaded in the background.
+     *
+     * @return the filter, or null if every value must be queried
+     */
+    private KnownValueFilter getUsableKnownValueFilter() {
+        final KnownValueFilter filter = knownValueFilter;
+        if (filter == null || !filter.isReady()) {
+            return null;
+        }
+
+        if (knownValueFilterMaxAgeMillis > 0
+                && currentTimeMillis() - filter.getReadyTime() > knownValueFilterMaxAgeMillis) {
+            synchronized (this) {
+                if (knownValueFilter == filter) {
+                    LOGGER.debug("The known value filter has expired; reloading it.");
+                    resetKnownValueFilter();
+                }
+            }
+            return null;
+        }
+
+        return filter;
+    }
+
+    /**
+     * Replaces the known value filter with an empty one and starts loading it in the background.
+     * Until loading completes the filter is not used to skip queries.
+     */
+    private synchronized void resetKnownValueFilter() {
+        if (knownValueFilterLoad != null) {
+            knownValueFilterLoad.cancel(true);
+            knownValueFilterLoad = null;
+        }
+
+        if (!initialized || !knownValueFilterEnabled) {
+            knownValueFilter = null;
+            return;
+        }
+
+        final KnownValueFilter filter = new KnownValueFilter(knownValueFilterSize);
+        knownValueFilter = filter;
+        knownValueFilterLoad = executorService.submit(() -> loadKnownValues(filter));
+    }
+
+    private void loadKnownValues(KnownValueFilter filter) {
+        try {
+            final boolean loaded = executeAsSystem(() -> {
+                for (String attributeName : getConfiguredAttributeNames()) {
+                    final Filter hasAttribute = filterBuilder.attribute(attributeName)
+                            .is()
+                            .like()
+                            .text("*");
+                    final boolean complete = queryAll(hasAttribute,
+                            result -> getValues(result.getMetacard(), attributeName).forEach(
+                                    value -> filter.put(attributeName, value)));
+                    if (!complete || Thread.currentThread()
+                            .isInterrupted()) {
+                        return false;
+                    }
+                }
+                return true;
+            });
+
+            if (loaded) {
+                filter.setReady(currentTimeMillis());
+                LOGGER.debug("Loaded the known value filter for duplicate detection.");
+            } else {
+                LOGGER.debug(
+                        "Unable to load the known value filter; every metacard will be checked against the catalog.");
+            }
+        } catch (RuntimeException e) {
+            LOGGER.debug(
+                    "Unable to load the known value filter; every metacard will be checked against the catalog.",
+                    e);
+        }
+    }
+
+    <T> T executeAsSystem(Callable<T> callable) {
+        Subject systemSubject = Security.runAsAdmin(() -> Security.getInstance()
+                .getSystemSubject());
+        if (systemSubject == null) {
+            throw new IllegalStateException("Could not get the system subject.");
+        }
+        return systemSubject.execute(callable);
+    }
+
+    ExecutorService createExecutorService() {
+        return Executors.newSingleThreadExecutor();
+    }
+
+    long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    KnownValueFilter getKnownValueFilter() {
+        return knownValueFilter;
+    }
+
     private Filter[] buildFilters(Set<Attribute> attributes) {
 
         Filter[] filters = attributes.stream()
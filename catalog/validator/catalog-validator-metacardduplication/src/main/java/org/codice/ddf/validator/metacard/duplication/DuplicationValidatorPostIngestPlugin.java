@@ -0,0 +1,61 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * </p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.validator.metacard.duplication;
+
+import java.util.stream.Collectors;
+
+import ddf.catalog.operation.CreateResponse;
+import ddf.catalog.operation.DeleteResponse;
+import ddf.catalog.operation.Update;
+import ddf.catalog.operation.UpdateResponse;
+import ddf.catalog.plugin.PostIngestPlugin;
+
+/**
+ * Keeps the {@link DuplicationValidator}'s known value filter up to date with the metacards that
+ * are created and updated in the catalog.
+ */
+public class DuplicationValidatorPostIngestPlugin implements PostIngestPlugin {
+
+    private final DuplicationValidator duplicationValidator;
+
+    public DuplicationValidatorPostIngestPlugin(DuplicationValidator duplicationValidator) {
+        this.duplicationValidator = duplicationValidator;
+    }
+
+    @Override
+    public CreateResponse process(CreateResponse input) {
+        if (input.getCreatedMetacards() != null) {
+            duplicationValidator.recordIngested(input.getCreatedMetacards());
+        }
+        return input;
+    }
+
+    @Override
+    public UpdateResponse process(UpdateResponse input) {
+        if (input.getUpdatedMetacards() != null) {
+            duplicationValidator.recordIngested(input.getUpdatedMetacards()
+                    .stream()
+                    .map(Update::getNewMetacard)
+                    .filter(metacard -> metacard != null)
+                    .collect(Collectors.toList()));
+        }
+        return input;
+    }
+
+    @Override
+    public DeleteResponse process(DeleteResponse input) {
+        // Values can't be removed from the filter; deleted values only cost an extra query.
+        return input;
+    }
+}
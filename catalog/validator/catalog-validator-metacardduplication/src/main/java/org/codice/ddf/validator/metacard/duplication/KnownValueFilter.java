@@ -0,0 +1,75 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * </p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.validator.metacard.duplication;
+
+import java.nio.charset.StandardCharsets;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+
+/**
+ * A probabilistic set of the attribute values already in the catalog, used by
+ * {@link DuplicationValidator} to skip the duplicate query for values that are definitely new.
+ * <p>
+ * The filter can only answer "definitely not present" once it has been loaded with every value in
+ * the catalog, so callers must check {@link #isReady()} before trusting a negative answer. Values
+ * are never removed, so deleted values only cost an unnecessary query.
+ * <p>
+ * The filter is only kept current with the metacards ingested on this node, so it is only safe on
+ * a single node. With several nodes writing to the same catalog, values ingested on other nodes
+ * are missed until the filter expires and is reloaded.
+ */
+class KnownValueFilter {
+    private static final double FALSE_POSITIVE_PROBABILITY = 0.01;
+
+    private final BloomFilter<CharSequence> bloomFilter;
+
+    private volatile boolean ready = false;
+
+    private volatile long readyTime;
+
+    KnownValueFilter(int expectedValues) {
+        bloomFilter = BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8),
+                expectedValues,
+                FALSE_POSITIVE_PROBABILITY);
+    }
+
+    synchronized void put(String attributeName, String value) {
+        bloomFilter.put(key(attributeName, value));
+    }
+
+    synchronized boolean mightContain(String attributeName, String value) {
+        return bloomFilter.mightContain(key(attributeName, value));
+    }
+
+    boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * @return the time the filter finished loading, in milliseconds since the epoch
+     */
+    long getReadyTime() {
+        return readyTime;
+    }
+
+    void setReady(long readyTime) {
+        this.readyTime = readyTime;
+        ready = true;
+    }
+
+    private String key(String attributeName, String value) {
+        return attributeName + "=" + value;
+    }
+}
@@ -24,16 +24,22 @@
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Function;
+import java.util.stream.IntStream;
 import java.util.stream.Collectors;
 
 import org.junit.Before;
@@ -45,6 +51,8 @@
 import org.mockito.runners.MockitoJUnitRunner;
 import org.opengis.filter.Filter;
 
+import com.google.common.util.concurrent.MoreExecutors;
+
 import ddf.catalog.CatalogFramework;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
@@ -53,6 +61,7 @@
 import ddf.catalog.data.impl.ResultImpl;
 import ddf.catalog.federation.FederationException;
 import ddf.catalog.filter.FilterBuilder;
+import ddf.catalog.operation.CreateResponse;
 import ddf.catalog.operation.QueryRequest;
 import ddf.catalog.operation.QueryResponse;
 import ddf.catalog.plugin.PluginExecutionException;
@@ -255,4 +264,197 @@ public void testValidateMetacardWithMultiValuedAttribute()
 
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testValidateBatchQueriesOncePerAttribute()
+            throws UnsupportedQueryException, SourceUnavailableException, FederationException {
+        validator.setWarnOnDuplicateAttributes(new String[] {Metacard.CHECKSUM});
+
+        MetacardImpl firstNewMetacard = new MetacardImpl();
+        firstNewMetacard.setId("first new metacard ID");
+        firstNewMetacard.setAttribute(new AttributeImpl(Metacard.CHECKSUM, "new-value"));
+        MetacardImpl secondNewMetacard = new MetacardImpl();
+        secondNewMetacard.setId("second new metacard ID");
+        secondNewMetacard.setAttribute(new AttributeImpl(Metacard.CHECKSUM, "new-value"));
+
+        List<Optional<ValidationException>> results = validator.validateBatch(Arrays.asList(
+                testMetacard,
+                firstNewMetacard,
+                secondNewMetacard));
+
+        verify(mockFramework, times(1)).query(any(QueryRequest.class));
+        assertThat(results, hasSize(3));
+        assertThat(results.get(0)
+                .isPresent(), is(true));
+        assertThat(results.get(0)
+                .get()
+                .getWarnings()
+                .get(0), containsString(ID));
+        assertThat(results.get(1)
+                .isPresent(), is(false));
+        assertThat(results.get(2)
+                .isPresent(), is(true));
+        assertThat(results.get(2)
+                .get()
+                .getWarnings()
+                .get(0), containsString("first new metacard ID"));
+    }
+
+    @Test
+    public void testKnownValueFilterSkipsQueryForNewValues()
+            throws UnsupportedQueryException, SourceUnavailableException, FederationException {
+        validator = new SynchronousDuplicationValidator(mockFramework, mockFilterBuilder);
+        validator.setWarnOnDuplicateAttributes(new String[] {Metacard.CHECKSUM});
+        validator.setKnownValueFilterEnabled(true);
+        validator.init();
+
+        // Loading the filter queries the catalog once for the configured attribute.
+        verify(mockFramework, times(1)).query(any(QueryRequest.class));
+
+        MetacardImpl newMetacard = new MetacardImpl();
+        newMetacard.setId("new metacard ID");
+        newMetacard.setAttribute(new AttributeImpl(Metacard.CHECKSUM, "new-value"));
+
+        assertThat(validator.validateMetacard(newMetacard)
+                .isPresent(), is(false));
+        verify(mockFramework, times(1)).query(any(QueryRequest.class));
+
+        assertThat(validator.validateMetacard(testMetacard)
+                .isPresent(), is(true));
+        verify(mockFramework, times(2)).query(any(QueryRequest.class));
+
+        validator.destroy();
+    }
+
+    @Test
+    public void testPostIngestPluginRecordsCreatedValues()
+            throws UnsupportedQueryException, SourceUnavailableException, FederationException {
+        validator = new SynchronousDuplicationValidator(mockFramework, mockFilterBuilder);
+        validator.setWarnOnDuplicateAttributes(new String[] {Metacard.CHECKSUM});
+        validator.setKnownValueFilterEnabled(true);
+        validator.init();
+
+        MetacardImpl newMetacard = new MetacardImpl();
+        newMetacard.setId("new metacard ID");
+        newMetacard.setAttribute(new AttributeImpl(Metacard.CHECKSUM, "new-value"));
+
+        CreateResponse createResponse = mock(CreateResponse.class);
+        when(createResponse.getCreatedMetacards()).thenReturn(Collections.singletonList(
+                newMetacard));
+        new DuplicationValidatorPostIngestPlugin(validator).process(createResponse);
+
+        validator.validateBatch(Collections.singletonList(newMetacard));
+        verify(mockFramework, times(2)).query(any(QueryRequest.class));
+
+        validator.destroy();
+    }
+
+    @Test
+    public void testKnownValueFilterLoadSurvivesDeletesWhilePaging()
+            throws UnsupportedQueryException, SourceUnavailableException, FederationException {
+        int catalogSize = DuplicationValidator.PAGE_SIZE * 3 / 2;
+        List<Result> catalog = IntStream.range(0, catalogSize)
+                .mapToObj(index -> {
+                    MetacardImpl metacard = new MetacardImpl();
+                    metacard.setId(String.format("%05d", index));
+                    metacard.setAttribute(new AttributeImpl(Metacard.CHECKSUM,
+                            "checksum-" + index));
+                    return (Result) new ResultImpl(metacard);
+                })
+                .collect(Collectors.toCollection(ArrayList::new));
+        int deleted = DuplicationValidator.PAGE_OVERLAP * 2;
+
+        when(mockFramework.query(any(QueryRequest.class))).thenAnswer(invocation -> {
+            QueryRequest request = (QueryRequest) invocation.getArguments()[0];
+            assertThat(request.getQuery()
+                    .getSortBy()
+                    .getPropertyName()
+                    .getPropertyName(), is(Metacard.ID));
+            int start = request.getQuery()
+                    .getStartIndex() - 1;
+            List<Result> page = new ArrayList<>(catalog.subList(Math.min(start, catalog.size()),
+                    Math.min(start + request.getQuery()
+                            .getPageSize(), catalog.size())));
+            if (start == 0 && catalog.size() == catalogSize) {
+                // Delete metacards from the first page after it has been read, shifting the
+                // metacards that haven't been read yet towards the start.
+                catalog.subList(0, deleted)
+                        .clear();
+            }
+            QueryResponse response = mock(QueryResponse.class);
+            when(response.getResults()).thenReturn(page);
+            return response;
+        });
+
+        validator = new SynchronousDuplicationValidator(mockFramework, mockFilterBuilder);
+        validator.setWarnOnDuplicateAttributes(new String[] {Metacard.CHECKSUM});
+        validator.setKnownValueFilterEnabled(true);
+        validator.init();
+
+        KnownValueFilter filter = validator.getKnownValueFilter();
+        assertThat(filter.isReady(), is(true));
+        for (int index = deleted; index < catalogSize; index++) {
+            assertThat(filter.mightContain(Metacard.CHECKSUM, "checksum-" + index), is(true));
+        }
+
+        validator.destroy();
+    }
+
+    @Test
+    public void testExpiredKnownValueFilterFallsBackToQuery()
+            throws UnsupportedQueryException, SourceUnavailableException, FederationException {
+        SynchronousDuplicationValidator synchronousValidator =
+                new SynchronousDuplicationValidator(mockFramework, mockFilterBuilder);
+        validator = synchronousValidator;
+        validator.setWarnOnDuplicateAttributes(new String[] {Metacard.CHECKSUM});
+        validator.setKnownValueFilterEnabled(true);
+        validator.setKnownValueFilterMaxAgeMinutes(1);
+        validator.init();
+        verify(mockFramework, times(1)).query(any(QueryRequest.class));
+
+        MetacardImpl newMetacard = new MetacardImpl();
+        newMetacard.setId("new metacard ID");
+        newMetacard.setAttribute(new AttributeImpl(Metacard.CHECKSUM, "new-value"));
+
+        validator.validateMetacard(newMetacard);
+        verify(mockFramework, times(1)).query(any(QueryRequest.class));
+
+        // Once expired, the metacard is queried and the filter is reloaded.
+        synchronousValidator.currentTime += 61000;
+        validator.validateMetacard(newMetacard);
+        verify(mockFramework, times(3)).query(any(QueryRequest.class));
+
+        validator.validateMetacard(newMetacard);
+        verify(mockFramework, times(3)).query(any(QueryRequest.class));
+
+        validator.destroy();
+    }
+
+    private static class SynchronousDuplicationValidator extends DuplicationValidator {
+
+        private long currentTime = 0;
+
+        SynchronousDuplicationValidator(CatalogFramework catalogFramework,
+                FilterBuilder filterBuilder) {
+            super(catalogFramework, filterBuilder);
+        }
+
+        @Override
+        <T> T executeAsSystem(Callable<T> callable) {
+            try {
+                return callable.call();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        ExecutorService createExecutorService() {
+            return MoreExecutors.sameThreadExecutor();
+        }
+
+        @Override
+        long currentTimeMillis() {
+            return currentTime;
+        }
+    }
+}
@@ -13,6 +13,7 @@
  */
 package org.codice.ddf.libs.klv;
 
+import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.Map;
 
@@ -58,12 +59,31 @@ public KlvContext decode(final byte[] klvBytes) throws KlvDecodingException {
         Preconditions.checkArgument(klvBytes != null,
                 "The array of bytes to decode cannot be null.");
 
+        return decode(ByteBuffer.wrap(klvBytes));
+    }
+
+    /**
+     * Decodes the KLV data in the remaining bytes of {@code klvBuffer} according to the properties
+     * in the {@link KlvContext} that was provided in the constructor.
+     * <p>
+     * The bytes are read in place, so callers can decode a slice of a larger buffer (for example, a
+     * reused buffer holding a metadata packet) without copying it first. The buffer's position and
+     * limit are not changed, and the buffer can be reused as soon as this method returns.
+     *
+     * @param klvBuffer buffer encoding data in KLV format between its position and limit
+     * @return a new {@code KlvContext} containing the decoded KLV data elements
+     * @throws IllegalArgumentException if {@code klvBuffer} is null
+     * @throws KlvDecodingException     if the KLV cannot be decoded using the given context
+     *                                  information
+     * @see #decode(byte[])
+     */
+    public KlvContext decode(final ByteBuffer klvBuffer) throws KlvDecodingException {
+        Preconditions.checkArgument(klvBuffer != null, "The buffer to decode cannot be null.");
+
         List<Klv> klvDataElements;
 
         try {
-            klvDataElements = Klv.bytesToList(klvBytes,
-                    0,
-                    klvBytes.length,
+            klvDataElements = Klv.bufferToList(klvBuffer,
                     klvContext.getKeyLength(),
                     klvContext.getLengthEncoding());
         } catch (RuntimeException e) {
@@ -14,8 +14,9 @@
 package org.codice.ddf.libs.klv.data;
 
 import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedList;
 import java.util.List;
 
 import com.google.common.base.Preconditions;
@@ -140,19 +141,19 @@ public int value() {
      * suggests, as many bytes as possible will be stored as the value, and
      * the length field will reflect the actual length.
      *
-     * @param theBytes       The bytes that make up the entire KLV set
-     * @param offset         The offset from beginning of theBytes
+     * @param theBytes       The buffer holding the entire KLV set
+     * @param offset         The absolute offset of the KLV set in theBytes
      * @param keyLength      The number of bytes in the key.
      * @param lengthEncoding The length field encoding type.
-     * @throws IndexOutOfBoundsException If offset is out of range of the byte array.
+     * @throws IndexOutOfBoundsException If offset is out of range of the buffer.
      */
-    private Klv(final byte[] theBytes, final int offset, final KeyLength keyLength,
+    private Klv(final ByteBuffer theBytes, final int offset, final KeyLength keyLength,
             final LengthEncoding lengthEncoding) {
         Preconditions.checkElementIndex(offset,
-                theBytes.length,
-                String.format("Offset %d is out of range (byte array length: %d).",
+                theBytes.limit(),
+                String.format("Offset %d is out of range (buffer limit: %d).",
                         offset,
-                        theBytes.length));
+                        theBytes.limit()));
 
         // These methods will interpret the byte array
         // and set the appropriate key length and length encoding flags.
@@ -164,14 +165,16 @@ private Klv(final byte[] theBytes, final int offset, final KeyLength keyLength,
         // Set length and verify enough bytes exist
         // setLength(..) also establishes a this.value array.
         final int valueOffset = setLength(theBytes, offset + keyLength.value(), lengthEncoding);
-        final int remaining = theBytes.length - valueOffset;
+        final int remaining = theBytes.limit() - valueOffset;
         checkEnoughBytesRemaining(remaining,
                 this.value.length,
                 String.format("Not enough bytes left in array (%d) for the declared length (%d).",
                         remaining,
                         this.value.length));
 
-        System.arraycopy(theBytes, valueOffset, this.value, 0, this.value.length);
+        final ByteBuffer valueBytes = theBytes.duplicate();
+        valueBytes.position(valueOffset);
+        valueBytes.get(this.value);
 
         // Private field used when creating a list of KLVs from a long array.
         this.offsetAfterInstantiation = valueOffset + this.value.length;
@@ -221,13 +224,24 @@ public byte[] getValue() {
         return Arrays.copyOf(this.value, this.value.length);
     }
 
+    /**
+     * Returns the value of this KLV set as a read-only view of the underlying byte array. Unlike
+     * {@link #getValue()}, the value is not copied.
+     *
+     * @return the value
+     */
+    public ByteBuffer getValueAsByteBuffer() {
+        return ByteBuffer.wrap(this.value)
+                .asReadOnlyBuffer();
+    }
+
     /**
      * Returns up to the first byte of the value as an 8-bit signed integer.
      *
      * @return the value as an 8-bit signed integer
      */
     public int getValueAs8bitSignedInt() {
-        final byte[] bytes = getValue();
+        final byte[] bytes = this.value;
         byte value = 0;
         if (bytes.length > 0) {
             value = bytes[0];
@@ -241,7 +255,7 @@ public int getValueAs8bitSignedInt() {
      * @return the value as an 8-bit unsigned integer
      */
     public int getValueAs8bitUnsignedInt() {
-        final byte[] bytes = getValue();
+        final byte[] bytes = this.value;
         int value = 0;
         if (bytes.length > 0) {
             value = bytes[0] & 0xFF;
@@ -255,7 +269,7 @@ public int getValueAs8bitUnsignedInt() {
      * @return the value as a 16-bit signed integer
      */
     public int getValueAs16bitSignedInt() {
-        final byte[] bytes = getValue();
+        final byte[] bytes = this.value;
         final int length = bytes.length;
         final int shortLen = length < 2 ? length : 2;
         short value = 0;
@@ -271,7 +285,7 @@ public int getValueAs16bitSignedInt() {
      * @return the value as a 16-bit unsigned integer
      */
     public int getValueAs16bitUnsignedInt() {
-        final byte[] bytes = getValue();
+        final byte[] bytes = this.value;
         final int length = bytes.length;
         final int shortLen = length < 2 ? length : 2;
         int value = 0;
@@ -289,7 +303,7 @@ public int getValueAs16bitUnsignedInt() {
      * @return the value as an int
      */
     public int getValueAs32bitInt() {
-        final byte[] bytes = getValue();
+        final byte[] bytes = this.value;
         final int length = bytes.length;
         final int shortLen = length < 4 ? length : 4;
         int value = 0;
@@ -307,7 +321,7 @@ public int getValueAs32bitInt() {
      * @return the value as a long
      */
     public long getValueAs64bitLong() {
-        final byte[] bytes = getValue();
+        final byte[] bytes = this.value;
         final int length = bytes.length;
         final int shortLen = length < 8 ? length : 8;
         long value = 0;
@@ -328,7 +342,7 @@ public long getValueAs64bitLong() {
      * @return the value as a float
      */
     public float getValueAsFloat() {
-        return this.getValue().length < 4 ? Float.NaN : Float.intBitsToFloat(getValueAs32bitInt());
+        return this.value.length < 4 ? Float.NaN : Float.intBitsToFloat(getValueAs32bitInt());
     }
 
     /**
@@ -342,7 +356,7 @@ public float getValueAsFloat() {
      * @return the value as a double
      */
     public double getValueAsDouble() {
-        return this.getValue().length < 8 ?
+        return this.value.length < 8 ?
                 Double.NaN :
                 Double.longBitsToDouble(getValueAs64bitLong());
     }
@@ -356,29 +370,29 @@ public double getValueAsDouble() {
      *                                      given encoding
      */
     public String getValueAsString(final String charsetName) throws UnsupportedEncodingException {
-        return new String(getValue(), charsetName);
+        return new String(this.value, charsetName);
     }
 
     /**
-     * Sets the key according to the key found in the byte array
+     * Sets the key according to the key found in the buffer
      * and of the given length. If <tt>keyLength</tt> is different
      * than what was previously set for this KLV, then this KLV's
      * key length parameter will be updated.
      *
-     * @param inTheseBytes The byte array containing the key (and other stuff)
+     * @param inTheseBytes The buffer containing the key (and other stuff)
      * @param offset       The offset where to look for the key
      * @param keyLength    The length of the key
      * @return <tt>this</tt> to aid in stringing together commands
      * @throws IndexOutOfBoundsException If offset is invalid
      */
-    private Klv setKey(final byte[] inTheseBytes, final int offset, final KeyLength keyLength) {
+    private Klv setKey(final ByteBuffer inTheseBytes, final int offset, final KeyLength keyLength) {
         Preconditions.checkElementIndex(offset,
-                inTheseBytes.length,
-                String.format("Offset %d is out of range (byte array length: %d).",
+                inTheseBytes.limit(),
+                String.format("Offset %d is out of range (buffer limit: %d).",
                         offset,
-                        inTheseBytes.length));
+                        inTheseBytes.limit()));
 
-        final int remaining = inTheseBytes.length - offset;
+        final int remaining = inTheseBytes.limit() - offset;
         checkEnoughBytesRemaining(remaining,
                 keyLength.value(),
                 String.format("Not enough bytes for %d-byte key.", keyLength.value()));
@@ -387,27 +401,29 @@ private Klv setKey(final byte[] inTheseBytes, final int offset, final KeyLength
         this.keyLength = keyLength;
         switch (keyLength) {
         case OneByte:
-            this.keyIfShort = inTheseBytes[offset] & 0xFF;
+            this.keyIfShort = inTheseBytes.get(offset) & 0xFF;
             this.keyIfLong = null;
             break;
 
         case TwoBytes:
-            this.keyIfShort = (inTheseBytes[offset] & 0xFF) << 8;
-            this.keyIfShort |= inTheseBytes[offset + 1] & 0xFF;
+            this.keyIfShort = (inTheseBytes.get(offset) & 0xFF) << 8;
+            this.keyIfShort |= inTheseBytes.get(offset + 1) & 0xFF;
             this.keyIfLong = null;
             break;
 
         case FourBytes:
-            this.keyIfShort = (inTheseBytes[offset] & 0xFF) << 24;
-            this.keyIfShort |= (inTheseBytes[offset + 1] & 0xFF) << 16;
-            this.keyIfShort |= (inTheseBytes[offset + 2] & 0xFF) << 8;
-            this.keyIfShort |= inTheseBytes[offset + 3] & 0xFF;
+            this.keyIfShort = (inTheseBytes.get(offset) & 0xFF) << 24;
+            this.keyIfShort |= (inTheseBytes.get(offset + 1) & 0xFF) << 16;
+            this.keyIfShort |= (inTheseBytes.get(offset + 2) & 0xFF) << 8;
+            this.keyIfShort |= inTheseBytes.get(offset + 3) & 0xFF;
             this.keyIfLong = null;
             break;
 
         case SixteenBytes:
             this.keyIfLong = new byte[16];
-            System.arraycopy(inTheseBytes, offset, this.keyIfLong, 0, 16);
+            final ByteBuffer keyBytes = inTheseBytes.duplicate();
+            keyBytes.position(offset);
+            keyBytes.get(this.keyIfLong);
             this.keyIfShort = 0;
             break;
         }
@@ -415,30 +431,30 @@ private Klv setKey(final byte[] inTheseBytes, final int offset, final KeyLength
     }
 
     /**
-     * Sets the length according to the length found in the byte array
+     * Sets the length according to the length found in the buffer
      * and of the given length encoding.
      * If <tt>lengthEncoding</tt> is different
      * than what was previously set for this KLV, then this KLV's
      * length encoding parameter will be updated.
      * An array of the appropriate length will be initialized.
      *
-     * @param inTheseBytes   The byte array containing the key (and other stuff)
+     * @param inTheseBytes   The buffer containing the key (and other stuff)
      * @param offset         The offset where to look for the key
      * @param lengthEncoding The length of the key
      * @return Offset where value field would begin after length
      * @throws IndexOutOfBoundsException If offset is invalid
      */
-    private int setLength(final byte[] inTheseBytes, final int offset,
+    private int setLength(final ByteBuffer inTheseBytes, final int offset,
             final LengthEncoding lengthEncoding) {
         Preconditions.checkElementIndex(offset,
-                inTheseBytes.length,
-                String.format("Offset %d is out of range (byte array length: %d).",
+                inTheseBytes.limit(),
+                String.format("Offset %d is out of range (buffer limit: %d).",
                         offset,
-                        inTheseBytes.length));
+                        inTheseBytes.limit()));
 
         int length = 0;
         int valueOffset = 0;
-        final int remaining = inTheseBytes.length - offset;
+        final int remaining = inTheseBytes.limit() - offset;
         final String lengthEncodingErrorMessage = String.format(
                 "Not enough bytes for %s length encoding.",
                 lengthEncoding);
@@ -447,7 +463,7 @@ private int setLength(final byte[] inTheseBytes, final int offset,
         case OneByte:
             checkEnoughBytesRemaining(remaining, 1, lengthEncodingErrorMessage);
 
-            length = inTheseBytes[offset] & 0xFF;
+            length = inTheseBytes.get(offset) & 0xFF;
             setLength(length, lengthEncoding);
             valueOffset = offset + 1;
             break;
@@ -455,8 +471,8 @@ private int setLength(final byte[] inTheseBytes, final int offset,
         case TwoBytes:
             checkEnoughBytesRemaining(remaining, 2, lengthEncodingErrorMessage);
 
-            length = (inTheseBytes[offset] & 0xFF) << 8;
-            length |= inTheseBytes[offset + 1] & 0xFF;
+            length = (inTheseBytes.get(offset) & 0xFF) << 8;
+            length |= inTheseBytes.get(offset + 1) & 0xFF;
             setLength(length, lengthEncoding);
             valueOffset = offset + 2;
             break;
@@ -464,10 +480,10 @@ private int setLength(final byte[] inTheseBytes, final int offset,
         case FourBytes:
             checkEnoughBytesRemaining(remaining, 4, lengthEncodingErrorMessage);
 
-            length = (inTheseBytes[offset] & 0xFF) << 24;
-            length |= (inTheseBytes[offset + 1] & 0xFF) << 16;
-            length |= (inTheseBytes[offset + 2] & 0xFF) << 8;
-            length |= inTheseBytes[offset + 3] & 0xFF;
+            length = (inTheseBytes.get(offset) & 0xFF) << 24;
+            length |= (inTheseBytes.get(offset + 1) & 0xFF) << 16;
+            length |= (inTheseBytes.get(offset + 2) & 0xFF) << 8;
+            length |= inTheseBytes.get(offset + 3) & 0xFF;
             setLength(length, lengthEncoding);
             valueOffset = offset + 4;
             break;
@@ -483,7 +499,7 @@ private int setLength(final byte[] inTheseBytes, final int offset,
             // is not supported in this code, though it's not
             // exactly illegal KLV notation either.
             checkEnoughBytesRemaining(remaining, 1, lengthEncodingErrorMessage);
-            final int ber = inTheseBytes[offset] & 0xFF;
+            final int ber = inTheseBytes.get(offset) & 0xFF;
 
             // Easy case: low seven bits is length
             if ((ber & 0x80) == 0) {
@@ -494,7 +510,7 @@ private int setLength(final byte[] inTheseBytes, final int offset,
                 checkEnoughBytesRemaining(remaining, following + 1, lengthEncodingErrorMessage);
 
                 for (int i = 0; i < following; i++) {
-                    length |= (inTheseBytes[offset + 1 + i] & 0xFF) << (following - 1 - i) * 8;
+                    length |= (inTheseBytes.get(offset + 1 + i) & 0xFF) << (following - 1 - i) * 8;
                 }
                 setLength(length, lengthEncoding);
                 valueOffset = offset + 1 + following;
@@ -537,11 +553,32 @@ private Klv setLength(final int length, final LengthEncoding lengthEncoding) {
      */
     public static List<Klv> bytesToList(final byte[] bytes, final int offset, final int length,
             final KeyLength keyLength, LengthEncoding lengthEncoding) {
-        final List<Klv> list = new LinkedList<>();
+        return bufferToList(ByteBuffer.wrap(bytes), offset, offset + length, keyLength,
+                lengthEncoding);
+    }
+
+    /**
+     * Returns a list of KLV sets in the remaining bytes of the supplied buffer
+     * assuming the provided key length and length field encoding. The bytes
+     * are read in place and the buffer's position and limit are not changed.
+     *
+     * @param buffer         The buffer to parse
+     * @param keyLength      Length of keys assumed in the KLV sets
+     * @param lengthEncoding Flag indicating encoding type
+     * @return List of KLVs
+     */
+    public static List<Klv> bufferToList(final ByteBuffer buffer, final KeyLength keyLength,
+            LengthEncoding lengthEncoding) {
+        return bufferToList(buffer, buffer.position(), buffer.limit(), keyLength, lengthEncoding);
+    }
+
+    private static List<Klv> bufferToList(final ByteBuffer buffer, final int start, final int end,
+            final KeyLength keyLength, LengthEncoding lengthEncoding) {
+        final List<Klv> list = new ArrayList<>();
 
-        int currentPos = offset;
-        while (currentPos < offset + length) {
-            final Klv klv = new Klv(bytes, currentPos, keyLength, lengthEncoding);
+        int currentPos = start;
+        while (currentPos < end) {
+            final Klv klv = new Klv(buffer, currentPos, keyLength, lengthEncoding);
             currentPos = klv.offsetAfterInstantiation;
             list.add(klv);
         }
@@ -27,6 +27,7 @@
 import static org.junit.Assert.fail;
 
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collections;
@@ -221,6 +222,46 @@ public void testKLVSet() throws Exception {
         });
     }
 
+    @Test
+    public void testKLVSetFromBufferSlice() throws Exception {
+        byte[] klvBytes;
+
+        try (final InputStream inputStream = getClass().getClassLoader()
+                .getResourceAsStream("testKLV.klv")) {
+            klvBytes = IOUtils.toByteArray(inputStream);
+        }
+
+        // Surround the KLV with bytes that are not part of it, like the header of a packet.
+        final ByteBuffer buffer = ByteBuffer.allocate(klvBytes.length + 20);
+        buffer.position(10);
+        buffer.put(klvBytes);
+        buffer.flip();
+        buffer.position(10);
+
+        final KlvContext klvContext = getKLVContext(DATA_ELEMENTS);
+
+        final Map<String, KlvDataElement> decodedDataElements = new KlvDecoder(klvContext).decode(
+                buffer)
+                .getDataElements();
+
+        assertThat(buffer.position(), is(10));
+        assertThat(buffer.limit(), is(klvBytes.length + 10));
+
+        final KlvContext localSet = ((KlvLocalSet) decodedDataElements.get(
+                UAS_DATALINK_LOCAL_SET_UNIVERSAL_KEY)).getValue();
+
+        final Map<String, KlvDataElement> localSetDataElements = localSet.getDataElements();
+
+        assertThat(localSetDataElements.size(), is(DATA_ELEMENTS.size()));
+
+        localSetDataElements.forEach((name, dataElement) -> {
+            final Object expectedValue = EXPECTED_VALUES.get(name);
+            assertThat(String.format("%s is not %s", name, expectedValue),
+                    dataElement.getValue(),
+                    is(expectedValue));
+        });
+    }
+
     private KlvContext decodeKLV(final KeyLength keyLength, final LengthEncoding lengthEncoding,
             final KlvDataElement dataElement, final byte[] encodedBytes)
             throws KlvDecodingException {
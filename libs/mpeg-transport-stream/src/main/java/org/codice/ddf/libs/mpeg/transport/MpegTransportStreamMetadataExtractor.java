@@ -20,10 +20,16 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
 
 import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.lang.ArrayUtils;
 import org.jcodec.api.JCodecException;
 import org.jcodec.containers.mps.MTSUtils.StreamType;
 import org.jcodec.containers.mps.psi.PMTSection;
@@ -37,6 +43,7 @@
 import org.taktik.mpegts.sources.ResettableMTSSource;
 
 import com.google.common.io.ByteSource;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 /**
  * This class is for extracting arbitrary metadata (as raw bytes) from an MPEG transport stream.
@@ -45,6 +52,14 @@ public class MpegTransportStreamMetadataExtractor {
     private static final Logger LOGGER = LoggerFactory.getLogger(
             MpegTransportStreamMetadataExtractor.class);
 
+    private static final int INITIAL_METADATA_PACKET_CAPACITY = 4096;
+
+    /**
+     * The number of buffers per metadata stream that can be waiting to be handled by a streaming
+     * callback before parsing the transport stream blocks.
+     */
+    private static final int PENDING_METADATA_PACKETS_PER_STREAM = 8;
+
     private final ByteSource byteSource;
 
     private final Set<Integer> programMapTablePacketIdDirectory = new HashSet<>();
@@ -53,7 +68,7 @@ public class MpegTransportStreamMetadataExtractor {
 
     private final Map<Integer, PMTStream> programElementaryStreams = new HashMap<>();
 
-    private final Map<Integer, byte[]> currentMetadataPacketBytesByStream = new HashMap<>();
+    private final Map<Integer, ByteBuffer> currentMetadataPacketBytesByStream = new HashMap<>();
 
     /**
      * Constructs an {@code MpegTransportStreamMetadataExtractor} with the given {@link ByteSource}
@@ -77,7 +92,77 @@ public MpegTransportStreamMetadataExtractor(final ByteSource byteSource) {
      * @throws Exception if an error occurs while parsing the transport stream
      */
     public void getMetadata(final BiConsumer<Integer, byte[]> callback) throws Exception {
-        extractTransportStreamMetadata(callback);
+        extractTransportStreamMetadata(new MetadataPacketHandler() {
+            @Override
+            public ByteBuffer newMetadataPacketBuffer() {
+                return ByteBuffer.allocate(INITIAL_METADATA_PACKET_CAPACITY);
+            }
+
+            @Override
+            public ByteBuffer handleMetadataPacket(final int packetId,
+                    final ByteBuffer metadataPacket) {
+                callback.accept(packetId, getByteBufferAsBytes(metadataPacket));
+                metadataPacket.clear();
+                return metadataPacket;
+            }
+        });
+    }
+
+    /**
+     * Parses the transport stream and calls the given callback for each metadata packet in each
+     * metadata stream found in the transport stream, without copying the metadata packets into
+     * new arrays.
+     * <p>
+     * Metadata packets are reassembled into a bounded pool of reusable buffers and handed to the
+     * callback as soon as they are complete. The packets of each metadata stream are passed to the
+     * callback in order, one at a time, while the packets of different metadata streams are passed
+     * to the callback concurrently on separate threads. Parsing the transport stream blocks when
+     * the callback falls too far behind, so the memory used does not grow with the length of the
+     * transport stream.
+     * <p>
+     * The buffer passed to the callback is read-only and only valid until the callback returns,
+     * after which it is reused for another metadata packet. Callbacks that need the bytes later
+     * must copy them; callbacks that decode the packet (for example, with a KLV decoder that reads
+     * {@link ByteBuffer}s) can read it in place.
+     *
+     * @param callback a callback that will be called for each metadata packet in each metadata
+     *                 stream found in the transport stream, where the first parameter is the packet
+     *                 ID of the metadata stream and the second parameter is the metadata packet's
+     *                 payload between the buffer's position and limit
+     * @throws Exception if an error occurs while parsing the transport stream or if the callback
+     *                   throws an exception
+     */
+    public void streamMetadata(final BiConsumer<Integer, ByteBuffer> callback) throws Exception {
+        final ResettableMTSSource source = MTSSources.from(byteSource);
+
+        getProgramSpecificInformation(source);
+
+        source.reset();
+
+        final int metadataStreams = (int) Math.max(1,
+                programElementaryStreams.values()
+                        .stream()
+                        .filter(this::isMetadataStream)
+                        .count());
+        final int threads = Math.min(metadataStreams,
+                Runtime.getRuntime()
+                        .availableProcessors());
+
+        final ExecutorService executor = Executors.newFixedThreadPool(threads,
+                new ThreadFactoryBuilder().setNameFormat("mpegts-metadata-%d")
+                        .setDaemon(true)
+                        .build());
+        final StreamingMetadataPacketHandler handler = new StreamingMetadataPacketHandler(
+                callback,
+                executor,
+                metadataStreams * (PENDING_METADATA_PACKETS_PER_STREAM + 1));
+
+        try {
+            extractTransportStreamMetadata(source, handler);
+            handler.awaitCompletion();
+        } finally {
+            executor.shutdownNow();
+        }
     }
 
     /**
@@ -103,7 +188,7 @@ public Map<Integer, List<byte[]>> getMetadata() throws Exception {
         return metadataPacketsByStream;
     }
 
-    private void extractTransportStreamMetadata(final BiConsumer<Integer, byte[]> callback)
+    private void extractTransportStreamMetadata(final MetadataPacketHandler handler)
             throws Exception {
         final ResettableMTSSource source = MTSSources.from(byteSource);
 
@@ -111,6 +196,11 @@ private void extractTransportStreamMetadata(final BiConsumer<Integer, byte[]> ca
 
         source.reset();
 
+        extractTransportStreamMetadata(source, handler);
+    }
+
+    private void extractTransportStreamMetadata(final ResettableMTSSource source,
+            final MetadataPacketHandler handler) throws Exception {
         MTSValidPacketIterator packetIterator = new MTSValidPacketIterator(source);
         MTSPacket transportStreamPacket = packetIterator.getNextValidPacket();
 
@@ -123,7 +213,7 @@ private void extractTransportStreamMetadata(final BiConsumer<Integer, byte[]> ca
                 final int packetId = transportStreamPacket.getPid();
 
                 if (isElementaryStreamPacket(packetId)) {
-                    handleElementaryStreamPacket(transportStreamPacket, packetId, callback);
+                    handleElementaryStreamPacket(transportStreamPacket, packetId, handler);
                 }
 
                 transportStreamPacket = packetIterator.getNextValidPacket();
@@ -132,7 +222,7 @@ private void extractTransportStreamMetadata(final BiConsumer<Integer, byte[]> ca
             LOGGER.debug("Mpegts Packet Processing Complete: Total Processed {}, Total Failed: {}",
                     packetIterator.getPacketsProcessed(),
                     packetIterator.getPacketsFailed());
-            handleLastPacketOfEachStream(callback);
+            handleLastPacketOfEachStream(handler);
         }
     }
 
@@ -208,19 +298,19 @@ private boolean isElementaryStreamPacket(final int packetId) {
         return packetId != 0 && !programMapTablePacketIdDirectory.contains(packetId);
     }
 
-    private byte[] getByteBufferAsBytes(final ByteBuffer buffer) {
+    private static byte[] getByteBufferAsBytes(final ByteBuffer buffer) {
         final byte[] bytes = new byte[buffer.remaining()];
         buffer.get(bytes);
         return bytes;
     }
 
     private void handleElementaryStreamPacket(final MTSPacket packet, final int packetId,
-            final BiConsumer<Integer, byte[]> callback) {
+            final MetadataPacketHandler handler) throws InterruptedException {
         if (programElementaryStreams.containsKey(packetId)) {
             final PMTStream stream = programElementaryStreams.get(packetId);
 
             if (isMetadataStream(stream)) {
-                final byte[] currentMetadataPacketBytes = currentMetadataPacketBytesByStream.get(
+                ByteBuffer currentMetadataPacketBytes = currentMetadataPacketBytesByStream.get(
                         packetId);
 
                 final boolean startingNewMetadataPacket = packet.isPayloadUnitStartIndicator();
@@ -228,23 +318,41 @@ private void handleElementaryStreamPacket(final MTSPacket packet, final int pack
                 final boolean reachedEndOfCurrentMetadataPacket =
                         startingNewMetadataPacket && currentMetadataPacketToHandle;
 
-                final byte[] payloadBytes = getByteBufferAsBytes(packet.getPayload());
+                final ByteBuffer payload = packet.getPayload();
 
                 if (reachedEndOfCurrentMetadataPacket) {
-                    callback.accept(packetId, currentMetadataPacketBytes);
-                    startNewMetadataPacketBytes(packetId, payloadBytes);
+                    currentMetadataPacketBytes.flip();
+                    final ByteBuffer reusableBuffer = handler.handleMetadataPacket(packetId,
+                            currentMetadataPacketBytes);
+                    startNewMetadataPacketBytes(packetId, reusableBuffer, payload, handler);
                 } else if (startingNewMetadataPacket) {
-                    startNewMetadataPacketBytes(packetId, payloadBytes);
+                    startNewMetadataPacketBytes(packetId, null, payload, handler);
                 } else if (currentMetadataPacketToHandle) {
-                    final byte[] concatenatedMetadataPacket = ArrayUtils.addAll(
-                            currentMetadataPacketBytes,
-                            payloadBytes);
-                    currentMetadataPacketBytesByStream.put(packetId, concatenatedMetadataPacket);
+                    currentMetadataPacketBytesByStream.put(packetId,
+                            appendPayload(currentMetadataPacketBytes, payload));
                 }
             }
         }
     }
 
+    /*
+     * Appends the payload to the metadata packet, replacing the buffer holding the packet with a
+     * larger one when it is full. The larger buffer is reused for later packets, so the buffers
+     * quickly grow to fit the largest metadata packets in the stream.
+     */
+    private static ByteBuffer appendPayload(final ByteBuffer metadataPacket,
+            final ByteBuffer payload) {
+        ByteBuffer buffer = metadataPacket;
+        if (buffer.remaining() < payload.remaining()) {
+            final int capacity = Math.max(buffer.capacity() * 2,
+                    buffer.position() + payload.remaining());
+            buffer.flip();
+            buffer = ByteBuffer.allocate(capacity)
+                    .put(buffer);
+        }
+        return buffer.put(payload);
+    }
+
     private boolean isPrivateDataStream(final PMTStream stream) {
         return stream.getStreamType() == StreamType.PRIVATE_DATA;
     }
@@ -257,8 +365,12 @@ private boolean isMetadataStream(final PMTStream stream) {
         return isPrivateDataStream(stream) || isMetadataPesStream(stream);
     }
 
-    private void startNewMetadataPacketBytes(final int packetId, final byte[] newMetadataBytes) {
-        currentMetadataPacketBytesByStream.put(packetId, newMetadataBytes);
+    private void startNewMetadataPacketBytes(final int packetId, final ByteBuffer reusableBuffer,
+            final ByteBuffer payload, final MetadataPacketHandler handler)
+            throws InterruptedException {
+        final ByteBuffer buffer =
+                reusableBuffer != null ? reusableBuffer : handler.newMetadataPacketBuffer();
+        currentMetadataPacketBytesByStream.put(packetId, appendPayload(buffer, payload));
     }
 
     /*
@@ -269,7 +381,119 @@ private void startNewMetadataPacketBytes(final int packetId, final byte[] newMet
      * This means that the last metadata packet for each stream won't be handled during the pass
      * over the transport stream and they will need to be handled separately.
      */
-    private void handleLastPacketOfEachStream(final BiConsumer<Integer, byte[]> callback) {
-        currentMetadataPacketBytesByStream.forEach(callback);
+    private void handleLastPacketOfEachStream(final MetadataPacketHandler handler)
+            throws InterruptedException {
+        for (final Map.Entry<Integer, ByteBuffer> stream : currentMetadataPacketBytesByStream
+                .entrySet()) {
+            final ByteBuffer metadataPacket = stream.getValue();
+            metadataPacket.flip();
+            handler.handleMetadataPacket(stream.getKey(), metadataPacket);
+        }
+        currentMetadataPacketBytesByStream.clear();
+    }
+
+    /**
+     * Receives the metadata packets reassembled from the transport stream packets and supplies the
+     * buffers they are reassembled into.
+     */
+    private interface MetadataPacketHandler {
+
+        /**
+         * @return an empty buffer to reassemble a metadata packet into
+         */
+        ByteBuffer newMetadataPacketBuffer() throws InterruptedException;
+
+        /**
+         * @param packetId       the packet ID of the metadata stream
+         * @param metadataPacket the complete metadata packet between the buffer's position and
+         *                       limit
+         * @return an empty buffer to reassemble the next metadata packet of the stream into, or
+         * {@code null} if a new buffer should be requested
+         */
+        ByteBuffer handleMetadataPacket(int packetId, ByteBuffer metadataPacket)
+                throws InterruptedException;
+    }
+
+    /**
+     * Hands complete metadata packets to a callback on an {@link ExecutorService}, passing the
+     * packets of each stream to the callback in order and recycling the buffers through a bounded
+     * pool once the callback returns.
+     */
+    private static class StreamingMetadataPacketHandler implements MetadataPacketHandler {
+
+        private final BiConsumer<Integer, ByteBuffer> callback;
+
+        private final ExecutorService executor;
+
+        private final BlockingQueue<ByteBuffer> bufferPool;
+
+        private final int maxBuffers;
+
+        private int buffersCreated;
+
+        private final Map<Integer, CompletableFuture<Void>> lastPacketByStream = new HashMap<>();
+
+        private final AtomicReference<RuntimeException> callbackFailure = new AtomicReference<>();
+
+        StreamingMetadataPacketHandler(final BiConsumer<Integer, ByteBuffer> callback,
+                final ExecutorService executor, final int maxBuffers) {
+            this.callback = callback;
+            this.executor = executor;
+            this.maxBuffers = maxBuffers;
+            this.bufferPool = new ArrayBlockingQueue<>(maxBuffers);
+        }
+
+        @Override
+        public ByteBuffer newMetadataPacketBuffer() throws InterruptedException {
+            final ByteBuffer buffer = bufferPool.poll();
+            if (buffer != null) {
+                return buffer;
+            }
+
+            if (buffersCreated < maxBuffers) {
+                buffersCreated++;
+                return ByteBuffer.allocate(INITIAL_METADATA_PACKET_CAPACITY);
+            }
+
+            return bufferPool.take();
+        }
+
+        @Override
+        public ByteBuffer handleMetadataPacket(final int packetId,
+                final ByteBuffer metadataPacket) {
+            final CompletableFuture<Void> lastPacket = lastPacketByStream.getOrDefault(packetId,
+                    CompletableFuture.completedFuture(null));
+
+            // Chaining on the stream's previous packet keeps the packets of each stream in order
+            // while the packets of different streams are handled concurrently.
+            lastPacketByStream.put(packetId,
+                    lastPacket.thenRunAsync(() -> handle(packetId, metadataPacket), executor));
+
+            return null;
+        }
+
+        private void handle(final int packetId, final ByteBuffer metadataPacket) {
+            try {
+                if (callbackFailure.get() == null) {
+                    callback.accept(packetId, metadataPacket.asReadOnlyBuffer());
+                }
+            } catch (RuntimeException e) {
+                callbackFailure.compareAndSet(null, e);
+            } finally {
+                metadataPacket.clear();
+                bufferPool.offer(metadataPacket);
+            }
+        }
+
+        void awaitCompletion() throws InterruptedException, ExecutionException {
+            CompletableFuture.allOf(lastPacketByStream.values()
+                    .toArray(new CompletableFuture[lastPacketByStream.size()]))
+                    .get();
+
+            final RuntimeException failure = callbackFailure.get();
+            if (failure != null) {
+                throw failure;
+            }
+        }
     }
 }
@@ -22,9 +22,11 @@
 import static org.mockito.Mockito.verify;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiConsumer;
 
 import org.apache.commons.io.IOUtils;
@@ -74,6 +76,33 @@ public void testExtractAll() throws Exception {
         verifyExtractedBytes(metadataStreams.get(497));
     }
 
+    @Test
+    public void testStreamMetadata() throws Exception {
+        final MpegTransportStreamMetadataExtractor extractor = getExtractor();
+
+        final Map<Integer, List<byte[]>> metadataStreams = new ConcurrentHashMap<>();
+        extractor.streamMetadata((streamId, metadataPacket) -> {
+            final byte[] metadataPacketBytes = new byte[metadataPacket.remaining()];
+            metadataPacket.get(metadataPacketBytes);
+            metadataStreams.computeIfAbsent(streamId, id -> new ArrayList<>())
+                    .add(metadataPacketBytes);
+        });
+
+        // The packet ID of the metadata stream in this file is 497.
+        assertThat(metadataStreams, hasKey(497));
+
+        verifyExtractedBytes(metadataStreams.get(497));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testStreamMetadataCallbackFailure() throws Exception {
+        final MpegTransportStreamMetadataExtractor extractor = getExtractor();
+
+        extractor.streamMetadata((streamId, metadataPacket) -> {
+            throw new IllegalStateException();
+        });
+    }
+
     private void verifyExtractedBytes(final List<byte[]> metadataPackets) {
         assertThat(metadataPackets.size(), is(12));
 
@@ -0,0 +1,539 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.metrics.collector.rrd4j;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanRegistrationException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.math.NumberUtils;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.FrameworkUtil;
+import org.rrd4j.core.RrdDb;
+import org.rrd4j.core.Sample;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ddf.metrics.collector.MetricsUtil;
+
+/**
+ * Samples the MBean attributes of all the {@link RrdJmxCollector}s and writes them to their RRD
+ * files from a single scheduler thread.
+ * <p>
+ * Collectors with the same sample rate are sampled together in one collection pass. Each pass reads
+ * all the attributes a pass needs from an MBean with a single
+ * {@link MBeanServer#getAttributes(ObjectName, String[])} call and writes a single sample per RRD
+ * file. Samples can optionally be buffered for several passes (see
+ * {@link #WRITE_BEHIND_INTERVALS_PROPERTY}) so that the RRD files are written in one burst instead
+ * of on every pass.
+ * <p>
+ * All the collection state is only accessed from the scheduler thread, so collectors are added and
+ * removed by submitting tasks to it.
+ * <p>
+ * The collector classes are embedded in each bundle that declares collectors, so each of these
+ * bundles has its own engine. The engine is created when the first collector of the bundle is
+ * initialized and shut down when the last one is destroyed by blueprint, which stops its threads
+ * and unregisters its MBean. The MBean is named after the bundle's symbolic name, and the
+ * duration of the collection passes is itself collected as a metric named after the bundle, e.g.
+ * {@code metricsInterceptorCollectionTime}.
+ */
+public class RrdCollectionEngine implements RrdCollectionEngineMBean {
+
+    /**
+     * System property with the number of collection passes whose samples are buffered before they
+     * are written to the RRD files. Defaults to 1, which writes the samples at the end of every
+     * pass.
+     */
+    public static final String WRITE_BEHIND_INTERVALS_PROPERTY =
+            "org.codice.ddf.metrics.writeBehindIntervals";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RrdCollectionEngine.class);
+
+    static final String MBEAN_NAME_PREFIX = "ddf.metrics.collector:type=CollectionEngine";
+
+    static final String DEFAULT_NAME = "default";
+
+    private static final String COLLECTION_TIME_METRIC_SUFFIX = "CollectionTime";
+
+    private static final int MILLIS_PER_SECOND = 1000;
+
+    private static final double NANOS_PER_MILLI = 1000000.0;
+
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    private static RrdCollectionEngine instance;
+
+    private static int references;
+
+    private final MBeanServer mBeanServer;
+
+    private final int writeBehindIntervals;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final ExecutorService configurationExecutor;
+
+    private final Map<Integer, CollectionPass> passesBySampleRate = new HashMap<>();
+
+    private final List<PendingSample> pendingSamples = new ArrayList<>();
+
+    private int passesSinceWrite;
+
+    private ObjectName objectName;
+
+    private RrdJmxCollector collectionTimeCollector;
+
+    private volatile int collectorCount;
+
+    private volatile double lastCollectionTime;
+
+    private volatile long collectionCount;
+
+    RrdCollectionEngine(MBeanServer mBeanServer, String name, int writeBehindIntervals) {
+        this.mBeanServer = mBeanServer;
+        this.writeBehindIntervals = Math.max(1, writeBehindIntervals);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(daemonThreadFactory(
+                "metrics-collection"));
+        this.configurationExecutor = Executors.newCachedThreadPool(daemonThreadFactory(
+                "metrics-collector-configuration"));
+        registerMBean(name);
+    }
+
+    /**
+     * Gets the engine shared by all the {@link RrdJmxCollector}s loaded with this class, creating
+     * it if needed. Each call must be matched by a call to {@link #release(RrdCollectionEngine)}.
+     *
+     * @return the shared engine
+     */
+    static synchronized RrdCollectionEngine acquire() {
+        if (instance == null) {
+            Bundle bundle = FrameworkUtil.getBundle(RrdCollectionEngine.class);
+            String name = bundle == null ? DEFAULT_NAME : bundle.getSymbolicName();
+            instance = new RrdCollectionEngine(ManagementFactory.getPlatformMBeanServer(),
+                    name,
+                    NumberUtils.toInt(System.getProperty(WRITE_BEHIND_INTERVALS_PROPERTY), 1));
+            if (bundle != null) {
+                instance.collectTime(getCollectionTimeMetricName(name),
+                        RrdJmxCollector.DEFAULT_METRICS_DIR);
+            }
+        }
+        references++;
+        return instance;
+    }
+
+    /**
+     * Releases the shared engine, shutting it down once every collector using it has released it.
+     *
+     * @param engine the engine returned by {@link #acquire()}
+     */
+    static synchronized void release(RrdCollectionEngine engine) {
+        if (engine == instance && --references == 0) {
+            instance = null;
+            engine.shutdown();
+        }
+    }
+
+    /**
+     * Collects the duration of the collection passes as a metric.
+     *
+     * @param metricName name of the metric
+     * @param metricsDir directory of the metric's RRD file
+     */
+    void collectTime(String metricName, String metricsDir) {
+        if (objectName == null) {
+            return;
+        }
+
+        collectionTimeCollector = new RrdJmxCollector(objectName.toString(),
+                "LastCollectionTime",
+                metricName,
+                RrdJmxCollector.GAUGE_DATA_SOURCE_TYPE);
+        collectionTimeCollector.setCollectionEngine(this);
+        collectionTimeCollector.setMetricsDir(metricsDir);
+        collectionTimeCollector.init();
+    }
+
+    /**
+     * Stops collecting, then stops the engine's threads and unregisters its MBean.
+     */
+    void shutdown() {
+        if (collectionTimeCollector != null) {
+            collectionTimeCollector.destroy();
+        }
+
+        // Interrupts collectors still waiting for their MBean to be registered
+        configurationExecutor.shutdownNow();
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                LOGGER.info("Metrics collection did not stop in {} seconds.",
+                        SHUTDOWN_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                    .interrupt();
+        }
+
+        unregisterMBean();
+    }
+
+    boolean isShutdown() {
+        return scheduler.isShutdown();
+    }
+
+    ObjectName getObjectName() {
+        return objectName;
+    }
+
+    /**
+     * Runs a task that configures a collector. Configuring a collector can take minutes while it
+     * waits for its MBean to be registered, so these tasks do not run on the scheduler thread.
+     *
+     * @param task the configuration task
+     */
+    void execute(Runnable task) {
+        try {
+            configurationExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            LOGGER.debug("Metrics collection engine is shut down, not configuring collector.", e);
+        }
+    }
+
+    /**
+     * Starts sampling the collector's MBean attribute at the collector's sample rate.
+     *
+     * @param collector the collector to sample
+     */
+    void add(RrdJmxCollector collector) {
+        try {
+            scheduler.execute(() -> {
+                CollectionPass pass = passesBySampleRate.computeIfAbsent(collector.getSampleRate(),
+                        CollectionPass::new);
+                pass.collectors.add(collector);
+                collectorCount++;
+            });
+        } catch (RejectedExecutionException e) {
+            LOGGER.debug("Metrics collection engine is shut down, not collecting metric {}",
+                    collector.getMetricName(),
+                    e);
+        }
+    }
+
+    /**
+     * Stops sampling the collector and writes any samples buffered for it. Waits for the current
+     * collection pass to complete, so the collector's RRD file can be closed once this method
+     * returns.
+     *
+     * @param collector the collector to stop sampling
+     */
+    void remove(RrdJmxCollector collector) {
+        try {
+            scheduler.submit(() -> {
+                CollectionPass pass = passesBySampleRate.get(collector.getSampleRate());
+                if (pass != null && pass.collectors.remove(collector)) {
+                    collectorCount--;
+                    if (pass.collectors.isEmpty()) {
+                        pass.future.cancel(false);
+                        passesBySampleRate.remove(pass.sampleRate);
+                    }
+                }
+                writePendingSamples();
+            })
+                    .get(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                    .interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            LOGGER.info("Unable to stop collecting metric {}", collector.getMetricName(), e);
+        } catch (RejectedExecutionException e) {
+            LOGGER.debug("Metrics collection engine is already shut down.", e);
+        }
+    }
+
+    @Override
+    public int getCollectorCount() {
+        return collectorCount;
+    }
+
+    @Override
+    public double getLastCollectionTime() {
+        return lastCollectionTime;
+    }
+
+    @Override
+    public long getCollectionCount() {
+        return collectionCount;
+    }
+
+    /*
+        Samples all the collectors of a pass: reads the attributes of each MBean in one call, then
+        adds one sample per RRD file with the values of all the collectors writing to it.
+     */
+    private void collect(List<RrdJmxCollector> collectors) {
+        long start = System.nanoTime();
+
+        Map<ObjectName, Map<String, List<RrdJmxCollector>>> collectorsByMBean =
+                new LinkedHashMap<>();
+        for (RrdJmxCollector collector : collectors) {
+            collectorsByMBean.computeIfAbsent(collector.getObjectName(),
+                    name -> new LinkedHashMap<>())
+                    .computeIfAbsent(collector.getMbeanAttributeName(),
+                            name -> new ArrayList<>())
+                    .add(collector);
+        }
+
+        long now = System.currentTimeMillis() / MILLIS_PER_SECOND;
+        Map<String, PendingSample> samplesByRrdFile = new LinkedHashMap<>();
+
+        for (Map.Entry<ObjectName, Map<String, List<RrdJmxCollector>>> mbean : collectorsByMBean
+                .entrySet()) {
+            Map<String, List<RrdJmxCollector>> collectorsByAttribute = mbean.getValue();
+            AttributeList attributes;
+            try {
+                attributes = mBeanServer.getAttributes(mbean.getKey(),
+                        collectorsByAttribute.keySet()
+                                .toArray(new String[collectorsByAttribute.size()]));
+            } catch (InstanceNotFoundException | ReflectionException e) {
+                LOGGER.info("Problems getting attributes {} of MBean {}",
+                        collectorsByAttribute.keySet(),
+                        mbean.getKey(),
+                        e);
+                continue;
+            }
+
+            for (Attribute attribute : attributes.asList()) {
+                List<RrdJmxCollector> attributeCollectors = collectorsByAttribute.remove(
+                        attribute.getName());
+                if (attributeCollectors != null) {
+                    for (RrdJmxCollector collector : attributeCollectors) {
+                        addValue(collector, attribute.getValue(), now, samplesByRrdFile);
+                    }
+                }
+            }
+
+            if (!collectorsByAttribute.isEmpty()) {
+                LOGGER.info("Problems getting attributes {} of MBean {}",
+                        collectorsByAttribute.keySet(),
+                        mbean.getKey());
+            }
+        }
+
+        pendingSamples.addAll(samplesByRrdFile.values());
+        if (++passesSinceWrite >= writeBehindIntervals) {
+            writePendingSamples();
+        }
+
+        lastCollectionTime = (System.nanoTime() - start) / NANOS_PER_MILLI;
+        collectionCount++;
+    }
+
+    private void addValue(RrdJmxCollector collector, Object attribute, long now,
+            Map<String, PendingSample> samplesByRrdFile) {
+        double value;
+        try {
+            value = collector.toSampleValue(attribute);
+        } catch (IllegalArgumentException e) {
+            LOGGER.info("Dropping sample of metric {}", collector.getMetricName(), e);
+            return;
+        }
+
+        LOGGER.trace("MBean attribute {} has value = {}",
+                collector.getMbeanAttributeName(),
+                value);
+
+        RrdDb rrdDb = collector.getRrdDb();
+        PendingSample sample = samplesByRrdFile.get(rrdDb.getPath());
+        if (sample == null) {
+            long lastUpdateTime;
+            try {
+                lastUpdateTime = getLastUpdateTime(rrdDb);
+            } catch (IOException e) {
+                LOGGER.info("Error reading RRD {}", rrdDb.getPath(), e);
+                return;
+            }
+
+            if (now - lastUpdateTime < collector.getMinimumUpdateTimeDelta()) {
+                collector.skipSample(now, lastUpdateTime);
+                return;
+            }
+
+            sample = new PendingSample(rrdDb, now);
+            samplesByRrdFile.put(rrdDb.getPath(), sample);
+        }
+
+        sample.values.put(collector.getRrdDataSourceName(), value);
+    }
+
+    /*
+        Buffered samples are not in the RRD file yet, so the last update time of a file is the time
+        of its latest buffered sample if it has one.
+     */
+    private long getLastUpdateTime(RrdDb rrdDb) throws IOException {
+        for (int i = pendingSamples.size() - 1; i >= 0; i--) {
+            PendingSample pending = pendingSamples.get(i);
+            if (pending.rrdDb == rrdDb) {
+                return pending.time;
+            }
+        }
+        return rrdDb.getLastUpdateTime();
+    }
+
+    private void writePendingSamples() {
+        for (PendingSample pending : pendingSamples) {
+            if (pending.rrdDb.isClosed()) {
+                continue;
+            }
+
+            LOGGER.debug("Sample time is [{}], updating RRD [{}] with values {}",
+                    MetricsUtil.getCalendarTime(pending.time),
+                    pending.rrdDb.getPath(),
+                    pending.values);
+
+            try {
+                Sample sample = pending.rrdDb.createSample(pending.time);
+                pending.values.forEach(sample::setValue);
+                sample.update();
+            } catch (IOException e) {
+                LOGGER.info("Error updating RRD {}", pending.rrdDb.getPath(), e);
+            } catch (IllegalArgumentException e) {
+                LOGGER.info("Dropping sample of RRD {}", pending.rrdDb.getPath(), e);
+            }
+        }
+        pendingSamples.clear();
+        passesSinceWrite = 0;
+    }
+
+    private void registerMBean(String name) {
+        try {
+            ObjectName mbeanName = new ObjectName(MBEAN_NAME_PREFIX + ",name=" + name);
+            mBeanServer.registerMBean(this, mbeanName);
+            objectName = mbeanName;
+            LOGGER.debug("Registered metrics collection engine MBean {}", mbeanName);
+        } catch (InstanceAlreadyExistsException e) {
+            LOGGER.info("Metrics collection engine MBean {} is already registered", name, e);
+        } catch (JMException e) {
+            LOGGER.info("Unable to register metrics collection engine MBean {}", name, e);
+        }
+    }
+
+    private void unregisterMBean() {
+        if (objectName == null) {
+            return;
+        }
+
+        try {
+            mBeanServer.unregisterMBean(objectName);
+            LOGGER.debug("Unregistered metrics collection engine MBean {}", objectName);
+        } catch (InstanceNotFoundException | MBeanRegistrationException e) {
+            LOGGER.info("Unable to unregister metrics collection engine MBean {}", objectName, e);
+        }
+        objectName = null;
+    }
+
+    /*
+        Names the collection time metric after the last part of the bundle's symbolic name, e.g.
+        ddf.metrics.interceptor.metrics-interceptor becomes metricsInterceptorCollectionTime.
+     */
+    static String getCollectionTimeMetricName(String name) {
+        StringBuilder metricName = new StringBuilder();
+        for (String word : StringUtils.substringAfterLast("." + name, ".")
+                .split("[^A-Za-z0-9]+")) {
+            metricName.append(metricName.length() == 0 ?
+                    StringUtils.uncapitalize(word) :
+                    StringUtils.capitalize(word));
+        }
+        return metricName.append(COLLECTION_TIME_METRIC_SUFFIX)
+                .toString();
+    }
+
+    private static ThreadFactory daemonThreadFactory(String name) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * The collectors sampled together at the same rate.
+     */
+    private class CollectionPass {
+
+        private final int sampleRate;
+
+        private final List<RrdJmxCollector> collectors = new ArrayList<>();
+
+        private final ScheduledFuture<?> future;
+
+        CollectionPass(int sampleRate) {
+            this.sampleRate = sampleRate;
+            this.future = scheduler.scheduleWithFixedDelay(this::run,
+                    0,
+                    sampleRate,
+                    TimeUnit.SECONDS);
+        }
+
+        private void run() {
+            try {
+                collect(collectors);
+            } catch (RuntimeException e) {
+                // An exception would stop the pass from being scheduled again
+                LOGGER.info("Unable to collect metrics", e);
+            }
+        }
+    }
+
+    /**
+     * The values of the data sources of an RRD file sampled at the same time.
+     */
+    private static class PendingSample {
+
+        private final RrdDb rrdDb;
+
+        private final long time;
+
+        private final Map<String, Double> values = new LinkedHashMap<>();
+
+        PendingSample(RrdDb rrdDb, long time) {
+            this.rrdDb = rrdDb;
+            this.time = time;
+        }
+    }
+}
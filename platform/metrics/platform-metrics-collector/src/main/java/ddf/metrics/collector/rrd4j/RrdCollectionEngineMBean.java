@@ -0,0 +1,37 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.metrics.collector.rrd4j;
+
+/**
+ * Exposes the cost of the metric collection done by the {@link RrdCollectionEngine}, so that it can
+ * be collected like any other metric.
+ */
+public interface RrdCollectionEngineMBean {
+
+    /**
+     * @return the number of {@link RrdJmxCollector}s currently sampled by the engine
+     */
+    int getCollectorCount();
+
+    /**
+     * @return the time, in milliseconds, the last collection pass took to read the MBean
+     * attributes of all its collectors and to write their samples
+     */
+    double getLastCollectionTime();
+
+    /**
+     * @return the total number of collection passes run by the engine
+     */
+    long getCollectionCount();
+}
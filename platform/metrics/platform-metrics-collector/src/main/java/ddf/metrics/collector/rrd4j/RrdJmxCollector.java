@@ -16,19 +16,10 @@
 import java.io.File;
 import java.io.IOException;
 import java.lang.management.ManagementFactory;
-import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
-
-import javax.management.AttributeNotFoundException;
-import javax.management.InstanceNotFoundException;
-import javax.management.MBeanException;
+
 import javax.management.MBeanServer;
 import javax.management.MalformedObjectNameException;
 import javax.management.ObjectName;
-import javax.management.ReflectionException;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.math.NumberUtils;
@@ -38,13 +29,11 @@
 import org.rrd4j.core.RrdDb;
 import org.rrd4j.core.RrdDbPool;
 import org.rrd4j.core.RrdDef;
-import org.rrd4j.core.Sample;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ddf.metrics.collector.CollectorException;
 import ddf.metrics.collector.JmxCollector;
-import ddf.metrics.collector.MetricsUtil;
 
 public class RrdJmxCollector implements JmxCollector {
 
@@ -64,8 +53,6 @@ public class RrdJmxCollector implements JmxCollector {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(RrdJmxCollector.class);
 
-    private static final int MILLIS_PER_SECOND = 1000;
-
     private static final int FIVE_MINUTES_MILLIS = 300000;
 
     /**
@@ -87,12 +74,20 @@ public class RrdJmxCollector implements JmxCollector {
 
     private final RrdDbPool pool;
 
+    private RrdCollectionEngine engine;
+
+    private boolean engineAcquired;
+
+    private boolean destroyed;
+
     /**
      * Name of the JMX MBean that contains the metric being collected. (Should be set by <config>
      * stanza in metrics-reporting-app features.xml file)
      */
     private String mbeanName;
 
+    private ObjectName objectName;
+
     /**
      * Name of the JMX MBean attribute that maps to the metric being collected. (Should be set by
      * <config> stanza in metrics-reporting-app features.xml file)
@@ -133,7 +128,7 @@ public class RrdJmxCollector implements JmxCollector {
 
     private long minimumUpdateTimeDelta;
 
-    private long sampleSkipCount;
+    private volatile long sampleSkipCount;
 
     private int rrdStep;
 
@@ -141,14 +136,10 @@ public class RrdJmxCollector implements JmxCollector {
 
     private RrdDb rrdDb;
 
-    private Sample sample = null;
-
-    private ScheduledThreadPoolExecutor executor;
+    private boolean sampling;
 
     private long mbeanTimeoutMillis = FIVE_MINUTES_MILLIS;
 
-    private ExecutorService executorPool;
-
     public RrdJmxCollector(String mbeanName, String mbeanAttributeName, String metricName) {
         this(mbeanName,
                 mbeanAttributeName,
@@ -236,10 +227,6 @@ public String getMetricType() {
     public void init() {
         LOGGER.trace("ENTERING: init() for metric {}", metricName);
 
-        if (executorPool == null) {
-            executorPool = Executors.newCachedThreadPool();
-        }
-
         // Creating JmxCollector can be time consuming,
         // so do this in a separate thread to prevent holding up creation
         // of Sources or the Catalog
@@ -256,7 +243,7 @@ public void run() {
         };
 
         LOGGER.debug("Start configureCollector thread for JmxCollector {}", mbeanAttributeName);
-        executorPool.execute(jmxCollectorCreator);
+        getCollectionEngine().execute(jmxCollectorCreator);
 
         LOGGER.trace("EXITING: init()");
     }
@@ -264,6 +251,16 @@ public void run() {
     void configureCollector() throws CollectorException, IOException {
         LOGGER.trace("ENTERING: configureCollector() for collector {}", mbeanAttributeName);
 
+        try {
+            objectName = new ObjectName(mbeanName);
+        } catch (MalformedObjectNameException e) {
+            LOGGER.debug("Invalid MBean name {} - no collector will be configured for it.",
+                    mbeanName,
+                    e);
+            throw new CollectorException("Invalid MBean name " + mbeanName
+                    + " - no collector will be configured for it.");
+        }
+
         if (!isMbeanAccessible()) {
             LOGGER.debug(
                     "MBean attribute {} is not accessible - no collector will be configured for it.",
@@ -296,14 +293,21 @@ void configureCollector() throws CollectorException, IOException {
     public void destroy() {
         LOGGER.trace("ENTERING: destroy() for metric {}", metricName);
 
-        // Shutdown the scheduled threaded executor that is polling the MBean attribute (metric)
-        if (executor != null) {
-            List<Runnable> tasks = executor.shutdownNow();
-            if (tasks != null) {
-                LOGGER.debug("Num tasks awaiting execution = {}", tasks.size());
-            } else {
-                LOGGER.debug("No tasks awaiting execution");
+        synchronized (this) {
+            destroyed = true;
+
+            // Stop polling the MBean attribute (metric) and write its buffered samples
+            if (sampling) {
+                engine.remove(this);
+                sampling = false;
+            }
+
+            // Stops the engine's threads once the bundle's last collector is destroyed
+            if (engineAcquired) {
+                RrdCollectionEngine.release(engine);
+                engineAcquired = false;
             }
+            engine = null;
         }
 
         // Close the RRD DB
@@ -330,7 +334,7 @@ private boolean isMbeanAccessible() {
         long startTime = System.currentTimeMillis();
         while (attr == null && (System.currentTimeMillis() - startTime < mbeanTimeoutMillis)) {
             try {
-                attr = localMBeanServer.getAttribute(new ObjectName(mbeanName), mbeanAttributeName);
+                attr = localMBeanServer.getAttribute(objectName, mbeanAttributeName);
 
                 if (!isNumeric(attr)) {
                     LOGGER.debug("{} from MBean {} has non-numeric data",
@@ -517,101 +521,82 @@ private void createRrdFile(final String metricName, final String dsName, final D
     }
 
     /**
-     * Configures a scheduled threaded executor to poll the metric's MBean periodically and add a
-     * sample to the RRD file with the metric's current value.
+     * Registers the collector with the {@link RrdCollectionEngine} which polls the metric's MBean
+     * periodically and adds a sample to the RRD file with the metric's current value.
      *
      * @throws CollectorException
      */
-    public void updateSamples() throws CollectorException {
+    public synchronized void updateSamples() throws CollectorException {
         LOGGER.trace("ENTERING: updateSamples");
 
-        if (executor == null) {
-            executor = new ScheduledThreadPoolExecutor(1);
+        if (destroyed) {
+            LOGGER.debug("Collector for MBean {} was destroyed while it was configured", mbeanName);
+            return;
         }
 
-        final Runnable updater = new Runnable() {
-            public void run() {
-                Object attr = null;
-                try {
-                    attr = localMBeanServer.getAttribute(new ObjectName(mbeanName),
-                            mbeanAttributeName);
+        LOGGER.debug("Adding collector for MBean {} to the collection engine", mbeanName);
+        getCollectionEngine().add(this);
+        sampling = true;
 
-                    LOGGER.trace("Sampling attribute {} from MBean {}",
-                            mbeanAttributeName,
-                            mbeanName);
+        LOGGER.trace("EXITING: updateSamples");
+    }
 
-                    // Cast the metric's sampled value to the appropriate data type
-                    double val = 0;
-                    if (attr instanceof Integer) {
-                        val = (Integer) attr;
-                    } else if (attr instanceof Long) {
-                        val = ((Long) attr).intValue();
-                    } else if (attr instanceof Float) {
-                        val = ((Float) attr);
-                    } else if (attr instanceof Double) {
-                        val = ((Double) attr);
-                    } else {
-                        throw new IllegalArgumentException(
-                                "Unsupported type " + attr + " for attribute "
-                                        + mbeanAttributeName);
-                    }
-
-                    LOGGER.trace("MBean attribute {} has value = {}", mbeanAttributeName, val);
-
-                    // If first time this metric has been sampled, then need to create a
-                    // sample in the RRD file
-                    if (sample == null) {
-                        sample = rrdDb.createSample();
-                    }
-
-                    try {
-                        long now = System.currentTimeMillis() / MILLIS_PER_SECOND;
-                        long lastUpdateTime = rrdDb.getLastUpdateTime();
-
-                        // Add metric's sample to RRD file with current timestamp
-                        if (now - rrdDb.getLastUpdateTime() >= minimumUpdateTimeDelta) {
-                            updateSample(now, val);
-                        } else {
-                            LOGGER.debug(
-                                    "Skipping sample update because time between updates is less than {} seconds",
-                                    minimumUpdateTimeDelta);
-
-                            sampleSkipCount++;
-
-                            LOGGER.debug("now = {},   lastUpdateTime = {}   (sampleSkipCount = {})",
-                                    now,
-                                    lastUpdateTime,
-                                    sampleSkipCount);
-                        }
-                    } catch (IllegalArgumentException iae) {
-                        LOGGER.info("Dropping sample of datasource {}", rrdDataSourceName, iae);
-                    }
-                } catch (MalformedObjectNameException | AttributeNotFoundException | InstanceNotFoundException | MBeanException | ReflectionException e) {
-                    LOGGER.info("Problems getting MBean attribute {}", mbeanAttributeName, e);
-                } catch (IOException e) {
-                    LOGGER.info("Error updating RRD", e);
-                }
-            }
-        };
+    /**
+     * @return the engine sampling this collector, acquiring the shared engine the first time
+     */
+    synchronized RrdCollectionEngine getCollectionEngine() {
+        if (engine == null) {
+            engine = RrdCollectionEngine.acquire();
+            engineAcquired = true;
+        }
+        return engine;
+    }
 
-        // Setup threaded scheduler to retrieve this MBean attribute's value
-        // at the specified sample rate
-        LOGGER.debug("Setup ScheduledThreadPoolExecutor for MBean {}", mbeanName);
-        executor.scheduleWithFixedDelay(updater, 0, sampleRate, TimeUnit.SECONDS);
+    /**
+     * Samples this collector with an engine other than the shared one, which this collector
+     * does not release when it is destroyed.
+     *
+     * @param engine the engine sampling this collector
+     */
+    void setCollectionEngine(RrdCollectionEngine engine) {
+        this.engine = engine;
+    }
 
-        LOGGER.trace("EXITING: updateSamples");
+    /**
+     * Casts the metric's sampled value to the appropriate data type.
+     *
+     * @param attr
+     *            the value of the MBean attribute
+     *
+     * @return the value to add to the RRD file
+     *
+     * @throws IllegalArgumentException
+     *             if the value is not an Integer, Long, Float or Double
+     */
+    double toSampleValue(Object attr) {
+        if (attr instanceof Integer) {
+            return (Integer) attr;
+        } else if (attr instanceof Long) {
+            return ((Long) attr).intValue();
+        } else if (attr instanceof Float) {
+            return (Float) attr;
+        } else if (attr instanceof Double) {
+            return (Double) attr;
+        }
+        throw new IllegalArgumentException(
+                "Unsupported type " + attr + " for attribute " + mbeanAttributeName);
     }
 
-    private void updateSample(long now, double val) throws IOException {
+    void skipSample(long now, long lastUpdateTime) {
+        LOGGER.debug("Skipping sample update because time between updates is less than {} seconds",
+                minimumUpdateTimeDelta);
 
-        LOGGER.debug("Sample time is [{}], updating metric [{}] with value [{}]",
-                MetricsUtil.getCalendarTime(now),
-                mbeanName,
-                val);
+        sampleSkipCount++;
 
-        sample.setTime(now);
-        sample.setValue(rrdDataSourceName, val);
-        sample.update();
+        LOGGER.debug("now = {},   lastUpdateTime = {}   (sampleSkipCount = {})",
+                now,
+                lastUpdateTime,
+                sampleSkipCount);
     }
 
     /**
@@ -666,6 +651,22 @@ protected void setSampleRate(int sampleRate) {
         this.rrdStep = this.sampleRate;
     }
 
+    ObjectName getObjectName() {
+        return objectName;
+    }
+
+    RrdDb getRrdDb() {
+        return rrdDb;
+    }
+
+    String getRrdDataSourceName() {
+        return rrdDataSourceName;
+    }
+
+    long getMinimumUpdateTimeDelta() {
+        return minimumUpdateTimeDelta;
+    }
+
     protected long getSampleSkipCount() {
         return sampleSkipCount;
     }
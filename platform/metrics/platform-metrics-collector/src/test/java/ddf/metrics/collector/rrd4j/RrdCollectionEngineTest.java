@@ -0,0 +1,99 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.metrics.collector.rrd4j;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class RrdCollectionEngineTest {
+
+    private static final String TEST_DIR = "target/";
+
+    private static final String ENGINE_NAME = "ddf.metrics.test-engine";
+
+    private static final String METRIC_NAME = "testEngineCollectionTime";
+
+    private MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+    private RrdCollectionEngine engine;
+
+    @After
+    public void tearDown() {
+        if (engine != null) {
+            engine.shutdown();
+        }
+        new File(TEST_DIR + METRIC_NAME + RrdJmxCollector.RRD_FILENAME_SUFFIX).delete();
+    }
+
+    @Test
+    public void testMBeanNamedAfterEngine() throws Exception {
+        engine = new RrdCollectionEngine(mBeanServer, ENGINE_NAME, 1);
+
+        assertThat(engine.getObjectName(),
+                is(new ObjectName(RrdCollectionEngine.MBEAN_NAME_PREFIX + ",name=" + ENGINE_NAME)));
+        assertThat(mBeanServer.isRegistered(engine.getObjectName()), is(true));
+    }
+
+    @Test
+    public void testShutdownUnregistersMBean() throws Exception {
+        engine = new RrdCollectionEngine(mBeanServer, ENGINE_NAME, 1);
+        ObjectName objectName = engine.getObjectName();
+
+        engine.shutdown();
+
+        assertThat(engine.isShutdown(), is(true));
+        assertThat(mBeanServer.isRegistered(objectName), is(false));
+
+        // A new engine can be registered under the same name
+        engine = new RrdCollectionEngine(mBeanServer, ENGINE_NAME, 1);
+        assertThat(engine.getObjectName(), is(objectName));
+    }
+
+    @Test
+    public void testCollectionTimeIsCollected() throws Exception {
+        engine = new RrdCollectionEngine(mBeanServer, ENGINE_NAME, 1);
+
+        engine.collectTime(METRIC_NAME, TEST_DIR);
+        for (int i = 0; i < 50 && engine.getCollectorCount() == 0; i++) {
+            Thread.sleep(100);
+        }
+
+        assertThat(engine.getCollectorCount(), is(1));
+        assertThat(new File(TEST_DIR + METRIC_NAME + RrdJmxCollector.RRD_FILENAME_SUFFIX).exists(),
+                is(true));
+
+        engine.shutdown();
+
+        assertThat(engine.getCollectorCount(), is(0));
+        engine = null;
+    }
+
+    @Test
+    public void testCollectionTimeMetricName() {
+        assertThat(RrdCollectionEngine.getCollectionTimeMetricName(
+                "ddf.metrics.interceptor.metrics-interceptor"),
+                is("metricsInterceptorCollectionTime"));
+        assertThat(RrdCollectionEngine.getCollectionTimeMetricName("sample_metrics"),
+                is("sampleMetricsCollectionTime"));
+    }
+}
@@ -19,13 +19,17 @@
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.fail;
 
 import java.io.File;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.util.Calendar;
 import java.util.TimeZone;
 
+import javax.management.ObjectName;
+
 import org.junit.After;
 import org.junit.Rule;
 import org.junit.Test;
@@ -350,6 +354,54 @@ public void testManyUpdatesInRapidSuccession() throws Exception {
         assertThat(jmxCollector.getSampleSkipCount(), is(greaterThan(0L)));
     }
 
+    @Test
+    public void testCollectorsShareCollectionEngine() throws Exception {
+        RrdCollectionEngine engine = RrdCollectionEngine.acquire();
+        try {
+            int collectorCount = engine.getCollectorCount();
+
+            createJmxCollector("Uptime",
+                    name.getMethodName(),
+                    RrdJmxCollector.GAUGE_DATA_SOURCE_TYPE,
+                    1);
+            long collectionCount = engine.getCollectionCount();
+
+            Thread.sleep(2000);
+
+            assertThat(jmxCollector.getCollectionEngine(), is(sameInstance(engine)));
+            assertThat(engine.getCollectorCount(), is(collectorCount + 1));
+            assertThat(engine.getCollectionCount(), is(greaterThan(collectionCount)));
+
+            jmxCollector.destroy();
+            jmxCollector = null;
+
+            assertThat(engine.getCollectorCount(), is(collectorCount));
+            assertThat(engine.isShutdown(), is(false));
+        } finally {
+            RrdCollectionEngine.release(engine);
+        }
+    }
+
+    @Test
+    public void testDestroyingLastCollectorShutsDownEngine() throws Exception {
+        createJmxCollector("Uptime",
+                name.getMethodName(),
+                RrdJmxCollector.GAUGE_DATA_SOURCE_TYPE,
+                1);
+        RrdCollectionEngine engine = jmxCollector.getCollectionEngine();
+        ObjectName engineName = new ObjectName(RrdCollectionEngine.MBEAN_NAME_PREFIX + ",name="
+                + RrdCollectionEngine.DEFAULT_NAME);
+        assertThat(ManagementFactory.getPlatformMBeanServer()
+                .isRegistered(engineName), is(true));
+
+        jmxCollector.destroy();
+        jmxCollector = null;
+
+        assertThat(engine.isShutdown(), is(true));
+        assertThat(ManagementFactory.getPlatformMBeanServer()
+                .isRegistered(engineName), is(false));
+    }
+
     /****************************************************************************************/
 
     private void createJmxCollector(String mbeanAttributeName, String metricName,
@@ -13,23 +13,20 @@
  */
 package ddf.mime.mapper;
 
-import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.w3c.dom.Document;
-import org.w3c.dom.Node;
-import org.xml.sax.SAXException;
 
 import ddf.mime.MimeTypeMapper;
 import ddf.mime.MimeTypeResolutionException;
@@ -49,6 +46,16 @@ public class MimeTypeMapperImpl implements MimeTypeMapper {
 
     private static final String XML_FILE_EXTENSION = "xml";
 
+    private static final XMLInputFactory XML_INPUT_FACTORY;
+
+    static {
+        XML_INPUT_FACTORY = XMLInputFactory.newInstance();
+        XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        XML_INPUT_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, false);
+    }
+
     private static Comparator<MimeTypeResolver> comparator = new Comparator<MimeTypeResolver>() {
         public int compare(MimeTypeResolver o1, MimeTypeResolver o2) {
             return o1.getPriority() - o2.getPriority();
@@ -234,23 +241,28 @@ private String getRootElementNamespace(InputStream is) {
             return null;
         }
 
+        // Only read as far as the root element, rather than parsing the whole document
         String namespace = null;
-        DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-        dbf.setNamespaceAware(true);
-        try {
-            dbf.setFeature("http://apache.org/xml/features/nonvalidating/load-dtd-grammar", false);
-            dbf.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
-        } catch (ParserConfigurationException e) {
-            LOGGER.debug("Unable to configure features on document builder.", e);
-        }
-
+        XMLStreamReader xmlStreamReader = null;
         try {
-            DocumentBuilder db = dbf.newDocumentBuilder();
-            Document document = db.parse(is);
-            Node node = document.getDocumentElement();
-            namespace = node.getNamespaceURI();
-        } catch (ParserConfigurationException | SAXException | IOException e) {
+            xmlStreamReader = XML_INPUT_FACTORY.createXMLStreamReader(is);
+            while (xmlStreamReader.hasNext()) {
+                if (xmlStreamReader.next() == XMLStreamConstants.START_ELEMENT) {
+                    namespace = StringUtils.defaultIfEmpty(xmlStreamReader.getNamespaceURI(),
+                            null);
+                    break;
+                }
+            }
+        } catch (XMLStreamException e) {
             LOGGER.debug("Unable to get root element namespace");
+        } finally {
+            if (xmlStreamReader != null) {
+                try {
+                    xmlStreamReader.close();
+                } catch (XMLStreamException e) {
+                    LOGGER.debug("Unable to close XML stream reader", e);
+                }
+            }
         }
 
         LOGGER.trace("ENXITING: getRootElementNamespace() - namespace = {}", namespace);
@@ -14,8 +14,6 @@
 package org.codice.ddf.persistence.commands;
 
 import java.io.IOException;
-import java.util.List;
-import java.util.Map;
 
 import org.apache.felix.gogo.commands.Command;
 import org.codice.ddf.persistence.PersistenceException;
@@ -29,9 +27,9 @@ public class StoreDeleteCommand extends AbstractStoreCommand {
     @Override
     public void storeCommand() throws PersistenceException {
 
-        List<Map<String, Object>> results = persistentStore.get(type, cql);
-        if (!results.isEmpty()) {
-            console.println(results.size() + " results matched cql.");
+        long numResults = persistentStore.count(type, cql);
+        if (numResults > 0) {
+            console.println(numResults + " results matched cql.");
             String message = "\nAre you sure you want to delete? (yes/no): ";
             ConsoleReader reader = (ConsoleReader) session.get(".jline.reader");
             while (true) {
@@ -13,10 +13,10 @@
  */
 package org.codice.ddf.persistence.commands;
 
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.felix.gogo.commands.Command;
@@ -28,6 +28,8 @@
         description = "Lists entries that are available in the persistent store.")
 public class StoreListCommand extends AbstractStoreCommand {
 
+    private static final int PAGE_SIZE = 100;
+
     @Option(name = "User ID", aliases = {"-u", "--user"}, required = false,
             description = "User ID to search for notifications. If an id is not provided, then all of the notifications for all users are displayed.",
             multiValued = false)
@@ -38,21 +40,15 @@ public class StoreListCommand extends AbstractStoreCommand {
     @Override
     public void storeCommand() throws PersistenceException {
 
-        List<Map<String, Object>> storeResults;
-
         cql = createCql(user, cql);
 
-        if (StringUtils.isNotBlank(cql)) {
-            storeResults = persistentStore.get(type, cql);
-        } else {
-            storeResults = persistentStore.get(type);
-        }
-        console.println("Results found: " + storeResults.size() + "\n");
+        console.println("Results found: " + persistentStore.count(type, cql) + "\n");
 
-        // output the entries
-        for (int i = 0; i < storeResults.size(); i++) {
-            Map<String, Object> curStore = PersistentItem.stripSuffixes(storeResults.get(i));
-            console.println("Result {" + i + "}:");
+        // output the entries a page at a time
+        AtomicInteger index = new AtomicInteger();
+        persistentStore.get(type, cql, PAGE_SIZE, result -> {
+            Map<String, Object> curStore = PersistentItem.stripSuffixes(result);
+            console.println("Result {" + index.getAndIncrement() + "}:");
             if (headerSet.isEmpty()) {
                 // populates the header with the keys from the first entry
                 headerSet.addAll(curStore.keySet());
@@ -63,7 +59,7 @@ public void storeCommand() throws PersistenceException {
                 console.println("\t" + curStore.get(curKey)
                         .toString());
             }
-        }
+        });
         console.println("");
 
     }
@@ -14,10 +14,12 @@
 package org.codice.ddf.persistence;
 
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 
 public interface PersistentStore {
 
@@ -47,6 +49,21 @@ public interface PersistentStore {
      */
     public void add(String type, Map<String, Object> properties) throws PersistenceException;
 
+    /**
+     * Adds items of specified type, each with the specified properties. Implementations should
+     * send the items to the store together so that they are committed together.
+     *
+     * @param type
+     * @param items
+     * @throws PersistenceException
+     */
+    public default void add(String type, Collection<Map<String, Object>> items)
+            throws PersistenceException {
+        for (Map<String, Object> properties : items) {
+            add(type, properties);
+        }
+    }
+
     /**
      * Get all of the items of the specified type.
      *
@@ -66,6 +83,34 @@ public interface PersistentStore {
      */
     public List<Map<String, Object>> get(String type, String ecql) throws PersistenceException;
 
+    /**
+     * Get items matching the ECQL query criteria, handing them to the consumer as they are read
+     * instead of returning them all at once. Implementations should read at most
+     * {@code pageSize} items from the store at a time.
+     *
+     * @param type
+     * @param ecql
+     * @param pageSize
+     * @param consumer
+     * @throws PersistenceException
+     */
+    public default void get(String type, String ecql, int pageSize,
+            Consumer<Map<String, Object>> consumer) throws PersistenceException {
+        get(type, ecql).forEach(consumer);
+    }
+
+    /**
+     * Count the items matching the ECQL query criteria.
+     *
+     * @param type
+     * @param ecql
+     * @return Count of the items matching the query
+     * @throws PersistenceException
+     */
+    public default long count(String type, String ecql) throws PersistenceException {
+        return get(type, ecql).size();
+    }
+
     /**
      * Delete items matching the ECQL query criteria.
      *
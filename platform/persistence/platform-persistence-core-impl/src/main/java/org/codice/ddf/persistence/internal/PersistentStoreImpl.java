@@ -16,6 +16,7 @@
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -24,6 +25,7 @@
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang.StringUtils;
@@ -36,6 +38,7 @@
 import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrDocumentList;
 import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.params.CursorMarkParams;
 import org.codice.ddf.persistence.PersistenceException;
 import org.codice.ddf.persistence.PersistentItem;
 import org.codice.ddf.persistence.PersistentStore;
@@ -63,37 +66,51 @@ public PersistentStoreImpl(SolrClientFactoryImpl clientFactory) {
     @Override
     // Input Map is expected to have the suffixes on the key names
     public void add(String type, Map<String, Object> properties) throws PersistenceException {
+        add(type, Collections.singletonList(properties));
+    }
+
+    @Override
+    // Input Maps are expected to have the suffixes on the key names
+    public void add(String type, Collection<Map<String, Object>> items)
+            throws PersistenceException {
         LOGGER.debug("type = {}", type);
         if (type == null || type.isEmpty()) {
             throw new PersistenceException(
                     "The type of object(s) to retrieve must be non-null and not blank, e.g., notification, metacard, etc.");
         }
-        if (properties == null || properties.isEmpty() || properties.containsValue("guest")) {
-            return;
-        }
-
-        LOGGER.debug("Adding entry of type {}", type);
-
-        // Set Solr Core name to type and create solr client
-        SolrClient solrClient = getSolrClient(type);
-        if (solrClient == null) {
-            throw new PersistenceException("Unable to create Solr client.");
-        }
 
         Date now = new Date();
         //DateFormat df = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssZ");
         //String createdDate = df.format(now);
 
-        SolrInputDocument solrInputDocument = new SolrInputDocument();
-        solrInputDocument.addField("createddate_tdt", now);
+        List<SolrInputDocument> solrInputDocuments = new ArrayList<>();
+        for (Map<String, Object> properties : items) {
+            if (properties == null || properties.isEmpty()
+                    || properties.containsValue("guest")) {
+                continue;
+            }
+
+            SolrInputDocument solrInputDocument = new SolrInputDocument();
+            solrInputDocument.addField("createddate_tdt", now);
+
+            for (Map.Entry<String, Object> entry : properties.entrySet()) {
+                solrInputDocument.addField(entry.getKey(), entry.getValue());
+            }
+            solrInputDocuments.add(solrInputDocument);
+        }
 
-        for (Map.Entry<String, Object> entry : properties.entrySet()) {
-            solrInputDocument.addField(entry.getKey(), entry.getValue());
+        if (solrInputDocuments.isEmpty()) {
+            return;
         }
 
+        LOGGER.debug("Adding {} entries of type {}", solrInputDocuments.size(), type);
+
+        SolrClient solrClient = getValidatedSolrClient(type);
+
         try {
-            UpdateResponse response = solrClient.add(solrInputDocument);
-            LOGGER.debug("UpdateResponse from add of SolrInputDocument:  {}", response);
+            // All of the documents go in one update request so they are committed together
+            UpdateResponse response = solrClient.add(solrInputDocuments);
+            LOGGER.debug("UpdateResponse from add of SolrInputDocuments:  {}", response);
         } catch (SolrServerException e) {
             LOGGER.info("SolrServerException while adding Solr index for persistent type {}",
                     type,
@@ -137,132 +154,190 @@ public List<Map<String, Object>> get(String type) throws PersistenceException {
     @Override
     // Returned Map will have suffixes in the key names - client is responsible for handling them
     public List<Map<String, Object>> get(String type, String cql) throws PersistenceException {
-        if (StringUtils.isBlank(type)) {
-            throw new PersistenceException(
-                    "The type of object(s) to retrieve must be non-null and not blank, e.g., notification, metacard, etc.");
+        List<Map<String, Object>> results = new ArrayList<>();
+
+        SolrClient solrClient = getValidatedSolrClient(type);
+        SolrQuery solrQuery = createQuery(solrClient, type, cql);
+
+        QueryResponse solrResponse = query(solrClient, solrQuery, cql);
+        long numResults = solrResponse.getResults()
+                .getNumFound();
+        LOGGER.debug("numResults = {}", numResults);
+
+        SolrDocumentList docs = solrResponse.getResults();
+        for (SolrDocument doc : docs) {
+            results.add(toPersistentItem(doc));
         }
 
-        List<Map<String, Object>> results = new ArrayList<>();
+        return results;
+    }
 
-        // Set Solr Core name to type and create/connect to Solr Core
-        SolrClient solrClient = getSolrClient(type);
-        if (solrClient == null) {
-            throw new PersistenceException("Unable to create Solr client.");
+    @Override
+    // Consumed Maps will have suffixes in the key names - client is responsible for handling them
+    public void get(String type, String cql, int pageSize, Consumer<Map<String, Object>> consumer)
+            throws PersistenceException {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be greater than 0");
         }
 
-        SolrQueryFilterVisitor visitor = new SolrQueryFilterVisitor(solrClient, type);
+        SolrClient solrClient = getValidatedSolrClient(type);
+        SolrQuery solrQuery = createQuery(solrClient, type, cql);
 
-        try {
-            SolrQuery solrQuery;
-            // If not cql specified, then return all items
-            if (StringUtils.isBlank(cql)) {
-                solrQuery = new SolrQuery("*:*");
-            } else {
-                Filter filter = CQL.toFilter(cql);
-                solrQuery = (SolrQuery) filter.accept(visitor, null);
+        // Cursors require a sort on the unique key so that paging is stable
+        solrQuery.setRows(pageSize);
+        solrQuery.setSort(SolrQuery.SortClause.asc(PersistentItem.ID));
+
+        String cursorMark = CursorMarkParams.CURSOR_MARK_START;
+        while (true) {
+            solrQuery.set(CursorMarkParams.CURSOR_MARK_PARAM, cursorMark);
+            QueryResponse solrResponse = query(solrClient, solrQuery, cql);
+
+            for (SolrDocument doc : solrResponse.getResults()) {
+                consumer.accept(toPersistentItem(doc));
             }
-            QueryResponse solrResponse = solrClient.query(solrQuery, METHOD.POST);
-            long numResults = solrResponse.getResults()
-                    .getNumFound();
-            LOGGER.debug("numResults = {}", numResults);
-
-            SolrDocumentList docs = solrResponse.getResults();
-            for (SolrDocument doc : docs) {
-                PersistentItem result = new PersistentItem();
-                Collection<String> fieldNames = doc.getFieldNames();
-                for (String name : fieldNames) {
-                    LOGGER.debug("field name = {} has value = {}", name, doc.getFieldValue(name));
-                    if (name.endsWith(PersistentItem.TEXT_SUFFIX) && doc.getFieldValues(name)
-                            .size() > 1) {
-                        result.addProperty(name,
-                                doc.getFieldValues(name)
-                                        .stream()
-                                        .filter(s -> s instanceof String)
-                                        .map(s -> (String) s)
-                                        .collect(Collectors.toSet()));
-                    } else if (name.endsWith(PersistentItem.XML_SUFFIX)) {
-                        result.addXmlProperty(name, (String) doc.getFirstValue(name));
-                    } else if (name.endsWith(PersistentItem.TEXT_SUFFIX)) {
-                        result.addProperty(name, (String) doc.getFirstValue(name));
-                    } else if (name.endsWith(PersistentItem.LONG_SUFFIX)) {
-                        result.addProperty(name, (Long) doc.getFirstValue(name));
-                    } else if (name.endsWith(PersistentItem.INT_SUFFIX)) {
-                        result.addProperty(name, (Integer) doc.getFirstValue(name));
-                    } else if (name.endsWith(PersistentItem.DATE_SUFFIX)) {
-                        result.addProperty(name, (Date) doc.getFirstValue(name));
-                    } else if (name.endsWith(PersistentItem.BINARY_SUFFIX)) {
-                        result.addProperty(name, (byte[]) doc.getFirstValue(name));
-                    } else {
-                        LOGGER.debug("Not adding field {} because it has invalid suffix", name);
-                    }
-                }
-                results.add(result);
+
+            String nextCursorMark = solrResponse.getNextCursorMark();
+            if (nextCursorMark == null || cursorMark.equals(nextCursorMark)) {
+                break;
             }
-        } catch (CQLException e) {
-            throw new PersistenceException(
-                    "CQLException while getting Solr data with cql statement " + cql,
-                    e);
-        } catch (SolrServerException | IOException e) {
-            throw new PersistenceException(
-                    "SolrServerException while getting Solr data with cql statement " + cql,
-                    e);
+            cursorMark = nextCursorMark;
         }
+    }
 
-        return results;
+    @Override
+    public long count(String type, String cql) throws PersistenceException {
+        SolrClient solrClient = getValidatedSolrClient(type);
+        SolrQuery solrQuery = createQuery(solrClient, type, cql);
+        solrQuery.setRows(0);
+
+        long numResults = query(solrClient, solrQuery, cql).getResults()
+                .getNumFound();
+        LOGGER.debug("numResults = {}", numResults);
+        return numResults;
     }
 
     @Override
     public int delete(String type, String cql) throws PersistenceException {
-        List<Map<String, Object>> itemsToDelete = this.get(type, cql);
-        SolrClient solrClient = getSolrClient(type);
-        if (solrClient == null) {
-            throw new PersistenceException("Unable to create Solr client.");
-        }
-        List<String> idsToDelete = new ArrayList<>();
-        for (Map<String, Object> item : itemsToDelete) {
-            String uuid = (String) item.get(PersistentItem.ID);
-            if (StringUtils.isNotBlank(uuid)) {
-                idsToDelete.add(uuid);
-            }
-        }
+        SolrClient solrClient = getValidatedSolrClient(type);
+        SolrQuery solrQuery = createQuery(solrClient, type, cql);
+        solrQuery.setRows(0);
+
+        // Only the number of matches is read, the items themselves are deleted by query
+        long numResults = query(solrClient, solrQuery, cql).getResults()
+                .getNumFound();
 
-        if (!idsToDelete.isEmpty()) {
+        if (numResults > 0) {
             try {
-                LOGGER.debug("Deleting {} items by ID", idsToDelete.size());
-                solrClient.deleteById(idsToDelete);
+                LOGGER.debug("Deleting {} items by query", numResults);
+                solrClient.deleteByQuery(solrQuery.getQuery());
             } catch (SolrServerException e) {
                 LOGGER.info(
-                        "SolrServerException while trying to delete items by ID for persistent type {}",
+                        "SolrServerException while trying to delete items by query for persistent type {}",
                         type,
                         e);
                 doRollback(solrClient, type);
                 throw new PersistenceException(
-                        "SolrServerException while trying to delete items by ID for persistent type "
+                        "SolrServerException while trying to delete items by query for persistent type "
                                 + type,
                         e);
             } catch (IOException e) {
-                LOGGER.info("IOException while trying to delete items by ID for persistent type {}",
+                LOGGER.info(
+                        "IOException while trying to delete items by query for persistent type {}",
                         type,
                         e);
                 doRollback(solrClient, type);
                 throw new PersistenceException(
-                        "IOException while trying to delete items by ID for persistent type "
+                        "IOException while trying to delete items by query for persistent type "
                                 + type,
                         e);
             } catch (RuntimeException e) {
                 LOGGER.info(
-                        "RuntimeException while trying to delete items by ID for persistent type {}",
+                        "RuntimeException while trying to delete items by query for persistent type {}",
                         type,
                         e);
                 doRollback(solrClient, type);
                 throw new PersistenceException(
-                        "RuntimeException while trying to delete items by ID for persistent type "
+                        "RuntimeException while trying to delete items by query for persistent type "
                                 + type,
                         e);
             }
         }
 
-        return idsToDelete.size();
+        return (int) Math.min(numResults, Integer.MAX_VALUE);
+    }
+
+    private SolrQuery createQuery(SolrClient solrClient, String type, String cql)
+            throws PersistenceException {
+        // If not cql specified, then return all items
+        if (StringUtils.isBlank(cql)) {
+            return new SolrQuery("*:*");
+        }
+
+        try {
+            Filter filter = CQL.toFilter(cql);
+            return (SolrQuery) filter.accept(new SolrQueryFilterVisitor(solrClient, type), null);
+        } catch (CQLException e) {
+            throw new PersistenceException(
+                    "CQLException while getting Solr data with cql statement " + cql,
+                    e);
+        }
+    }
+
+    private QueryResponse query(SolrClient solrClient, SolrQuery solrQuery, String cql)
+            throws PersistenceException {
+        try {
+            return solrClient.query(solrQuery, METHOD.POST);
+        } catch (SolrServerException | IOException e) {
+            throw new PersistenceException(
+                    "SolrServerException while getting Solr data with cql statement " + cql,
+                    e);
+        }
+    }
+
+    private PersistentItem toPersistentItem(SolrDocument doc) {
+        PersistentItem result = new PersistentItem();
+        Collection<String> fieldNames = doc.getFieldNames();
+        for (String name : fieldNames) {
+            LOGGER.debug("field name = {} has value = {}", name, doc.getFieldValue(name));
+            if (name.endsWith(PersistentItem.TEXT_SUFFIX) && doc.getFieldValues(name)
+                    .size() > 1) {
+                result.addProperty(name,
+                        doc.getFieldValues(name)
+                                .stream()
+                                .filter(s -> s instanceof String)
+                                .map(s -> (String) s)
+                                .collect(Collectors.toSet()));
+            } else if (name.endsWith(PersistentItem.XML_SUFFIX)) {
+                result.addXmlProperty(name, (String) doc.getFirstValue(name));
+            } else if (name.endsWith(PersistentItem.TEXT_SUFFIX)) {
+                result.addProperty(name, (String) doc.getFirstValue(name));
+            } else if (name.endsWith(PersistentItem.LONG_SUFFIX)) {
+                result.addProperty(name, (Long) doc.getFirstValue(name));
+            } else if (name.endsWith(PersistentItem.INT_SUFFIX)) {
+                result.addProperty(name, (Integer) doc.getFirstValue(name));
+            } else if (name.endsWith(PersistentItem.DATE_SUFFIX)) {
+                result.addProperty(name, (Date) doc.getFirstValue(name));
+            } else if (name.endsWith(PersistentItem.BINARY_SUFFIX)) {
+                result.addProperty(name, (byte[]) doc.getFirstValue(name));
+            } else {
+                LOGGER.debug("Not adding field {} because it has invalid suffix", name);
+            }
+        }
+        return result;
+    }
+
+    // Set Solr Core name to type and create/connect to Solr Core
+    private SolrClient getValidatedSolrClient(String type) throws PersistenceException {
+        if (StringUtils.isBlank(type)) {
+            throw new PersistenceException(
+                    "The type of object(s) to retrieve must be non-null and not blank, e.g., notification, metacard, etc.");
+        }
+
+        SolrClient solrClient = getSolrClient(type);
+        if (solrClient == null) {
+            throw new PersistenceException("Unable to create Solr client.");
+        }
+        return solrClient;
     }
 
     private SolrClient getSolrClient(String storeName) {
@@ -281,4 +356,3 @@ private SolrClient getSolrClient(String storeName) {
     }
 
 }
-
@@ -0,0 +1,173 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.persistence.internal;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollection;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.SolrRequest;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.params.CursorMarkParams;
+import org.codice.ddf.persistence.PersistentItem;
+import org.codice.ddf.persistence.PersistentStore;
+import org.codice.solr.factory.impl.SolrClientFactoryImpl;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+public class PersistentStoreImplTest {
+
+    private SolrClient solrClient;
+
+    private PersistentStoreImpl persistentStore;
+
+    @Before
+    public void setUp() {
+        solrClient = mock(SolrClient.class);
+        SolrClientFactoryImpl clientFactory = mock(SolrClientFactoryImpl.class);
+        when(clientFactory.newClient(anyString())).thenReturn(CompletableFuture.completedFuture(
+                solrClient));
+        persistentStore = new PersistentStoreImpl(clientFactory);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testAddCollectionSendsOneUpdate() throws Exception {
+        persistentStore.add(PersistentStore.NOTIFICATION_TYPE,
+                Arrays.asList(item("1"), item("2"), Collections.emptyMap(), item("3")));
+
+        ArgumentCaptor<Collection> documents = ArgumentCaptor.forClass(Collection.class);
+        verify(solrClient).add(documents.capture());
+        assertThat(documents.getValue()
+                .size(), is(3));
+    }
+
+    @Test
+    public void testAddEmptyCollection() throws Exception {
+        persistentStore.add(PersistentStore.NOTIFICATION_TYPE, Collections.emptyList());
+
+        verify(solrClient, never()).add(anyCollection());
+    }
+
+    @Test
+    public void testDeleteByQuery() throws Exception {
+        QueryResponse response = response(Collections.emptyList(), 42, null);
+        when(solrClient.query(any(SolrQuery.class), eq(SolrRequest.METHOD.POST))).thenReturn(
+                response);
+
+        int numDeleted = persistentStore.delete(PersistentStore.NOTIFICATION_TYPE, null);
+
+        assertThat(numDeleted, is(42));
+        ArgumentCaptor<SolrQuery> query = ArgumentCaptor.forClass(SolrQuery.class);
+        verify(solrClient).query(query.capture(), eq(SolrRequest.METHOD.POST));
+        assertThat(query.getValue()
+                .getRows(), is(0));
+        verify(solrClient).deleteByQuery("*:*");
+    }
+
+    @Test
+    public void testDeleteNoMatches() throws Exception {
+        QueryResponse response = response(Collections.emptyList(), 0, null);
+        when(solrClient.query(any(SolrQuery.class), eq(SolrRequest.METHOD.POST))).thenReturn(
+                response);
+
+        assertThat(persistentStore.delete(PersistentStore.NOTIFICATION_TYPE, null), is(0));
+        verify(solrClient, never()).deleteByQuery(anyString());
+    }
+
+    @Test
+    public void testGetPagesWithCursorMark() throws Exception {
+        List<String> cursorMarks = new ArrayList<>();
+        QueryResponse firstPage = response(Arrays.asList(document("1"), document("2")), 3, "a");
+        QueryResponse secondPage = response(Collections.singletonList(document("3")), 3, "b");
+        QueryResponse lastPage = response(Collections.emptyList(), 3, "b");
+        when(solrClient.query(any(SolrQuery.class), eq(SolrRequest.METHOD.POST))).thenAnswer(
+                invocation -> {
+                    SolrQuery query = (SolrQuery) invocation.getArguments()[0];
+                    String cursorMark = query.get(CursorMarkParams.CURSOR_MARK_PARAM);
+                    cursorMarks.add(cursorMark);
+                    switch (cursorMark) {
+                    case CursorMarkParams.CURSOR_MARK_START:
+                        return firstPage;
+                    case "a":
+                        return secondPage;
+                    default:
+                        return lastPage;
+                    }
+                });
+
+        List<String> ids = new ArrayList<>();
+        persistentStore.get(PersistentStore.NOTIFICATION_TYPE,
+                null,
+                2,
+                item -> ids.add((String) item.get(PersistentItem.ID)));
+
+        assertThat(ids, contains("1", "2", "3"));
+        assertThat(cursorMarks, contains(CursorMarkParams.CURSOR_MARK_START, "a", "b"));
+        verify(solrClient, times(3)).query(any(SolrQuery.class), eq(SolrRequest.METHOD.POST));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetInvalidPageSize() throws Exception {
+        persistentStore.get(PersistentStore.NOTIFICATION_TYPE, null, 0, item -> {
+        });
+    }
+
+    private Map<String, Object> item(String id) {
+        Map<String, Object> item = new HashMap<>();
+        item.put(PersistentItem.ID, id);
+        return item;
+    }
+
+    private SolrDocument document(String id) {
+        SolrDocument document = new SolrDocument();
+        document.addField(PersistentItem.ID, id);
+        return document;
+    }
+
+    private QueryResponse response(List<SolrDocument> documents, long numFound,
+            String nextCursorMark) {
+        SolrDocumentList results = new SolrDocumentList();
+        results.addAll(documents);
+        results.setNumFound(numFound);
+
+        QueryResponse response = mock(QueryResponse.class);
+        when(response.getResults()).thenReturn(results);
+        when(response.getNextCursorMark()).thenReturn(nextCursorMark);
+        return response;
+    }
+}
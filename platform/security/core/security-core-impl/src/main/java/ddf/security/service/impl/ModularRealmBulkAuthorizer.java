@@ -0,0 +1,58 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.security.service.impl;
+
+import java.util.List;
+
+import org.apache.shiro.authz.Authorizer;
+import org.apache.shiro.authz.ModularRealmAuthorizer;
+import org.apache.shiro.authz.Permission;
+import org.apache.shiro.realm.Realm;
+import org.apache.shiro.subject.PrincipalCollection;
+
+/**
+ * {@link ModularRealmAuthorizer} that passes a list of permissions to each realm in a single call
+ * instead of asking every realm about one permission at a time. This lets realms that evaluate a
+ * list more efficiently than its individual permissions, such as the AuthzRealm, do so.
+ * <p>
+ * As with {@link ModularRealmAuthorizer}, a permission is granted if any realm grants it.
+ */
+public class ModularRealmBulkAuthorizer extends ModularRealmAuthorizer {
+
+    @Override
+    public boolean[] isPermitted(PrincipalCollection principals, List<Permission> permissions) {
+        assertRealmsConfigured();
+        boolean[] results = new boolean[permissions.size()];
+        int permittedCount = 0;
+
+        for (Realm realm : getRealms()) {
+            if (permittedCount == results.length) {
+                break;
+            }
+            if (!(realm instanceof Authorizer)) {
+                continue;
+            }
+
+            boolean[] realmResults = ((Authorizer) realm).isPermitted(principals, permissions);
+            for (int i = 0; i < results.length; i++) {
+                if (!results[i] && realmResults[i]) {
+                    results[i] = true;
+                    permittedCount++;
+                }
+            }
+        }
+
+        return results;
+    }
+}
@@ -53,6 +53,7 @@ public class SecurityManagerImpl implements SecurityManager {
     public SecurityManagerImpl() {
         // create the new security manager
         internalManager = new DefaultSecurityManager();
+        internalManager.setAuthorizer(new ModularRealmBulkAuthorizer());
     }
 
     /**
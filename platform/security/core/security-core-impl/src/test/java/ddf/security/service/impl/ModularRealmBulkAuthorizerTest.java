@@ -0,0 +1,105 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.security.service.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.shiro.authz.Permission;
+import org.apache.shiro.authz.permission.WildcardPermission;
+import org.apache.shiro.realm.AuthorizingRealm;
+import org.apache.shiro.realm.Realm;
+import org.apache.shiro.subject.PrincipalCollection;
+import org.apache.shiro.subject.SimplePrincipalCollection;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ModularRealmBulkAuthorizerTest {
+
+    private PrincipalCollection principals;
+
+    private List<Permission> permissions;
+
+    @Before
+    public void setUp() {
+        principals = new SimplePrincipalCollection("user", "realm");
+        permissions = Arrays.asList(new WildcardPermission("a"),
+                new WildcardPermission("b"),
+                new WildcardPermission("c"));
+    }
+
+    @Test
+    public void testListIsPassedToRealm() {
+        AuthorizingRealm realm = mockRealm(true, false, true);
+        ModularRealmBulkAuthorizer authorizer = new ModularRealmBulkAuthorizer();
+        authorizer.setRealms(Arrays.asList(realm));
+
+        boolean[] results = authorizer.isPermitted(principals, permissions);
+
+        assertThat(results, is(new boolean[] {true, false, true}));
+        verify(realm).isPermitted(principals, permissions);
+        verify(realm, never()).isPermitted(any(PrincipalCollection.class),
+                any(Permission.class));
+    }
+
+    @Test
+    public void testPermittedByAnyRealm() {
+        AuthorizingRealm first = mockRealm(true, false, false);
+        AuthorizingRealm second = mockRealm(false, false, true);
+        ModularRealmBulkAuthorizer authorizer = new ModularRealmBulkAuthorizer();
+        authorizer.setRealms(Arrays.asList(first, second));
+
+        boolean[] results = authorizer.isPermitted(principals, permissions);
+
+        assertThat(results, is(new boolean[] {true, false, true}));
+    }
+
+    @Test
+    public void testRemainingRealmsSkippedOnceAllPermitted() {
+        AuthorizingRealm first = mockRealm(true, true, true);
+        AuthorizingRealm second = mockRealm(false, false, false);
+        ModularRealmBulkAuthorizer authorizer = new ModularRealmBulkAuthorizer();
+        authorizer.setRealms(Arrays.asList(first, second));
+
+        boolean[] results = authorizer.isPermitted(principals, permissions);
+
+        assertThat(results, is(new boolean[] {true, true, true}));
+        verify(second, never()).isPermitted(principals, permissions);
+    }
+
+    @Test
+    public void testRealmsThatAreNotAuthorizersAreSkipped() {
+        Realm realm = mock(Realm.class);
+        ModularRealmBulkAuthorizer authorizer = new ModularRealmBulkAuthorizer();
+        authorizer.setRealms(Arrays.asList(realm));
+
+        boolean[] results = authorizer.isPermitted(principals, permissions);
+
+        assertThat(results, is(new boolean[] {false, false, false}));
+    }
+
+    private AuthorizingRealm mockRealm(boolean... results) {
+        AuthorizingRealm realm = mock(AuthorizingRealm.class);
+        when(realm.isPermitted(principals, permissions)).thenReturn(results);
+        return realm;
+    }
+}
@@ -13,16 +13,26 @@
  */
 package ddf.security.service.impl;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertNotNull;
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Arrays;
+import java.util.List;
 
 import org.apache.cxf.ws.security.tokenstore.SecurityToken;
 import org.apache.shiro.authc.AuthenticationInfo;
 import org.apache.shiro.authc.AuthenticationToken;
+import org.apache.shiro.authz.Permission;
+import org.apache.shiro.authz.permission.WildcardPermission;
+import org.apache.shiro.realm.AuthorizingRealm;
 import org.apache.shiro.realm.Realm;
+import org.apache.shiro.subject.PrincipalCollection;
 import org.apache.shiro.subject.SimplePrincipalCollection;
 import org.junit.Rule;
 import org.junit.Test;
@@ -119,4 +129,37 @@ public void testSecToken() throws SecurityServiceException {
         Subject subject = manager.getSubject(secToken);
         assertNotNull(subject);
     }
+
+    /**
+     * Checks that a list of permissions checked through a subject reaches the realm in one call.
+     *
+     * @throws SecurityServiceException
+     */
+    @Test
+    public void testPermissionListReachesRealm() throws SecurityServiceException {
+        SimplePrincipalCollection principals = new SimplePrincipalCollection("testUser",
+                REALM_NAME);
+        List<Permission> permissions = Arrays.asList(new WildcardPermission("a"),
+                new WildcardPermission("b"));
+
+        AuthenticationToken authToken = mock(AuthenticationToken.class);
+        when(authToken.getCredentials()).thenReturn("testUser");
+        AuthenticationInfo info = mock(AuthenticationInfo.class);
+        when(info.getPrincipals()).thenReturn(principals);
+
+        AuthorizingRealm realm = mock(AuthorizingRealm.class);
+        when(realm.getAuthenticationInfo(authToken)).thenReturn(info);
+        when(realm.supports(authToken)).thenReturn(Boolean.TRUE);
+        when(realm.getName()).thenReturn(REALM_NAME);
+        when(realm.isPermitted(principals, permissions)).thenReturn(new boolean[] {true, false});
+
+        SecurityManagerImpl manager = new SecurityManagerImpl();
+        manager.setRealms(Arrays.asList(new Realm[] {realm}));
+        Subject subject = manager.getSubject(authToken);
+
+        assertThat(subject.isPermitted(permissions), is(new boolean[] {true, false}));
+        verify(realm).isPermitted(principals, permissions);
+        verify(realm, never()).isPermitted(any(PrincipalCollection.class),
+                any(Permission.class));
+    }
 }
@@ -147,6 +147,8 @@ protected DocumentBuilder initialValue() {
 
     private SessionFactory sessionFactory;
 
+    private SamlAssertionValidationCache validationCache = new SamlAssertionValidationCache();
+
     /**
      * Default expiration value is 31 minutes
      */
@@ -240,6 +242,10 @@ public void setSessionFactory(SessionFactory sessionFactory) {
         this.sessionFactory = sessionFactory;
     }
 
+    public void setValidationCache(SamlAssertionValidationCache validationCache) {
+        this.validationCache = validationCache;
+    }
+
     @Override
     public void init(FilterConfig filterConfig) throws ServletException {
         LOGGER.debug("Starting LoginFilter.");
@@ -381,7 +387,17 @@ private Subject handleAuthenticationToken(HttpServletRequest httpRequest,
             } else {
                 securityToken = (SecurityToken) token.getCredentials();
             }
+            X509Certificate[] x509Certs = (X509Certificate[]) httpRequest.getAttribute(
+                    "javax.servlet.request.X509Certificate");
+            String validationKey = null;
             if (!wasReference) {
+                validationKey = validationCache.getKey(securityToken.getToken(), x509Certs);
+            }
+
+            // an assertion that was already validated is not verified again
+            if (!wasReference && !validationCache.isValidated(validationKey)) {
+                long start = System.nanoTime();
+
                 // wrap the token
                 SamlAssertionWrapper assertion = new SamlAssertionWrapper(securityToken.getToken());
 
@@ -406,8 +422,6 @@ private Subject handleAuthenticationToken(HttpServletRequest httpRequest,
                 WSSConfig wssConfig = WSSConfig.getNewInstance();
                 requestData.setWssConfig(wssConfig);
 
-                X509Certificate[] x509Certs = (X509Certificate[]) httpRequest.getAttribute(
-                        "javax.servlet.request.X509Certificate");
                 requestData.setTlsCerts(x509Certs);
 
                 validateHolderOfKeyConfirmation(assertion, x509Certs);
@@ -429,6 +443,8 @@ private Subject handleAuthenticationToken(HttpServletRequest httpRequest,
 
                 // Validate the Assertion & verify trust in the signature
                 assertionValidator.validate(credential, requestData);
+
+                validationCache.validated(validationKey, assertion, System.nanoTime() - start);
             }
 
             // if it is all good, then we'll create our subject
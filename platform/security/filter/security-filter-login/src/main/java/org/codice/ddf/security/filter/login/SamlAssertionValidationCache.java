@@ -0,0 +1,239 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.security.filter.login;
+
+import java.lang.management.ManagementFactory;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.CertificateEncodingException;
+import java.security.cert.X509Certificate;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.MBeanRegistrationException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.NotCompliantMBeanException;
+import javax.management.ObjectName;
+
+import org.apache.wss4j.common.saml.SamlAssertionWrapper;
+import org.apache.xml.security.Init;
+import org.apache.xml.security.c14n.CanonicalizationException;
+import org.apache.xml.security.c14n.Canonicalizer;
+import org.apache.xml.security.c14n.InvalidCanonicalizerException;
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Element;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.io.BaseEncoding;
+
+/**
+ * Remembers the SAML assertions that the {@link LoginFilter} has successfully validated, so that
+ * requests that keep sending the same assertion do not verify its signature and trust again.
+ * <p>
+ * Assertions are identified by a digest of their canonical form and of the client certificate the
+ * request was made with, since holder-of-key confirmation depends on it. An assertion is only
+ * remembered until its {@code NotOnOrAfter} time, and for at most {@link #DEFAULT_MAX_TTL_MINUTES}
+ * minutes so that changes to the trust store are eventually taken into account.
+ */
+public class SamlAssertionValidationCache implements SamlAssertionValidationCacheMBean {
+
+    static final long DEFAULT_MAX_TTL_MINUTES = 5;
+
+    static final long DEFAULT_MAXIMUM_SIZE = 10000;
+
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(SamlAssertionValidationCache.class);
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    private static final double NANOS_PER_MILLI = 1000000.0;
+
+    /**
+     * Validated assertions and the time, in milliseconds, they stop being valid
+     */
+    private final Cache<String, Long> validatedAssertions;
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    private final AtomicLong verificationCount = new AtomicLong();
+
+    private final AtomicLong verificationNanos = new AtomicLong();
+
+    private MBeanServer mBeanServer;
+
+    private ObjectName objectName;
+
+    public SamlAssertionValidationCache() {
+        this(DEFAULT_MAXIMUM_SIZE, DEFAULT_MAX_TTL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    SamlAssertionValidationCache(long maximumSize, long maxTtl, TimeUnit maxTtlUnit) {
+        validatedAssertions = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(maxTtl, maxTtlUnit)
+                .build();
+
+        // The canonicalizers are registered when the XML security library is initialized
+        Init.init();
+    }
+
+    public void init() {
+        try {
+            mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            objectName = new ObjectName(
+                    SamlAssertionValidationCache.class.getName() + ":service=cache");
+            try {
+                mBeanServer.registerMBean(this, objectName);
+                LOGGER.debug(
+                        "Registered SAML assertion validation cache MBean under object name: {}",
+                        objectName);
+            } catch (InstanceAlreadyExistsException e) {
+                // Try to remove and re-register
+                mBeanServer.unregisterMBean(objectName);
+                mBeanServer.registerMBean(this, objectName);
+                LOGGER.debug("Re-registered SAML assertion validation cache MBean");
+            }
+        } catch (MalformedObjectNameException | MBeanRegistrationException | InstanceNotFoundException | InstanceAlreadyExistsException | NotCompliantMBeanException e) {
+            LOGGER.info("Could not register MBean [{}].", objectName, e);
+        }
+    }
+
+    public void destroy() {
+        try {
+            if (objectName != null && mBeanServer != null) {
+                mBeanServer.unregisterMBean(objectName);
+                LOGGER.debug("Unregistered SAML assertion validation cache MBean");
+            }
+        } catch (InstanceNotFoundException | MBeanRegistrationException e) {
+            LOGGER.info("Exception unregistering MBean [{}].", objectName, e);
+        }
+        validatedAssertions.invalidateAll();
+    }
+
+    /**
+     * Computes the key identifying an assertion received with a client certificate.
+     *
+     * @param assertion the assertion element
+     * @param x509Certs the certificates of the client, or {@code null} if it did not send any
+     * @return the key, or {@code null} if the assertion cannot be canonicalized, in which case it
+     * must not be cached
+     */
+    public String getKey(Element assertion, X509Certificate[] x509Certs) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+            digest.update(Canonicalizer.getInstance(Canonicalizer.ALGO_ID_C14N_EXCL_OMIT_COMMENTS)
+                    .canonicalizeSubtree(assertion));
+            if (x509Certs != null && x509Certs.length > 0) {
+                digest.update(x509Certs[0].getEncoded());
+            }
+            return BaseEncoding.base16()
+                    .encode(digest.digest());
+        } catch (NoSuchAlgorithmException | InvalidCanonicalizerException | CanonicalizationException | CertificateEncodingException e) {
+            LOGGER.debug("Unable to compute the digest of the SAML assertion.", e);
+            return null;
+        }
+    }
+
+    /**
+     * @param key the key of an assertion, as returned by {@link #getKey}
+     * @return true if the assertion was successfully validated and has not expired yet
+     */
+    public boolean isValidated(String key) {
+        if (key != null) {
+            Long notOnOrAfter = validatedAssertions.getIfPresent(key);
+            if (notOnOrAfter != null) {
+                if (System.currentTimeMillis() < notOnOrAfter) {
+                    hitCount.incrementAndGet();
+                    return true;
+                }
+                validatedAssertions.invalidate(key);
+            }
+        }
+        missCount.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Remembers an assertion that was successfully validated.
+     *
+     * @param key               the key of the assertion, as returned by {@link #getKey}
+     * @param assertion         the validated assertion
+     * @param verificationNanos the time, in nanoseconds, the validation took
+     */
+    public void validated(String key, SamlAssertionWrapper assertion, long verificationNanos) {
+        verificationCount.incrementAndGet();
+        this.verificationNanos.addAndGet(verificationNanos);
+
+        if (key == null) {
+            return;
+        }
+
+        long notOnOrAfter = getNotOnOrAfter(assertion);
+        if (System.currentTimeMillis() < notOnOrAfter) {
+            validatedAssertions.put(key, notOnOrAfter);
+        }
+    }
+
+    private long getNotOnOrAfter(SamlAssertionWrapper assertion) {
+        DateTime notOnOrAfter = null;
+        if (assertion.getSaml2() != null && assertion.getSaml2()
+                .getConditions() != null) {
+            notOnOrAfter = assertion.getSaml2()
+                    .getConditions()
+                    .getNotOnOrAfter();
+        } else if (assertion.getSaml1() != null && assertion.getSaml1()
+                .getConditions() != null) {
+            notOnOrAfter = assertion.getSaml1()
+                    .getConditions()
+                    .getNotOnOrAfter();
+        }
+        return notOnOrAfter != null ? notOnOrAfter.getMillis() : Long.MAX_VALUE;
+    }
+
+    @Override
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    @Override
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    @Override
+    public double getHitRate() {
+        long hits = hitCount.get();
+        long requests = hits + missCount.get();
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+
+    @Override
+    public double getAverageVerificationTime() {
+        long count = verificationCount.get();
+        return count == 0 ? 0 : verificationNanos.get() / NANOS_PER_MILLI / count;
+    }
+
+    @Override
+    public long getSize() {
+        return validatedAssertions.size();
+    }
+}
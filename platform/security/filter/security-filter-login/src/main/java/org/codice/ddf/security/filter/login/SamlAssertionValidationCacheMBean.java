@@ -0,0 +1,46 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.security.filter.login;
+
+/**
+ * Metrics of the cache of SAML assertions validated by the {@link LoginFilter}.
+ */
+public interface SamlAssertionValidationCacheMBean {
+
+    /**
+     * @return the number of requests whose assertion was already validated
+     */
+    long getHitCount();
+
+    /**
+     * @return the number of requests whose assertion had to be validated
+     */
+    long getMissCount();
+
+    /**
+     * @return the ratio of requests whose assertion was already validated, between 0 and 1
+     */
+    double getHitRate();
+
+    /**
+     * @return the average time, in milliseconds, taken to validate an assertion that was not
+     * cached
+     */
+    double getAverageVerificationTime();
+
+    /**
+     * @return the number of validated assertions currently cached
+     */
+    long getSize();
+}
@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.security.filter.login;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.security.cert.X509Certificate;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.apache.wss4j.common.saml.SamlAssertionWrapper;
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Test;
+import org.w3c.dom.Element;
+
+public class SamlAssertionValidationCacheTest {
+
+    private SamlAssertionValidationCache cache;
+
+    private Element assertionElement;
+
+    @Before
+    public void setUp() throws Exception {
+        cache = new SamlAssertionValidationCache();
+
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        assertionElement = factory.newDocumentBuilder()
+                .parse(getClass().getResourceAsStream("/good_saml.xml"))
+                .getDocumentElement();
+    }
+
+    @Test
+    public void testKeyDependsOnClientCertificate() throws Exception {
+        X509Certificate certificate = mock(X509Certificate.class);
+        when(certificate.getEncoded()).thenReturn(new byte[] {1, 2, 3});
+        X509Certificate otherCertificate = mock(X509Certificate.class);
+        when(otherCertificate.getEncoded()).thenReturn(new byte[] {4, 5, 6});
+
+        String key = cache.getKey(assertionElement, null);
+
+        assertThat(key, notNullValue());
+        assertThat(cache.getKey(assertionElement, null), is(key));
+        assertThat(cache.getKey(assertionElement, new X509Certificate[] {certificate}),
+                not(key));
+        assertThat(cache.getKey(assertionElement, new X509Certificate[] {certificate}),
+                not(cache.getKey(assertionElement, new X509Certificate[] {otherCertificate})));
+    }
+
+    @Test
+    public void testValidatedAssertion() {
+        String key = cache.getKey(assertionElement, null);
+
+        assertThat(cache.isValidated(key), is(false));
+
+        cache.validated(key, mockAssertion(DateTime.now()
+                .plusMinutes(10)), TimeUnit.MILLISECONDS.toNanos(4));
+
+        assertThat(cache.isValidated(key), is(true));
+        assertThat(cache.getSize(), is(1L));
+        assertThat(cache.getHitCount(), is(1L));
+        assertThat(cache.getMissCount(), is(1L));
+        assertThat(cache.getHitRate(), closeTo(0.5, 0.001));
+        assertThat(cache.getAverageVerificationTime(), closeTo(4, 0.001));
+    }
+
+    @Test
+    public void testExpiredAssertionIsNotCached() {
+        String key = cache.getKey(assertionElement, null);
+
+        cache.validated(key, mockAssertion(DateTime.now()
+                .minusMinutes(1)), 0);
+
+        assertThat(cache.isValidated(key), is(false));
+        assertThat(cache.getSize(), is(0L));
+    }
+
+    @Test
+    public void testAssertionIsCachedForAtMostMaxTtl() throws Exception {
+        cache = new SamlAssertionValidationCache(10, 1, TimeUnit.MILLISECONDS);
+        String key = cache.getKey(assertionElement, null);
+
+        cache.validated(key, mockAssertion(DateTime.now()
+                .plusMinutes(10)), 0);
+        Thread.sleep(10);
+
+        assertThat(cache.isValidated(key), is(false));
+    }
+
+    @Test
+    public void testNullKeyIsNeverValidated() {
+        cache.validated(null, mockAssertion(DateTime.now()
+                .plusMinutes(10)), 0);
+
+        assertThat(cache.isValidated(null), is(false));
+        assertThat(cache.getSize(), is(0L));
+    }
+
+    private SamlAssertionWrapper mockAssertion(DateTime notOnOrAfter) {
+        SamlAssertionWrapper assertion = mock(SamlAssertionWrapper.class, RETURNS_DEEP_STUBS);
+        when(assertion.getSaml2()
+                .getConditions()
+                .getNotOnOrAfter()).thenReturn(notOnOrAfter);
+        return assertion;
+    }
+}
@@ -14,11 +14,13 @@
 package ddf.security.pdp.realm;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.shiro.authc.AuthenticationException;
@@ -163,7 +165,9 @@ public boolean isPermitted(PrincipalCollection subjectPrincipal, Permission perm
      * <p/>
      * <p/>
      * This is primarily a performance-enhancing method to help reduce the number of
-     * {@link #isPermitted} invocations over the wire in client/server systems.
+     * {@link #isPermitted} invocations over the wire in client/server systems. The subject's
+     * permissions are resolved once for the whole list, and {@link KeyValueCollectionPermission}s
+     * with the same action and key/values are only expanded and evaluated once.
      *
      * @param subjectPrincipal the application-specific subject/user identifier.
      * @param permissions      the permissions that are being checked.
@@ -177,26 +181,57 @@ public boolean[] isPermitted(PrincipalCollection subjectPrincipal,
             List<Permission> permissions) {
         boolean[] results = new boolean[permissions.size()];
         AuthorizationInfo authorizationInfo = getAuthorizationInfo(subjectPrincipal);
-        List<Permission> expandedPermissions = expandPermissions(permissions);
+        Collection<Permission> perms = getPermissions(authorizationInfo);
+        Map<Object, Boolean> decisions = new HashMap<>();
         int i = 0;
-        for (Permission permission : expandedPermissions) {
-            results[i++] = isPermitted(subjectPrincipal, permission, authorizationInfo);
+        for (Permission permission : permissions) {
+            Object decisionKey = getDecisionKey(permission);
+            Boolean permitted = decisions.get(decisionKey);
+            if (permitted == null) {
+                Permission expandedPermission =
+                        expandPermissions(Collections.singletonList(permission)).get(0);
+                permitted = isPermitted(subjectPrincipal,
+                        expandedPermission,
+                        authorizationInfo,
+                        perms);
+                decisions.put(decisionKey, permitted);
+            }
+            results[i++] = permitted;
         }
 
         return results;
     }
 
+    /**
+     * Returns a key that is equal for permissions that are known to get the same decision.
+     * {@link KeyValueCollectionPermission}s are compared by action and key/values, other
+     * permissions by their own {@code equals}.
+     */
+    private Object getDecisionKey(Permission permission) {
+        if (permission instanceof KeyValueCollectionPermission) {
+            KeyValueCollectionPermission kvcp = (KeyValueCollectionPermission) permission;
+            Set<List<Object>> keyValues = new HashSet<>();
+            List<KeyValuePermission> keyValuePermissions = kvcp.getKeyValuePermissionList();
+            for (KeyValuePermission keyValuePermission : keyValuePermissions) {
+                keyValues.add(Arrays.asList(keyValuePermission.getKey(),
+                        keyValuePermission.getValues()));
+            }
+            return Arrays.asList(kvcp.getAction(), keyValues);
+        }
+        return permission;
+    }
+
     /**
      * Checks if the corresponding Subject/user contained within the AuthorizationInfo object
      * implies the given Permission.
      *
      * @param permission        the permission being checked.
      * @param authorizationInfo the application-specific subject/user identifier.
+     * @param perms             the permissions of the subject/user.
      * @return true if the user is permitted
      */
     private boolean isPermitted(PrincipalCollection subjectPrincipal, Permission permission,
-            AuthorizationInfo authorizationInfo) {
-        Collection<Permission> perms = getPermissions(authorizationInfo);
+            AuthorizationInfo authorizationInfo, Collection<Permission> perms) {
         String curUser = "<user>";
         if (subjectPrincipal != null && subjectPrincipal.getPrimaryPrincipal() != null) {
             curUser = subjectPrincipal.getPrimaryPrincipal()
@@ -239,6 +239,27 @@ public void testIsNotPermitted() {
         }
     }
 
+    @Test
+    public void testIsPermittedDuplicatePermissions() {
+        HashMap<String, List<String>> deniedSecurity = new HashMap<>();
+        deniedSecurity.put("rule", Arrays.asList("A", "B", "C"));
+        KeyValueCollectionPermission permitted = new KeyValueCollectionPermission("action",
+                security);
+        KeyValueCollectionPermission denied = new KeyValueCollectionPermission("action",
+                deniedSecurity);
+        permissionList.clear();
+        permissionList.add(permitted);
+        permissionList.add(denied);
+        permissionList.add(new KeyValueCollectionPermission("action", security));
+        permissionList.add(new KeyValueCollectionPermission("action", deniedSecurity));
+        permissionList.add(new KeyValueCollectionPermission("other", deniedSecurity));
+
+        boolean[] permittedArray = testRealm.isPermitted(mockSubjectPrincipal, permissionList);
+
+        Assert.assertTrue(Arrays.equals(new boolean[] {true, false, true, false, false},
+                permittedArray));
+    }
+
     @Test
     public void testBadPolicyExtension() {
         permissionList.clear();
@@ -24,6 +24,7 @@
 import java.security.cert.CertificateException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import javax.net.ssl.KeyManagerFactory;
 import javax.net.ssl.SSLContext;
@@ -33,6 +34,8 @@
 import org.apache.commons.lang.StringUtils;
 import org.apache.cxf.sts.claims.ClaimsHandler;
 import org.codice.ddf.configuration.PropertyResolver;
+import org.forgerock.opendj.ldap.ConnectionFactory;
+import org.forgerock.opendj.ldap.Connections;
 import org.forgerock.opendj.ldap.LDAPConnectionFactory;
 import org.forgerock.opendj.ldap.LDAPOptions;
 import org.forgerock.opendj.ldap.LdapException;
@@ -82,6 +85,26 @@ public class ClaimsHandlerManager {
 
     public static final String PROPERTY_FILE_LOCATION = "propertyFileLocation";
 
+    public static final String CONNECTION_POOL_MIN_SIZE = "connectionPoolMinSize";
+
+    public static final String CONNECTION_POOL_MAX_SIZE = "connectionPoolMaxSize";
+
+    public static final String CONNECTION_POOL_IDLE_TIMEOUT = "connectionPoolIdleTimeout";
+
+    public static final String HEALTH_CHECK_INTERVAL = "healthCheckInterval";
+
+    public static final String GROUP_CACHE_EXPIRATION = "groupCacheExpiration";
+
+    private static final int DEFAULT_CONNECTION_POOL_MIN_SIZE = 0;
+
+    private static final int DEFAULT_CONNECTION_POOL_MAX_SIZE = 10;
+
+    private static final int DEFAULT_CONNECTION_POOL_IDLE_TIMEOUT = 60;
+
+    private static final int DEFAULT_HEALTH_CHECK_INTERVAL = 30;
+
+    private static final int DEFAULT_GROUP_CACHE_EXPIRATION = 60;
+
     private static final Logger LOGGER = LoggerFactory.getLogger(ClaimsHandlerManager.class);
 
     private static final String PROTOCOL = "TLS";
@@ -160,15 +183,41 @@ public void update(Map<String, Object> props) {
         if (overrideCertDn == null) {
             overrideCertDn = false;
         }
+        int connectionPoolMinSize = getInteger(props,
+                CONNECTION_POOL_MIN_SIZE,
+                DEFAULT_CONNECTION_POOL_MIN_SIZE);
+        int connectionPoolMaxSize = getInteger(props,
+                CONNECTION_POOL_MAX_SIZE,
+                DEFAULT_CONNECTION_POOL_MAX_SIZE);
+        int connectionPoolIdleTimeout = getInteger(props,
+                CONNECTION_POOL_IDLE_TIMEOUT,
+                DEFAULT_CONNECTION_POOL_IDLE_TIMEOUT);
+        int healthCheckInterval = getInteger(props,
+                HEALTH_CHECK_INTERVAL,
+                DEFAULT_HEALTH_CHECK_INTERVAL);
+        int groupCacheExpiration = getInteger(props,
+                GROUP_CACHE_EXPIRATION,
+                DEFAULT_GROUP_CACHE_EXPIRATION);
         try {
             if (encryptService != null) {
                 password = encryptService.decryptValue(password);
             }
-            LDAPConnectionFactory connection1 = createLdapConnectionFactory(url, startTls);
-            LDAPConnectionFactory connection2 = createLdapConnectionFactory(url, startTls);
+            ConnectionFactory connection1 = createConnectionPool(createLdapConnectionFactory(url,
+                    startTls),
+                    connectionPoolMinSize,
+                    connectionPoolMaxSize,
+                    connectionPoolIdleTimeout,
+                    healthCheckInterval);
+            ConnectionFactory connection2 = createConnectionPool(createLdapConnectionFactory(url,
+                    startTls),
+                    connectionPoolMinSize,
+                    connectionPoolMaxSize,
+                    connectionPoolIdleTimeout,
+                    healthCheckInterval);
             registerRoleClaimsHandler(connection1, propertyFileLocation, userBaseDn,
                     loginUserAttribute, membershipUserAttribute, objectClass, memberNameAttribute,
-                    groupBaseDn, userDn, password, overrideCertDn, bindMethod, realm, kdcAddress);
+                    groupBaseDn, userDn, password, overrideCertDn, bindMethod, realm, kdcAddress,
+                    groupCacheExpiration);
             registerLdapClaimsHandler(connection2, propertyFileLocation, userBaseDn,
                     loginUserAttribute, userDn, password, overrideCertDn, bindMethod, realm,
                     kdcAddress);
@@ -185,6 +234,51 @@ public void destroy() {
 
     }
 
+    private int getInteger(Map<String, Object> props, String key, int defaultValue) {
+        Object value = props.get(key);
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        } else if (value instanceof String && StringUtils.isNotBlank((String) value)) {
+            try {
+                return Integer.parseInt(((String) value).trim());
+            } catch (NumberFormatException e) {
+                LOGGER.warn("Invalid value [{}] for {}, using {} instead.",
+                        value,
+                        key,
+                        defaultValue);
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Wraps a connection factory in a bounded pool, so that claims retrieval reuses connections
+     * instead of opening a new one for each token issued.
+     *
+     * @param factory             factory the pooled connections are obtained from
+     * @param minSize             number of connections kept open even when idle
+     * @param maxSize             maximum number of connections open at the same time
+     * @param idleTimeout         seconds after which idle connections above the minimum are closed
+     * @param healthCheckInterval seconds between the heart beats sent on idle connections to
+     *                            detect the ones the server dropped; 0 disables them
+     */
+    protected ConnectionFactory createConnectionPool(ConnectionFactory factory, int minSize,
+            int maxSize, int idleTimeout, int healthCheckInterval) {
+        ConnectionFactory connectionFactory = factory;
+        if (healthCheckInterval > 0) {
+            connectionFactory = Connections.newHeartBeatConnectionFactory(factory,
+                    healthCheckInterval,
+                    healthCheckInterval,
+                    TimeUnit.SECONDS);
+        }
+        int maximumPoolSize = Math.max(1, maxSize);
+        return Connections.newCachedConnectionPool(connectionFactory,
+                Math.min(Math.max(0, minSize), maximumPoolSize),
+                maximumPoolSize,
+                Math.max(0, idleTimeout),
+                TimeUnit.SECONDS);
+    }
+
     protected LDAPConnectionFactory createLdapConnectionFactory(String url, Boolean startTls)
             throws LdapException {
         boolean useSsl = url.startsWith("ldaps");
@@ -241,17 +335,18 @@ protected LDAPConnectionFactory createLdapConnectionFactory(String url, Boolean
     /**
      * Registers a new Role-based ClaimsHandler.
      *
-     * @param connection         LdapTemplate used to query ldap for the roles.
-     * @param propertyFileLoc    File location of the property file.
-     * @param userBaseDn         Base DN to determine the roles.
-     * @param loginUserAttribute Identifier that defines the user.
-     * @param groupBaseDn        Base DN of the group.
+     * @param connection           LdapTemplate used to query ldap for the roles.
+     * @param propertyFileLoc      File location of the property file.
+     * @param userBaseDn           Base DN to determine the roles.
+     * @param loginUserAttribute   Identifier that defines the user.
+     * @param groupBaseDn          Base DN of the group.
+     * @param groupCacheExpiration Seconds the groups of a user are cached for.
      */
-    private void registerRoleClaimsHandler(LDAPConnectionFactory connection, String propertyFileLoc,
+    private void registerRoleClaimsHandler(ConnectionFactory connection, String propertyFileLoc,
             String userBaseDn, String loginUserAttribute, String membershipUserAttribute,
             String objectClass, String memberNameAttribute, String groupBaseDn, String userDn,
             String password, boolean overrideCertDn, String bindMethod, String realm,
-            String kdcAddress) {
+            String kdcAddress, int groupCacheExpiration) {
         RoleClaimsHandler roleHandler = new RoleClaimsHandler();
         roleHandler.setLdapConnectionFactory(connection);
         roleHandler.setPropertyFileLocation(propertyFileLoc);
@@ -267,6 +362,7 @@ private void registerRoleClaimsHandler(LDAPConnectionFactory connection, String
         roleHandler.setBindMethod(bindMethod);
         roleHandler.setKerberosRealm(realm);
         roleHandler.setKdcAddress(kdcAddress);
+        roleHandler.setGroupCacheExpiration(groupCacheExpiration);
         LOGGER.debug("Registering new role claims handler.");
         roleHandlerRegistration = registerClaimsHandler(roleHandler, roleHandlerRegistration);
     }
@@ -279,7 +375,7 @@ private void registerRoleClaimsHandler(LDAPConnectionFactory connection, String
      * @param userBaseDn      Base DN to determine the roles.
      * @param userNameAttr    Identifier that defines the user.
      */
-    private void registerLdapClaimsHandler(LDAPConnectionFactory connection, String propertyFileLoc,
+    private void registerLdapClaimsHandler(ConnectionFactory connection, String propertyFileLoc,
             String userBaseDn, String userNameAttr, String userDn, String password,
             boolean overrideCertDn, String bindMethod, String realm, String kdcAddress) {
         LdapClaimsHandler ldapHandler = new LdapClaimsHandler();
@@ -412,6 +508,31 @@ public void setOverrideCertDn(boolean overrideCertDn) {
         ldapProperties.put(OVERRIDE_CERT_DN, overrideCertDn);
     }
 
+    public void setConnectionPoolMinSize(int connectionPoolMinSize) {
+        LOGGER.trace("Setting connectionPoolMinSize: {}", connectionPoolMinSize);
+        ldapProperties.put(CONNECTION_POOL_MIN_SIZE, connectionPoolMinSize);
+    }
+
+    public void setConnectionPoolMaxSize(int connectionPoolMaxSize) {
+        LOGGER.trace("Setting connectionPoolMaxSize: {}", connectionPoolMaxSize);
+        ldapProperties.put(CONNECTION_POOL_MAX_SIZE, connectionPoolMaxSize);
+    }
+
+    public void setConnectionPoolIdleTimeout(int connectionPoolIdleTimeout) {
+        LOGGER.trace("Setting connectionPoolIdleTimeout: {}", connectionPoolIdleTimeout);
+        ldapProperties.put(CONNECTION_POOL_IDLE_TIMEOUT, connectionPoolIdleTimeout);
+    }
+
+    public void setHealthCheckInterval(int healthCheckInterval) {
+        LOGGER.trace("Setting healthCheckInterval: {}", healthCheckInterval);
+        ldapProperties.put(HEALTH_CHECK_INTERVAL, healthCheckInterval);
+    }
+
+    public void setGroupCacheExpiration(int groupCacheExpiration) {
+        LOGGER.trace("Setting groupCacheExpiration: {}", groupCacheExpiration);
+        ldapProperties.put(GROUP_CACHE_EXPIRATION, groupCacheExpiration);
+    }
+
     public void configure() {
         LOGGER.trace("configure method called - calling update");
         update(ldapProperties);
@@ -28,7 +28,7 @@
 import org.forgerock.opendj.ldap.Attribute;
 import org.forgerock.opendj.ldap.ByteString;
 import org.forgerock.opendj.ldap.Connection;
-import org.forgerock.opendj.ldap.LDAPConnectionFactory;
+import org.forgerock.opendj.ldap.ConnectionFactory;
 import org.forgerock.opendj.ldap.LdapException;
 import org.forgerock.opendj.ldap.SearchResultReferenceIOException;
 import org.forgerock.opendj.ldap.SearchScope;
@@ -46,7 +46,7 @@ public class LdapClaimsHandler extends org.apache.cxf.sts.claims.LdapClaimsHandl
 
     private String propertyFileLocation;
 
-    private LDAPConnectionFactory connectionFactory;
+    private ConnectionFactory connectionFactory;
 
     private String bindUserCredentials;
 
@@ -64,11 +64,11 @@ public LdapClaimsHandler() {
         super();
     }
 
-    public LDAPConnectionFactory getLdapConnectionFactory() {
+    public ConnectionFactory getLdapConnectionFactory() {
         return connectionFactory;
     }
 
-    public void setLdapConnectionFactory(LDAPConnectionFactory connection) {
+    public void setLdapConnectionFactory(ConnectionFactory connection) {
         this.connectionFactory = connection;
     }
 
@@ -17,8 +17,10 @@
 import java.net.URISyntaxException;
 import java.security.Principal;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.cxf.rt.security.claims.ClaimCollection;
 import org.apache.cxf.sts.claims.ClaimsHandler;
@@ -28,7 +30,7 @@
 import org.forgerock.opendj.ldap.Attribute;
 import org.forgerock.opendj.ldap.ByteString;
 import org.forgerock.opendj.ldap.Connection;
-import org.forgerock.opendj.ldap.LDAPConnectionFactory;
+import org.forgerock.opendj.ldap.ConnectionFactory;
 import org.forgerock.opendj.ldap.LdapException;
 import org.forgerock.opendj.ldap.SearchResultReferenceIOException;
 import org.forgerock.opendj.ldap.SearchScope;
@@ -41,15 +43,20 @@
 import org.springframework.ldap.filter.AndFilter;
 import org.springframework.ldap.filter.EqualsFilter;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 public class RoleClaimsHandler implements ClaimsHandler {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(RoleClaimsHandler.class);
 
+    private static final long MAXIMUM_GROUP_CACHE_SIZE = 10000;
+
     private boolean overrideCertDn = false;
 
     private Map<String, String> claimsLdapAttributeMapping;
 
-    private LDAPConnectionFactory connectionFactory;
+    private ConnectionFactory connectionFactory;
 
     private String delimiter = ";";
 
@@ -81,6 +88,12 @@ public class RoleClaimsHandler implements ClaimsHandler {
 
     private String kdcAddress;
 
+    /**
+     * Names of the groups of each user, keyed by the DN of the user. Each group contributes the
+     * values of its group name attribute. Null when the groups are not cached.
+     */
+    private volatile Cache<String, List<List<String>>> groupCache;
+
     public URI getRoleURI() {
         URI uri = null;
         try {
@@ -137,11 +150,11 @@ public void setGroupBaseDn(String groupBaseDn) {
         this.groupBaseDn = groupBaseDn;
     }
 
-    public LDAPConnectionFactory getLdapConnectionFactory() {
+    public ConnectionFactory getLdapConnectionFactory() {
         return connectionFactory;
     }
 
-    public void setLdapConnectionFactory(LDAPConnectionFactory connection) {
+    public void setLdapConnectionFactory(ConnectionFactory connection) {
         this.connectionFactory = connection;
     }
 
@@ -197,6 +210,23 @@ public void setKdcAddress(String kdcAddress) {
         this.kdcAddress = kdcAddress;
     }
 
+    /**
+     * Sets how long the groups of a user are cached, so that the roles of a user logging in
+     * repeatedly are not searched for in LDAP each time.
+     *
+     * @param groupCacheExpiration the expiration, in seconds; 0 or less disables the cache
+     */
+    public void setGroupCacheExpiration(long groupCacheExpiration) {
+        if (groupCacheExpiration > 0) {
+            groupCache = CacheBuilder.newBuilder()
+                    .maximumSize(MAXIMUM_GROUP_CACHE_SIZE)
+                    .expireAfterWrite(groupCacheExpiration, TimeUnit.SECONDS)
+                    .build();
+        } else {
+            groupCache = null;
+        }
+    }
+
     public Map<String, String> getClaimsLdapAttributeMapping() {
         return claimsLdapAttributeMapping;
     }
@@ -216,19 +246,56 @@ public List<URI> getSupportedClaimTypes() {
     @Override
     public ProcessedClaimCollection retrieveClaimValues(ClaimCollection claims,
             ClaimsParameters parameters) {
-        String[] attributes = {groupNameAttribute, memberNameAttribute};
         ProcessedClaimCollection claimsColl = new ProcessedClaimCollection();
-        Connection connection = null;
-        try {
-            Principal principal = parameters.getPrincipal();
+        Principal principal = parameters.getPrincipal();
+
+        String user = AttributeMapLoader.getUser(principal);
+        if (user == null) {
+            LOGGER.info(
+                    "Could not determine user name, possible authentication error. Returning no claims.");
+            return new ProcessedClaimCollection();
+        }
+
+        String baseDN = AttributeMapLoader.getBaseDN(principal, userBaseDn, overrideCertDn);
+        String userDn = getLoginUserAttribute() + "=" + user + "," + baseDN;
 
-            String user = AttributeMapLoader.getUser(principal);
-            if (user == null) {
-                LOGGER.info(
-                        "Could not determine user name, possible authentication error. Returning no claims.");
-                return new ProcessedClaimCollection();
+        Cache<String, List<List<String>>> cache = groupCache;
+        List<List<String>> groups = cache != null ? cache.getIfPresent(userDn) : null;
+        if (groups == null) {
+            groups = searchGroups(user, baseDN);
+            if (groups != null && cache != null) {
+                cache.put(userDn, groups);
             }
+        } else {
+            LOGGER.trace("Using the cached groups of {}", userDn);
+        }
+
+        if (groups != null) {
+            for (List<String> groupNames : groups) {
+                ProcessedClaim c = new ProcessedClaim();
+                c.setClaimType(getRoleURI());
+                c.setPrincipal(principal);
 
+                for (String itemValue : groupNames) {
+                    c.addValue(itemValue);
+                }
+                claimsColl.add(c);
+            }
+        }
+        return claimsColl;
+    }
+
+    /**
+     * Searches LDAP for the groups the user is a member of.
+     *
+     * @param user   name of the user
+     * @param baseDN base DN of the user
+     * @return the values of the group name attribute of each group, or null if the search failed
+     */
+    private List<List<String>> searchGroups(String user, String baseDN) {
+        String[] attributes = {groupNameAttribute, memberNameAttribute};
+        Connection connection = null;
+        try {
             connection = connectionFactory.getConnection();
             if (connection != null) {
 
@@ -237,7 +304,6 @@ public ProcessedClaimCollection retrieveClaimValues(ClaimCollection claims,
 
                 BindResult bindResult = connection.bind(request);
 
-                String baseDN = AttributeMapLoader.getBaseDN(principal, userBaseDn, overrideCertDn);
                 AndFilter filter = new AndFilter();
                 filter.and(new EqualsFilter(this.getLoginUserAttribute(), user));
                 ConnectionEntryReader entryReader = connection.search(baseDN,
@@ -257,13 +323,10 @@ public ProcessedClaimCollection retrieveClaimValues(ClaimCollection claims,
                 }
 
                 filter = new AndFilter();
-                String userBaseDN = AttributeMapLoader.getBaseDN(principal,
-                        getUserBaseDn(),
-                        overrideCertDn);
                 filter.and(new EqualsFilter("objectClass", getObjectClass()))
                         .and(new EqualsFilter(getMemberNameAttribute(),
                                 getMembershipUserAttribute() + "=" + membershipValue + ","
-                                        + userBaseDN));
+                                        + baseDN));
 
                 if (bindResult.isSuccess()) {
                     LOGGER.trace("Executing ldap search with base dn of {} and filter of {}",
@@ -275,6 +338,7 @@ public ProcessedClaimCollection retrieveClaimValues(ClaimCollection claims,
                             filter.toString(),
                             attributes);
 
+                    List<List<String>> groups = new ArrayList<>();
                     SearchResultEntry entry;
                     while (entryReader.hasNext()) {
                         entry = entryReader.readEntry();
@@ -283,17 +347,14 @@ public ProcessedClaimCollection retrieveClaimValues(ClaimCollection claims,
                         if (attr == null) {
                             LOGGER.trace("Claim '{}' is null", roleClaimType);
                         } else {
-                            ProcessedClaim c = new ProcessedClaim();
-                            c.setClaimType(getRoleURI());
-                            c.setPrincipal(principal);
-
+                            List<String> groupNames = new ArrayList<>();
                             for (ByteString value : attr) {
-                                String itemValue = value.toString();
-                                c.addValue(itemValue);
+                                groupNames.add(value.toString());
                             }
-                            claimsColl.add(c);
+                            groups.add(Collections.unmodifiableList(groupNames));
                         }
                     }
+                    return Collections.unmodifiableList(groups);
                 } else {
                     LOGGER.info("LDAP Connection failed.");
                 }
@@ -311,7 +372,7 @@ public ProcessedClaimCollection retrieveClaimValues(ClaimCollection claims,
                 connection.close();
             }
         }
-        return claimsColl;
+        return null;
     }
 
     public void disconnect() {
@@ -14,14 +14,36 @@
 package ddf.security.sts.claimsHandler;
 
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.security.Principal;
 
 import org.apache.cxf.rt.security.claims.ClaimCollection;
 import org.apache.cxf.sts.claims.ClaimsParameters;
 import org.apache.cxf.sts.claims.ProcessedClaimCollection;
+import org.forgerock.opendj.ldap.Connection;
+import org.forgerock.opendj.ldap.ConnectionFactory;
+import org.forgerock.opendj.ldap.LdapException;
+import org.forgerock.opendj.ldap.SearchScope;
+import org.forgerock.opendj.ldap.requests.BindRequest;
+import org.forgerock.opendj.ldap.responses.BindResult;
+import org.forgerock.opendj.ldif.ConnectionEntryReader;
 import org.hamcrest.CoreMatchers;
 import org.junit.Assert;
 import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Matchers;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
 
+@RunWith(PowerMockRunner.class)
+@PrepareForTest(ConnectionEntryReader.class)
 public class RoleClaimsHandlerTest {
     @Test
     public void testRetrieveClaimsValuesNullPrincipal() {
@@ -33,4 +55,75 @@ public void testRetrieveClaimsValuesNullPrincipal() {
 
         Assert.assertThat(processedClaims.size(), CoreMatchers.is(equalTo(0)));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGroupsAreCached() throws Exception {
+        ConnectionFactory connectionFactory = mockConnectionFactory();
+        RoleClaimsHandler claimsHandler = newClaimsHandler(connectionFactory);
+        claimsHandler.setGroupCacheExpiration(60);
+
+        claimsHandler.retrieveClaimValues(new ClaimCollection(), newClaimsParameters("admin"));
+        claimsHandler.retrieveClaimValues(new ClaimCollection(), newClaimsParameters("admin"));
+        verify(connectionFactory, times(1)).getConnection();
+
+        claimsHandler.retrieveClaimValues(new ClaimCollection(), newClaimsParameters("other"));
+        verify(connectionFactory, times(2)).getConnection();
+    }
+
+    @Test
+    public void testGroupsAreNotCachedWhenDisabled() throws Exception {
+        ConnectionFactory connectionFactory = mockConnectionFactory();
+        RoleClaimsHandler claimsHandler = newClaimsHandler(connectionFactory);
+        claimsHandler.setGroupCacheExpiration(0);
+
+        claimsHandler.retrieveClaimValues(new ClaimCollection(), newClaimsParameters("admin"));
+        claimsHandler.retrieveClaimValues(new ClaimCollection(), newClaimsParameters("admin"));
+        verify(connectionFactory, times(2)).getConnection();
+    }
+
+    @Test
+    public void testFailedSearchIsNotCached() throws Exception {
+        ConnectionFactory connectionFactory = mock(ConnectionFactory.class);
+        when(connectionFactory.getConnection()).thenThrow(mock(LdapException.class));
+        RoleClaimsHandler claimsHandler = newClaimsHandler(connectionFactory);
+        claimsHandler.setGroupCacheExpiration(60);
+
+        claimsHandler.retrieveClaimValues(new ClaimCollection(), newClaimsParameters("admin"));
+        claimsHandler.retrieveClaimValues(new ClaimCollection(), newClaimsParameters("admin"));
+        verify(connectionFactory, times(2)).getConnection();
+    }
+
+    private ConnectionFactory mockConnectionFactory() throws Exception {
+        BindResult bindResult = mock(BindResult.class);
+        when(bindResult.isSuccess()).thenReturn(true);
+        ConnectionEntryReader entryReader = PowerMockito.mock(ConnectionEntryReader.class);
+        when(entryReader.hasNext()).thenReturn(false);
+        Connection connection = mock(Connection.class);
+        when(connection.bind(any(BindRequest.class))).thenReturn(bindResult);
+        when(connection.search(anyString(),
+                any(SearchScope.class),
+                anyString(),
+                Matchers.<String>anyVararg())).thenReturn(entryReader);
+        ConnectionFactory connectionFactory = mock(ConnectionFactory.class);
+        when(connectionFactory.getConnection()).thenReturn(connection);
+        return connectionFactory;
+    }
+
+    private RoleClaimsHandler newClaimsHandler(ConnectionFactory connectionFactory) {
+        RoleClaimsHandler claimsHandler = new RoleClaimsHandler();
+        claimsHandler.setLdapConnectionFactory(connectionFactory);
+        claimsHandler.setBindMethod("Simple");
+        claimsHandler.setBindUserDN("cn=admin");
+        claimsHandler.setBindUserCredentials("secret");
+        claimsHandler.setUserBaseDn("ou=users,dc=example,dc=com");
+        claimsHandler.setGroupBaseDn("ou=groups,dc=example,dc=com");
+        return claimsHandler;
+    }
+
+    private ClaimsParameters newClaimsParameters(String user) {
+        Principal principal = () -> user;
+        ClaimsParameters claimsParameters = new ClaimsParameters();
+        claimsParameters.setPrincipal(principal);
+        return claimsParameters;
+    }
+}
@@ -21,7 +21,10 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.xml.stream.XMLStreamException;
 
@@ -74,6 +77,8 @@ public abstract class AbstractStsRealm extends AuthenticatingRealm
             .trimResults()
             .omitEmptyStrings();
 
+    private static final int MAX_IDLE_STS_CLIENTS = 16;
+
     protected Bus bus;
 
     PropertyResolver address = null;
@@ -110,17 +115,46 @@ public abstract class AbstractStsRealm extends AuthenticatingRealm
 
     private Boolean useKey = null;
 
+    private Integer tokenCacheExpiration = 0;
+
+    /**
+     * Configured STS clients that are not in use. They are discarded whenever the configuration
+     * of the realm changes.
+     */
+    private final Queue<PooledStsClient> idleStsClients = new ConcurrentLinkedQueue<>();
+
+    private final AtomicLong configurationVersion = new AtomicLong();
+
+    private final StsTokenCache tokenCache;
+
     public AbstractStsRealm() {
         this.bus = getBus();
+        this.tokenCache = new StsTokenCache(getClass().getSimpleName());
         setCredentialsMatcher(new STSCredentialsMatcher());
     }
 
+    @Override
+    protected void onInit() {
+        super.onInit();
+        tokenCache.init();
+    }
+
+    public void destroy() {
+        tokenCache.destroy();
+        idleStsClients.clear();
+    }
+
+    StsTokenCache getTokenCache() {
+        return tokenCache;
+    }
+
     public ContextPolicyManager getContextPolicyManager() {
         return contextPolicyManager;
     }
 
     public void setContextPolicyManager(ContextPolicyManager contextPolicyManager) {
         this.contextPolicyManager = contextPolicyManager;
+        configurationChanged();
     }
 
     /**
@@ -210,17 +244,30 @@ protected SecurityToken requestSecurityToken(Object authToken) {
             LOGGER.debug("Requesting security token from STS at: {}.", stsAddress);
 
             if (authToken != null) {
+                String fingerprint = tokenCache.getFingerprint(authToken);
+                token = tokenCache.get(fingerprint);
+                if (token != null) {
+                    LOGGER.debug("Using the security token cached for the auth token.");
+                    return token;
+                }
+
                 LOGGER.debug(
                         "Telling the STS to request a security token on behalf of the auth token");
-                STSClient stsClient = configureStsClient();
+                PooledStsClient pooledStsClient = borrowStsClient(stsAddress);
+                STSClient stsClient = pooledStsClient.stsClient;
 
                 stsClient.setWsdlLocation(stsAddress);
                 stsClient.setOnBehalfOf(authToken);
                 stsClient.setTokenType(getAssertionType());
                 stsClient.setKeyType(getKeyType());
                 stsClient.setKeySize(Integer.parseInt(getKeySize()));
+                long start = System.nanoTime();
                 token = stsClient.requestSecurityToken(stsAddress);
+                tokenCache.stsRequested(System.nanoTime() - start);
                 LOGGER.debug("Finished requesting security token.");
+
+                releaseStsClient(pooledStsClient);
+                tokenCache.put(fingerprint, token);
             }
         } catch (Exception e) {
             String msg = "Error requesting the security token from STS at: " + stsAddress + ".";
@@ -246,15 +293,20 @@ protected SecurityToken renewSecurityToken(SecurityToken securityToken) {
 
             if (securityToken != null) {
                 LOGGER.debug("Telling the STS to renew a security token on behalf of the auth token");
-                STSClient stsClient = configureStsClient();
+                PooledStsClient pooledStsClient = borrowStsClient(stsAddress);
+                STSClient stsClient = pooledStsClient.stsClient;
 
                 stsClient.setWsdlLocation(stsAddress);
                 stsClient.setTokenType(getAssertionType());
                 stsClient.setKeyType(getKeyType());
                 stsClient.setKeySize(Integer.parseInt(getKeySize()));
                 stsClient.setAllowRenewing(true);
+                long start = System.nanoTime();
                 token = stsClient.renewSecurityToken(securityToken);
+                tokenCache.stsRequested(System.nanoTime() - start);
                 LOGGER.debug("Finished renewing security token.");
+
+                releaseStsClient(pooledStsClient);
             }
         } catch (Exception e) {
             String msg = "Error renewing the security token from STS at: " + stsAddress + ".";
@@ -265,6 +317,58 @@ protected SecurityToken renewSecurityToken(SecurityToken securityToken) {
         return token;
     }
 
+    /**
+     * Takes an idle STS client configured with the current configuration of the realm, or
+     * configures a new one if there is none. The client is kept for the caller's exclusive use
+     * until it is given back with {@link #releaseStsClient(PooledStsClient)}.
+     *
+     * @param stsAddress the address of the STS the client will send its requests to
+     */
+    private PooledStsClient borrowStsClient(String stsAddress) {
+        List<String> claimNames = getClaimNames();
+        long version = configurationVersion.get();
+
+        PooledStsClient pooledStsClient;
+        while ((pooledStsClient = idleStsClients.poll()) != null) {
+            if (pooledStsClient.configurationVersion == version && stsAddress.equals(
+                    pooledStsClient.stsAddress)) {
+                if (!claimNames.equals(pooledStsClient.claimNames)) {
+                    // The context policies changed the attributes to request
+                    pooledStsClient.stsClient.setClaims(createClaimsElement(claimNames));
+                    pooledStsClient.claimNames = claimNames;
+                }
+                LOGGER.debug("Reusing an idle STS client.");
+                return pooledStsClient;
+            }
+        }
+
+        return new PooledStsClient(configureStsClient(), version, stsAddress, claimNames);
+    }
+
+    /**
+     * Gives back an STS client after a successful request so that it can be reused. Clients that
+     * failed are not given back since their connection may be in an unknown state.
+     */
+    private void releaseStsClient(PooledStsClient pooledStsClient) {
+        pooledStsClient.stsClient.setOnBehalfOf(null);
+        if (pooledStsClient.configurationVersion == configurationVersion.get()
+                && idleStsClients.size() < MAX_IDLE_STS_CLIENTS) {
+            idleStsClients.offer(pooledStsClient);
+        }
+    }
+
+    /**
+     * Discards the idle STS clients and the cached security tokens, which were obtained with the
+     * previous configuration.
+     */
+    private void configurationChanged() {
+        configurationVersion.incrementAndGet();
+        idleStsClients.clear();
+        if (tokenCache != null) {
+            tokenCache.invalidateAll();
+        }
+    }
+
     /**
      * Logs the current STS client configuration.
      *
@@ -411,7 +515,14 @@ private void setClaimsOnStsClient(STSClient stsClient, Element claimsElement) {
      * admin console.
      */
     protected Element createClaimsElement() {
-        Element claimsElement = null;
+        return createClaimsElement(getClaimNames());
+    }
+
+    /**
+     * Get the claims provided in the STS client configuration and the attributes allowed by the
+     * context policies.
+     */
+    private List<String> getClaimNames() {
         List<String> claims = new ArrayList<>();
         claims.addAll(getClaims());
 
@@ -430,6 +541,12 @@ protected Element createClaimsElement() {
             }
         }
 
+        return claims;
+    }
+
+    private Element createClaimsElement(List<String> claims) {
+        Element claimsElement = null;
+
         if (claims.size() != 0) {
             W3CDOMStreamWriter writer = null;
 
@@ -514,6 +631,7 @@ public String getAddress() {
     @Override
     public void setAddress(String address) {
         this.address = new PropertyResolver(address);
+        configurationChanged();
     }
 
     @Override
@@ -524,6 +642,7 @@ public String getEndpointName() {
     @Override
     public void setEndpointName(String endpointName) {
         this.endpointName = endpointName;
+        configurationChanged();
     }
 
     @Override
@@ -534,6 +653,7 @@ public String getServiceName() {
     @Override
     public void setServiceName(String serviceName) {
         this.serviceName = serviceName;
+        configurationChanged();
     }
 
     @Override
@@ -574,7 +694,7 @@ public String getSignatureProperties() {
     @Override
     public void setSignatureProperties(String signatureProperties) {
         this.signatureProperties = signatureProperties;
-
+        configurationChanged();
     }
 
     @Override
@@ -596,7 +716,7 @@ public String getEncryptionProperties() {
     @Override
     public void setEncryptionProperties(String encryptionProperties) {
         this.encryptionProperties = encryptionProperties;
-
+        configurationChanged();
     }
 
     @Override
@@ -617,6 +737,7 @@ public String getTokenProperties() {
     @Override
     public void setTokenProperties(String tokenProperties) {
         this.tokenProperties = tokenProperties;
+        configurationChanged();
     }
 
     @Override
@@ -627,6 +748,7 @@ public List<String> getClaims() {
     @Override
     public void setClaims(List<String> claims) {
         this.claims = Collections.unmodifiableList(claims);
+        configurationChanged();
     }
 
     @Override
@@ -673,6 +795,42 @@ public Boolean getUseKey() {
     @Override
     public void setUseKey(Boolean useKey) {
         this.useKey = useKey;
+        configurationChanged();
+    }
+
+    public Integer getTokenCacheExpiration() {
+        return tokenCacheExpiration;
+    }
+
+    /**
+     * Sets how long, in seconds, the security tokens issued by the STS are reused for logins with
+     * the same credentials. 0 disables the cache.
+     */
+    public void setTokenCacheExpiration(Integer tokenCacheExpiration) {
+        this.tokenCacheExpiration = tokenCacheExpiration;
+        tokenCache.setExpiration(tokenCacheExpiration == null ? 0 : tokenCacheExpiration);
+    }
+
+    /**
+     * An STS client along with the configuration it was created with.
+     */
+    private static class PooledStsClient {
+
+        private final STSClient stsClient;
+
+        private final long configurationVersion;
+
+        private final String stsAddress;
+
+        private List<String> claimNames;
+
+        PooledStsClient(STSClient stsClient, long configurationVersion, String stsAddress,
+                List<String> claimNames) {
+            this.stsClient = stsClient;
+            this.configurationVersion = configurationVersion;
+            this.stsAddress = stsAddress;
+            this.claimNames = claimNames;
+        }
     }
 
     /**
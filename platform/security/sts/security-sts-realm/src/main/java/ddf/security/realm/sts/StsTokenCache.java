@@ -0,0 +1,229 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p/>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.security.realm.sts;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.MBeanRegistrationException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.NotCompliantMBeanException;
+import javax.management.ObjectName;
+
+import org.apache.cxf.ws.security.tokenstore.SecurityToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+
+/**
+ * Short-lived cache of the security tokens issued by the STS, keyed by a fingerprint of the
+ * credentials they were issued for, along with the metrics of the requests made to the STS.
+ * <p>
+ * Caching is disabled until a positive expiration is set. Tokens are only handed out again until
+ * they expire, and for at most the configured expiration so that changes to the attributes of a
+ * user are eventually picked up.
+ */
+public class StsTokenCache implements StsTokenCacheMBean {
+
+    static final long MAXIMUM_SIZE = 10000;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StsTokenCache.class);
+
+    private static final double NANOS_PER_MILLI = 1000000.0;
+
+    private final String realmName;
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    private final AtomicLong stsRequestCount = new AtomicLong();
+
+    private final AtomicLong stsRequestNanos = new AtomicLong();
+
+    private volatile Cache<String, SecurityToken> tokens;
+
+    private MBeanServer mBeanServer;
+
+    private ObjectName objectName;
+
+    public StsTokenCache(String realmName) {
+        this.realmName = realmName;
+    }
+
+    public void init() {
+        try {
+            mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            objectName = new ObjectName(
+                    StsTokenCache.class.getName() + ":service=cache,realm=" + realmName);
+            try {
+                mBeanServer.registerMBean(this, objectName);
+                LOGGER.debug("Registered STS token cache MBean under object name: {}",
+                        objectName);
+            } catch (InstanceAlreadyExistsException e) {
+                // Try to remove and re-register
+                mBeanServer.unregisterMBean(objectName);
+                mBeanServer.registerMBean(this, objectName);
+                LOGGER.debug("Re-registered STS token cache MBean");
+            }
+        } catch (MalformedObjectNameException | MBeanRegistrationException | InstanceNotFoundException | InstanceAlreadyExistsException | NotCompliantMBeanException e) {
+            LOGGER.info("Could not register MBean [{}].", objectName, e);
+        }
+    }
+
+    public void destroy() {
+        try {
+            if (objectName != null && mBeanServer != null) {
+                mBeanServer.unregisterMBean(objectName);
+                LOGGER.debug("Unregistered STS token cache MBean");
+            }
+        } catch (InstanceNotFoundException | MBeanRegistrationException e) {
+            LOGGER.info("Exception unregistering MBean [{}].", objectName, e);
+        }
+        invalidateAll();
+    }
+
+    /**
+     * Sets how long issued security tokens are cached, discarding the cached ones.
+     *
+     * @param expiration the expiration, in seconds; 0 or less disables caching
+     */
+    public void setExpiration(long expiration) {
+        if (expiration > 0) {
+            tokens = CacheBuilder.newBuilder()
+                    .maximumSize(MAXIMUM_SIZE)
+                    .expireAfterWrite(expiration, TimeUnit.SECONDS)
+                    .build();
+        } else {
+            tokens = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return tokens != null;
+    }
+
+    /**
+     * Computes the fingerprint of the credentials a security token is requested for.
+     *
+     * @param credentials the credentials sent to the STS
+     * @return the fingerprint, or {@code null} if caching is disabled or the credentials cannot be
+     * fingerprinted
+     */
+    public String getFingerprint(Object credentials) {
+        if (!isEnabled() || !(credentials instanceof String)) {
+            return null;
+        }
+        return Hashing.sha256()
+                .hashString((String) credentials, StandardCharsets.UTF_8)
+                .toString();
+    }
+
+    /**
+     * @param fingerprint the fingerprint of the credentials, as returned by
+     *                    {@link #getFingerprint}
+     * @return the security token cached for the credentials, or {@code null} if there is none or
+     * it has expired
+     */
+    public SecurityToken get(String fingerprint) {
+        Cache<String, SecurityToken> cache = tokens;
+        if (cache == null || fingerprint == null) {
+            return null;
+        }
+
+        SecurityToken token = cache.getIfPresent(fingerprint);
+        if (token != null) {
+            if (!token.isExpired()) {
+                hitCount.incrementAndGet();
+                return token;
+            }
+            cache.invalidate(fingerprint);
+        }
+        missCount.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Caches a security token issued for credentials.
+     *
+     * @param fingerprint the fingerprint of the credentials, as returned by
+     *                    {@link #getFingerprint}
+     * @param token       the security token issued by the STS
+     */
+    public void put(String fingerprint, SecurityToken token) {
+        Cache<String, SecurityToken> cache = tokens;
+        if (cache != null && fingerprint != null && token != null && !token.isExpired()) {
+            cache.put(fingerprint, token);
+        }
+    }
+
+    public void invalidateAll() {
+        Cache<String, SecurityToken> cache = tokens;
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    /**
+     * Records a request made to the STS.
+     *
+     * @param nanos the time, in nanoseconds, the request took
+     */
+    public void stsRequested(long nanos) {
+        stsRequestCount.incrementAndGet();
+        stsRequestNanos.addAndGet(nanos);
+    }
+
+    @Override
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    @Override
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    @Override
+    public double getHitRate() {
+        long hits = hitCount.get();
+        long requests = hits + missCount.get();
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+
+    @Override
+    public long getStsRequestCount() {
+        return stsRequestCount.get();
+    }
+
+    @Override
+    public double getAverageStsLatency() {
+        long count = stsRequestCount.get();
+        return count == 0 ? 0 : stsRequestNanos.get() / NANOS_PER_MILLI / count;
+    }
+
+    @Override
+    public long getSize() {
+        Cache<String, SecurityToken> cache = tokens;
+        return cache == null ? 0 : cache.size();
+    }
+}
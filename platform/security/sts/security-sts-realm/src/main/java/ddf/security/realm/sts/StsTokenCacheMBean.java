@@ -0,0 +1,50 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p/>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.security.realm.sts;
+
+/**
+ * Metrics of the security tokens requested by an STS realm.
+ */
+public interface StsTokenCacheMBean {
+
+    /**
+     * @return the number of logins that were given a cached security token
+     */
+    long getHitCount();
+
+    /**
+     * @return the number of logins that had to request a security token from the STS
+     */
+    long getMissCount();
+
+    /**
+     * @return the ratio of logins that were given a cached security token, between 0 and 1
+     */
+    double getHitRate();
+
+    /**
+     * @return the number of requests sent to the STS, including renewals
+     */
+    long getStsRequestCount();
+
+    /**
+     * @return the average time, in milliseconds, the STS took to issue or renew a security token
+     */
+    double getAverageStsLatency();
+
+    /**
+     * @return the number of security tokens currently cached
+     */
+    long getSize();
+}
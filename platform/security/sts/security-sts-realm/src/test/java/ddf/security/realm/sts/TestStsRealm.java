@@ -15,12 +15,20 @@
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Arrays;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -221,6 +229,82 @@ public void testAddClaimsAsString() {
                         .size());
     }
 
+    @Test
+    public void testStsClientIsReused() throws Exception {
+        STSClient stsClient = mock(STSClient.class);
+        when(stsClient.requestSecurityToken(anyString())).thenAnswer(invocation -> newToken(60));
+        when(stsClient.renewSecurityToken(any(SecurityToken.class))).thenReturn(newToken(60));
+        AtomicInteger configureCount = new AtomicInteger();
+        StsRealm realm = newRealm(stsClient, configureCount);
+
+        realm.requestSecurityToken("creds");
+        realm.requestSecurityToken("other creds");
+        realm.renewSecurityToken(newToken(60));
+        assertEquals(1, configureCount.get());
+
+        realm.setClaims("claim1,claim2");
+        realm.requestSecurityToken("creds");
+        assertEquals(2, configureCount.get());
+        assertEquals(4,
+                realm.getTokenCache()
+                        .getStsRequestCount());
+    }
+
+    @Test
+    public void testTokenCache() throws Exception {
+        STSClient stsClient = mock(STSClient.class);
+        when(stsClient.requestSecurityToken(anyString())).thenAnswer(invocation -> newToken(60));
+        StsRealm realm = newRealm(stsClient, new AtomicInteger());
+
+        SecurityToken uncached = realm.requestSecurityToken("creds");
+        assertNotSame(uncached, realm.requestSecurityToken("creds"));
+
+        realm.setTokenCacheExpiration(60);
+        SecurityToken token = realm.requestSecurityToken("creds");
+        assertSame(token, realm.requestSecurityToken("creds"));
+        assertNotSame(token, realm.requestSecurityToken("other creds"));
+        verify(stsClient, times(4)).requestSecurityToken(anyString());
+        assertEquals(1,
+                realm.getTokenCache()
+                        .getHitCount());
+
+        realm.setClaims("claim1,claim2");
+        assertNotSame(token, realm.requestSecurityToken("creds"));
+    }
+
+    @Test
+    public void testExpiredTokenIsNotCached() throws Exception {
+        STSClient stsClient = mock(STSClient.class);
+        when(stsClient.requestSecurityToken(anyString())).thenAnswer(invocation -> newToken(-60));
+        StsRealm realm = newRealm(stsClient, new AtomicInteger());
+        realm.setTokenCacheExpiration(60);
+
+        SecurityToken token = realm.requestSecurityToken("creds");
+        assertNotSame(token, realm.requestSecurityToken("creds"));
+        assertEquals(0,
+                realm.getTokenCache()
+                        .getSize());
+    }
+
+    private StsRealm newRealm(STSClient stsClient, AtomicInteger configureCount) {
+        StsRealm realm = new StsRealm() {
+            protected STSClient configureStsClient() {
+                configureCount.incrementAndGet();
+                return stsClient;
+            }
+        };
+        realm.setAddress("https://localhost:8993/services/SecurityTokenService?wsdl");
+        realm.setKeySize("256");
+        return realm;
+    }
+
+    private SecurityToken newToken(int secondsToExpiry) {
+        Date now = new Date();
+        return new SecurityToken("id",
+                now,
+                new Date(now.getTime() + secondsToExpiry * 1000L));
+    }
+
     protected Document readDocument(String name)
             throws SAXException, IOException, ParserConfigurationException {
         InputStream inStream = getClass().getResourceAsStream(name);
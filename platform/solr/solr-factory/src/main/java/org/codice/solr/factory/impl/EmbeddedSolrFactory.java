@@ -57,6 +57,8 @@ public class EmbeddedSolrFactory implements SolrClientFactory {
 
     public static final String IMMEMORY_SOLRCONFIG_XML = "solrconfig-inmemory.xml";
 
+    private static final String IN_MEMORY_DATA_DIR = "inmemory-data";
+
     @Override
     public Future<SolrClient> newClient(String core) {
         ConfigurationStore configStore = ConfigurationStore.getInstance();
@@ -182,6 +184,19 @@ public static EmbeddedSolrServer getEmbeddedSolrServer(String coreName,
                 if (!"solr.RAMDirectoryFactory".equals(info.className)) {
                     LOGGER.debug("Using in-memory configuration without RAMDirectoryFactory.");
                 }
+                // The index stays in memory but the update log still writes its transaction
+                // logs under the data directory. Start from an empty one so that logs left by
+                // a previous run are not replayed into the new index.
+                File dataDir = configProxy.getDataDirectory();
+                if (dataDir != null) {
+                    File inMemoryDataDir = Paths.get(dataDir.getAbsolutePath(),
+                            coreName,
+                            IN_MEMORY_DATA_DIR)
+                            .toFile();
+                    FileUtils.deleteDirectory(inMemoryDataDir);
+                    dataDirPath = inMemoryDataDir.getAbsolutePath();
+                    LOGGER.debug("Using transaction log data directory [{}]", dataDirPath);
+                }
             }
             CoreDescriptor coreDescriptor = new CoreDescriptor(container,
                     coreName,
@@ -19,6 +19,8 @@
 import org.apache.lucene.util.BytesRef;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.search.DelegatingCollector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import lux.Config;
 import lux.index.field.TinyBinaryField;
@@ -38,6 +40,8 @@
  */
 public class XpathFilterCollector extends DelegatingCollector {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(XpathFilterCollector.class);
+
     public static final String LUX_XML_FIELD_NAME = "lux_xml";
 
     private final String xpath;
@@ -46,6 +50,10 @@ public class XpathFilterCollector extends DelegatingCollector {
 
     private final Configuration config;
 
+    private long candidates;
+
+    private long matches;
+
     public XpathFilterCollector(String query) {
         xpath = query;
 
@@ -65,6 +73,7 @@ public XpathFilterCollector(String query) {
 
     @Override
     public void collect(int docId) throws IOException {
+        candidates++;
         Document doc = this.context.reader()
                 .document(docId);
 
@@ -83,6 +92,7 @@ public void collect(int docId) throws IOException {
                     XdmItem result = selector.evaluateSingle();
                     if (result != null && result.size() > 0 && !(result.isAtomicValue()
                             && !((XdmAtomicValue) result).getBooleanValue())) {
+                        matches++;
                         super.collect(docId);
                     }
                 } catch (SaxonApiException e) {
@@ -94,4 +104,16 @@ public void collect(int docId) throws IOException {
         }
     }
 
+    @Override
+    public void finish() throws IOException {
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("XPath {} matched {} of {} candidate documents (selectivity {})",
+                    xpath,
+                    matches,
+                    candidates,
+                    candidates == 0 ? 0 : (double) matches / candidates);
+        }
+        super.finish();
+    }
+
 }
@@ -0,0 +1,233 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.solr.xpath;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+
+import net.sf.saxon.s9api.Axis;
+import net.sf.saxon.s9api.XdmItem;
+import net.sf.saxon.s9api.XdmNode;
+import net.sf.saxon.s9api.XdmNodeKind;
+import net.sf.saxon.s9api.XdmSequenceIterator;
+
+/**
+ * Index of the element and attribute paths in a document's XML, used to narrow down the documents
+ * an XPath has to be evaluated against.
+ * <p>
+ * Each document is indexed with the following tokens, using local names only:
+ * <ul>
+ * <li>{@code /} on every document, to tell documents with a path index from older ones</li>
+ * <li>{@code /a} for the root element {@code a}</li>
+ * <li>{@code a} and {@code @b} for every element {@code a} and attribute {@code b}</li>
+ * <li>{@code a/c} and {@code a/@b} for every child element {@code c} and attribute {@code b} of
+ * an element {@code a}</li>
+ * </ul>
+ * An XPath that is a simple location path is rewritten into a conjunction of the tokens that any
+ * matching document must have. Predicates are ignored, so the pre-filter can match documents the
+ * XPath doesn't, but never the other way around.
+ */
+public final class XpathPathIndex {
+
+    public static final String PATH_FIELD_NAME = "lux_path";
+
+    static final String INDEXED_TOKEN = "/";
+
+    private static final char SEPARATOR = '/';
+
+    private static final String ATTRIBUTE_PREFIX = "@";
+
+    private static final Pattern NAME_STEP =
+            Pattern.compile("(@)?(?:\\w[\\w.\\-]*:)?(\\w[\\w.\\-]*|\\*)");
+
+    private static final Pattern NODE_TEST_STEP =
+            Pattern.compile("\\.|text\\(\\)|node\\(\\)|comment\\(\\)|processing-instruction\\(\\)");
+
+    private XpathPathIndex() {
+    }
+
+    /**
+     * Returns the path tokens to index for a parsed XML document.
+     *
+     * @param document the document node
+     * @return the distinct path tokens of the document
+     */
+    public static Set<String> getPathTokens(XdmNode document) {
+        Set<String> tokens = new LinkedHashSet<>();
+        tokens.add(INDEXED_TOKEN);
+
+        XdmSequenceIterator descendants = document.axisIterator(Axis.DESCENDANT);
+        while (descendants.hasNext()) {
+            XdmNode element = (XdmNode) descendants.next();
+            if (element.getNodeKind() != XdmNodeKind.ELEMENT) {
+                continue;
+            }
+
+            String name = element.getNodeName()
+                    .getLocalName();
+            tokens.add(name);
+
+            XdmNode parent = element.getParent();
+            if (parent == null || parent.getNodeKind() == XdmNodeKind.DOCUMENT) {
+                tokens.add(SEPARATOR + name);
+            } else if (parent.getNodeKind() == XdmNodeKind.ELEMENT) {
+                tokens.add(parent.getNodeName()
+                        .getLocalName() + SEPARATOR + name);
+            }
+
+            XdmSequenceIterator attributes = element.axisIterator(Axis.ATTRIBUTE);
+            while (attributes.hasNext()) {
+                XdmItem attribute = attributes.next();
+                String attributeName = ATTRIBUTE_PREFIX + ((XdmNode) attribute).getNodeName()
+                        .getLocalName();
+                tokens.add(attributeName);
+                tokens.add(name + SEPARATOR + attributeName);
+            }
+        }
+
+        return tokens;
+    }
+
+    /**
+     * Returns the path tokens that every document matching the XPath must have.
+     *
+     * @param xpath an XPath evaluated against the document node
+     * @return the path tokens, or null if the XPath is not a simple location path
+     */
+    public static Set<String> getRequiredTokens(String xpath) {
+        String path = removePredicates(xpath);
+        if (path == null || path.isEmpty() || path.charAt(0) != SEPARATOR) {
+            return null;
+        }
+
+        Set<String> tokens = new LinkedHashSet<>();
+        String parent = null;
+        boolean first = true;
+        int position = 0;
+
+        while (position < path.length()) {
+            boolean descendant = path.startsWith("//", position);
+            position += descendant ? 2 : 1;
+
+            int end = path.indexOf(SEPARATOR, position);
+            if (end < 0) {
+                end = path.length();
+            }
+            String step = path.substring(position, end);
+            position = end;
+
+            Matcher name = NAME_STEP.matcher(step);
+            if (name.matches()) {
+                boolean attribute = name.group(1) != null;
+                String localName = name.group(2);
+                if ("*".equals(localName)) {
+                    parent = null;
+                } else {
+                    String token = attribute ? ATTRIBUTE_PREFIX + localName : localName;
+                    tokens.add(token);
+                    if (!descendant && parent != null) {
+                        tokens.add(parent + SEPARATOR + token);
+                    } else if (!descendant && first && !attribute) {
+                        tokens.add(SEPARATOR + token);
+                    }
+                    parent = attribute ? null : localName;
+                }
+            } else if (NODE_TEST_STEP.matcher(step)
+                    .matches()) {
+                parent = null;
+            } else {
+                // Axes, parent steps, unions, and functions aren't supported
+                return null;
+            }
+            first = false;
+        }
+
+        return tokens;
+    }
+
+    /**
+     * Creates a query that pre-filters the documents an XPath has to be evaluated against.
+     * Documents indexed without path tokens always match.
+     *
+     * @param xpath an XPath evaluated against the document node
+     * @return the pre-filter query, or null if the XPath can't be pre-filtered
+     */
+    public static Query createPreFilter(String xpath) {
+        Set<String> tokens = getRequiredTokens(xpath);
+        if (tokens == null || tokens.isEmpty()) {
+            return null;
+        }
+
+        BooleanQuery.Builder required = new BooleanQuery.Builder();
+        for (String token : tokens) {
+            required.add(new TermQuery(new Term(PATH_FIELD_NAME, token)),
+                    BooleanClause.Occur.MUST);
+        }
+
+        BooleanQuery notIndexed = new BooleanQuery.Builder().add(new MatchAllDocsQuery(),
+                BooleanClause.Occur.MUST)
+                .add(new TermQuery(new Term(PATH_FIELD_NAME, INDEXED_TOKEN)),
+                        BooleanClause.Occur.MUST_NOT)
+                .build();
+
+        return new BooleanQuery.Builder().add(required.build(), BooleanClause.Occur.SHOULD)
+                .add(notIndexed, BooleanClause.Occur.SHOULD)
+                .build();
+    }
+
+    /**
+     * Removes the predicates from an XPath.
+     *
+     * @return the XPath without predicates, or null if its brackets or quotes are unbalanced
+     */
+    private static String removePredicates(String xpath) {
+        if (xpath == null) {
+            return null;
+        }
+
+        StringBuilder path = new StringBuilder(xpath.length());
+        int depth = 0;
+        char quote = 0;
+
+        for (char c : xpath.trim()
+                .toCharArray()) {
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (depth > 0 && (c == '\'' || c == '"')) {
+                quote = c;
+            } else if (c == '[') {
+                depth++;
+            } else if (c == ']') {
+                if (--depth < 0) {
+                    return null;
+                }
+            } else if (depth == 0) {
+                path.append(c);
+            }
+        }
+
+        return depth == 0 && quote == 0 ? path.toString() : null;
+    }
+}
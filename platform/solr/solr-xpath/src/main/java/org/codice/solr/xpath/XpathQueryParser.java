@@ -14,15 +14,20 @@
 package org.codice.solr.xpath;
 
 import org.apache.commons.lang.StringUtils;
+import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.Query;
 import org.apache.solr.search.SolrQueryParser;
 import org.apache.solr.search.SyntaxError;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * XPath query parser that will create Lucene and Post Filter queries to support XPath.
  */
 public class XpathQueryParser extends SolrQueryParser {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(XpathQueryParser.class);
+
     private final XpathQParser parser;
 
     public XpathQueryParser(XpathQParser parser, String defaultField) {
@@ -65,7 +70,14 @@ private Query getLuceneQuery(final String queryText) {
             xpath = "/" + xpath;
         }
 
-        return null; // TODO DDF-1882 add lucene xpath pre-filtering
+        Query query = XpathPathIndex.createPreFilter(xpath);
+        if (query == null) {
+            LOGGER.debug("Unable to pre-filter xpath {}, evaluating against all documents", xpath);
+            return new MatchAllDocsQuery();
+        }
+
+        LOGGER.debug("Pre-filtering xpath {} with {}", xpath, query);
+        return query;
     }
 
 }